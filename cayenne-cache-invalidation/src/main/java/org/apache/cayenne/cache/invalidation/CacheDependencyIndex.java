@@ -0,0 +1,161 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.cache.invalidation;
+
+import org.apache.cayenne.cache.MapQueryCache;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of entities that cached query results depend on, so that a change to an
+ * entity would only invalidate cache entries that may be affected by it, instead of whole
+ * cache groups. Populated by {@link DependencyTrackingQueryCache}.
+ * <p>
+ * The index is a bounded LRU map, as the QueryCache doesn't notify about its own
+ * evictions and expirations. When a key is evicted from the index, the eviction listener
+ * is notified, so that the matching cache entry could be removed as well. Otherwise it
+ * would stay in the cache without being invalidated on commit. The index size defaults
+ * to the value of {@link Constants#QUERY_CACHE_SIZE_PROPERTY}.
+ *
+ * @see CacheInvalidationModuleExtender#trackQueryDependencies()
+ * @since 4.1
+ */
+public class CacheDependencyIndex {
+
+    private final ConcurrentMap<String, Set<String>> keysByEntity;
+    private final ConcurrentMap<String, Collection<String>> entitiesByKey;
+    private volatile Consumer<String> evictionListener;
+
+    public CacheDependencyIndex() {
+        this(MapQueryCache.DEFAULT_CACHE_SIZE);
+    }
+
+    public CacheDependencyIndex(@Inject RuntimeProperties properties) {
+        this(properties.getInt(Constants.QUERY_CACHE_SIZE_PROPERTY, MapQueryCache.DEFAULT_CACHE_SIZE));
+    }
+
+    public CacheDependencyIndex(int maxSize) {
+        this.keysByEntity = new ConcurrentHashMap<>();
+        this.entitiesByKey = new ConcurrentLinkedHashMap.Builder<String, Collection<String>>()
+                .maximumWeightedCapacity(maxSize)
+                .listener(this::onEviction)
+                .build();
+        this.evictionListener = k -> {};
+    }
+
+    /**
+     * Sets a listener notified about cache keys evicted from the index due to its size
+     * limit.
+     */
+    public void setEvictionListener(Consumer<String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Records that a cache entry with the given key depends on the given entities.
+     */
+    public void register(String cacheKey, Collection<String> entityNames) {
+        entitiesByKey.put(cacheKey, entityNames);
+        for (String entityName : entityNames) {
+            keysByEntity.computeIfAbsent(entityName, n -> ConcurrentHashMap.newKeySet()).add(cacheKey);
+        }
+    }
+
+    /**
+     * Marks the entry as recently used, so that it is evicted from the index after the
+     * entries that were not used for a longer time.
+     */
+    public void touch(String cacheKey) {
+        entitiesByKey.get(cacheKey);
+    }
+
+    /**
+     * Returns cache keys of all entries depending on any of the given entities, removing
+     * them from the index.
+     */
+    public Collection<String> invalidate(Collection<String> entityNames) {
+
+        if (entitiesByKey.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Collection<String> invalidated = new ArrayList<>();
+        for (String entityName : entityNames) {
+            Set<String> keys = keysByEntity.remove(entityName);
+            if (keys != null) {
+                for (String key : keys) {
+                    remove(key);
+                    invalidated.add(key);
+                }
+            }
+        }
+
+        return invalidated;
+    }
+
+    /**
+     * Forgets dependencies of a single cache entry.
+     */
+    public void remove(String cacheKey) {
+        removeKeys(cacheKey, entitiesByKey.remove(cacheKey));
+    }
+
+    public boolean isEmpty() {
+        return entitiesByKey.isEmpty();
+    }
+
+    /**
+     * Returns the number of cache entries in the index.
+     */
+    public int size() {
+        return entitiesByKey.size();
+    }
+
+    public void clear() {
+        keysByEntity.clear();
+        entitiesByKey.clear();
+    }
+
+    private void onEviction(String cacheKey, Collection<String> entityNames) {
+        removeKeys(cacheKey, entityNames);
+        evictionListener.accept(cacheKey);
+    }
+
+    private void removeKeys(String cacheKey, Collection<String> entityNames) {
+        if (entityNames != null) {
+            for (String entityName : entityNames) {
+                Set<String> keys = keysByEntity.get(entityName);
+                if (keys != null) {
+                    keys.remove(cacheKey);
+                }
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.di.Provider;
 import org.apache.cayenne.graph.GraphDiff;
+import org.apache.cayenne.map.ObjEntity;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -49,6 +50,10 @@ import java.util.function.Function;
  * Default rule is based on entities' {@link CacheGroups} annotation.
  * </p>
  * <p>
+ * If query dependency tracking is enabled, the filter also removes individual cache entries
+ * that depend on the changed entities (see {@link CacheDependencyIndex}).
+ * </p>
+ * <p>
  * To add default filter: <pre>
  *         ServerRuntime.builder("cayenne-project.xml")
  *              .addModule(CacheInvalidationModuleBuilder.builder().build());
@@ -58,6 +63,7 @@ import java.util.function.Function;
  * @see CacheInvalidationModuleExtender
  * @see InvalidationHandler
  * @since 4.0 enhanced to support custom handlers.
+ * @since 4.1 supports entity-level invalidation of cache entries.
  */
 public class CacheInvalidationFilter implements DataChannelSyncFilter {
 
@@ -66,13 +72,25 @@ public class CacheInvalidationFilter implements DataChannelSyncFilter {
     private final Map<Class<? extends Persistent>, Function<Persistent, Collection<CacheGroupDescriptor>>> mappedHandlers;
     private final Function<Persistent, Collection<CacheGroupDescriptor>> skipHandler;
     private final ThreadLocal<Set<CacheGroupDescriptor>> groups;
+    private final CacheDependencyIndex dependencies;
+    private final ThreadLocal<Set<String>> entityNames;
 
     public CacheInvalidationFilter(@Inject Provider<QueryCache> cacheProvider, @Inject List<InvalidationHandler> handlers) {
+        this(cacheProvider, handlers, new CacheDependencyIndex());
+    }
+
+    /**
+     * @since 4.1
+     */
+    public CacheInvalidationFilter(@Inject Provider<QueryCache> cacheProvider, @Inject List<InvalidationHandler> handlers,
+                                   @Inject CacheDependencyIndex dependencies) {
         this.mappedHandlers = new ConcurrentHashMap<>();
         this.skipHandler = p -> Collections.emptyList();
         this.groups = new ThreadLocal<>();
+        this.entityNames = new ThreadLocal<>();
         this.cacheProvider = cacheProvider;
         this.handlers = handlers;
+        this.dependencies = dependencies;
     }
 
     @Override
@@ -92,9 +110,18 @@ public class CacheInvalidationFilter implements DataChannelSyncFilter {
                     }
                 }
             }
+
+            Collection<String> entitySet = entityNames.get();
+            if (entitySet != null && !entitySet.isEmpty()) {
+                QueryCache cache = cacheProvider.get();
+                for (String key : dependencies.invalidate(entitySet)) {
+                    cache.remove(key);
+                }
+            }
             return result;
         } finally {
             groups.set(null);
+            entityNames.set(null);
         }
     }
 
@@ -123,6 +150,29 @@ public class CacheInvalidationFilter implements DataChannelSyncFilter {
         if (!objectGroups.isEmpty()) {
             getOrCreateTxGroups().addAll(objectGroups);
         }
+
+        if (!dependencies.isEmpty()) {
+            recordEntity(p);
+        }
+    }
+
+    /**
+     * Records the entity of the changed object and its super entities, as queries against
+     * those entities may include the object.
+     *
+     * @since 4.1
+     */
+    protected void recordEntity(Persistent p) {
+        Set<String> txEntityNames = entityNames.get();
+        if (txEntityNames == null) {
+            txEntityNames = new HashSet<>();
+            entityNames.set(txEntityNames);
+        }
+
+        ObjEntity entity = p.getObjectContext().getEntityResolver().getObjEntity(p.getObjectId().getEntityName());
+        while (entity != null && txEntityNames.add(entity.getName())) {
+            entity = entity.getSuperEntity();
+        }
     }
 
     protected Set<CacheGroupDescriptor> getOrCreateTxGroups() {
@@ -20,6 +20,7 @@
 package org.apache.cayenne.cache.invalidation;
 
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.di.Binder;
 import org.apache.cayenne.di.ListBuilder;
 import org.apache.cayenne.di.Module;
@@ -36,6 +37,7 @@ public class CacheInvalidationModuleExtender {
     private Collection<Class<? extends InvalidationHandler>> handlerTypes;
     private Collection<InvalidationHandler> handlerInstances;
     private boolean noCacheGroupsHandler;
+    private boolean trackQueryDependencies;
 
     CacheInvalidationModuleExtender() {
         this.handlerTypes = new HashSet<>();
@@ -51,6 +53,19 @@ public class CacheInvalidationModuleExtender {
         return this;
     }
 
+    /**
+     * Enables tracking of entities that cached query results depend on (derived from query root entity,
+     * qualifier, orderings and prefetches). On commit only cache entries that depend on the changed
+     * entities are removed. Combine with {@link #noCacheGroupsHandler()} to avoid flushing whole
+     * cache groups on every commit.
+     *
+     * @since 4.1
+     */
+    public CacheInvalidationModuleExtender trackQueryDependencies() {
+        trackQueryDependencies = true;
+        return this;
+    }
+
     public CacheInvalidationModuleExtender addHandler(Class<? extends InvalidationHandler> handlerType) {
         handlerTypes.add(handlerType);
         return this;
@@ -74,6 +89,10 @@ public class CacheInvalidationModuleExtender {
                 });
             }
 
+            if (trackQueryDependencies) {
+                binder.decorate(QueryCache.class).before(DependencyTrackingQueryCache.class);
+            }
+
             ListBuilder<InvalidationHandler> handlers = CacheInvalidationModule.contributeInvalidationHandler(binder);
 
             handlers.addAll(handlerInstances);
@@ -0,0 +1,120 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.cache.invalidation;
+
+import org.apache.cayenne.cache.QueryCache;
+import org.apache.cayenne.cache.QueryCacheEntryFactory;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.QueryMetadata;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link QueryCache} decorator that records entities each cached result depends on in
+ * the {@link CacheDependencyIndex}, so that {@link CacheInvalidationFilter} can remove
+ * individual entries affected by a commit. Results of queries with unknown dependencies
+ * (see {@link QueryMetadata#getDependentEntityNames()}) are not tracked and can only be
+ * invalidated via cache groups.
+ *
+ * @see CacheInvalidationModuleExtender#trackQueryDependencies()
+ * @since 4.1
+ */
+public class DependencyTrackingQueryCache implements QueryCache {
+
+    private final QueryCache delegate;
+    private final CacheDependencyIndex dependencies;
+
+    public DependencyTrackingQueryCache(@Inject QueryCache delegate, @Inject CacheDependencyIndex dependencies) {
+        this.delegate = delegate;
+        this.dependencies = dependencies;
+
+        // an entry evicted from the bounded index can no longer be invalidated by
+        // entity, so it must not stay in the cache
+        dependencies.setEvictionListener(delegate::remove);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata) {
+        List result = delegate.get(metadata);
+        if (result != null) {
+            dependencies.touch(metadata.getCacheKey());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+        // only register on a cache miss, when the entry is (re)created
+        boolean[] created = new boolean[1];
+        List result = delegate.get(metadata, () -> {
+            List newObject = factory.createObject();
+            register(metadata);
+            created[0] = true;
+            return newObject;
+        });
+
+        if (!created[0] && metadata.getCacheKey() != null) {
+            dependencies.touch(metadata.getCacheKey());
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void put(QueryMetadata metadata, List results) {
+        delegate.put(metadata, results);
+        register(metadata);
+    }
+
+    @Override
+    public void remove(String key) {
+        dependencies.remove(key);
+        delegate.remove(key);
+    }
+
+    @Override
+    public void removeGroup(String groupKey) {
+        delegate.removeGroup(groupKey);
+    }
+
+    @Override
+    public void removeGroup(String groupKey, Class<?> keyType, Class<?> valueType) {
+        delegate.removeGroup(groupKey, keyType, valueType);
+    }
+
+    @Deprecated
+    @Override
+    public void clear() {
+        dependencies.clear();
+        delegate.clear();
+    }
+
+    private void register(QueryMetadata metadata) {
+        String key = metadata.getCacheKey();
+        Collection<String> entityNames = metadata.getDependentEntityNames();
+        if (key != null && entityNames != null) {
+            dependencies.register(key, entityNames);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.cache.invalidation;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.cache.invalidation.db.E1;
+import org.apache.cayenne.cache.invalidation.db.E2;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.server.ServerModule;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.ObjectSelect;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 4.1
+ */
+public class CacheInvalidationDependencyTrackingIT extends CacheInvalidationCase {
+
+    @Override
+    protected Module extendInvalidationModule() {
+        return CacheInvalidationModule.extend()
+                .noCacheGroupsHandler()
+                .trackQueryDependencies()
+                .module();
+    }
+
+    @Override
+    protected Module buildCustomModule() {
+        return binder -> ServerModule.contributeProperties(binder)
+                .put(Constants.QUERY_CACHE_SIZE_PROPERTY, "10");
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        ObjectContext context = runtime.newContext();
+
+        ObjectSelect<E1> q1 = ObjectSelect.query(E1.class).localCache();
+        ObjectSelect<E1> q2 = ObjectSelect.query(E1.class).sharedCache("g1");
+        ObjectSelect<E2> q3 = ObjectSelect.query(E2.class).sharedCache("g1");
+
+        assertEquals(0, q1.selectCount(context));
+        assertEquals(0, q2.selectCount(context));
+        assertEquals(0, q3.selectCount(context));
+
+        e1.insert(1).insert(2);
+        e2.insert(1).insert(2);
+
+        // inserted via SQL... query results are still cached...
+        assertEquals(0, q1.selectCount(context));
+        assertEquals(0, q2.selectCount(context));
+        assertEquals(0, q3.selectCount(context));
+
+        context.newObject(E1.class);
+        context.commitChanges();
+
+        // inserted via Cayenne... only E1 queries should get auto refreshed
+        assertEquals(3, q1.selectCount(context));
+        assertEquals(3, q2.selectCount(context));
+        assertEquals(0, q3.selectCount(context));
+
+        context.newObject(E2.class);
+        context.commitChanges();
+
+        assertEquals(3, q3.selectCount(context));
+    }
+
+    @Test
+    public void testIndexIsBounded() throws Exception {
+        ObjectContext context = runtime.newContext();
+        CacheDependencyIndex index = runtime.getInjector().getInstance(CacheDependencyIndex.class);
+
+        for (int i = 1; i <= 50; i++) {
+            assertEquals(0, queryById(i).select(context).size());
+        }
+
+        assertTrue("Index is not bounded: " + index.size(), index.size() <= 10);
+
+        e1.insert(1).insert(50);
+
+        // evicted from the index, hence removed from the cache
+        assertEquals(1, queryById(1).select(context).size());
+
+        // still tracked, so stays in the cache until a commit of E1
+        assertEquals(0, queryById(50).select(context).size());
+
+        context.newObject(E1.class);
+        context.commitChanges();
+
+        assertEquals(1, queryById(50).select(context).size());
+    }
+
+    private ObjectSelect<E1> queryById(int id) {
+        return ObjectSelect.query(E1.class, ExpressionFactory.matchDbExp(E1.ID_PK_COLUMN, id)).sharedCache("g1");
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.remote.PageReadAheadExecutor;
 
 public class CayenneContextFactory implements ObjectContextFactory {
 
@@ -58,6 +59,11 @@ public class CayenneContextFactory implements ObjectContextFactory {
 
         CayenneContext context = newInstance(parent, changeEvents, lifecycleEvents);
         context.setQueryCache(new NestedQueryCache(queryCache));
+        int pageReadAhead = properties.getInt(ClientConstants.ROP_CONTEXT_PAGE_READ_AHEAD_PROPERTY, 0);
+        if (pageReadAhead > 0) {
+            context.setPageReadAhead(pageReadAhead);
+            context.setPageReadAheadExecutor(injector.getInstance(PageReadAheadExecutor.class));
+        }
         return context;
     }
     
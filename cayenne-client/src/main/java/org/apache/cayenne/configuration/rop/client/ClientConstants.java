@@ -47,4 +47,20 @@ public class ClientConstants {
     public static final String ROP_CONTEXT_CHANGE_EVENTS_PROPERTY = "cayenne.rop.context_change_events";
 
     public static final String ROP_CONTEXT_LIFECYCLE_EVENTS_PROPERTY = "cayenne.rop.context_lifecycle_events";
+
+    /**
+     * An integer property that defines how many pages of paginated query results are fetched in the background
+     * ahead of the page being accessed. The default is 0, meaning no read-ahead.
+     *
+     * @since 4.1
+     */
+    public static final String ROP_CONTEXT_PAGE_READ_AHEAD_PROPERTY = "cayenne.rop.context_page_read_ahead";
+
+    /**
+     * An integer property that defines the maximum number of threads fetching pages in the background for all
+     * contexts of a runtime. The default is 4.
+     *
+     * @since 4.1
+     */
+    public static final String ROP_CONTEXT_PAGE_READ_AHEAD_THREADS_PROPERTY = "cayenne.rop.context_page_read_ahead_threads";
 }
@@ -30,6 +30,7 @@ import org.apache.cayenne.di.Module;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.event.EventManagerProvider;
 import org.apache.cayenne.remote.ClientConnection;
+import org.apache.cayenne.remote.PageReadAheadExecutor;
 import org.apache.cayenne.remote.RemoteService;
 import org.apache.cayenne.rop.HttpClientConnectionProvider;
 import org.apache.cayenne.rop.ProxyRemoteService;
@@ -64,6 +65,7 @@ public class ClientModule implements Module {
         binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
         binder.bind(DataChannel.class).toProvider(ClientChannelProvider.class);
         binder.bind(QueryCache.class).toProvider(MapQueryCacheProvider.class);
+        binder.bind(PageReadAheadExecutor.class).toProvider(PageReadAheadExecutorProvider.class);
     }
 
 }
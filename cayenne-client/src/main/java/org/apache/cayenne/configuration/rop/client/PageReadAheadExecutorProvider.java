@@ -0,0 +1,49 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.rop.client;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Provider;
+import org.apache.cayenne.remote.PageReadAheadExecutor;
+
+/**
+ * @since 4.1
+ */
+public class PageReadAheadExecutorProvider implements Provider<PageReadAheadExecutor> {
+
+    static final int DEFAULT_THREADS = 4;
+
+    // pending page requests per thread
+    static final int QUEUE_CAPACITY_PER_THREAD = 16;
+
+    @Inject
+    protected RuntimeProperties properties;
+
+    @Override
+    public PageReadAheadExecutor get() throws ConfigurationException {
+        int threads = properties.getInt(ClientConstants.ROP_CONTEXT_PAGE_READ_AHEAD_THREADS_PROPERTY, DEFAULT_THREADS);
+        if (threads <= 0) {
+            throw new ConfigurationException("Invalid number of page read-ahead threads: %d", threads);
+        }
+
+        return new PageReadAheadExecutor(threads, threads * QUEUE_CAPACITY_PER_THREAD);
+    }
+}
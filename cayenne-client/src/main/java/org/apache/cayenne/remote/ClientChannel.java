@@ -23,8 +23,6 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataChannel;
 import org.apache.cayenne.DataChannelSyncCallbackAction;
 import org.apache.cayenne.ObjectContext;
-import org.apache.cayenne.ObjectId;
-import org.apache.cayenne.Persistent;
 import org.apache.cayenne.QueryResponse;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventManager;
@@ -34,20 +32,21 @@ import org.apache.cayenne.graph.GraphDiff;
 import org.apache.cayenne.graph.GraphDiffCompressor;
 import org.apache.cayenne.graph.GraphEvent;
 import org.apache.cayenne.map.EntityResolver;
-import org.apache.cayenne.query.EntityResultSegment;
 import org.apache.cayenne.query.Query;
-import org.apache.cayenne.query.QueryMetadata;
-import org.apache.cayenne.util.DeepMergeOperation;
 import org.apache.cayenne.util.ToStringBuilder;
 
-import java.util.List;
-import java.util.ListIterator;
 
 /**
  * A {@link org.apache.cayenne.DataChannel} implementation that accesses a remote server
  * via a ClientConnection.
+ * <p>
+ * ClientChannel is thread-safe. It is shared by all contexts of a ClientRuntime, and its
+ * methods may be called concurrently, e.g. by paginated lists reading pages ahead in the
+ * background. Each message is sent as a separate request to the server session.
+ * </p>
  * 
  * @since 1.2
+ * @since 4.1 is documented as thread-safe.
  */
 public class ClientChannel implements DataChannel {
 
@@ -100,90 +99,19 @@ public class ClientChannel implements DataChannel {
         return eventManager;
     }
 
-    @SuppressWarnings("unchecked")
     public QueryResponse onQuery(ObjectContext context, Query query) {
 
         QueryResponse response = send( new QueryMessage(query), QueryResponse.class);
 
         // if needed, register objects in provided context, rewriting the response
         // (assuming all lists are mutable)
-
         if (context != null) {
-
-            EntityResolver resolver = context.getEntityResolver();
-            QueryMetadata info = query.getMetaData(resolver);
-
-            if (!info.isFetchingDataRows()) {
-
-                response.reset();
-
-                while (response.next()) {
-                    if (response.isList()) {
-
-                        List objects = response.currentList();
-
-                        if (!objects.isEmpty()) {
-
-                            DeepMergeOperation merger = new DeepMergeOperation(context);
-                            List<Object> rsMapping = info.getResultSetMapping();
-                            if (rsMapping == null) {
-                                convertSingleObjects(objects, merger);
-                            }
-                            else {
-                                if (rsMapping.size() == 1) {
-                                    if (rsMapping.get(0) instanceof EntityResultSegment) {
-                                        convertSingleObjects(objects, merger);
-                                    }
-                                }
-                                else {
-                                    processMixedResult(objects, merger, rsMapping);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            new QueryResponseMerger(context).merge(query, response);
         }
 
         return response;
     }
 
-    private void processMixedResult(
-            List<Object[]> objects,
-            DeepMergeOperation merger,
-            List<Object> rsMapping) {
-
-        int width = rsMapping.size();
-        for (int i = 0; i < width; i++) {
-            if (rsMapping.get(i) instanceof EntityResultSegment) {
-                for (Object[] object : objects) {
-                    object[i] = convertObject(merger, (Persistent) object[i]);
-                }
-            }
-        }
-    }
-
-    private void convertSingleObjects(List<Object> objects, DeepMergeOperation merger) {
-
-        ListIterator<Object> it = objects.listIterator();
-        while (it.hasNext()) {
-            Object next = it.next();
-            it.set(convertObject( merger, (Persistent) next));
-        }
-    }
-
-    private Object convertObject(DeepMergeOperation merger, Persistent object) {
-
-        ObjectId id = object.getObjectId();
-
-        // sanity check
-        if (id == null) {
-            throw new CayenneRuntimeException("Server returned an object without an id: %s", object);
-        }
-
-        return merger.merge(object);
-    }
-
     public GraphDiff onSync(
             ObjectContext originatingContext,
             GraphDiff changes,
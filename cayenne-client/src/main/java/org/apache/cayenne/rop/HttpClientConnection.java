@@ -32,7 +32,7 @@ import java.rmi.RemoteException;
 public class HttpClientConnection extends BaseConnection {
 
 	private RemoteService remoteService;
-	private RemoteSession session;
+	private volatile RemoteSession session;
 
 	private String sharedSessionName;
     
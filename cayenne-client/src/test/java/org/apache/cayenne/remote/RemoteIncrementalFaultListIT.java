@@ -33,12 +33,14 @@ import org.apache.cayenne.testdo.mt.MtTable1;
 import org.apache.cayenne.unit.di.client.ClientCase;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -61,13 +63,23 @@ public class RemoteIncrementalFaultListIT extends ClientCase {
 
 	private RemoteIncrementalFaultList list;
 
+	private PageReadAheadExecutor readAheadExecutor;
+
 	@Before
 	public void setUp() throws Exception {
+		readAheadExecutor = new PageReadAheadExecutor(2, 10);
 		tMTTable = new TableHelper(dbHelper, "MT_TABLE1");
 		tMTTable.setColumns("TABLE1_ID", "GLOBAL_ATTRIBUTE1",
 				"SERVER_ATTRIBUTE1");
 	}
 
+	@After
+	public void tearDown() {
+		if (readAheadExecutor != null) {
+			readAheadExecutor.shutdown();
+		}
+	}
+
 	protected void createObjectsDataSet() throws Exception {
 		tMTTable.insert(1, "g1", "s1");
 		tMTTable.insert(2, "g2", "s2");
@@ -97,6 +109,10 @@ public class RemoteIncrementalFaultListIT extends ClientCase {
 	}
 
 	private void prepareList(int pageSize) throws Exception {
+		prepareList(pageSize, 0);
+	}
+
+	private void prepareList(int pageSize, int readAheadPages) throws Exception {
 
 		createObjectsDataSet();
 
@@ -109,7 +125,7 @@ public class RemoteIncrementalFaultListIT extends ClientCase {
 		query.addOrdering("db:" + MtTable1.TABLE1_ID_PK_COLUMN,
 				SortOrder.ASCENDING);
 
-		list = new RemoteIncrementalFaultList(clientContext, query);
+		list = new RemoteIncrementalFaultList(clientContext, query, readAheadPages, readAheadExecutor);
 	}
 
 	@Test
@@ -225,6 +241,65 @@ public class RemoteIncrementalFaultListIT extends ClientCase {
 		assertTrue(list.elements.get(8) instanceof ClientMtTable1);
 	}
 
+	@Test
+	public void testReadAhead() throws Exception {
+		prepareList(6, 2);
+
+		Iterator<?> it = list.iterator();
+		int counter = 0;
+		while (it.hasNext()) {
+			ClientMtTable1 object = (ClientMtTable1) it.next();
+
+			// objects must be in the query order and registered in the context
+			assertEquals("g" + (counter + 1), object.getGlobalAttribute1());
+			assertSame(clientContext, object.getObjectContext());
+			assertSame(object, clientContext.getGraphManager().getNode(object.getObjectId()));
+			counter++;
+		}
+
+		assertEquals(COUNT, counter);
+		assertEquals(0, list.getUnfetchedObjects());
+	}
+
+	@Test
+	public void testReadAhead_RandomAccess() throws Exception {
+		prepareList(6, 1);
+
+		assertEquals("g25", ((ClientMtTable1) list.get(24)).getGlobalAttribute1());
+		assertEquals("g8", ((ClientMtTable1) list.get(7)).getGlobalAttribute1());
+		assertEquals(COUNT - 13, list.getUnfetchedObjects());
+
+		list.resolveAll();
+		assertEquals(0, list.getUnfetchedObjects());
+		assertEquals("g13", ((ClientMtTable1) list.get(12)).getGlobalAttribute1());
+	}
+
+	@Test(timeout = 30000)
+	public void testReadAhead_ExecutorShutdown() throws Exception {
+		readAheadExecutor = new PageReadAheadExecutor(1, 10);
+
+		// keep the only thread busy, so that the read-ahead pages stay queued
+		CountDownLatch latch = new CountDownLatch(1);
+		readAheadExecutor.submit(() -> {
+			latch.await();
+			return null;
+		});
+
+		prepareList(6, 2);
+		readAheadExecutor.shutdown();
+
+		// pages cancelled in the queue are fetched on access
+		Iterator<?> it = list.iterator();
+		int counter = 0;
+		while (it.hasNext()) {
+			assertEquals("g" + (counter + 1), ((ClientMtTable1) it.next()).getGlobalAttribute1());
+			counter++;
+		}
+
+		assertEquals(COUNT, counter);
+		assertEquals(0, list.getUnfetchedObjects());
+	}
+
 	@Test
 	public void testIndexOf() throws Exception {
 		prepareList(6);
@@ -0,0 +1,101 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog;
+
+/**
+ * Settings of asynchronous dispatch of commit log events to a single
+ * {@link CommitLogListener}. Listeners dispatched asynchronously receive events on a
+ * dedicated thread, so their latency is not added to the commit.
+ *
+ * @see CommitLogModuleExtender#addAsyncListener(Class, AsyncCommitLogConfig)
+ * @since 4.1
+ */
+public class AsyncCommitLogConfig {
+
+	/**
+	 * Defines what happens to a commit event when the listener queue is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * The committing thread waits until there is space in the queue.
+		 */
+		BLOCK,
+
+		/**
+		 * The event is dropped and a warning is logged.
+		 */
+		DROP,
+
+		/**
+		 * The event spills over to the committing thread, i.e. the listener is called
+		 * synchronously, possibly out of order with the queued events.
+		 */
+		SPILL
+	}
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	private final int queueCapacity;
+	private final int batchSize;
+	private final OverflowPolicy overflowPolicy;
+
+	public AsyncCommitLogConfig() {
+		this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, OverflowPolicy.BLOCK);
+	}
+
+	public AsyncCommitLogConfig(int queueCapacity, int batchSize, OverflowPolicy overflowPolicy) {
+
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+		}
+
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+		}
+
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Null overflow policy");
+		}
+
+		this.queueCapacity = queueCapacity;
+		this.batchSize = batchSize;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Returns the maximum number of commit events waiting to be dispatched.
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Returns the maximum number of commit events passed to the listener in a single
+	 * {@link CommitLogListener#onPostCommit(java.util.List, java.util.List)} call.
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+}
@@ -0,0 +1,210 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.commitlog.model.ChangeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CommitLogListener} decorator that queues commit events and passes them to
+ * the underlying listener in batches on a dedicated thread.
+ *
+ * @since 4.1
+ */
+class AsyncCommitLogListener implements CommitLogListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncCommitLogListener.class);
+
+	private static final long SHUTDOWN_TIMEOUT_MS = 10000L;
+
+	// a marker telling the dispatch thread to stop
+	private static final Commit STOP = new Commit(null, null);
+
+	private final CommitLogListener delegate;
+	private final AsyncCommitLogConfig config;
+	private final BlockingQueue<Commit> queue;
+	private final ExecutorService executor;
+	private final AtomicLong dropped;
+	private volatile boolean shutdown;
+
+	AsyncCommitLogListener(CommitLogListener delegate, AsyncCommitLogConfig config) {
+		this.delegate = delegate;
+		this.config = config;
+		this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+		this.dropped = new AtomicLong();
+
+		String threadName = "cayenne-commitlog-" + delegate.getClass().getSimpleName();
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, threadName);
+			t.setDaemon(true);
+			return t;
+		});
+		this.executor.execute(this::dispatchLoop);
+	}
+
+	CommitLogListener getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the number of commit events dropped due to queue overflow.
+	 */
+	long getDroppedCount() {
+		return dropped.get();
+	}
+
+	@Override
+	public void onPostCommit(ObjectContext originatingContext, ChangeMap changes) {
+
+		// late commits are delivered synchronously
+		if (shutdown) {
+			delegate.onPostCommit(originatingContext, changes);
+			return;
+		}
+
+		Commit commit = new Commit(originatingContext, changes);
+
+		switch (config.getOverflowPolicy()) {
+			case BLOCK:
+				try {
+					queue.put(commit);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					delegate.onPostCommit(originatingContext, changes);
+				}
+				break;
+			case DROP:
+				if (!queue.offer(commit)) {
+					long count = dropped.incrementAndGet();
+					LOGGER.warn("Commit log queue of {} is full, dropped commit event. Total dropped: {}",
+							delegate.getClass().getName(), count);
+				}
+				break;
+			case SPILL:
+				if (!queue.offer(commit)) {
+					delegate.onPostCommit(originatingContext, changes);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Stops accepting events, waits for the queued events to be dispatched and stops
+	 * the dispatch thread.
+	 */
+	void shutdown() {
+
+		if (shutdown) {
+			return;
+		}
+
+		shutdown = true;
+
+		try {
+			queue.put(STOP);
+			executor.shutdown();
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				LOGGER.warn("Commit log listener {} did not finish in time", delegate.getClass().getName());
+				executor.shutdownNow();
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+			return;
+		}
+
+		// events queued concurrently with the shutdown
+		List<Commit> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		remaining.remove(STOP);
+		if (!remaining.isEmpty()) {
+			dispatch(remaining);
+		}
+	}
+
+	private void dispatchLoop() {
+
+		int batchSize = config.getBatchSize();
+		List<Commit> batch = new ArrayList<>(batchSize);
+
+		while (true) {
+
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			queue.drainTo(batch, batchSize - 1);
+
+			int stop = batch.indexOf(STOP);
+			if (stop >= 0) {
+				if (stop > 0) {
+					dispatch(batch.subList(0, stop));
+				}
+				return;
+			}
+
+			dispatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void dispatch(List<Commit> batch) {
+
+		int len = batch.size();
+		List<ObjectContext> contexts = new ArrayList<>(len);
+		List<ChangeMap> changes = new ArrayList<>(len);
+
+		for (Commit commit : batch) {
+			contexts.add(commit.originatingContext);
+			changes.add(commit.changes);
+		}
+
+		try {
+			delegate.onPostCommit(contexts, changes);
+		} catch (Throwable th) {
+			// there's no one to report to, so just log the error and go on
+			LOGGER.error("Error dispatching commit log events to " + delegate.getClass().getName(), th);
+		}
+	}
+
+	private static final class Commit {
+
+		final ObjectContext originatingContext;
+		final ChangeMap changes;
+
+		Commit(ObjectContext originatingContext, ChangeMap changes) {
+			this.originatingContext = originatingContext;
+			this.changes = changes;
+		}
+	}
+}
@@ -18,13 +18,17 @@
  ****************************************************************/
 package org.apache.cayenne.commitlog;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.cayenne.DataChannel;
 import org.apache.cayenne.DataChannelSyncFilter;
 import org.apache.cayenne.DataChannelSyncFilterChain;
 import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.graph.GraphChangeHandler;
 import org.apache.cayenne.graph.GraphDiff;
@@ -45,8 +49,45 @@ public class CommitLogFilter implements DataChannelSyncFilter {
 
 	public CommitLogFilter(@Inject CommitLogEntityFactory entityFactory,
 						   @Inject List<CommitLogListener> listeners) {
+		this(entityFactory, listeners, Collections.<String, AsyncCommitLogConfig>emptyMap());
+	}
+
+	/**
+	 * Creates a filter that dispatches events to the listeners whose class names are
+	 * present in the config map asynchronously.
+	 *
+	 * @since 4.1
+	 */
+	public CommitLogFilter(@Inject CommitLogEntityFactory entityFactory,
+						   @Inject List<CommitLogListener> listeners,
+						   @Inject Map<String, AsyncCommitLogConfig> asyncConfigs) {
 		this.entityFactory = entityFactory;
-		this.listeners = listeners;
+
+		if (asyncConfigs.isEmpty()) {
+			this.listeners = listeners;
+		} else {
+			List<CommitLogListener> wrapped = new ArrayList<>(listeners.size());
+			for (CommitLogListener listener : listeners) {
+				AsyncCommitLogConfig config = asyncConfigs.get(listener.getClass().getName());
+				wrapped.add(config != null ? new AsyncCommitLogListener(listener, config) : listener);
+			}
+
+			this.listeners = wrapped;
+		}
+	}
+
+	/**
+	 * Dispatches pending events of asynchronous listeners and stops their threads.
+	 *
+	 * @since 4.1
+	 */
+	@BeforeScopeEnd
+	public void shutdown() {
+		for (CommitLogListener l : listeners) {
+			if (l instanceof AsyncCommitLogListener) {
+				((AsyncCommitLogListener) l).shutdown();
+			}
+		}
 	}
 
 	@Override
@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.cayenne.commitlog;
 
+import java.util.List;
+
 import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.commitlog.model.ChangeMap;
 
@@ -29,4 +31,20 @@ import org.apache.cayenne.commitlog.model.ChangeMap;
 public interface CommitLogListener {
 
 	void onPostCommit(ObjectContext originatingContext, ChangeMap changes);
+
+	/**
+	 * Receives changes of several commits at once. Called instead of
+	 * {@link #onPostCommit(ObjectContext, ChangeMap)} for listeners dispatched
+	 * asynchronously. Both lists have the same size and are in the order of commits.
+	 * Since the callback is invoked on a separate thread, originating contexts may be in
+	 * use by the application at the same time and should not be modified. Default
+	 * implementation processes each commit individually.
+	 *
+	 * @since 4.1
+	 */
+	default void onPostCommit(List<ObjectContext> originatingContexts, List<ChangeMap> changes) {
+		for (int i = 0; i < changes.size(); i++) {
+			onPostCommit(originatingContexts.get(i), changes.get(i));
+		}
+	}
 }
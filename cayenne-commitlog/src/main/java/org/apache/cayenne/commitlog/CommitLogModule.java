@@ -21,6 +21,7 @@ package org.apache.cayenne.commitlog;
 
 import org.apache.cayenne.di.Binder;
 import org.apache.cayenne.di.ListBuilder;
+import org.apache.cayenne.di.MapBuilder;
 import org.apache.cayenne.di.Module;
 import org.apache.cayenne.commitlog.meta.IncludeAllCommitLogEntityFactory;
 import org.apache.cayenne.commitlog.meta.CommitLogEntityFactory;
@@ -37,6 +38,13 @@ public class CommitLogModule implements Module {
         return binder.bindList(CommitLogListener.class);
     }
 
+    /**
+     * @since 4.1
+     */
+    static MapBuilder<AsyncCommitLogConfig> contributeAsyncConfigs(Binder binder) {
+        return binder.bindMap(AsyncCommitLogConfig.class);
+    }
+
     /**
      * Starts an extension module builder to add listeners and/or other customizations for {@link CommitLogModule}.
      *
@@ -50,6 +58,7 @@ public class CommitLogModule implements Module {
     @Override
     public void configure(Binder binder) {
         contributeListeners(binder);
+        contributeAsyncConfigs(binder);
         binder.bind(CommitLogEntityFactory.class).to(IncludeAllCommitLogEntityFactory.class);
         binder.bind(CommitLogFilter.class).to(CommitLogFilter.class);
     }
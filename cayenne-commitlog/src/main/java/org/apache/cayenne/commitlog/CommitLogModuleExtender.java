@@ -30,7 +30,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * A builder of a custom extensions module for {@link CommitLogModule} that customizes its services and installs
@@ -45,12 +47,14 @@ public class CommitLogModuleExtender {
     private Class<? extends CommitLogEntityFactory> entityFactoryType;
     private Collection<Class<? extends CommitLogListener>> listenerTypes;
     private Collection<CommitLogListener> listenerInstances;
+    private Map<String, AsyncCommitLogConfig> asyncConfigs;
     private boolean excludeFromTransaction;
 
     CommitLogModuleExtender() {
         entityFactory(IncludeAllCommitLogEntityFactory.class);
         this.listenerTypes = new HashSet<>();
         this.listenerInstances = new HashSet<>();
+        this.asyncConfigs = new HashMap<>();
     }
 
     public CommitLogModuleExtender addListener(Class<? extends CommitLogListener> type) {
@@ -63,6 +67,54 @@ public class CommitLogModuleExtender {
         return this;
     }
 
+    /**
+     * Adds a listener that receives events asynchronously on its own thread with
+     * default queue capacity, batch size and overflow policy.
+     *
+     * @since 4.1
+     */
+    public CommitLogModuleExtender addAsyncListener(Class<? extends CommitLogListener> type) {
+        return addAsyncListener(type, new AsyncCommitLogConfig());
+    }
+
+    /**
+     * Adds a listener that receives events asynchronously on its own thread, so that
+     * its processing time is not added to the commit. Queued events are passed to the
+     * listener in batches via {@link CommitLogListener#onPostCommit(java.util.List, java.util.List)}.
+     * Async dispatch settings apply to all listeners of the same class.
+     *
+     * @since 4.1
+     */
+    public CommitLogModuleExtender addAsyncListener(Class<? extends CommitLogListener> type,
+                                                    AsyncCommitLogConfig config) {
+        this.listenerTypes.add(type);
+        this.asyncConfigs.put(type.getName(), config);
+        return this;
+    }
+
+    /**
+     * Adds a listener that receives events asynchronously on its own thread with
+     * default queue capacity, batch size and overflow policy.
+     *
+     * @since 4.1
+     */
+    public CommitLogModuleExtender addAsyncListener(CommitLogListener instance) {
+        return addAsyncListener(instance, new AsyncCommitLogConfig());
+    }
+
+    /**
+     * Adds a listener that receives events asynchronously on its own thread, so that
+     * its processing time is not added to the commit. Async dispatch settings apply
+     * to all listeners of the same class.
+     *
+     * @since 4.1
+     */
+    public CommitLogModuleExtender addAsyncListener(CommitLogListener instance, AsyncCommitLogConfig config) {
+        this.listenerInstances.add(instance);
+        this.asyncConfigs.put(instance.getClass().getName(), config);
+        return this;
+    }
+
     /**
      * If called, events will be dispatched outside of the main commit
      * transaction. By default events are dispatched within the transaction, so
@@ -114,6 +166,8 @@ public class CommitLogModuleExtender {
                 listeners.add(type);
             }
 
+            CommitLogModule.contributeAsyncConfigs(binder).putAll(asyncConfigs);
+
             if (excludeFromTransaction) {
                 ServerModule.contributeDomainSyncFilters(binder).addAfter(CommitLogFilter.class, TransactionFilter.class);
             } else {
@@ -0,0 +1,421 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.commitlog.model.AttributeChange;
+import org.apache.cayenne.commitlog.model.ChangeMap;
+import org.apache.cayenne.commitlog.model.MutableChangeMap;
+import org.apache.cayenne.commitlog.model.MutableObjectChange;
+import org.apache.cayenne.commitlog.model.ObjectChange;
+import org.apache.cayenne.commitlog.model.ObjectChangeType;
+import org.apache.cayenne.commitlog.model.ToManyRelationshipChange;
+import org.apache.cayenne.commitlog.model.ToOneRelationshipChange;
+
+/**
+ * Encodes {@link ChangeMap}s to a compact binary form stored in the commit log journal
+ * and decodes them back. Values of common attribute types are stored natively, other
+ * serializable values use Java serialization, and the rest are stored as strings.
+ *
+ * @since 4.1
+ */
+public class ChangeMapCodec {
+
+	private static final byte ID_NULL = 0;
+	private static final byte ID_PERMANENT = 1;
+	private static final byte ID_TEMPORARY = 2;
+
+	private static final byte T_NULL = 0;
+	private static final byte T_STRING = 1;
+	private static final byte T_INT = 2;
+	private static final byte T_LONG = 3;
+	private static final byte T_SHORT = 4;
+	private static final byte T_BYTE = 5;
+	private static final byte T_BOOLEAN = 6;
+	private static final byte T_DOUBLE = 7;
+	private static final byte T_FLOAT = 8;
+	private static final byte T_BIG_DECIMAL = 9;
+	private static final byte T_BIG_INTEGER = 10;
+	private static final byte T_DATE = 11;
+	private static final byte T_SQL_DATE = 12;
+	private static final byte T_SQL_TIME = 13;
+	private static final byte T_SQL_TIMESTAMP = 14;
+	private static final byte T_BYTES = 15;
+	private static final byte T_CHAR = 16;
+	private static final byte T_LOCAL_DATE = 17;
+	private static final byte T_LOCAL_DATE_TIME = 18;
+	private static final byte T_LOCAL_TIME = 19;
+	private static final byte T_SERIALIZED = 20;
+
+	public byte[] encode(ChangeMap changes) {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		try {
+			Collection<? extends ObjectChange> objectChanges = changes.getUniqueChanges();
+			out.writeInt(objectChanges.size());
+
+			for (ObjectChange change : objectChanges) {
+				writeObjectChange(out, change);
+			}
+
+			out.flush();
+		} catch (IOException e) {
+			throw new CayenneRuntimeException("Error encoding commit log changes", e);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	public ChangeMap decode(byte[] data) {
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		MutableChangeMap changes = new MutableChangeMap();
+
+		try {
+			int len = in.readInt();
+			for (int i = 0; i < len; i++) {
+				readObjectChange(in, changes);
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			throw new CayenneRuntimeException("Error decoding commit log changes", e);
+		}
+
+		return changes;
+	}
+
+	private void writeObjectChange(DataOutputStream out, ObjectChange change) throws IOException {
+
+		out.writeByte(change.getType().ordinal());
+
+		ObjectId preCommitId = change.getPreCommitId();
+		ObjectId postCommitId = change.getPostCommitId();
+		writeId(out, preCommitId);
+		writeId(out, postCommitId != null && !postCommitId.equals(preCommitId) ? postCommitId : null);
+
+		Map<String, ? extends AttributeChange> attributes = change.getAttributeChanges();
+		out.writeInt(attributes.size());
+		for (Map.Entry<String, ? extends AttributeChange> e : attributes.entrySet()) {
+			writeString(out, e.getKey());
+			writeValue(out, e.getValue().getOldValue());
+			writeValue(out, e.getValue().getNewValue());
+		}
+
+		Map<String, ? extends ToOneRelationshipChange> toOnes = change.getToOneRelationshipChanges();
+		out.writeInt(toOnes.size());
+		for (Map.Entry<String, ? extends ToOneRelationshipChange> e : toOnes.entrySet()) {
+			writeString(out, e.getKey());
+			writeId(out, e.getValue().getOldValue());
+			writeId(out, e.getValue().getNewValue());
+		}
+
+		Map<String, ? extends ToManyRelationshipChange> toManys = change.getToManyRelationshipChanges();
+		out.writeInt(toManys.size());
+		for (Map.Entry<String, ? extends ToManyRelationshipChange> e : toManys.entrySet()) {
+			writeString(out, e.getKey());
+			writeIds(out, e.getValue().getAdded());
+			writeIds(out, e.getValue().getRemoved());
+		}
+	}
+
+	private void readObjectChange(DataInputStream in, MutableChangeMap changes)
+			throws IOException, ClassNotFoundException {
+
+		ObjectChangeType type = ObjectChangeType.values()[in.readByte()];
+		ObjectId preCommitId = readId(in);
+		ObjectId postCommitId = readId(in);
+
+		MutableObjectChange change = changes.getOrCreate(preCommitId, type);
+		if (postCommitId != null) {
+			changes.aliasId(preCommitId, postCommitId);
+		}
+
+		int attributes = in.readInt();
+		for (int i = 0; i < attributes; i++) {
+			String name = readString(in);
+			Object oldValue = readValue(in);
+			Object newValue = readValue(in);
+			change.attributeChanged(name, oldValue, newValue);
+		}
+
+		int toOnes = in.readInt();
+		for (int i = 0; i < toOnes; i++) {
+			String name = readString(in);
+			ObjectId oldValue = readId(in);
+			ObjectId newValue = readId(in);
+
+			if (oldValue != null) {
+				change.toOneRelationshipDisconnected(name, oldValue);
+			}
+
+			if (newValue != null) {
+				change.toOneRelationshipConnected(name, newValue);
+			}
+		}
+
+		int toManys = in.readInt();
+		for (int i = 0; i < toManys; i++) {
+			String name = readString(in);
+
+			int added = in.readInt();
+			for (int j = 0; j < added; j++) {
+				change.toManyRelationshipConnected(name, readId(in));
+			}
+
+			int removed = in.readInt();
+			for (int j = 0; j < removed; j++) {
+				change.toManyRelationshipDisconnected(name, readId(in));
+			}
+		}
+	}
+
+	private void writeIds(DataOutputStream out, Collection<ObjectId> ids) throws IOException {
+		out.writeInt(ids.size());
+		for (ObjectId id : ids) {
+			writeId(out, id);
+		}
+	}
+
+	private void writeId(DataOutputStream out, ObjectId id) throws IOException {
+
+		if (id == null) {
+			out.writeByte(ID_NULL);
+		} else if (id.isTemporary()) {
+			out.writeByte(ID_TEMPORARY);
+			writeString(out, id.getEntityName());
+			writeBytes(out, id.getKey());
+		} else {
+			out.writeByte(ID_PERMANENT);
+			writeString(out, id.getEntityName());
+
+			Map<String, Object> snapshot = id.getIdSnapshot();
+			out.writeInt(snapshot.size());
+			for (Map.Entry<String, Object> e : snapshot.entrySet()) {
+				writeString(out, e.getKey());
+				writeValue(out, e.getValue());
+			}
+		}
+	}
+
+	private ObjectId readId(DataInputStream in) throws IOException, ClassNotFoundException {
+
+		switch (in.readByte()) {
+			case ID_NULL:
+				return null;
+			case ID_TEMPORARY:
+				return new ObjectId(readString(in), readBytes(in));
+			case ID_PERMANENT:
+				String entityName = readString(in);
+				int len = in.readInt();
+				Map<String, Object> snapshot = len == 1 ? null : new HashMap<>((int) (len / 0.75f) + 1);
+
+				for (int i = 0; i < len; i++) {
+					String key = readString(in);
+					Object value = readValue(in);
+
+					if (len == 1) {
+						return new ObjectId(entityName, key, value);
+					}
+
+					snapshot.put(key, value);
+				}
+
+				return new ObjectId(entityName, snapshot != null ? snapshot : Collections.<String, Object>emptyMap());
+			default:
+				throw new IOException("Invalid ObjectId type");
+		}
+	}
+
+	private void writeValue(DataOutputStream out, Object value) throws IOException {
+
+		if (value == null) {
+			out.writeByte(T_NULL);
+		} else if (value instanceof String) {
+			out.writeByte(T_STRING);
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(T_INT);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(T_LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Short) {
+			out.writeByte(T_SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(T_BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(T_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Double) {
+			out.writeByte(T_DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Float) {
+			out.writeByte(T_FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			out.writeByte(T_BIG_DECIMAL);
+			out.writeInt(decimal.scale());
+			writeBytes(out, decimal.unscaledValue().toByteArray());
+		} else if (value instanceof BigInteger) {
+			out.writeByte(T_BIG_INTEGER);
+			writeBytes(out, ((BigInteger) value).toByteArray());
+		} else if (value instanceof java.sql.Timestamp) {
+			java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+			out.writeByte(T_SQL_TIMESTAMP);
+			out.writeLong(timestamp.getTime());
+			out.writeInt(timestamp.getNanos());
+		} else if (value instanceof java.sql.Date) {
+			out.writeByte(T_SQL_DATE);
+			out.writeLong(((Date) value).getTime());
+		} else if (value instanceof java.sql.Time) {
+			out.writeByte(T_SQL_TIME);
+			out.writeLong(((Date) value).getTime());
+		} else if (value.getClass() == Date.class) {
+			out.writeByte(T_DATE);
+			out.writeLong(((Date) value).getTime());
+		} else if (value instanceof byte[]) {
+			out.writeByte(T_BYTES);
+			writeBytes(out, (byte[]) value);
+		} else if (value instanceof Character) {
+			out.writeByte(T_CHAR);
+			out.writeChar((Character) value);
+		} else if (value instanceof LocalDate) {
+			out.writeByte(T_LOCAL_DATE);
+			writeString(out, value.toString());
+		} else if (value instanceof LocalDateTime) {
+			out.writeByte(T_LOCAL_DATE_TIME);
+			writeString(out, value.toString());
+		} else if (value instanceof LocalTime) {
+			out.writeByte(T_LOCAL_TIME);
+			writeString(out, value.toString());
+		} else if (value instanceof Serializable) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+				objectOut.writeObject(value);
+			}
+
+			out.writeByte(T_SERIALIZED);
+			writeBytes(out, bytes.toByteArray());
+		} else {
+			// can't restore the original value, but keep it readable
+			out.writeByte(T_STRING);
+			writeString(out, value.toString());
+		}
+	}
+
+	private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+
+		byte type = in.readByte();
+		switch (type) {
+			case T_NULL:
+				return null;
+			case T_STRING:
+				return readString(in);
+			case T_INT:
+				return in.readInt();
+			case T_LONG:
+				return in.readLong();
+			case T_SHORT:
+				return in.readShort();
+			case T_BYTE:
+				return in.readByte();
+			case T_BOOLEAN:
+				return in.readBoolean();
+			case T_DOUBLE:
+				return in.readDouble();
+			case T_FLOAT:
+				return in.readFloat();
+			case T_BIG_DECIMAL:
+				int scale = in.readInt();
+				return new BigDecimal(new BigInteger(readBytes(in)), scale);
+			case T_BIG_INTEGER:
+				return new BigInteger(readBytes(in));
+			case T_DATE:
+				return new Date(in.readLong());
+			case T_SQL_DATE:
+				return new java.sql.Date(in.readLong());
+			case T_SQL_TIME:
+				return new java.sql.Time(in.readLong());
+			case T_SQL_TIMESTAMP:
+				java.sql.Timestamp timestamp = new java.sql.Timestamp(in.readLong());
+				timestamp.setNanos(in.readInt());
+				return timestamp;
+			case T_BYTES:
+				return readBytes(in);
+			case T_CHAR:
+				return in.readChar();
+			case T_LOCAL_DATE:
+				return LocalDate.parse(readString(in));
+			case T_LOCAL_DATE_TIME:
+				return LocalDateTime.parse(readString(in));
+			case T_LOCAL_TIME:
+				return LocalTime.parse(readString(in));
+			case T_SERIALIZED:
+				try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+					return objectIn.readObject();
+				}
+			default:
+				throw new IOException("Invalid value type: " + type);
+		}
+	}
+
+	private void writeString(DataOutputStream out, String string) throws IOException {
+		writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String readString(DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+}
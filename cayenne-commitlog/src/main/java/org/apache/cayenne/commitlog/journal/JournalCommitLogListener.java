@@ -0,0 +1,75 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.commitlog.CommitLogListener;
+import org.apache.cayenne.commitlog.model.ChangeMap;
+
+/**
+ * A {@link CommitLogListener} that records changes of each commit in a local
+ * append-only journal, so that they can be shipped elsewhere by a separate process via
+ * {@link JournalReader}, instead of being written to the application database. When
+ * registered as an async listener, a batch of commits is appended with a single sync.
+ *
+ * @since 4.1
+ */
+public class JournalCommitLogListener implements CommitLogListener {
+
+	private final JournalWriter writer;
+	private final ChangeMapCodec codec;
+
+	public JournalCommitLogListener(JournalWriter writer) {
+		this(writer, new ChangeMapCodec());
+	}
+
+	public JournalCommitLogListener(JournalWriter writer, ChangeMapCodec codec) {
+		this.writer = writer;
+		this.codec = codec;
+	}
+
+	public JournalWriter getWriter() {
+		return writer;
+	}
+
+	@Override
+	public void onPostCommit(ObjectContext originatingContext, ChangeMap changes) {
+		if (!changes.getChanges().isEmpty()) {
+			writer.append(codec.encode(changes));
+		}
+	}
+
+	@Override
+	public void onPostCommit(List<ObjectContext> originatingContexts, List<ChangeMap> changes) {
+
+		List<byte[]> payloads = new ArrayList<>(changes.size());
+		for (ChangeMap c : changes) {
+			if (!c.getChanges().isEmpty()) {
+				payloads.add(codec.encode(c));
+			}
+		}
+
+		if (!payloads.isEmpty()) {
+			writer.append(payloads);
+		}
+	}
+}
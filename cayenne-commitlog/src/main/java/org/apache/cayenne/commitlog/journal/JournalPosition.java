@@ -0,0 +1,83 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.io.Serializable;
+
+/**
+ * A position of a record in the commit log journal. Consumers may store the position
+ * of the last processed record to resume reading from it later.
+ *
+ * @since 4.1
+ */
+public class JournalPosition implements Comparable<JournalPosition>, Serializable {
+
+	private static final long serialVersionUID = -3370426513233738925L;
+
+	/**
+	 * Position of the first record of the journal.
+	 */
+	public static final JournalPosition START = new JournalPosition(0L, JournalSegments.SEGMENT_HEADER_SIZE);
+
+	private final long segment;
+	private final int offset;
+
+	public JournalPosition(long segment, int offset) {
+		this.segment = segment;
+		this.offset = offset;
+	}
+
+	public long getSegment() {
+		return segment;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	@Override
+	public int compareTo(JournalPosition o) {
+		int result = Long.compare(segment, o.segment);
+		return result != 0 ? result : Integer.compare(offset, o.offset);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof JournalPosition)) {
+			return false;
+		}
+
+		JournalPosition position = (JournalPosition) o;
+		return segment == position.segment && offset == position.offset;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(segment) + offset;
+	}
+
+	@Override
+	public String toString() {
+		return segment + ":" + offset;
+	}
+}
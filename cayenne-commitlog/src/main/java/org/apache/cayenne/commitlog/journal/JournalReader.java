@@ -0,0 +1,153 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * Reads records of a commit log journal in the order they were written. The reader can
+ * be used for replay as well as for tailing the journal while it is being written: when
+ * {@link #next()} returns null, more records may become available later. A reader is
+ * not thread-safe.
+ *
+ * @see JournalWriter
+ * @since 4.1
+ */
+public class JournalReader implements Closeable {
+
+	private final File directory;
+
+	private long segment;
+	private int position;
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Creates a reader starting from the oldest record present in the journal.
+	 */
+	public JournalReader(File directory) {
+		this.directory = directory;
+
+		long[] segments = JournalSegments.listSegments(directory);
+		this.segment = segments.length > 0 ? segments[0] : 0L;
+		this.position = JournalSegments.SEGMENT_HEADER_SIZE;
+	}
+
+	/**
+	 * Creates a reader starting from the specified position, usually a
+	 * {@link JournalRecord#getNextPosition()} of the last processed record.
+	 */
+	public JournalReader(File directory, JournalPosition from) {
+		this.directory = directory;
+		this.segment = from.getSegment();
+		this.position = from.getOffset();
+	}
+
+	/**
+	 * Returns the position of the next record to be read.
+	 */
+	public JournalPosition getPosition() {
+		return new JournalPosition(segment, position);
+	}
+
+	/**
+	 * Returns the next record or null if no more records are available at the moment.
+	 */
+	public JournalRecord next() {
+
+		while (true) {
+
+			if (buffer == null) {
+				buffer = map(segment);
+				if (buffer == null) {
+					return null;
+				}
+			}
+
+			int length = JournalSegments.validRecordLength(buffer, position);
+			if (length > 0) {
+				return readRecord(length);
+			}
+
+			// the writer moves to the next segment only when done with the current one,
+			// so once the next segment appears, check again for a record written just
+			// before that
+			if (!JournalSegments.segmentFile(directory, segment + 1).exists()) {
+				return null;
+			}
+
+			length = JournalSegments.validRecordLength(buffer, position);
+			if (length > 0) {
+				return readRecord(length);
+			}
+
+			segment++;
+			position = JournalSegments.SEGMENT_HEADER_SIZE;
+			buffer = null;
+		}
+	}
+
+	@Override
+	public void close() {
+		buffer = null;
+	}
+
+	private JournalRecord readRecord(int length) {
+
+		JournalPosition recordPosition = new JournalPosition(segment, position);
+		long timestamp = buffer.getLong(position + 4);
+
+		byte[] payload = new byte[length];
+		JournalSegments.read(buffer, position + JournalSegments.RECORD_HEADER_SIZE, payload);
+
+		position += JournalSegments.RECORD_HEADER_SIZE + length;
+		return new JournalRecord(recordPosition, new JournalPosition(segment, position), timestamp, payload);
+	}
+
+	private MappedByteBuffer map(long segment) {
+
+		File file = JournalSegments.segmentFile(directory, segment);
+		if (!file.exists()) {
+			return null;
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+
+			// segment is just being created
+			if (buffer.capacity() < JournalSegments.SEGMENT_HEADER_SIZE || buffer.getInt(0) == 0) {
+				return null;
+			}
+
+			if (buffer.getInt(0) != JournalSegments.MAGIC) {
+				throw new CayenneRuntimeException("Invalid journal segment %s", file);
+			}
+
+			return buffer;
+		} catch (IOException e) {
+			throw new CayenneRuntimeException("Error mapping journal segment %s", e, file);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import org.apache.cayenne.commitlog.model.ChangeMap;
+
+/**
+ * A record read from the commit log journal.
+ *
+ * @since 4.1
+ */
+public class JournalRecord {
+
+	private final JournalPosition position;
+	private final JournalPosition nextPosition;
+	private final long timestamp;
+	private final byte[] payload;
+
+	public JournalRecord(JournalPosition position, JournalPosition nextPosition, long timestamp, byte[] payload) {
+		this.position = position;
+		this.nextPosition = nextPosition;
+		this.timestamp = timestamp;
+		this.payload = payload;
+	}
+
+	public JournalPosition getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the position right after this record, i.e. the position to resume reading
+	 * from once this record is processed.
+	 */
+	public JournalPosition getNextPosition() {
+		return nextPosition;
+	}
+
+	/**
+	 * Returns the time of the commit in milliseconds.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+	/**
+	 * Decodes the record payload written by {@link JournalCommitLogListener}.
+	 */
+	public ChangeMap getChanges(ChangeMapCodec codec) {
+		return codec.decode(payload);
+	}
+}
@@ -0,0 +1,116 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of the commit log journal files, shared by {@link JournalWriter} and
+ * {@link JournalReader}. A journal is a directory of fixed size segment files named
+ * after their sequential numbers. A segment starts with a header, followed by records,
+ * each consisting of payload length, commit timestamp, payload CRC32 and the payload.
+ * A zero length marks the end of the written part of the segment.
+ *
+ * @since 4.1
+ */
+final class JournalSegments {
+
+	static final int MAGIC = 0x434A4E4C; // "CJNL"
+	static final int VERSION = 1;
+
+	static final int SEGMENT_HEADER_SIZE = 8;
+	static final int RECORD_HEADER_SIZE = 16;
+
+	private static final String SUFFIX = ".journal";
+
+	private JournalSegments() {
+	}
+
+	static File segmentFile(File directory, long segment) {
+		return new File(directory, String.format("%020d", segment) + SUFFIX);
+	}
+
+	/**
+	 * Returns sorted numbers of the segments present in the directory.
+	 */
+	static long[] listSegments(File directory) {
+
+		String[] names = directory.list((dir, name) -> name.endsWith(SUFFIX));
+		if (names == null) {
+			return new long[0];
+		}
+
+		long[] segments = new long[names.length];
+		int len = 0;
+		for (String name : names) {
+			try {
+				segments[len] = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+				len++;
+			} catch (NumberFormatException e) {
+				// not a segment
+			}
+		}
+
+		long[] result = Arrays.copyOf(segments, len);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Returns the length of a valid record at the specified offset, 0 if there's no
+	 * record there, or -1 if the record is incomplete or corrupted.
+	 */
+	static int validRecordLength(ByteBuffer buffer, int offset) {
+
+		if (offset + RECORD_HEADER_SIZE > buffer.capacity()) {
+			return 0;
+		}
+
+		int length = buffer.getInt(offset);
+		if (length == 0) {
+			return 0;
+		}
+
+		if (length < 0 || offset + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+			return -1;
+		}
+
+		int crc = buffer.getInt(offset + 12);
+		return crc == crc(buffer, offset + RECORD_HEADER_SIZE, length) ? length : -1;
+	}
+
+	static int crc(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer payload = buffer.duplicate();
+		payload.limit(offset + length);
+		payload.position(offset);
+
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	static void read(ByteBuffer buffer, int offset, byte[] to) {
+		ByteBuffer from = buffer.duplicate();
+		from.position(offset);
+		from.get(to);
+	}
+}
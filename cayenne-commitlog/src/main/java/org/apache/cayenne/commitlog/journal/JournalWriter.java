@@ -0,0 +1,279 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * Appends records to a local commit log journal made of memory-mapped segment files.
+ * When a record doesn't fit in the current segment, the writer rotates to a new one.
+ * Only one writer may be open for a given journal directory at a time. The writer is
+ * thread-safe.
+ *
+ * @see JournalReader
+ * @since 4.1
+ */
+public class JournalWriter implements Closeable {
+
+	/**
+	 * Defines when appended records are forced to the storage device.
+	 */
+	public enum SyncPolicy {
+
+		/**
+		 * Records are written to disk by the operating system at its own pace. Commits
+		 * survive a JVM crash, but may be lost on an OS crash or power failure.
+		 */
+		NONE,
+
+		/**
+		 * Records are forced to disk on append if the sync interval has passed since the
+		 * last sync.
+		 */
+		INTERVAL,
+
+		/**
+		 * Records are forced to disk on every append.
+		 */
+		ALWAYS
+	}
+
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private final File directory;
+	private final int segmentSize;
+	private final SyncPolicy syncPolicy;
+	private final long syncInterval;
+
+	private long segment;
+	private MappedByteBuffer buffer;
+	private int position;
+	private long lastSync;
+	private boolean dirty;
+	private boolean closed;
+
+	public JournalWriter(File directory) {
+		this(directory, DEFAULT_SEGMENT_SIZE, SyncPolicy.NONE, 0L);
+	}
+
+	/**
+	 * Opens a journal in the specified directory, creating the directory if needed and
+	 * resuming after the last valid record of an existing journal.
+	 *
+	 * @param segmentSize  size of the segment files in bytes.
+	 * @param syncPolicy   when to force records to disk.
+	 * @param syncInterval minimal time in milliseconds between syncs for
+	 *                     {@link SyncPolicy#INTERVAL} policy.
+	 */
+	public JournalWriter(File directory, int segmentSize, SyncPolicy syncPolicy, long syncInterval) {
+
+		if (segmentSize <= JournalSegments.SEGMENT_HEADER_SIZE + JournalSegments.RECORD_HEADER_SIZE) {
+			throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+		}
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new CayenneRuntimeException("Can't create journal directory %s", directory);
+		}
+
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.syncPolicy = syncPolicy;
+		this.syncInterval = syncInterval;
+
+		long[] segments = JournalSegments.listSegments(directory);
+		if (segments.length == 0) {
+			openSegment(0L, segmentSize);
+		} else {
+			recover(segments[segments.length - 1]);
+		}
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Appends a record with the specified payload, applying the sync policy.
+	 */
+	public void append(byte[] payload) {
+		append(Collections.singletonList(payload));
+	}
+
+	/**
+	 * Appends several records, applying the sync policy once for all of them.
+	 */
+	public synchronized void append(List<byte[]> payloads) {
+
+		if (closed) {
+			throw new CayenneRuntimeException("Journal writer is closed");
+		}
+
+		long timestamp = System.currentTimeMillis();
+		for (byte[] payload : payloads) {
+			write(payload, timestamp);
+		}
+
+		switch (syncPolicy) {
+			case ALWAYS:
+				sync();
+				break;
+			case INTERVAL:
+				if (timestamp - lastSync >= syncInterval) {
+					sync();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Forces all appended records to the storage device.
+	 */
+	public synchronized void sync() {
+		if (dirty) {
+			buffer.force();
+			dirty = false;
+		}
+
+		lastSync = System.currentTimeMillis();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			sync();
+			closed = true;
+			buffer = null;
+		}
+	}
+
+	private void write(byte[] payload, long timestamp) {
+
+		int recordSize = JournalSegments.RECORD_HEADER_SIZE + payload.length;
+
+		// leave at least one empty int at the end of segment, so that readers can see
+		// where the data ends
+		if (position + recordSize + 4 > buffer.capacity()) {
+
+			// a record is never split, so oversized records get a segment of their own
+			int size = Math.max(segmentSize, JournalSegments.SEGMENT_HEADER_SIZE + recordSize + 4);
+
+			if (dirty) {
+				buffer.force();
+				dirty = false;
+			}
+
+			openSegment(segment + 1, size);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		buffer.putLong(position + 4, timestamp);
+		buffer.putInt(position + 12, (int) crc.getValue());
+
+		ByteBuffer data = buffer.duplicate();
+		data.position(position + JournalSegments.RECORD_HEADER_SIZE);
+		data.put(payload);
+
+		// the length goes last, making the record visible to readers
+		buffer.putInt(position, payload.length);
+
+		position += recordSize;
+		dirty = true;
+	}
+
+	private void openSegment(long segment, int size) {
+
+		File file = JournalSegments.segmentFile(directory, segment);
+		this.buffer = map(file, size);
+		this.segment = segment;
+
+		buffer.putInt(0, JournalSegments.MAGIC);
+		buffer.putInt(4, JournalSegments.VERSION);
+		this.position = JournalSegments.SEGMENT_HEADER_SIZE;
+		this.dirty = true;
+	}
+
+	private void recover(long lastSegment) {
+
+		File file = JournalSegments.segmentFile(directory, lastSegment);
+		MappedByteBuffer buffer = map(file, (int) Math.max(file.length(), segmentSize));
+
+		int magic = buffer.getInt(0);
+		if (magic == 0) {
+			// crashed while opening the segment, before the header was written; it has no
+			// records, so it is initialized from scratch
+			for (int i = 0; i < buffer.capacity(); i++) {
+				buffer.put(i, (byte) 0);
+			}
+
+			buffer.putInt(0, JournalSegments.MAGIC);
+			buffer.putInt(4, JournalSegments.VERSION);
+			buffer.force();
+		} else if (magic != JournalSegments.MAGIC) {
+			throw new CayenneRuntimeException("Invalid journal segment %s", file);
+		}
+
+		int position = JournalSegments.SEGMENT_HEADER_SIZE;
+		int length;
+		while ((length = JournalSegments.validRecordLength(buffer, position)) > 0) {
+			position += JournalSegments.RECORD_HEADER_SIZE + length;
+		}
+
+		// a record partially written before a crash; erase it, so that the leftovers
+		// are not mistaken for records later
+		if (length < 0) {
+			for (int i = position; i < buffer.capacity(); i++) {
+				buffer.put(i, (byte) 0);
+			}
+
+			buffer.force();
+		}
+
+		this.buffer = buffer;
+		this.segment = lastSegment;
+		this.position = position;
+	}
+
+	private MappedByteBuffer map(File file, int size) {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			if (raf.length() < size) {
+				raf.setLength(size);
+			}
+
+			// mapping stays valid after the channel is closed
+			return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException e) {
+			throw new CayenneRuntimeException("Error mapping journal segment %s", e, file);
+		}
+	}
+}
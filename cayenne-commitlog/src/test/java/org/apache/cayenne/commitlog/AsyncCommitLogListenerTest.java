@@ -0,0 +1,157 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.commitlog.AsyncCommitLogConfig.OverflowPolicy;
+import org.apache.cayenne.commitlog.model.ChangeMap;
+import org.apache.cayenne.commitlog.model.MutableChangeMap;
+import org.junit.Test;
+
+public class AsyncCommitLogListenerTest {
+
+	@Test
+	public void testBatching() throws InterruptedException {
+
+		BlockingListener delegate = new BlockingListener();
+		AsyncCommitLogListener listener = new AsyncCommitLogListener(delegate,
+				new AsyncCommitLogConfig(100, 3, OverflowPolicy.BLOCK));
+
+		// first commit is picked up alone, the rest queue up behind the blocked listener
+		listener.onPostCommit(null, new MutableChangeMap());
+		assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 5; i++) {
+			listener.onPostCommit(null, new MutableChangeMap());
+		}
+
+		delegate.release.countDown();
+		listener.shutdown();
+
+		assertEquals(6, delegate.changes.size());
+		assertEquals(3, delegate.batchSizes.size());
+		assertEquals(Integer.valueOf(1), delegate.batchSizes.get(0));
+		assertEquals(Integer.valueOf(3), delegate.batchSizes.get(1));
+		assertEquals(Integer.valueOf(2), delegate.batchSizes.get(2));
+		assertNotSame(Thread.currentThread(), delegate.thread);
+	}
+
+	@Test
+	public void testOverflow_Drop() throws InterruptedException {
+
+		BlockingListener delegate = new BlockingListener();
+		AsyncCommitLogListener listener = new AsyncCommitLogListener(delegate,
+				new AsyncCommitLogConfig(2, 10, OverflowPolicy.DROP));
+
+		listener.onPostCommit(null, new MutableChangeMap());
+		assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 4; i++) {
+			listener.onPostCommit(null, new MutableChangeMap());
+		}
+
+		assertEquals(2, listener.getDroppedCount());
+
+		delegate.release.countDown();
+		listener.shutdown();
+		assertEquals(3, delegate.changes.size());
+	}
+
+	@Test
+	public void testOverflow_Spill() throws InterruptedException {
+
+		BlockingListener delegate = new BlockingListener();
+		AsyncCommitLogListener listener = new AsyncCommitLogListener(delegate,
+				new AsyncCommitLogConfig(1, 10, OverflowPolicy.SPILL));
+
+		listener.onPostCommit(null, new MutableChangeMap());
+		assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+		listener.onPostCommit(null, new MutableChangeMap());
+
+		ChangeMap spilled = new MutableChangeMap();
+		listener.onPostCommit(null, spilled);
+
+		// delivered synchronously
+		assertSame(spilled, delegate.changes.get(delegate.changes.size() - 1));
+		assertSame(Thread.currentThread(), delegate.thread);
+
+		delegate.release.countDown();
+		listener.shutdown();
+		assertEquals(3, delegate.changes.size());
+	}
+
+	@Test
+	public void testShutdown_DispatchesPending() {
+
+		BlockingListener delegate = new BlockingListener();
+		delegate.release.countDown();
+
+		AsyncCommitLogListener listener = new AsyncCommitLogListener(delegate, new AsyncCommitLogConfig());
+		for (int i = 0; i < 50; i++) {
+			listener.onPostCommit(null, new MutableChangeMap());
+		}
+
+		listener.shutdown();
+		assertEquals(50, delegate.changes.size());
+
+		// after shutdown events are delivered synchronously
+		listener.onPostCommit(null, new MutableChangeMap());
+		assertEquals(51, delegate.changes.size());
+	}
+
+	static class BlockingListener implements CommitLogListener {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<ChangeMap> changes = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+		volatile Thread thread;
+
+		@Override
+		public void onPostCommit(ObjectContext originatingContext, ChangeMap changes) {
+			thread = Thread.currentThread();
+			this.changes.add(changes);
+		}
+
+		@Override
+		public void onPostCommit(List<ObjectContext> originatingContexts, List<ChangeMap> changes) {
+			entered.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			batchSizes.add(changes.size());
+			CommitLogListener.super.onPostCommit(originatingContexts, changes);
+		}
+	}
+}
@@ -19,9 +19,11 @@
 package org.apache.cayenne.commitlog;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
+import java.util.Map;
 
 import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.commitlog.model.ChangeMap;
@@ -58,6 +60,21 @@ public class CommitLogModuleBuilderTest {
 		assertTrue(listeners.get(0) instanceof L);
 	}
 
+	@Test
+	public void testAsyncListener_Class() {
+
+		AsyncCommitLogConfig config = new AsyncCommitLogConfig(10, 5, AsyncCommitLogConfig.OverflowPolicy.DROP);
+		Module m = CommitLogModule.extend().addAsyncListener(L.class, config).module();
+
+		Injector i = DIBootstrap.createInjector(m);
+		List<CommitLogListener> listeners = i.getInstance(Key.getListOf(CommitLogListener.class));
+		assertEquals(1, listeners.size());
+		assertTrue(listeners.get(0) instanceof L);
+
+		Map<String, AsyncCommitLogConfig> configs = i.getInstance(Key.getMapOf(String.class, AsyncCommitLogConfig.class));
+		assertSame(config, configs.get(L.class.getName()));
+	}
+
 	public static class L implements CommitLogListener {
 
 		@Override
@@ -0,0 +1,97 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.commitlog.model.ChangeMap;
+import org.apache.cayenne.commitlog.model.MutableChangeMap;
+import org.apache.cayenne.commitlog.model.MutableObjectChange;
+import org.apache.cayenne.commitlog.model.ObjectChange;
+import org.apache.cayenne.commitlog.model.ObjectChangeType;
+import org.junit.Test;
+
+public class ChangeMapCodecTest {
+
+	@Test
+	public void testRoundtrip() {
+
+		ObjectId tempId = new ObjectId("E1");
+		ObjectId permId = new ObjectId("E1", "ID", 5);
+
+		Map<String, Object> compound = new HashMap<>();
+		compound.put("A", 1L);
+		compound.put("B", "x");
+		ObjectId compoundId = new ObjectId("E2", compound);
+
+		Timestamp ts = new Timestamp(1000L);
+		ts.setNanos(123456789);
+
+		MutableChangeMap changes = new MutableChangeMap();
+		MutableObjectChange insert = changes.getOrCreate(tempId, ObjectChangeType.INSERT);
+		changes.aliasId(tempId, permId);
+		insert.attributeChanged("name", null, "n1");
+		insert.attributeChanged("amount", null, new BigDecimal("12.34"));
+		insert.attributeChanged("ts", null, ts);
+		insert.attributeChanged("date", null, LocalDate.of(2017, 1, 2));
+		insert.attributeChanged("data", null, new byte[] {1, 2});
+		insert.toOneRelationshipConnected("e2", compoundId);
+
+		MutableObjectChange update = changes.getOrCreate(compoundId, ObjectChangeType.UPDATE);
+		update.attributeChanged("count", 1, 2);
+		update.toManyRelationshipConnected("e1s", permId);
+		update.toManyRelationshipDisconnected("e1s", new ObjectId("E1", "ID", 6));
+
+		ChangeMapCodec codec = new ChangeMapCodec();
+		ChangeMap decoded = codec.decode(codec.encode(changes));
+
+		assertEquals(2, decoded.getUniqueChanges().size());
+		assertEquals(3, decoded.getChanges().size());
+
+		ObjectChange decodedInsert = decoded.getChanges().get(permId);
+		assertEquals(ObjectChangeType.INSERT, decodedInsert.getType());
+		assertEquals(tempId, decodedInsert.getPreCommitId());
+		assertEquals(permId, decodedInsert.getPostCommitId());
+		assertNull(decodedInsert.getAttributeChanges().get("name").getOldValue());
+		assertEquals("n1", decodedInsert.getAttributeChanges().get("name").getNewValue());
+		assertEquals(new BigDecimal("12.34"), decodedInsert.getAttributeChanges().get("amount").getNewValue());
+		assertEquals(ts, decodedInsert.getAttributeChanges().get("ts").getNewValue());
+		assertEquals(LocalDate.of(2017, 1, 2), decodedInsert.getAttributeChanges().get("date").getNewValue());
+		assertArrayEquals(new byte[] {1, 2}, (byte[]) decodedInsert.getAttributeChanges().get("data").getNewValue());
+		assertEquals(compoundId, decodedInsert.getToOneRelationshipChanges().get("e2").getNewValue());
+
+		ObjectChange decodedUpdate = decoded.getChanges().get(compoundId);
+		assertEquals(ObjectChangeType.UPDATE, decodedUpdate.getType());
+		assertEquals(1, decodedUpdate.getAttributeChanges().get("count").getOldValue());
+		assertEquals(2, decodedUpdate.getAttributeChanges().get("count").getNewValue());
+		assertEquals(Collections.singletonList(permId), decodedUpdate.getToManyRelationshipChanges().get("e1s").getAdded());
+		assertEquals(Collections.singletonList(new ObjectId("E1", "ID", 6)),
+				decodedUpdate.getToManyRelationshipChanges().get("e1s").getRemoved());
+	}
+}
@@ -0,0 +1,183 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.commitlog.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournalWriterTest {
+
+	@Rule
+	public TemporaryFolder tempDir = new TemporaryFolder();
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> readAll(JournalReader reader) {
+		List<String> result = new ArrayList<>();
+		JournalRecord record;
+		while ((record = reader.next()) != null) {
+			result.add(new String(record.getPayload(), StandardCharsets.UTF_8));
+		}
+		return result;
+	}
+
+	@Test
+	public void testAppendRead() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.ALWAYS, 0);
+		writer.append(bytes("r1"));
+		writer.append(Arrays.asList(bytes("r2"), bytes("r3")));
+
+		JournalReader reader = new JournalReader(dir);
+		assertEquals(Arrays.asList("r1", "r2", "r3"), readAll(reader));
+
+		// tailing
+		writer.append(bytes("r4"));
+		assertEquals(Arrays.asList("r4"), readAll(reader));
+
+		writer.close();
+	}
+
+	@Test
+	public void testRotation() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir, 64, JournalWriter.SyncPolicy.NONE, 0);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			String s = "record-" + i;
+			expected.add(s);
+			writer.append(bytes(s));
+		}
+
+		// oversized record gets its own segment
+		char[] big = new char[200];
+		Arrays.fill(big, 'x');
+		expected.add(new String(big));
+		writer.append(bytes(new String(big)));
+		writer.close();
+
+		assertTrue(JournalSegments.listSegments(dir).length > 5);
+		assertEquals(expected, readAll(new JournalReader(dir)));
+	}
+
+	@Test
+	public void testResume() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r1"));
+		writer.append(bytes("r2"));
+		writer.close();
+
+		JournalReader reader = new JournalReader(dir);
+		JournalRecord r1 = reader.next();
+		assertNotNull(r1);
+
+		writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r3"));
+		writer.close();
+
+		assertEquals(Arrays.asList("r2", "r3"), readAll(new JournalReader(dir, r1.getNextPosition())));
+	}
+
+	@Test
+	public void testRecover_TornRecord() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r1"));
+		writer.append(bytes("r2-long-record"));
+		writer.close();
+
+		JournalReader reader = new JournalReader(dir);
+		reader.next();
+		JournalPosition torn = reader.next().getPosition();
+
+		// corrupt the payload of the second record
+		try (RandomAccessFile raf = new RandomAccessFile(JournalSegments.segmentFile(dir, 0), "rw")) {
+			raf.seek(torn.getOffset() + JournalSegments.RECORD_HEADER_SIZE);
+			raf.write('X');
+		}
+
+		writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r3"));
+		writer.close();
+
+		assertEquals(Arrays.asList("r1", "r3"), readAll(new JournalReader(dir)));
+	}
+
+	@Test
+	public void testRecover_UnwrittenSegmentHeader() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r1"));
+		writer.close();
+
+		// a crash while opening the next segment leaves it zero-filled
+		try (RandomAccessFile raf = new RandomAccessFile(JournalSegments.segmentFile(dir, 1), "rw")) {
+			raf.setLength(1024);
+		}
+
+		writer = new JournalWriter(dir, 1024, JournalWriter.SyncPolicy.NONE, 0);
+		writer.append(bytes("r2"));
+		writer.close();
+
+		assertEquals(Arrays.asList("r1", "r2"), readAll(new JournalReader(dir)));
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		File dir = tempDir.newFolder();
+		assertNull(new JournalReader(dir).next());
+	}
+
+	@Test
+	public void testRecordPayload() throws Exception {
+		File dir = tempDir.newFolder();
+
+		JournalWriter writer = new JournalWriter(dir);
+		long before = System.currentTimeMillis();
+		writer.append(new byte[] {1, 2, 3});
+		writer.close();
+
+		JournalRecord record = new JournalReader(dir).next();
+		assertArrayEquals(new byte[] {1, 2, 3}, record.getPayload());
+		assertEquals(JournalPosition.START, record.getPosition());
+		assertTrue(record.getTimestamp() >= before);
+	}
+}
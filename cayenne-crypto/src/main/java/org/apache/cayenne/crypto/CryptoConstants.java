@@ -37,6 +37,11 @@ public interface CryptoConstants {
 
     String CIPHER_ALGORITHM = "cayenne.crypto.cipher.algorithm";
 
+    /**
+     * Cipher mode. "CBC" (default) and "GCM" are supported. In GCM mode values are
+     * encrypted and authenticated in a single pass, so HMAC is not used, and values
+     * previously encrypted in CBC mode remain readable.
+     */
     String CIPHER_MODE = "cayenne.crypto.cipher.mode";
 
     String CIPHER_PADDING = "cayenne.crypto.cipher.padding";
@@ -70,4 +75,14 @@ public interface CryptoConstants {
      */
     String USE_HMAC = "cayenne.crypto.use_hmac";
 
+    /**
+     * A property that defines whether encrypted attributes of fetched objects are
+     * decrypted when they are first read, instead of when the rows are fetched. Data
+     * rows keep the ciphertext in this mode. Queries that fetch DataRows are still
+     * decrypted eagerly. Should be "true" or "false". "False" is the default.
+     *
+     * @since 4.1
+     */
+    String LAZY_DECRYPTION = "cayenne.crypto.lazy_decryption";
+
 }
@@ -67,6 +67,7 @@ public class CryptoModuleExtender {
 
     private boolean compress;
     private boolean useHMAC;
+    private boolean lazyDecryption;
 
     // use CryptoModule.builder() to create the builder...
     protected CryptoModuleExtender() {
@@ -221,6 +222,17 @@ public class CryptoModuleExtender {
         return this;
     }
 
+    /**
+     * Enables decryption of fetched objects attributes on first access instead of
+     * decrypting all encrypted columns of each fetched row.
+     *
+     * @since 4.1
+     */
+    public CryptoModuleExtender lazyDecryption() {
+        this.lazyDecryption = true;
+        return this;
+    }
+
     /**
      * Produces a module that can be used to start Cayenne runtime.
      */
@@ -255,6 +267,10 @@ public class CryptoModuleExtender {
                 props.put(CryptoConstants.USE_HMAC, "true");
             }
 
+            if (lazyDecryption) {
+                props.put(CryptoConstants.LAZY_DECRYPTION, "true");
+            }
+
             if (keyPassword != null) {
                 CryptoModule.contributeCredentials(binder).put(CryptoConstants.KEY_PASSWORD, keyPassword);
             }
@@ -19,6 +19,7 @@
 package org.apache.cayenne.crypto.cipher;
 
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.util.Map;
 
 import javax.crypto.Cipher;
@@ -39,6 +40,9 @@ public class DefaultCipherFactory implements CipherFactory {
     protected String transformation;
     protected int blockSize;
 
+    // provider lookup is the costly part of Cipher.getInstance(..), so it is only done once
+    private volatile Provider provider;
+
     public DefaultCipherFactory(@Inject(CryptoConstants.PROPERTIES_MAP) Map<String, String> properties) {
         String algorithm = properties.get(CryptoConstants.CIPHER_ALGORITHM);
 
@@ -58,13 +62,21 @@ public class DefaultCipherFactory implements CipherFactory {
                     + CryptoConstants.CIPHER_PADDING);
         }
 
-        this.transformation = algorithm + "/" + mode + "/" + padding;
+        // GCM is a stream mode and doesn't use padding
+        this.transformation = algorithm + "/" + mode + "/" + ("GCM".equals(mode) ? "NoPadding" : padding);
     }
 
     @Override
     public Cipher cipher() {
         try {
-            return Cipher.getInstance(transformation);
+            Provider provider = this.provider;
+            if (provider != null) {
+                return Cipher.getInstance(transformation, provider);
+            }
+
+            Cipher cipher = Cipher.getInstance(transformation);
+            this.provider = cipher.getProvider();
+            return cipher;
         } catch (NoSuchAlgorithmException e) {
             throw new CayenneCryptoException("Error instantiating a cipher - no such algorithm: " + transformation, e);
         } catch (NoSuchPaddingException e) {
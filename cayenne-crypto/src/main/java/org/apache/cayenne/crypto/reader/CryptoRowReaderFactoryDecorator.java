@@ -19,6 +19,7 @@
 package org.apache.cayenne.crypto.reader;
 
 import java.sql.ResultSet;
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
@@ -27,6 +28,7 @@ import org.apache.cayenne.access.jdbc.reader.DefaultRowReaderFactory;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.types.ExtendedType;
 import org.apache.cayenne.access.types.ExtendedTypeMap;
+import org.apache.cayenne.crypto.CryptoConstants;
 import org.apache.cayenne.crypto.map.ColumnMapper;
 import org.apache.cayenne.crypto.transformer.MapTransformer;
 import org.apache.cayenne.crypto.transformer.TransformerFactory;
@@ -49,15 +51,29 @@ public class CryptoRowReaderFactoryDecorator extends DefaultRowReaderFactory {
     private ColumnMapper columnMapper;
     private BytesTransformerFactory bytesTransformerFactory;
     private ValueTransformerFactory valueTransformerFactory;
+    private boolean lazyDecryption;
+
+    public CryptoRowReaderFactoryDecorator(TransformerFactory transformerFactory,
+                                           ColumnMapper columnMapper,
+                                           BytesTransformerFactory bytesTransformerFactory,
+                                           ValueTransformerFactory valueTransformerFactory) {
+        this(transformerFactory, columnMapper, bytesTransformerFactory, valueTransformerFactory,
+                Collections.<String, String>emptyMap());
+    }
 
+    /**
+     * @since 4.1
+     */
     public CryptoRowReaderFactoryDecorator(@Inject TransformerFactory transformerFactory,
                                            @Inject ColumnMapper columnMapper,
                                            @Inject BytesTransformerFactory bytesTransformerFactory,
-                                           @Inject ValueTransformerFactory valueTransformerFactory) {
+                                           @Inject ValueTransformerFactory valueTransformerFactory,
+                                           @Inject(CryptoConstants.PROPERTIES_MAP) Map<String, String> properties) {
         this.transformerFactory = transformerFactory;
         this.columnMapper = columnMapper;
         this.bytesTransformerFactory = bytesTransformerFactory;
         this.valueTransformerFactory = valueTransformerFactory;
+        this.lazyDecryption = "true".equals(properties.get(CryptoConstants.LAZY_DECRYPTION));
     }
 
     @Override
@@ -81,7 +97,7 @@ public class CryptoRowReaderFactoryDecorator extends DefaultRowReaderFactory {
                                                  PostprocessorFactory postProcessorFactory) {
         RowReader<?> entityRowReader = super
                 .createEntityRowReader(descriptor, queryMetadata, resultMetadata, postProcessorFactory);
-        return new DecoratedFullRowReader(descriptor, entityRowReader);
+        return new DecoratedFullRowReader(descriptor, entityRowReader, isLazy(queryMetadata));
     }
 
     @Override
@@ -89,7 +105,13 @@ public class CryptoRowReaderFactoryDecorator extends DefaultRowReaderFactory {
                                                PostprocessorFactory postProcessorFactory) {
         RowReader<?> fullRowReader = super
                 .createFullRowReader(descriptor, queryMetadata, postProcessorFactory);
-        return new DecoratedFullRowReader(descriptor, fullRowReader);
+        return new DecoratedFullRowReader(descriptor, fullRowReader, isLazy(queryMetadata));
+    }
+
+    // DataRows are returned to the caller as is, so only rows that will be converted to
+    // objects can keep encrypted values
+    private boolean isLazy(QueryMetadata queryMetadata) {
+        return lazyDecryption && !queryMetadata.isFetchingDataRows();
     }
 
     protected RowDescriptor encryptedRowDescriptor(RowDescriptor descriptor, ExtendedTypeMap typeMap) {
@@ -170,17 +192,21 @@ public class CryptoRowReaderFactoryDecorator extends DefaultRowReaderFactory {
 
         private final RowDescriptor descriptor;
         private final RowReader<?> delegateReader;
+        private final boolean lazy;
         private boolean decryptorCompiled;
         private MapTransformer decryptor;
 
-        DecoratedFullRowReader(RowDescriptor descriptor, RowReader<?> delegateReader) {
+        DecoratedFullRowReader(RowDescriptor descriptor, RowReader<?> delegateReader, boolean lazy) {
             this.descriptor = descriptor;
             this.delegateReader = delegateReader;
+            this.lazy = lazy;
         }
 
         private void ensureDecryptorCompiled(Object row) {
             if (!decryptorCompiled) {
-                decryptor = transformerFactory.decryptor(descriptor.getColumns(), row);
+                decryptor = lazy
+                        ? transformerFactory.lazyDecryptor(descriptor.getColumns(), row)
+                        : transformerFactory.decryptor(descriptor.getColumns(), row);
                 decryptorCompiled = true;
             }
         }
@@ -22,6 +22,7 @@ import org.apache.cayenne.access.jdbc.ColumnDescriptor;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
 import org.apache.cayenne.access.types.ExtendedTypeMap;
 import org.apache.cayenne.crypto.map.ColumnMapper;
+import org.apache.cayenne.crypto.transformer.bytes.BytesDecryptor;
 import org.apache.cayenne.crypto.transformer.bytes.BytesTransformerFactory;
 import org.apache.cayenne.crypto.transformer.value.ValueDecryptor;
 import org.apache.cayenne.crypto.transformer.value.ValueEncryptor;
@@ -42,16 +43,54 @@ public class DefaultTransformerFactory implements TransformerFactory {
     private ColumnMapper columnMapper;
     private ValueTransformerFactory transformerFactory;
 
+    // decryptors used by lazily decrypted values, which are resolved in arbitrary threads
+    private ThreadLocal<BytesDecryptor> lazyBytesDecryptors;
+
     public DefaultTransformerFactory(@Inject ColumnMapper columnMapper,
             @Inject ValueTransformerFactory transformerFactory, @Inject BytesTransformerFactory bytesTransformerFactory) {
         this.columnMapper = columnMapper;
         this.transformerFactory = transformerFactory;
         this.bytesTransformerFactory = bytesTransformerFactory;
+        this.lazyBytesDecryptors = ThreadLocal.withInitial(bytesTransformerFactory::decryptor);
     }
 
     @Override
     public MapTransformer decryptor(ColumnDescriptor[] columns, Object sampleRow) {
 
+        List<Integer> cryptoColumns = cryptoColumns(columns, sampleRow);
+        if (cryptoColumns == null) {
+            return null;
+        }
+
+        int dlen = cryptoColumns.size();
+        String[] mapKeys = new String[dlen];
+        ValueDecryptor[] transformers = new ValueDecryptor[dlen];
+        fillDecryptors(columns, cryptoColumns, mapKeys, transformers);
+
+        return new DefaultMapTransformer(mapKeys, transformers, bytesTransformerFactory.decryptor());
+    }
+
+    /**
+     * @since 4.1
+     */
+    @Override
+    public MapTransformer lazyDecryptor(ColumnDescriptor[] columns, Object sampleRow) {
+
+        List<Integer> cryptoColumns = cryptoColumns(columns, sampleRow);
+        if (cryptoColumns == null) {
+            return null;
+        }
+
+        int dlen = cryptoColumns.size();
+        String[] mapKeys = new String[dlen];
+        ValueDecryptor[] transformers = new ValueDecryptor[dlen];
+        fillDecryptors(columns, cryptoColumns, mapKeys, transformers);
+
+        return new LazyMapTransformer(mapKeys, transformers, lazyBytesDecryptors::get);
+    }
+
+    private List<Integer> cryptoColumns(ColumnDescriptor[] columns, Object sampleRow) {
+
         if (!(sampleRow instanceof Map)) {
             return null;
         }
@@ -71,23 +110,19 @@ public class DefaultTransformerFactory implements TransformerFactory {
             }
         }
 
-        if (cryptoColumns != null) {
-
-            int dlen = cryptoColumns.size();
-            String[] mapKeys = new String[dlen];
-            ValueDecryptor[] transformers = new ValueDecryptor[dlen];
+        return cryptoColumns;
+    }
 
-            for (int i = 0; i < dlen; i++) {
+    private void fillDecryptors(ColumnDescriptor[] columns, List<Integer> cryptoColumns, String[] mapKeys,
+                                ValueDecryptor[] transformers) {
 
-                ColumnDescriptor cd = columns[cryptoColumns.get(i)];
-                mapKeys[i] = cd.getDataRowKey();
-                transformers[i] = transformerFactory.decryptor(cd.getAttribute());
-            }
+        int dlen = cryptoColumns.size();
+        for (int i = 0; i < dlen; i++) {
 
-            return new DefaultMapTransformer(mapKeys, transformers, bytesTransformerFactory.decryptor());
+            ColumnDescriptor cd = columns[cryptoColumns.get(i)];
+            mapKeys[i] = cd.getDataRowKey();
+            transformers[i] = transformerFactory.decryptor(cd.getAttribute());
         }
-
-        return null;
     }
 
     @Override
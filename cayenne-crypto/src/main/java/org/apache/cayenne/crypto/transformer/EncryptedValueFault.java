@@ -0,0 +1,94 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.apache.cayenne.Fault;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.crypto.transformer.bytes.BytesDecryptor;
+import org.apache.cayenne.crypto.transformer.value.ValueDecryptor;
+
+/**
+ * A placeholder for an encrypted attribute value that is stored in the fetched DataRow
+ * instead of the decrypted value. The value is decrypted when the attribute is first
+ * read from the object. Ciphertext is never replaced with plaintext in the DataRow
+ * itself, so the shared snapshot cache only contains encrypted data.
+ *
+ * @since 4.1
+ */
+public class EncryptedValueFault extends Fault {
+
+    private static final long serialVersionUID = -2385716482956734122L;
+
+    private final Object encrypted;
+    private final transient ValueDecryptor valueDecryptor;
+    private final transient Supplier<BytesDecryptor> bytesDecryptors;
+
+    public EncryptedValueFault(Object encrypted, ValueDecryptor valueDecryptor,
+                               Supplier<BytesDecryptor> bytesDecryptors) {
+        this.encrypted = encrypted;
+        this.valueDecryptor = valueDecryptor;
+        this.bytesDecryptors = bytesDecryptors;
+    }
+
+    @Override
+    public Object resolveFault(Persistent sourceObject, String relationshipName) {
+        return decrypt();
+    }
+
+    public Object decrypt() {
+        return valueDecryptor.decrypt(bytesDecryptors.get(), encrypted);
+    }
+
+    public Object getEncrypted() {
+        return encrypted;
+    }
+
+    // decryptors are not serializable, so the serialized form of the fault is a decrypted value
+    protected Object writeReplace() {
+        return decrypt();
+    }
+
+    // equality is defined by the ciphertext, so that refetching the same row doesn't look
+    // like a snapshot change
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof EncryptedValueFault)) {
+            return false;
+        }
+
+        Object otherEncrypted = ((EncryptedValueFault) o).encrypted;
+        if (encrypted instanceof byte[] && otherEncrypted instanceof byte[]) {
+            return Arrays.equals((byte[]) encrypted, (byte[]) otherEncrypted);
+        }
+
+        return encrypted.equals(otherEncrypted);
+    }
+
+    @Override
+    public int hashCode() {
+        return encrypted instanceof byte[] ? Arrays.hashCode((byte[]) encrypted) : encrypted.hashCode();
+    }
+}
@@ -0,0 +1,64 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.cayenne.crypto.transformer.bytes.BytesDecryptor;
+import org.apache.cayenne.crypto.transformer.value.ValueDecryptor;
+
+/**
+ * A {@link MapTransformer} that defers decryption by replacing encrypted values with
+ * {@link EncryptedValueFault}s.
+ *
+ * @since 4.1
+ */
+public class LazyMapTransformer implements MapTransformer {
+
+    private String[] mapKeys;
+    private ValueDecryptor[] transformers;
+    private Supplier<BytesDecryptor> bytesDecryptors;
+
+    /**
+     * Creates a transformer producing faults that decrypt values with the decryptors
+     * from the supplier. As faults may be resolved in any thread, the supplier must
+     * return a decryptor that is safe to use in the calling thread.
+     */
+    public LazyMapTransformer(String[] mapKeys, ValueDecryptor[] transformers,
+                              Supplier<BytesDecryptor> bytesDecryptors) {
+        this.mapKeys = mapKeys;
+        this.transformers = transformers;
+        this.bytesDecryptors = bytesDecryptors;
+    }
+
+    @Override
+    public void transform(Map<String, Object> map) {
+
+        int len = mapKeys.length;
+
+        for (int i = 0; i < len; i++) {
+            Object value = map.get(mapKeys[i]);
+
+            if (value != null) {
+                map.put(mapKeys[i], new EncryptedValueFault(value, transformers[i], bytesDecryptors));
+            }
+        }
+    }
+}
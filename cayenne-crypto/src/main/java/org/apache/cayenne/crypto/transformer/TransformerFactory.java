@@ -33,4 +33,15 @@ public interface TransformerFactory {
     BindingsTransformer encryptor(DbAttributeBinding[] bindings, ExtendedTypeMap extendedTypeMap);
 
     MapTransformer decryptor(ColumnDescriptor[] columns, Object sampleRow);
+
+    /**
+     * Returns a transformer that defers decryption of the row values until they are
+     * read from the objects. By default decrypts eagerly, same as
+     * {@link #decryptor(ColumnDescriptor[], Object)}.
+     *
+     * @since 4.1
+     */
+    default MapTransformer lazyDecryptor(ColumnDescriptor[] columns, Object sampleRow) {
+        return decryptor(columns, sampleRow);
+    }
 }
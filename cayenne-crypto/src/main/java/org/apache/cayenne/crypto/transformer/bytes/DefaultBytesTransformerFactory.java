@@ -18,11 +18,13 @@
  ****************************************************************/
 package org.apache.cayenne.crypto.transformer.bytes;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.cayenne.crypto.CayenneCryptoException;
 import org.apache.cayenne.crypto.CryptoConstants;
 import org.apache.cayenne.crypto.cipher.CipherFactory;
+import org.apache.cayenne.crypto.cipher.DefaultCipherFactory;
 import org.apache.cayenne.crypto.key.KeySource;
 import org.apache.cayenne.di.Inject;
 
@@ -38,8 +40,11 @@ public class DefaultBytesTransformerFactory implements BytesTransformerFactory {
 
     static Header createEncryptionHeader(Map<String, String> properties, KeySource keySource) {
         boolean compressed = "true".equals(properties.get(CryptoConstants.COMPRESSION));
-        boolean useHMAC = "true".equals(properties.get(CryptoConstants.USE_HMAC));
-        return Header.create(keySource.getDefaultKeyAlias(), compressed, useHMAC);
+
+        // GCM authenticates the data by itself
+        boolean gcm = "GCM".equals(properties.get(CryptoConstants.CIPHER_MODE));
+        boolean useHMAC = !gcm && "true".equals(properties.get(CryptoConstants.USE_HMAC));
+        return Header.create(keySource.getDefaultKeyAlias(), compressed, useHMAC, gcm);
     }
 
     public DefaultBytesTransformerFactory(@Inject(CryptoConstants.PROPERTIES_MAP) Map<String, String> properties,
@@ -54,11 +59,19 @@ public class DefaultBytesTransformerFactory implements BytesTransformerFactory {
 
         if ("CBC".equals(mode)) {
             this.delegate = new CbcBytesTransformerFactory(cipherFactory, keySource, encryptionHeader);
+        } else if ("GCM".equals(mode)) {
+
+            // values encrypted before switching to GCM remain readable with CBC ciphers
+            Map<String, String> cbcProperties = new HashMap<>(properties);
+            cbcProperties.put(CryptoConstants.CIPHER_MODE, "CBC");
+
+            this.delegate = new GcmBytesTransformerFactory(cipherFactory, new DefaultCipherFactory(cbcProperties),
+                    keySource, encryptionHeader);
         }
         // TODO: ECB and other modes...
         else {
             throw new CayenneCryptoException("Unsupported mode: " + mode
-                    + ". The following modes are currently supported:  CBC");
+                    + ". The following modes are currently supported:  CBC, GCM");
         }
     }
 
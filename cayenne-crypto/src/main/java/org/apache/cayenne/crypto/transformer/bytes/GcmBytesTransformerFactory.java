@@ -0,0 +1,104 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer.bytes;
+
+import java.security.Key;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+
+import org.apache.cayenne.crypto.cipher.CipherFactory;
+import org.apache.cayenne.crypto.key.KeySource;
+
+/**
+ * A {@link BytesTransformerFactory} for authenticated encryption in GCM mode. Unlike CBC
+ * with HMAC, GCM encrypts and authenticates a value in a single pass. Decryptors created
+ * by this factory can also read values encrypted in CBC mode, as the mode is recorded in
+ * the value header.
+ *
+ * @since 4.1
+ */
+class GcmBytesTransformerFactory implements BytesTransformerFactory {
+
+    private CipherFactory cbcCipherFactory;
+    private KeySource keySource;
+    private Key key;
+    private Header encryptionHeader;
+    private SecureRandom random;
+
+    // GCM ciphers are re-initialized on every call, so can be reused by all
+    // encryptors and decryptors running in a given thread
+    private ThreadLocal<Cipher> ciphers;
+
+    GcmBytesTransformerFactory(CipherFactory cipherFactory, CipherFactory cbcCipherFactory, KeySource keySource,
+            Header encryptionHeader) {
+
+        this.cbcCipherFactory = cbcCipherFactory;
+        this.keySource = keySource;
+        this.encryptionHeader = encryptionHeader;
+        this.key = keySource.getKey(keySource.getDefaultKeyAlias());
+        this.random = new SecureRandom();
+        this.ciphers = ThreadLocal.withInitial(cipherFactory::cipher);
+    }
+
+    protected byte[] generateSeedIv() {
+        byte[] iv = new byte[GcmEncryptor.IV_LENGTH];
+        random.nextBytes(iv);
+        return iv;
+    }
+
+    @Override
+    public BytesEncryptor encryptor() {
+        BytesEncryptor delegate = new GcmEncryptor(ciphers::get, key, encryptionHeader, generateSeedIv());
+
+        if (encryptionHeader.isCompressed()) {
+            delegate = new GzipEncryptor(delegate);
+        }
+
+        return new HeaderEncryptor(delegate, encryptionHeader);
+    }
+
+    @Override
+    public BytesDecryptor decryptor() {
+        BytesDecryptor cbcDecryptor = new LazyCbcDecryptor(cbcCipherFactory);
+        BytesDecryptor gzipDecryptor = new GzipDecryptor(cbcDecryptor);
+        return new HeaderDecryptor(cbcDecryptor, gzipDecryptor, ciphers::get, keySource);
+    }
+
+    // creates a CBC cipher only when a value encrypted in CBC mode is found, as normally
+    // all values are encrypted in GCM mode
+    private static class LazyCbcDecryptor implements BytesDecryptor {
+
+        private CipherFactory cipherFactory;
+        private BytesDecryptor delegate;
+
+        LazyCbcDecryptor(CipherFactory cipherFactory) {
+            this.cipherFactory = cipherFactory;
+        }
+
+        @Override
+        public byte[] decrypt(byte[] input, int inputOffset, Key key) {
+            if (delegate == null) {
+                delegate = new CbcDecryptor(cipherFactory.cipher());
+            }
+
+            return delegate.decrypt(input, inputOffset, key);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer.bytes;
+
+import java.security.Key;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.apache.cayenne.crypto.CayenneCryptoException;
+
+/**
+ * A {@link BytesDecryptor} that decrypts and authenticates the bytes encrypted by
+ * {@link GcmEncryptor}.
+ *
+ * @since 4.1
+ */
+class GcmDecryptor implements BytesDecryptor {
+
+    private Cipher cipher;
+    private Header header;
+
+    GcmDecryptor(Cipher cipher, Header header) {
+        this.cipher = cipher;
+        this.header = header;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] input, int inputOffset, Key key) {
+
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key,
+                    new GCMParameterSpec(GcmEncryptor.TAG_LENGTH_BITS, input, inputOffset, GcmEncryptor.IV_LENGTH));
+
+            byte[] aad = new byte[header.size()];
+            header.store(aad, 0, header.getFlags());
+            cipher.updateAAD(aad);
+
+            int offset = inputOffset + GcmEncryptor.IV_LENGTH;
+            return cipher.doFinal(input, offset, input.length - offset);
+        } catch (AEADBadTagException e) {
+            throw new CayenneCryptoException("Input is corrupted: authentication failed.", e);
+        } catch (Exception e) {
+            throw new CayenneCryptoException("Error on decryption", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer.bytes;
+
+import java.security.Key;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.apache.cayenne.crypto.CayenneCryptoException;
+
+/**
+ * A {@link BytesEncryptor} that encrypts the provided bytes in GCM mode, authenticating
+ * the ciphertext together with the header of the encrypted value. The output starts with
+ * the IV, followed by the ciphertext and the authentication tag. IVs are made of a random
+ * seed and a counter incremented on each encryption. The object is stateful and is not
+ * thread-safe.
+ *
+ * @since 4.1
+ */
+class GcmEncryptor implements BytesEncryptor {
+
+    static final int IV_LENGTH = 12;
+    static final int TAG_LENGTH_BITS = 128;
+
+    private Supplier<Cipher> cipherSupplier;
+    private Key key;
+    private Header header;
+    private byte[] iv;
+
+    GcmEncryptor(Supplier<Cipher> cipherSupplier, Key key, Header header, byte[] seedIv) {
+
+        if (seedIv.length != IV_LENGTH) {
+            throw new CayenneCryptoException("IV size is expected to be " + IV_LENGTH + ". Was " + seedIv.length);
+        }
+
+        this.cipherSupplier = cipherSupplier;
+        this.key = key;
+        this.header = header;
+        this.iv = Arrays.copyOf(seedIv, IV_LENGTH);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] input, int outputOffset, byte[] flags) {
+
+        Cipher cipher = cipherSupplier.get();
+
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+
+            // the header is stored in plain text, so include it in authentication
+            byte[] aad = new byte[header.size()];
+            header.store(aad, 0, flags[0]);
+            cipher.updateAAD(aad);
+
+            byte[] encrypted = new byte[outputOffset + IV_LENGTH + cipher.getOutputSize(input.length)];
+            System.arraycopy(iv, 0, encrypted, outputOffset, IV_LENGTH);
+            cipher.doFinal(input, 0, input.length, encrypted, outputOffset + IV_LENGTH);
+
+            nextIv();
+            return encrypted;
+        } catch (Exception e) {
+            throw new CayenneCryptoException("Error on encryption", e);
+        }
+    }
+
+    // increments the counter in the last 8 bytes of the IV
+    private void nextIv() {
+        for (int i = IV_LENGTH - 1; i >= IV_LENGTH - 8; i--) {
+            if (++iv[i] != 0) {
+                break;
+            }
+        }
+    }
+}
@@ -79,10 +79,23 @@ public class Header {
      */
     private static final int HMAC_BIT = 1;
 
+    /**
+     * A position of the GCM bit, set for values encrypted in the authenticated GCM mode.
+     * Values without this bit were encrypted in CBC mode.
+     */
+    private static final int GCM_BIT = 2;
+
     private byte[] data;
     private int offset;
 
     public static Header create(String keyName, boolean compressed, boolean withHMAC) {
+        return create(keyName, compressed, withHMAC, false);
+    }
+
+    /**
+     * @since 4.1
+     */
+    public static Header create(String keyName, boolean compressed, boolean withHMAC, boolean gcm) {
         byte[] keyNameBytes;
         try {
             keyNameBytes = keyName.getBytes(KEY_NAME_CHARSET);
@@ -110,6 +123,9 @@ public class Header {
         if (withHMAC) {
             data[FLAGS_POSITION] = bitOn(data[FLAGS_POSITION], HMAC_BIT);
         }
+        if (gcm) {
+            data[FLAGS_POSITION] = bitOn(data[FLAGS_POSITION], GCM_BIT);
+        }
 
         // key name
         System.arraycopy(keyNameBytes, 0, data, KEY_NAME_OFFSET, keyNameBytes.length);
@@ -159,6 +175,13 @@ public class Header {
         return isBitOn(getFlags(), HMAC_BIT);
     }
 
+    /**
+     * @since 4.1
+     */
+    public boolean isGcm() {
+        return isBitOn(getFlags(), GCM_BIT);
+    }
+
     public byte getFlags() {
         return data[offset + FLAGS_POSITION];
     }
@@ -19,6 +19,11 @@
 package org.apache.cayenne.crypto.transformer.bytes;
 
 import java.security.Key;
+import java.util.function.Supplier;
+
+import javax.crypto.Cipher;
+
+import org.apache.cayenne.crypto.CayenneCryptoException;
 
 import org.apache.cayenne.crypto.key.KeySource;
 
@@ -30,11 +35,21 @@ class HeaderDecryptor implements BytesDecryptor {
     private KeySource keySource;
     private BytesDecryptor delegate;
     private BytesDecryptor decompressDelegate;
+    private Supplier<Cipher> gcmCiphers;
 
     HeaderDecryptor(BytesDecryptor delegate, BytesDecryptor decompressDelegate, KeySource keySource) {
+        this(delegate, decompressDelegate, null, keySource);
+    }
+
+    /**
+     * @since 4.1
+     */
+    HeaderDecryptor(BytesDecryptor delegate, BytesDecryptor decompressDelegate, Supplier<Cipher> gcmCiphers,
+            KeySource keySource) {
         this.delegate = delegate;
         this.keySource = keySource;
         this.decompressDelegate = decompressDelegate;
+        this.gcmCiphers = gcmCiphers;
     }
 
     @Override
@@ -45,6 +60,16 @@ class HeaderDecryptor implements BytesDecryptor {
         // ignoring the parameter key... using the key from the first block
         Key inRecordKey = keySource.getKey(header.getKeyName());
 
+        if (header.isGcm()) {
+            if (gcmCiphers == null) {
+                throw new CayenneCryptoException("Value is encrypted in GCM mode, which is not configured");
+            }
+
+            BytesDecryptor gcmDecryptor = new GcmDecryptor(gcmCiphers.get(), header);
+            BytesDecryptor worker = header.isCompressed() ? new GzipDecryptor(gcmDecryptor) : gcmDecryptor;
+            return worker.decrypt(input, inputOffset + header.size(), inRecordKey);
+        }
+
         // if compression was used to create a record, filter through GzipDecryptor...
         BytesDecryptor worker = header.isCompressed() ? decompressDelegate : delegate;
         // if record has HMAC, create appropriate decryptor
@@ -39,26 +39,61 @@ abstract class HmacCreator {
      */
     public static final String DEFAULT_HMAC_ALGORITHM = "HmacSHA256";
 
+    // Mac.getInstance() is expensive, so reuse instances per thread. Mac is only
+    // re-initialized when used with a different key.
+    private static final ThreadLocal<KeyedMac> MACS = new ThreadLocal<>();
+
     private Header header;
-    private Mac mac;
+    private Key key;
 
     HmacCreator(Header header, Key key) {
         this.header = header;
+        this.key = key;
+
+        // fail early on unsupported algorithm or invalid key
+        mac();
+    }
+
+    byte[] createHmac(byte[] input) {
+        byte[] rawHeader = new byte[header.size()];
+        header.store(rawHeader, 0, header.getFlags());
+        Mac mac = mac();
+        mac.update(rawHeader);
+        return mac.doFinal(input);
+    }
+
+    private Mac mac() {
+
+        KeyedMac keyedMac = MACS.get();
+
         try {
-            // Currently algorithm is hardcoded, but can be easily transformed into configurable parameter
-            mac = Mac.getInstance(DEFAULT_HMAC_ALGORITHM);
-            mac.init(key);
+            if (keyedMac == null) {
+                // Currently algorithm is hardcoded, but can be easily transformed into configurable parameter
+                keyedMac = new KeyedMac(Mac.getInstance(DEFAULT_HMAC_ALGORITHM));
+                MACS.set(keyedMac);
+            }
+
+            if (keyedMac.key != key) {
+                keyedMac.key = null;
+                keyedMac.mac.init(key);
+                keyedMac.key = key;
+            }
         } catch (NoSuchAlgorithmException nsae) {
             throw new CayenneRuntimeException("Algorithm %s not supported for HMAC generation", nsae, DEFAULT_HMAC_ALGORITHM);
         } catch (InvalidKeyException ike) {
             throw new CayenneRuntimeException("Invalid key for HMAC generation", ike);
         }
+
+        return keyedMac.mac;
     }
 
-    byte[] createHmac(byte[] input) {
-        byte[] rawHeader = new byte[header.size()];
-        header.store(rawHeader, 0, header.getFlags());
-        mac.update(rawHeader);
-        return mac.doFinal(input);
+    private static final class KeyedMac {
+
+        final Mac mac;
+        Key key;
+
+        KeyedMac(Mac mac) {
+            this.mac = mac;
+        }
     }
 }
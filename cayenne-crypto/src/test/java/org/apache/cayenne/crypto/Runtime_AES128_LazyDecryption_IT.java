@@ -0,0 +1,170 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto;
+
+import java.net.URL;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.crypto.db.Table1;
+import org.apache.cayenne.crypto.key.JceksKeySourceTest;
+import org.apache.cayenne.crypto.transformer.EncryptedValueFault;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.query.ObjectIdQuery;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SelectById;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class Runtime_AES128_LazyDecryption_IT extends Runtime_AES128_Base {
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp(false, false);
+    }
+
+    @Override
+    protected Module createCryptoModule(boolean compress, boolean useHMAC) {
+        URL keyStoreUrl = JceksKeySourceTest.class.getResource(JceksKeySourceTest.KS1_JCEKS);
+
+        return CryptoModule
+                .extend()
+                .keyStore(keyStoreUrl, JceksKeySourceTest.TEST_KEY_PASS, "k3")
+                .lazyDecryption()
+                .module();
+    }
+
+    private void insertTable1() {
+        ObjectContext context = runtime.newContext();
+
+        Table1 t1 = context.newObject(Table1.class);
+        t1.setPlainString("plain_1");
+        t1.setCryptoString("crypto_1");
+        t1.setPlainInt(1);
+        t1.setCryptoInt(11);
+
+        context.commitChanges();
+        runtime.getDataDomain().getSharedSnapshotCache().clear();
+    }
+
+    @Test
+    public void testSelect_DecryptedOnRead() {
+        insertTable1();
+
+        Table1 t1 = ObjectSelect.query(Table1.class).selectOne(runtime.newContext());
+
+        // ciphertext is kept in the snapshot, and not yet in the object
+        DataRow snapshot = runtime.getDataDomain().getSharedSnapshotCache().getCachedSnapshot(t1.getObjectId());
+        assertTrue(snapshot.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+        assertNull(t1.readPropertyDirectly(Table1.CRYPTO_STRING.getName()));
+
+        assertEquals("plain_1", t1.getPlainString());
+        assertEquals("crypto_1", t1.getCryptoString());
+        assertEquals(11, t1.getCryptoInt());
+        assertEquals("crypto_1", t1.readPropertyDirectly(Table1.CRYPTO_STRING.getName()));
+        assertTrue(snapshot.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+    }
+
+    @Test
+    public void testUpdate_UnreadEncryptedValuesPreserved() throws SQLException {
+        insertTable1();
+
+        ObjectContext context = runtime.newContext();
+        Table1 t1 = ObjectSelect.query(Table1.class).selectOne(context);
+        t1.setPlainString("plain_2");
+        context.commitChanges();
+
+        Object[] data = table1.select();
+        assertEquals("plain_2", data[1]);
+
+        DataRow row = ObjectSelect.dataRowQuery(Table1.class).selectOne(runtime.newContext());
+        assertEquals("crypto_1", row.get("CRYPTO_STRING"));
+        assertEquals(11, row.get("CRYPTO_INT"));
+
+        Table1 t2 = ObjectSelect.query(Table1.class).selectOne(runtime.newContext());
+        assertEquals("crypto_1", t2.getCryptoString());
+        assertEquals(11, t2.getCryptoInt());
+    }
+
+    @Test
+    public void testSelect_DataRows() {
+        insertTable1();
+
+        List<DataRow> rows = ObjectSelect.dataRowQuery(Table1.class).select(runtime.newContext());
+        assertEquals(1, rows.size());
+        assertEquals("crypto_1", rows.get(0).get("CRYPTO_STRING"));
+    }
+
+    @Test
+    public void testNestedContext() {
+        insertTable1();
+
+        ObjectContext parent = runtime.newContext();
+        Table1 t1 = ObjectSelect.query(Table1.class).selectOne(parent);
+
+        ObjectContext child = runtime.newContext(parent);
+        Table1 childT1 = child.localObject(t1);
+        assertEquals("crypto_1", childT1.getCryptoString());
+    }
+
+    @Test
+    public void testCurrentSnapshot_Hollow() {
+        insertTable1();
+
+        DataContext context = (DataContext) runtime.newContext();
+        Table1 t1 = ObjectSelect.query(Table1.class).selectOne(context);
+        t1.setPersistenceState(PersistenceState.HOLLOW);
+
+        // snapshots exposed to the callers contain decrypted values
+        assertEquals("crypto_1", context.currentSnapshot(t1).get("CRYPTO_STRING"));
+        assertEquals("crypto_1", context.getObjectStore().getSnapshot(t1.getObjectId()).get("CRYPTO_STRING"));
+
+        DataRow cached = runtime.getDataDomain().getSharedSnapshotCache().getCachedSnapshot(t1.getObjectId());
+        assertTrue(cached.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+    }
+
+    @Test
+    public void testSelectDataRows_CacheHit() {
+        insertTable1();
+
+        // warm up the shared cache with a snapshot that holds faulted values
+        Table1 t1 = ObjectSelect.query(Table1.class).selectOne(runtime.newContext());
+        DataRow cached = runtime.getDataDomain().getSharedSnapshotCache().getCachedSnapshot(t1.getObjectId());
+        assertTrue(cached.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+
+        DataRow row = (DataRow) runtime.newContext()
+                .performQuery(new ObjectIdQuery(t1.getObjectId(), true, ObjectIdQuery.CACHE)).get(0);
+        assertEquals("crypto_1", row.get("CRYPTO_STRING"));
+        assertEquals(11, row.get("CRYPTO_INT"));
+
+        DataRow byId = SelectById.dataRowQuery(t1.getObjectId()).selectOne(runtime.newContext());
+        assertEquals("crypto_1", byId.get("CRYPTO_STRING"));
+
+        // the cached snapshot is not modified
+        assertTrue(cached.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+    }
+}
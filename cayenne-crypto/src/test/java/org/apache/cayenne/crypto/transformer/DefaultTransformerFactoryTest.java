@@ -0,0 +1,82 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.crypto.map.ColumnMapper;
+import org.apache.cayenne.crypto.transformer.bytes.BytesDecryptor;
+import org.apache.cayenne.crypto.transformer.bytes.BytesTransformerFactory;
+import org.apache.cayenne.crypto.transformer.value.ValueDecryptor;
+import org.apache.cayenne.crypto.transformer.value.ValueTransformerFactory;
+import org.apache.cayenne.map.DbAttribute;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultTransformerFactoryTest {
+
+    @Test
+    public void testLazyDecryptor_ReusesBytesDecryptor() {
+
+        DbAttribute attribute = new DbAttribute("CRYPTO_STRING", Types.VARBINARY, null);
+
+        ColumnMapper columnMapper = mock(ColumnMapper.class);
+        when(columnMapper.isEncrypted(attribute)).thenReturn(true);
+
+        BytesDecryptor bytesDecryptor = mock(BytesDecryptor.class);
+        BytesTransformerFactory bytesTransformerFactory = mock(BytesTransformerFactory.class);
+        when(bytesTransformerFactory.decryptor()).thenReturn(bytesDecryptor);
+
+        ValueDecryptor valueDecryptor = mock(ValueDecryptor.class);
+        when(valueDecryptor.decrypt(same(bytesDecryptor), any())).thenReturn("decrypted");
+        ValueTransformerFactory valueTransformerFactory = mock(ValueTransformerFactory.class);
+        when(valueTransformerFactory.decryptor(attribute)).thenReturn(valueDecryptor);
+
+        DefaultTransformerFactory factory = new DefaultTransformerFactory(columnMapper, valueTransformerFactory,
+                bytesTransformerFactory);
+
+        ColumnDescriptor[] columns = {new ColumnDescriptor(attribute, null)};
+        Map<String, Object> row1 = new HashMap<>();
+        row1.put("CRYPTO_STRING", new byte[1]);
+        Map<String, Object> row2 = new HashMap<>();
+        row2.put("CRYPTO_STRING", new byte[2]);
+
+        MapTransformer transformer = factory.lazyDecryptor(columns, row1);
+        transformer.transform(row1);
+        transformer.transform(row2);
+
+        assertTrue(row1.get("CRYPTO_STRING") instanceof EncryptedValueFault);
+        assertEquals("decrypted", ((EncryptedValueFault) row1.get("CRYPTO_STRING")).decrypt());
+        assertEquals("decrypted", ((EncryptedValueFault) row2.get("CRYPTO_STRING")).decrypt());
+
+        // a single decryptor is created for all values decrypted in a thread
+        verify(bytesTransformerFactory, times(1)).decryptor();
+    }
+}
@@ -0,0 +1,151 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.crypto.transformer.bytes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.cayenne.crypto.CayenneCryptoException;
+import org.apache.cayenne.crypto.CryptoConstants;
+import org.apache.cayenne.crypto.cipher.CipherFactory;
+import org.apache.cayenne.crypto.cipher.DefaultCipherFactory;
+import org.apache.cayenne.crypto.key.KeySource;
+import org.apache.cayenne.crypto.unit.CryptoUnitUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GcmBytesTransformerFactoryTest {
+
+    private KeySource keySource;
+    private Map<String, String> properties;
+
+    @Before
+    public void before() {
+        Key key = new SecretKeySpec(CryptoUnitUtils.hexToBytes("0a0b0c0d0e0f10111213141516171819"), "AES");
+
+        keySource = mock(KeySource.class);
+        when(keySource.getDefaultKeyAlias()).thenReturn("k1");
+        when(keySource.getKey("k1")).thenReturn(key);
+
+        properties = new HashMap<>();
+        properties.put(CryptoConstants.CIPHER_ALGORITHM, "AES");
+        properties.put(CryptoConstants.CIPHER_PADDING, "PKCS5Padding");
+    }
+
+    private BytesTransformerFactory factory(String mode) {
+        properties.put(CryptoConstants.CIPHER_MODE, mode);
+        return new DefaultBytesTransformerFactory(properties, new DefaultCipherFactory(properties), keySource);
+    }
+
+    @Test
+    public void testEncryptDecrypt() {
+        BytesTransformerFactory factory = factory("GCM");
+        BytesEncryptor encryptor = factory.encryptor();
+
+        byte[] input = CryptoUnitUtils.bytesOfSize(100);
+        byte[] encrypted1 = encryptor.encrypt(input, 0, new byte[1]);
+        byte[] encrypted2 = encryptor.encrypt(input, 0, new byte[1]);
+
+        Header header = Header.create(encrypted1, 0);
+        assertTrue(header.isGcm());
+        assertFalse(header.haveHMAC());
+
+        // IV must never repeat
+        assertFalse(java.util.Arrays.equals(encrypted1, encrypted2));
+
+        BytesDecryptor decryptor = factory.decryptor();
+        assertArrayEquals(input, decryptor.decrypt(encrypted1, 0, null));
+        assertArrayEquals(input, decryptor.decrypt(encrypted2, 0, null));
+    }
+
+    @Test
+    public void testEncryptDecrypt_Compressed() {
+        properties.put(CryptoConstants.COMPRESSION, "true");
+        BytesTransformerFactory factory = factory("GCM");
+
+        byte[] input = new byte[GzipEncryptor.GZIP_THRESHOLD + 100];
+        byte[] encrypted = factory.encryptor().encrypt(input, 0, new byte[1]);
+        assertTrue(Header.create(encrypted, 0).isCompressed());
+        assertTrue(encrypted.length < input.length);
+
+        assertArrayEquals(input, factory.decryptor().decrypt(encrypted, 0, null));
+    }
+
+    @Test
+    public void testDecrypt_Tampered() {
+        BytesTransformerFactory factory = factory("GCM");
+
+        byte[] encrypted = factory.encryptor().encrypt(CryptoUnitUtils.bytesOfSize(20), 0, new byte[1]);
+        encrypted[encrypted.length - 1] ^= 1;
+
+        try {
+            factory.decryptor().decrypt(encrypted, 0, null);
+            fail("Tampered value must not be decrypted");
+        } catch (CayenneCryptoException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDecrypt_CbcValue() {
+        properties.put(CryptoConstants.USE_HMAC, "true");
+
+        byte[] input = CryptoUnitUtils.bytesOfSize(50);
+        byte[] cbcEncrypted = factory("CBC").encryptor().encrypt(input, 0, new byte[1]);
+        assertFalse(Header.create(cbcEncrypted, 0).isGcm());
+
+        assertArrayEquals(input, factory("GCM").decryptor().decrypt(cbcEncrypted, 0, null));
+    }
+
+    @Test
+    public void testDecrypt_CbcCipherCreatedOnDemand() {
+        properties.put(CryptoConstants.CIPHER_MODE, "GCM");
+        Map<String, String> cbcProperties = new HashMap<>(properties);
+        cbcProperties.put(CryptoConstants.CIPHER_MODE, "CBC");
+        properties.put(CryptoConstants.USE_HMAC, "true");
+
+        CipherFactory cbcCipherFactory = spy(new DefaultCipherFactory(cbcProperties));
+        BytesTransformerFactory factory = new GcmBytesTransformerFactory(new DefaultCipherFactory(properties),
+                cbcCipherFactory, keySource, Header.create("k1", false, false, true));
+
+        byte[] input = CryptoUnitUtils.bytesOfSize(50);
+        BytesDecryptor decryptor = factory.decryptor();
+        assertArrayEquals(input, decryptor.decrypt(factory.encryptor().encrypt(input, 0, new byte[1]), 0, null));
+        verify(cbcCipherFactory, never()).cipher();
+
+        byte[] cbcEncrypted = factory("CBC").encryptor().encrypt(input, 0, new byte[1]);
+        assertArrayEquals(input, decryptor.decrypt(cbcEncrypted, 0, null));
+        assertArrayEquals(input, decryptor.decrypt(cbcEncrypted, 0, null));
+        verify(cbcCipherFactory, times(1)).cipher();
+    }
+}
@@ -300,6 +300,20 @@ public class DbImportConfiguration {
         this.dbLoaderConfiguration.setSkipPrimaryKeyLoading(skipPrimaryKeyLoading);
     }
 
+    /**
+     * @since 4.1
+     */
+    public void setThreadCount(int threadCount) {
+        dbLoaderConfiguration.setThreadCount(threadCount);
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setBulkMetadataLoading(Boolean bulkMetadataLoading) {
+        dbLoaderConfiguration.setBulkMetadataLoading(bulkMetadataLoading);
+    }
+
     public void setTableTypes(String[] tableTypes) {
         dbLoaderConfiguration.setTableTypes(tableTypes);
     }
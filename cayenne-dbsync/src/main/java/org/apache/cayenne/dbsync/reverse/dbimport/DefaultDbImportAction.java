@@ -201,7 +201,7 @@ public class DefaultDbImportAction implements DbImportAction {
         }
 
         try (Connection connection = dataSource.getConnection()) {
-            sourceDataMap = load(config, adapter, connection);
+            sourceDataMap = load(config, adapter, dataSource, connection);
         }
 
         if (targetDataMap == null) {
@@ -561,11 +561,34 @@ public class DefaultDbImportAction implements DbImportAction {
     }
 
     protected DataMap load(DbImportConfiguration config, DbAdapter adapter, Connection connection) throws Exception {
-        return createDbLoader(adapter, connection, config).load();
+        return load(config, adapter, null, connection);
+    }
+
+    /**
+     * @since 4.1 takes a DataSource used to open extra connections for parallel loading
+     */
+    protected DataMap load(DbImportConfiguration config, DbAdapter adapter, DataSource dataSource, Connection connection)
+            throws Exception {
+
+        // serial loading doesn't need the DataSource, so the loader comes from the original factory method that
+        // subclasses may have overridden
+        DbLoaderConfiguration loaderConfig = config.getDbLoaderConfig();
+        DbLoader loader = dataSource != null && loaderConfig != null && loaderConfig.getThreadCount() > 1
+                ? createDbLoader(adapter, dataSource, connection, config)
+                : createDbLoader(adapter, connection, config);
+        return loader.load();
     }
 
     protected DbLoader createDbLoader(DbAdapter adapter, Connection connection, DbImportConfiguration config) {
-        return new DbLoader(adapter, connection,
+        return createDbLoader(adapter, null, connection, config);
+    }
+
+    /**
+     * @since 4.1 takes a DataSource used to open extra connections for parallel loading
+     */
+    protected DbLoader createDbLoader(DbAdapter adapter, DataSource dataSource, Connection connection,
+                                      DbImportConfiguration config) {
+        return new DbLoader(adapter, connection, dataSource,
                 config.getDbLoaderConfig(),
                 config.createLoaderDelegate(),
                 config.createNameGenerator());
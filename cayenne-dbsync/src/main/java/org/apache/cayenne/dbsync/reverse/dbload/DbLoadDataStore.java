@@ -83,7 +83,8 @@ public class DbLoadDataStore extends DataMap {
         addProcedure(procedure);
     }
 
-    void addExportedKey(ExportedKey key) {
+    // keys may be loaded by several threads in parallel
+    synchronized void addExportedKey(ExportedKey key) {
         Set<ExportedKey> exportedKeys = this.exportedKeys.get(key.getStrKey());
         if (exportedKeys == null) {
             exportedKeys = new TreeSet<>();
@@ -21,27 +21,45 @@ package org.apache.cayenne.dbsync.reverse.dbload;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dbsync.naming.ObjectNameGenerator;
 import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.DbEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Loads DB schema into a DataMap, creating DbEntities and Procedures. Consists of a list of specialized loaders that
  * iteratively load parts of metadata, such as Entity names, Attributes, Relationships, etc.
+ * <p>
+ * If created with a DataSource and configured with more than one thread (see
+ * {@link DbLoaderConfiguration#getThreadCount()}), per-table metadata is loaded in parallel over several connections.
  *
  * @see AbstractLoader and its descendants
  * @since 4.0
  */
 public class DbLoader {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DbLoader.class);
+
     private List<AbstractLoader> loaders = new ArrayList<>();
 
     private final Connection connection;
+    private final DataSource dataSource;
     private final DbAdapter adapter;
     private final DbLoaderConfiguration config;
     private final DbLoaderDelegate delegate;
@@ -49,8 +67,20 @@ public class DbLoader {
 
     public DbLoader(DbAdapter adapter, Connection connection, DbLoaderConfiguration config,
                     DbLoaderDelegate delegate, ObjectNameGenerator nameGenerator) {
+        this(adapter, connection, null, config, delegate, nameGenerator);
+    }
+
+    /**
+     * Creates a loader that opens additional connections from the DataSource, if configured to load metadata in
+     * parallel.
+     *
+     * @since 4.1
+     */
+    public DbLoader(DbAdapter adapter, Connection connection, DataSource dataSource, DbLoaderConfiguration config,
+                    DbLoaderDelegate delegate, ObjectNameGenerator nameGenerator) {
         this.adapter = Objects.requireNonNull(adapter);
         this.connection = Objects.requireNonNull(connection);
+        this.dataSource = dataSource;
         this.config = Objects.requireNonNull(config);
         this.nameGenerator = Objects.requireNonNull(nameGenerator);
         this.delegate = delegate == null ? new DefaultDbLoaderDelegate() : delegate;
@@ -78,12 +108,99 @@ public class DbLoader {
         DbLoadDataStore loadedData = new DbLoadDataStore();
         DatabaseMetaData metaData = connection.getMetaData();
 
-        for(AbstractLoader loader : loaders) {
-            loader.load(metaData, loadedData);
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (AbstractLoader loader : loaders) {
+                if (loader instanceof PerEntityLoader && isParallel(loadedData)) {
+                    if (connections.isEmpty()) {
+                        openConnections(connections);
+                    }
+                    loadInParallel((PerEntityLoader) loader, loadedData, connections);
+                } else {
+                    loader.load(metaData, loadedData);
+                }
+            }
+        } finally {
+            closeConnections(connections);
         }
         return loadedData;
     }
 
+    private boolean isParallel(DbLoadDataStore loadedData) {
+        return dataSource != null && config.getThreadCount() > 1 && loadedData.getDbEntities().size() > 1;
+    }
+
+    private void openConnections(List<Connection> connections) throws SQLException {
+        // main connection is used as one of the workers
+        connections.add(connection);
+        for (int i = 1; i < config.getThreadCount(); i++) {
+            connections.add(dataSource.getConnection());
+        }
+    }
+
+    private void closeConnections(List<Connection> connections) {
+        for (Connection c : connections) {
+            if (c == connection) {
+                continue;
+            }
+
+            try {
+                c.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Error closing connection", e);
+            }
+        }
+    }
+
+    private void loadInParallel(PerEntityLoader loader, DbLoadDataStore loadedData, List<Connection> connections)
+            throws SQLException {
+
+        // workers pick units of work from the shared queue, so that slow tables or schemas don't stall other workers
+        Queue<Collection<DbEntity>> partitions = new ConcurrentLinkedQueue<>(loader.partition(loadedData));
+        ExecutorService executor = createExecutor(connections.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>(connections.size());
+            for (Connection c : connections) {
+                DatabaseMetaData metaData = c.getMetaData();
+                futures.add(executor.submit(() -> {
+                    Collection<DbEntity> partition;
+                    while ((partition = partitions.poll()) != null) {
+                        loader.load(metaData, loadedData, partition);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading metadata", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Error loading metadata", cause);
+        } finally {
+            // stop other workers on failure
+            partitions.clear();
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createExecutor(int size) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "cayenne-dbloader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     //// Utility methods that better be moved somewhere ////
 
     /**
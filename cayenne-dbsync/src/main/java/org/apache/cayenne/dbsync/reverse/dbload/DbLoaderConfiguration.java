@@ -32,6 +32,8 @@ public class DbLoaderConfiguration {
     private Boolean skipPrimaryKeyLoading;
     private String[] tableTypes;
     private FiltersConfig filtersConfig;
+    private int threadCount = 1;
+    private Boolean bulkMetadataLoading;
 
     public String[] getTableTypes() {
         return tableTypes;
@@ -69,6 +71,40 @@ public class DbLoaderConfiguration {
         this.skipPrimaryKeyLoading = skipPrimaryKeyLoading;
     }
 
+    /**
+     * Returns a number of threads, each with its own JDBC connection, that are used to load per-table metadata, such
+     * as primary and foreign keys. Parallel loading requires a DataSource passed to {@link DbLoader}.
+     *
+     * @since 4.1
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(threadCount, 1);
+    }
+
+    /**
+     * Returns whether primary and foreign keys should be loaded with a single metadata call per catalog and schema,
+     * instead of a call per table. Loader falls back to per-table calls if the driver doesn't support that.
+     *
+     * @since 4.1
+     */
+    public boolean isBulkMetadataLoading() {
+        return bulkMetadataLoading != null && bulkMetadataLoading;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setBulkMetadataLoading(Boolean bulkMetadataLoading) {
+        this.bulkMetadataLoading = bulkMetadataLoading;
+    }
+
     @Override
     public String toString() {
         String res = "EntitiesFilters: " + getFiltersConfig();
@@ -80,6 +116,10 @@ public class DbLoaderConfiguration {
             res += "\n Skip Loading PrimaryKeys! \n";
         }
 
+        if (getThreadCount() > 1) {
+            res += "\n Loading Threads: " + getThreadCount() + " \n";
+        }
+
         return res;
     }
 }
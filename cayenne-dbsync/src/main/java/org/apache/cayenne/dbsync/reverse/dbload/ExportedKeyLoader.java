@@ -53,6 +53,16 @@ class ExportedKeyLoader extends PerEntityLoader {
         return metaData.getExportedKeys(dbEntity.getCatalog(), dbEntity.getSchema(), dbEntity.getName());
     }
 
+    @Override
+    ResultSet getBulkResultSet(String catalogName, String schemaName, DatabaseMetaData metaData) throws SQLException {
+        return metaData.getExportedKeys(catalogName, schemaName, null);
+    }
+
+    @Override
+    String getBulkColumnPrefix() {
+        return "PK";
+    }
+
     @Override
     void processResultSet(DbEntity dbEntity, DbLoadDataStore map, ResultSet rs) throws SQLException {
         ExportedKey key = new ExportedKey(rs);
@@ -22,9 +22,18 @@ package org.apache.cayenne.dbsync.reverse.dbload;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.util.Util;
 
 public abstract class PerEntityLoader extends AbstractLoader {
 
@@ -34,10 +43,51 @@ public abstract class PerEntityLoader extends AbstractLoader {
 
     @Override
     public void load(DatabaseMetaData metaData, DbLoadDataStore map) throws SQLException {
+        for(Collection<DbEntity> partition : partition(map)) {
+            load(metaData, map, partition);
+        }
+    }
+
+    /**
+     * Splits entities that should be loaded into independent units of work, that can be loaded in parallel.
+     * With bulk metadata loading each unit contains all entities of a single catalog and schema, otherwise each
+     * entity is a separate unit.
+     *
+     * @since 4.1
+     */
+    List<Collection<DbEntity>> partition(DbLoadDataStore map) {
+        if(!config.isBulkMetadataLoading()) {
+            List<Collection<DbEntity>> partitions = new ArrayList<>();
+            for(DbEntity dbEntity : map.getDbEntities()) {
+                if(shouldLoad(dbEntity)) {
+                    partitions.add(Collections.singletonList(dbEntity));
+                }
+            }
+            return partitions;
+        }
+
+        Map<List<String>, Collection<DbEntity>> partitions = new LinkedHashMap<>();
         for(DbEntity dbEntity : map.getDbEntities()) {
-            if(!shouldLoad(dbEntity)) {
-                continue;
+            if(shouldLoad(dbEntity)) {
+                partitions.computeIfAbsent(Arrays.asList(dbEntity.getCatalog(), dbEntity.getSchema()),
+                        k -> new ArrayList<>()).add(dbEntity);
             }
+        }
+        return new ArrayList<>(partitions.values());
+    }
+
+    /**
+     * Loads metadata of the given entities, that must be a single unit of work returned from
+     * {@link #partition(DbLoadDataStore)}.
+     *
+     * @since 4.1
+     */
+    void load(DatabaseMetaData metaData, DbLoadDataStore map, Collection<DbEntity> entities) throws SQLException {
+        if(entities.size() > 1 && config.isBulkMetadataLoading() && loadBulk(metaData, map, entities)) {
+            return;
+        }
+
+        for(DbEntity dbEntity : entities) {
             try(ResultSet rs = getResultSet(dbEntity, metaData)) {
                 while(rs.next()) {
                     processResultSet(dbEntity, map, rs);
@@ -50,6 +100,47 @@ public abstract class PerEntityLoader extends AbstractLoader {
         }
     }
 
+    /**
+     * Loads metadata of all entities of a single catalog and schema with one call, passing null table name to the
+     * driver. As not all drivers support this, returns false if the call failed or returned no rows, so that
+     * entities are loaded one by one.
+     */
+    private boolean loadBulk(DatabaseMetaData metaData, DbLoadDataStore map, Collection<DbEntity> entities) {
+        Map<String, DbEntity> entitiesByName = new HashMap<>();
+        for(DbEntity dbEntity : entities) {
+            entitiesByName.put(dbEntity.getName(), dbEntity);
+        }
+
+        DbEntity first = entities.iterator().next();
+        boolean loaded = false;
+        try(ResultSet rs = getBulkResultSet(first.getCatalog(), first.getSchema(), metaData)) {
+            if(rs == null) {
+                return false;
+            }
+
+            String prefix = getBulkColumnPrefix();
+            while(rs.next()) {
+                loaded = true;
+                DbEntity dbEntity = entitiesByName.get(rs.getString(prefix + "TABLE_NAME"));
+                if(dbEntity != null
+                        && matches(dbEntity.getCatalog(), rs.getString(prefix + "TABLE_CAT"))
+                        && matches(dbEntity.getSchema(), rs.getString(prefix + "TABLE_SCHEM"))) {
+                    processResultSet(dbEntity, map, rs);
+                }
+            }
+        } catch (SQLException ex) {
+            // results are merged into entities, so loading them again one by one is safe
+            return false;
+        }
+
+        return loaded;
+    }
+
+    private static boolean matches(String expected, String actual) {
+        // some drivers (e.g. Postgres) return null catalog
+        return expected == null || actual == null || Util.nullSafeEquals(expected, actual);
+    }
+
     boolean shouldLoad(DbEntity entity) {
         return true;
     }
@@ -58,6 +149,25 @@ public abstract class PerEntityLoader extends AbstractLoader {
         return false;
     }
 
+    /**
+     * Returns a ResultSet with metadata of all tables in a catalog and schema, or null if the loader doesn't
+     * support bulk loading.
+     *
+     * @since 4.1
+     */
+    ResultSet getBulkResultSet(String catalogName, String schemaName, DatabaseMetaData metaData) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Returns a prefix of the columns of bulk ResultSet that identify a table the row belongs to.
+     *
+     * @since 4.1
+     */
+    String getBulkColumnPrefix() {
+        return "";
+    }
+
     abstract ResultSet getResultSet(DbEntity dbEntity, DatabaseMetaData metaData) throws SQLException;
 
     abstract void processResultSet(DbEntity dbEntity, DbLoadDataStore map, ResultSet rs) throws SQLException;
@@ -42,6 +42,11 @@ class PrimaryKeyLoader extends PerEntityLoader {
         return metaData.getPrimaryKeys(dbEntity.getCatalog(), dbEntity.getSchema(), dbEntity.getName());
     }
 
+    @Override
+    ResultSet getBulkResultSet(String catalogName, String schemaName, DatabaseMetaData metaData) throws SQLException {
+        return metaData.getPrimaryKeys(catalogName, schemaName, null);
+    }
+
     @Override
     void processResultSet(DbEntity dbEntity, DbLoadDataStore map, ResultSet rs) throws SQLException {
         String columnName = rs.getString("COLUMN_NAME");
@@ -105,6 +105,38 @@ public class DbLoaderIT extends ServerCase {
         assertNotNull(target);
     }
 
+    @Test
+    public void testParallelLoad() throws Exception {
+        assertParallelLoad(false);
+    }
+
+    @Test
+    public void testParallelLoad_BulkMetadata() throws Exception {
+        assertParallelLoad(true);
+    }
+
+    private void assertParallelLoad(boolean bulkMetadataLoading) throws Exception {
+        DataMap expected = createDbLoader(true, true).load();
+
+        DbLoaderConfiguration config = new DbLoaderConfiguration();
+        config.setThreadCount(2);
+        config.setBulkMetadataLoading(bulkMetadataLoading);
+        DataMap loaded = new DbLoader(adapter, connection, dataSourceFactory.getSharedDataSource(), config, null,
+                new DefaultObjectNameGenerator(NoStemStemmer.getInstance())).load();
+
+        assertEquals(expected.getDbEntities().size(), loaded.getDbEntities().size());
+        for (DbEntity expectedEntity : expected.getDbEntities()) {
+            DbEntity entity = loaded.getDbEntity(expectedEntity.getName());
+            assertNotNull(entity);
+            assertEquals(expectedEntity.getPrimaryKeys().size(), entity.getPrimaryKeys().size());
+            assertEquals(expectedEntity.getRelationships().size(), entity.getRelationships().size());
+        }
+
+        DbEntity artist = loaded.getDbEntity("ARTIST");
+        assertTrue(getDbAttribute(artist, "ARTIST_ID").isPrimaryKey());
+        assertEquals(4, artist.getRelationships().size());
+    }
+
     private DbAttribute getDbAttribute(DbEntity ent, String name) {
         DbAttribute da = ent.getAttribute(name);
         // sometimes table names get converted to lowercase
@@ -30,6 +30,16 @@ import org.apache.cayenne.di.spi.DefaultInjector;
  */
 public class DIBootstrap {
 
+    /**
+     * A name of a boolean system property that enables startup tracing of the created
+     * injectors. When enabled, time spent configuring each module and creating
+     * instances for each binding is available from
+     * {@link DefaultInjector#getTrace()}.
+     *
+     * @since 4.1
+     */
+    public static final String TRACE_PROPERTY = "cayenne.di.trace";
+
     /**
      * Creates and returns an injector instance working with the set of provided modules.
      */
@@ -20,6 +20,7 @@ package org.apache.cayenne.di.spi;
 
 import java.util.List;
 
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Provider;
 import org.apache.cayenne.di.Scope;
 
@@ -35,8 +36,15 @@ class Binding<T> {
     private Provider<T> decorated;
     private Provider<T> scoped;
     private Scope scope;
+    private Key<T> key;
+    private InjectorTrace trace;
 
-    Binding(Provider<T> provider, Scope initialScope) {
+    /**
+     * @since 4.1
+     */
+    Binding(Key<T> key, Provider<T> provider, Scope initialScope, InjectorTrace trace) {
+        this.key = key;
+        this.trace = trace;
         this.original = provider;
         this.decorated = provider;
         
@@ -51,7 +59,7 @@ class Binding<T> {
         // TODO: what happens to the old scoped value? Seems like this leaks
         // scope event listeners and may cause unexpected events...
         
-        this.scoped = scope.scope(original);
+        this.scoped = scope.scope(traced(original));
         this.scope = scope;
     }
     
@@ -72,7 +80,12 @@ class Binding<T> {
         // TODO: what happens to the old scoped value? Seems like this leaks
         // scope event listeners and may cause unexpected events...
 
-        this.scoped = scope.scope(decorated);
+        this.scoped = scope.scope(traced(decorated));
+    }
+
+    private Provider<T> traced(Provider<T> provider) {
+        // tracing is applied under the scope to only time actual instance creation
+        return trace != null ? trace.trace(key, provider) : provider;
     }
 
     Provider<T> getOriginal() {
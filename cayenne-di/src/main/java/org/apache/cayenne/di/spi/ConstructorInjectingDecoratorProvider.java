@@ -21,8 +21,6 @@ package org.apache.cayenne.di.spi;
 import org.apache.cayenne.di.DIRuntimeException;
 import org.apache.cayenne.di.Provider;
 
-import java.lang.reflect.Type;
-
 /**
  * @since 4.0
  */
@@ -41,16 +39,16 @@ public class ConstructorInjectingDecoratorProvider<T> implements DecoratorProvid
 
         return new ConstructorInjectingProvider<T>(implementation, injector) {
             @Override
-            protected Object value(Class<?> parameter, Type genericType, String bindingName, InjectionStack stack) {
+            protected Object value(InjectionPoint parameter, InjectionStack stack) {
 
                 // delegate (possibly) injected as Provider
-                if (Provider.class.equals(parameter)) {
+                if (parameter.isProvider()) {
 
-                    Class<?> objectClass = DIUtil.parameterClass(genericType);
+                    Class<?> objectClass = parameter.getProviderType();
 
                     if (objectClass == null) {
                         throw new DIRuntimeException("Constructor provider parameter %s must be "
-                                + "parameterized to be usable for injection", parameter.getName());
+                                + "parameterized to be usable for injection", parameter.getType().getName());
                     }
 
                     if(objectClass.isAssignableFrom(implementation)) {
@@ -58,11 +56,11 @@ public class ConstructorInjectingDecoratorProvider<T> implements DecoratorProvid
                     }
                 }
                 // delegate injected as value
-                else if (parameter.isAssignableFrom(implementation)) {
+                else if (parameter.getType().isAssignableFrom(implementation)) {
                     return undecorated.get();
                 }
 
-                return super.value(parameter, genericType, bindingName, stack);
+                return super.value(parameter, stack);
             }
         };
     }
@@ -18,13 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.di.spi;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Type;
-
 import org.apache.cayenne.di.DIRuntimeException;
-import org.apache.cayenne.di.Inject;
-import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Provider;
 
 /**
@@ -32,138 +26,50 @@ import org.apache.cayenne.di.Provider;
  */
 class ConstructorInjectingProvider<T> implements Provider<T> {
 
-    private Constructor<? extends T> constructor;
+    private ConstructorInjectionPlan<T> plan;
     private DefaultInjector injector;
-    private String[] bindingNames;
 
     ConstructorInjectingProvider(Class<? extends T> implementation,
             DefaultInjector injector) {
 
-        initConstructor(implementation);
-
-        if (constructor == null) {
-            throw new DIRuntimeException(
-                    "Can't find approprate constructor for implementation class '%s'",
-                    implementation.getName());
-        }
-
-        this.constructor.setAccessible(true);
+        // constructor lookup is cached per class, so creating multiple providers for
+        // the same implementation (e.g. ad hoc objects) is cheap
+        this.plan = ConstructorInjectionPlan.forClass(implementation);
         this.injector = injector;
     }
 
-    @SuppressWarnings("unchecked")
-	private void initConstructor(Class<? extends T> implementation) {
-
-        Constructor<?>[] constructors = implementation.getDeclaredConstructors();
-        Constructor<?> lastMatch = null;
-        int lastSize = -1;
-
-        // pick the first constructor with all injection-annotated parameters, or the
-        // default constructor; constructor with the longest parameter list is preferred
-        // if multiple matches are found
-        for (Constructor<?> constructor : constructors) {
-
-            int size = constructor.getParameterTypes().length;
-            if (size <= lastSize) {
-                continue;
-            }
-
-            if (size == 0) {
-                lastSize = 0;
-                lastMatch = constructor;
-                continue;
-            }
-
-            boolean injectable = true;
-            for (Annotation[] annotations : constructor.getParameterAnnotations()) {
-
-                boolean parameterInjectable = false;
-                for (Annotation annotation : annotations) {
-                    if (annotation.annotationType().equals(Inject.class)) {
-                        parameterInjectable = true;
-                        break;
-                    }
-                }
-
-                if (!parameterInjectable) {
-                    injectable = false;
-                    break;
-                }
-            }
-
-            if (injectable) {
-                lastSize = size;
-                lastMatch = constructor;
-            }
-        }
-
-        if (lastMatch == null) {
-            throw new DIRuntimeException(
-                    "No applicable constructor is found for constructor injection in class '%s'",
-                    implementation.getName());
-        }
-
-        // the cast is lame, but Class.getDeclaredConstructors() is not using
-        // generics in Java 5 and using <?> in Java 6, creating compilation problems.
-        this.constructor = (Constructor<? extends T>) lastMatch;
-
-        Annotation[][] annotations = lastMatch.getParameterAnnotations();
-        this.bindingNames = new String[annotations.length];
-        for (int i = 0; i < annotations.length; i++) {
-
-            Annotation[] parameterAnnotations = annotations[i];
-            for (int j = 0; j < parameterAnnotations.length; j++) {
-                Annotation annotation = parameterAnnotations[j];
-                if (annotation.annotationType().equals(Inject.class)) {
-                    Inject inject = (Inject) annotation;
-                    bindingNames[i] = inject.value();
-                    break;
-                }
-            }
-        }
-    }
-
     @Override
     public T get() {
 
-        Class<?>[] constructorParameters = constructor.getParameterTypes();
-        Type[] genericTypes = constructor.getGenericParameterTypes();
-        Object[] args = new Object[constructorParameters.length];
+        InjectionPoint[] parameters = plan.getParameters();
+        Object[] args = new Object[parameters.length];
         InjectionStack stack = injector.getInjectionStack();
 
-        for (int i = 0; i < constructorParameters.length; i++) {
-            args[i] = value(constructorParameters[i], genericTypes[i], bindingNames[i], stack);
+        for (int i = 0; i < parameters.length; i++) {
+            args[i] = value(parameters[i], stack);
         }
 
-        try {
-            return constructor.newInstance(args);
-        }
-        catch (Exception e) {
-            throw new DIRuntimeException(
-                    "Error instantiating class '%s'",
-                    e,
-                    constructor.getDeclaringClass().getName());
-        }
+        return plan.newInstance(args);
     }
-    
-    protected Object value(Class<?> parameter, Type genericType, String bindingName, InjectionStack stack) {
 
-        if (Provider.class.equals(parameter)) {
+    /**
+     * @since 4.1
+     */
+    protected Object value(InjectionPoint parameter, InjectionStack stack) {
 
-            Class<?> objectClass = DIUtil.parameterClass(genericType);
+        if (parameter.isProvider()) {
 
-            if (objectClass == null) {
+            if (parameter.getKey() == null) {
                 throw new DIRuntimeException("Constructor provider parameter %s must be "
-                        + "parameterized to be usable for injection", parameter.getName());
+                        + "parameterized to be usable for injection", parameter.getType().getName());
             }
 
-            return injector.getProvider(Key.get(objectClass, bindingName));
+            return injector.getProvider(parameter.getKey());
         } else {
 
-            Key<?> key = DIUtil.getKeyForTypeAndGenericType(parameter, genericType, bindingName);
-            stack.push(key);
+            stack.push(parameter.getKey());
             try {
-                return injector.getInstance(key);
+                return injector.getInstance(parameter.getKey());
             } finally {
                 stack.pop();
             }
@@ -0,0 +1,164 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Inject;
+
+/**
+ * A cached recipe for instantiating a class via constructor injection. Injectable
+ * constructor is looked up once per class and is invoked via a {@link MethodHandle}.
+ * 
+ * @since 4.1
+ */
+class ConstructorInjectionPlan<T> {
+
+    private static final ClassValue<ConstructorInjectionPlan<?>> PLANS = new ClassValue<ConstructorInjectionPlan<?>>() {
+
+        @Override
+        protected ConstructorInjectionPlan<?> computeValue(Class<?> type) {
+            return new ConstructorInjectionPlan<>(type);
+        }
+    };
+
+    private final Constructor<? extends T> constructor;
+    private final MethodHandle handle;
+    private final InjectionPoint[] parameters;
+
+    @SuppressWarnings("unchecked")
+    static <T> ConstructorInjectionPlan<T> forClass(Class<? extends T> implementation) {
+        return (ConstructorInjectionPlan<T>) PLANS.get(implementation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConstructorInjectionPlan(Class<? extends T> implementation) {
+
+        // the cast is lame, but Class.getDeclaredConstructors() is not using
+        // generics in Java 5 and using <?> in Java 6, creating compilation problems.
+        this.constructor = (Constructor<? extends T>) findConstructor(implementation);
+        this.constructor.setAccessible(true);
+
+        Class<?>[] types = constructor.getParameterTypes();
+        Type[] genericTypes = constructor.getGenericParameterTypes();
+        Annotation[][] annotations = constructor.getParameterAnnotations();
+
+        this.parameters = new InjectionPoint[types.length];
+        for (int i = 0; i < types.length; i++) {
+            parameters[i] = InjectionPoint.forParameter(types[i], genericTypes[i], bindingName(annotations[i]));
+        }
+
+        this.handle = handle(constructor);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> implementation) {
+
+        Constructor<?> lastMatch = null;
+        int lastSize = -1;
+
+        // pick the first constructor with all injection-annotated parameters, or the
+        // default constructor; constructor with the longest parameter list is preferred
+        // if multiple matches are found
+        for (Constructor<?> constructor : implementation.getDeclaredConstructors()) {
+
+            int size = constructor.getParameterTypes().length;
+            if (size <= lastSize) {
+                continue;
+            }
+
+            if (size == 0) {
+                lastSize = 0;
+                lastMatch = constructor;
+                continue;
+            }
+
+            boolean injectable = true;
+            for (Annotation[] annotations : constructor.getParameterAnnotations()) {
+                if (bindingName(annotations) == null) {
+                    injectable = false;
+                    break;
+                }
+            }
+
+            if (injectable) {
+                lastSize = size;
+                lastMatch = constructor;
+            }
+        }
+
+        if (lastMatch == null) {
+            throw new DIRuntimeException(
+                    "No applicable constructor is found for constructor injection in class '%s'",
+                    implementation.getName());
+        }
+
+        return lastMatch;
+    }
+
+    private static String bindingName(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().equals(Inject.class)) {
+                return ((Inject) annotation).value();
+            }
+        }
+
+        return null;
+    }
+
+    private static MethodHandle handle(Constructor<?> constructor) {
+
+        int size = constructor.getParameterTypes().length;
+        try {
+            return MethodHandles.lookup()
+                    .unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(size))
+                    .asSpreader(Object[].class, size);
+        } catch (IllegalAccessException e) {
+            // e.g. an abstract class; fallback to reflection that will report the problem
+            // on instantiation
+            return null;
+        }
+    }
+
+    InjectionPoint[] getParameters() {
+        return parameters;
+    }
+
+    Class<?> getDeclaringClass() {
+        return constructor.getDeclaringClass();
+    }
+
+    @SuppressWarnings("unchecked")
+    T newInstance(Object[] args) {
+        try {
+            return handle != null ? (T) (Object) handle.invokeExact(args) : constructor.newInstance(args);
+        } catch (Throwable e) {
+            throw new DIRuntimeException(
+                    "Error instantiating class '%s'",
+                    e,
+                    constructor.getDeclaringClass().getName());
+        }
+    }
+}
@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.di.spi;
 
+import org.apache.cayenne.di.DIBootstrap;
 import org.apache.cayenne.di.DIRuntimeException;
 import org.apache.cayenne.di.Injector;
 import org.apache.cayenne.di.Key;
@@ -43,8 +44,21 @@ public class DefaultInjector implements Injector {
     private Map<Key<?>, Decoration<?>> decorations;
     private InjectionStack injectionStack;
     private Scope defaultScope;
+    private InjectorTrace trace;
 
     public DefaultInjector(Module... modules) throws DIRuntimeException {
+        this(Boolean.getBoolean(DIBootstrap.TRACE_PROPERTY) ? new InjectorTrace() : null, modules);
+    }
+
+    /**
+     * Creates an injector that would record its startup timing in the provided trace
+     * object. The trace can be null, which disables tracing.
+     *
+     * @since 4.1
+     */
+    public DefaultInjector(InjectorTrace trace, Module... modules) throws DIRuntimeException {
+
+        this.trace = trace;
 
         this.singletonScope = new DefaultScope();
         this.noScope = NoScope.INSTANCE;
@@ -65,13 +79,28 @@ public class DefaultInjector implements Injector {
         if (modules != null && modules.length > 0) {
 
             for (Module module : modules) {
-                module.configure(binder);
+                if (trace != null) {
+                    long t0 = System.nanoTime();
+                    module.configure(binder);
+                    trace.moduleConfigured(module, System.nanoTime() - t0);
+                } else {
+                    module.configure(binder);
+                }
             }
             
             applyDecorators();
         }
     }
 
+    /**
+     * Returns a trace of the injector startup timing, or null if tracing is disabled.
+     *
+     * @since 4.1
+     */
+    public InjectorTrace getTrace() {
+        return trace;
+    }
+
     InjectionStack getInjectionStack() {
         return injectionStack;
     }
@@ -89,7 +118,7 @@ public class DefaultInjector implements Injector {
 
     <T> void putBinding(Key<T> bindingKey, Provider<T> provider) {
         // TODO: andrus 11/15/2009 - report overriding existing binding??
-        bindings.put(bindingKey, new Binding<T>(provider, defaultScope));
+        bindings.put(bindingKey, new Binding<T>(bindingKey, provider, defaultScope, trace));
     }
     
     <T> void putDecorationAfter(Key<T> bindingKey, DecoratorProvider<T> decoratorProvider) {
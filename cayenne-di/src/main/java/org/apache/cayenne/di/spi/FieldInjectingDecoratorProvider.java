@@ -21,8 +21,6 @@ package org.apache.cayenne.di.spi;
 import org.apache.cayenne.di.DIRuntimeException;
 import org.apache.cayenne.di.Provider;
 
-import java.lang.reflect.Field;
-
 /**
  * @since 4.0
  */
@@ -44,29 +42,28 @@ class FieldInjectingDecoratorProvider<T> implements DecoratorProvider<T> {
         return new FieldInjectingProvider<T>(delegate.get(undecorated), injector) {
 
             @Override
-            protected Object value(Field field, String bindingName) {
-                Class<?> fieldType = field.getType();
+            protected Object value(InjectionPoint field) {
 
                 // delegate (possibly) injected as Provider
-                if (Provider.class.equals(fieldType)) {
+                if (field.isProvider()) {
 
-                    Class<?> objectClass = DIUtil.parameterClass(field.getGenericType());
+                    Class<?> objectClass = field.getProviderType();
 
                     if (objectClass == null) {
                         throw new DIRuntimeException("Provider field %s.%s of type %s must be "
-                                + "parameterized to be usable for injection", field.getDeclaringClass().getName(),
-                                field.getName(), fieldType.getName());
+                                + "parameterized to be usable for injection", field.getField().getDeclaringClass().getName(),
+                                field.getField().getName(), field.getType().getName());
                     }
 
                     if(objectClass.isAssignableFrom(implementation)) {
                         return undecorated;
                     }
                 }
-                else if (fieldType.isAssignableFrom(implementation)) {
+                else if (field.getType().isAssignableFrom(implementation)) {
                     return undecorated.get();
                 }
 
-                return super.value(field, bindingName);
+                return super.value(field);
             }
         };
     }
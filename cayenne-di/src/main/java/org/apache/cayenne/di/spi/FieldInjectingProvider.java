@@ -18,11 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.di.spi;
 
-import java.lang.reflect.Field;
-
 import org.apache.cayenne.di.DIRuntimeException;
-import org.apache.cayenne.di.Inject;
-import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Provider;
 
 /**
@@ -41,66 +37,35 @@ class FieldInjectingProvider<T> implements Provider<T> {
     @Override
     public T get() throws DIRuntimeException {
         T object = delegate.get();
-        injectMembers(object, object.getClass());
+        injectMembers(object);
         return object;
     }
 
-    private void injectMembers(T object, Class<?> type) {
-
-        // bail on recursion stop condition
-        if (type == null) {
-            return;
+    private void injectMembers(T object) {
+        for (InjectionPoint field : FieldInjectionPlan.forClass(object.getClass()).getFields()) {
+            field.inject(object, value(field));
         }
-
-        for (Field field : type.getDeclaredFields()) {
-
-            Inject inject = field.getAnnotation(Inject.class);
-            if (inject != null) {
-                injectMember(object, field, inject.value());
-            }
-        }
-
-        injectMembers(object, type.getSuperclass());
     }
 
-    private void injectMember(Object object, Field field, String bindingName) {
-
-        Object value = value(field, bindingName);
-
-        field.setAccessible(true);
-        try {
-            field.set(object, value);
-        } catch (Exception e) {
-            String message = String.format("Error injecting into field %s.%s of type %s", field.getDeclaringClass()
-                    .getName(), field.getName(), field.getType().getName());
-            throw new DIRuntimeException(message, e);
-        }
-    }
-    
     /**
-     * @since 4.0
+     * @since 4.1
      */
-    protected Object value(Field field, String bindingName) {
-
-        Class<?> fieldType = field.getType();
-        InjectionStack stack = injector.getInjectionStack();
-
-        if (Provider.class.equals(fieldType)) {
+    protected Object value(InjectionPoint field) {
 
-            Class<?> objectClass = DIUtil.parameterClass(field.getGenericType());
+        if (field.isProvider()) {
 
-            if (objectClass == null) {
+            if (field.getKey() == null) {
                 throw new DIRuntimeException("Provider field %s.%s of type %s must be "
-                        + "parameterized to be usable for injection", field.getDeclaringClass().getName(),
-                        field.getName(), fieldType.getName());
+                        + "parameterized to be usable for injection", field.getField().getDeclaringClass().getName(),
+                        field.getField().getName(), field.getType().getName());
             }
 
-            return injector.getProvider(Key.get(objectClass, bindingName));
+            return injector.getProvider(field.getKey());
         } else {
-            Key<?> key = DIUtil.getKeyForTypeAndGenericType(fieldType, field.getGenericType(), bindingName);
-            stack.push(key);
+            InjectionStack stack = injector.getInjectionStack();
+            stack.push(field.getKey());
             try {
-                return injector.getInstance(key);
+                return injector.getInstance(field.getKey());
             } finally {
                 stack.pop();
             }
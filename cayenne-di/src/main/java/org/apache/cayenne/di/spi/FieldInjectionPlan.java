@@ -0,0 +1,68 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.di.Inject;
+
+/**
+ * A cached list of {@link Inject}-annotated fields of a class and its superclasses.
+ * 
+ * @since 4.1
+ */
+class FieldInjectionPlan {
+
+    private static final ClassValue<FieldInjectionPlan> PLANS = new ClassValue<FieldInjectionPlan>() {
+
+        @Override
+        protected FieldInjectionPlan computeValue(Class<?> type) {
+            return new FieldInjectionPlan(type);
+        }
+    };
+
+    private final InjectionPoint[] fields;
+
+    static FieldInjectionPlan forClass(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    private FieldInjectionPlan(Class<?> type) {
+
+        List<InjectionPoint> fields = new ArrayList<>();
+
+        // subclass fields go first, same as they always did
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                Inject inject = field.getAnnotation(Inject.class);
+                if (inject != null) {
+                    fields.add(InjectionPoint.forField(field, inject.value()));
+                }
+            }
+        }
+
+        this.fields = fields.toArray(new InjectionPoint[fields.size()]);
+    }
+
+    InjectionPoint[] getFields() {
+        return fields;
+    }
+}
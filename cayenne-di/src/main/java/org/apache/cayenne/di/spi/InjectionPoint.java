@@ -0,0 +1,149 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * A single constructor parameter or a field to inject, with the injection key resolved
+ * upfront, so that it is not recalculated on every instantiation.
+ * 
+ * @since 4.1
+ */
+class InjectionPoint {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final Type genericType;
+    private final String bindingName;
+    private final Class<?> providerType;
+    private final Key<?> key;
+
+    // only set for field injection points
+    private final Field field;
+    private final MethodHandle setter;
+
+    static InjectionPoint forParameter(Class<?> type, Type genericType, String bindingName) {
+        return new InjectionPoint(type, genericType, bindingName, null);
+    }
+
+    static InjectionPoint forField(Field field, String bindingName) {
+        return new InjectionPoint(field.getType(), field.getGenericType(), bindingName, field);
+    }
+
+    private InjectionPoint(Class<?> type, Type genericType, String bindingName, Field field) {
+        this.type = type;
+        this.genericType = genericType;
+        this.bindingName = bindingName;
+        this.field = field;
+
+        if (Provider.class.equals(type)) {
+            this.providerType = DIUtil.parameterClass(genericType);
+
+            // unparameterized provider is reported on injection, not here
+            this.key = providerType != null ? Key.get(providerType, bindingName) : null;
+        } else {
+            this.providerType = null;
+            this.key = DIUtil.getKeyForTypeAndGenericType(type, genericType, bindingName);
+        }
+
+        this.setter = field != null ? setter(field) : null;
+    }
+
+    private static MethodHandle setter(Field field) {
+        field.setAccessible(true);
+
+        MethodHandle setter;
+        try {
+            setter = MethodHandles.lookup().unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // fallback to reflection
+            return null;
+        }
+
+        if (Modifier.isStatic(field.getModifiers())) {
+            setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+
+        return setter.asType(SETTER_TYPE);
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Type getGenericType() {
+        return genericType;
+    }
+
+    String getBindingName() {
+        return bindingName;
+    }
+
+    Field getField() {
+        return field;
+    }
+
+    /**
+     * Returns true if the value to inject is a {@link Provider}.
+     */
+    boolean isProvider() {
+        return Provider.class.equals(type);
+    }
+
+    /**
+     * Returns a type parameter of the {@link Provider} injection point, or null if this
+     * is not a provider or the provider is not parameterized.
+     */
+    Class<?> getProviderType() {
+        return providerType;
+    }
+
+    /**
+     * Returns a key to look up the injected value or provider. Null for unparameterized
+     * providers.
+     */
+    Key<?> getKey() {
+        return key;
+    }
+
+    void inject(Object object, Object value) {
+        try {
+            if (setter != null) {
+                setter.invokeExact(object, value);
+            } else {
+                field.set(object, value);
+            }
+        } catch (Throwable e) {
+            String message = String.format("Error injecting into field %s.%s of type %s", field.getDeclaringClass()
+                    .getName(), field.getName(), field.getType().getName());
+            throw new DIRuntimeException(message, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.di.spi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Key;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * Collects timing of the DI container startup: time spent configuring each module and
+ * time spent creating instances for each binding. Instance creation time is "self"
+ * time, i.e. it excludes the time of creating injected dependencies of the instance.
+ * Tracing is enabled with {@link DIBootstrap#TRACE_PROPERTY} system property and the
+ * results can be obtained via {@link DefaultInjector#getTrace()}.
+ *
+ * @since 4.1
+ */
+public class InjectorTrace {
+
+    private final Map<String, Long> modules;
+    private final ConcurrentMap<Key<?>, BindingTime> bindings;
+    private final ThreadLocal<Deque<long[]>> stack;
+
+    public InjectorTrace() {
+        this.modules = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+        this.bindings = new ConcurrentHashMap<>();
+        this.stack = new ThreadLocal<Deque<long[]>>() {
+            @Override
+            protected Deque<long[]> initialValue() {
+                return new ArrayDeque<>();
+            }
+        };
+    }
+
+    void moduleConfigured(Module module, long nanos) {
+        modules.put(module.getClass().getName(), nanos);
+    }
+
+    <T> Provider<T> trace(final Key<T> key, final Provider<T> provider) {
+        return new Provider<T>() {
+            @Override
+            public T get() {
+
+                Deque<long[]> frames = stack.get();
+
+                // accumulates time spent in nested bindings
+                long[] nested = new long[1];
+                frames.push(nested);
+
+                long t0 = System.nanoTime();
+                try {
+                    return provider.get();
+                } finally {
+                    long elapsed = System.nanoTime() - t0;
+                    frames.pop();
+
+                    long[] parent = frames.peek();
+                    if (parent != null) {
+                        parent[0] += elapsed;
+                    }
+
+                    bindingTime(key).add(elapsed - nested[0]);
+                }
+            }
+        };
+    }
+
+    private BindingTime bindingTime(Key<?> key) {
+        BindingTime time = bindings.get(key);
+        if (time == null) {
+            BindingTime newTime = new BindingTime();
+            BindingTime existing = bindings.putIfAbsent(key, newTime);
+            time = existing != null ? existing : newTime;
+        }
+
+        return time;
+    }
+
+    /**
+     * Returns module configuration times in nanoseconds keyed by module class name, in
+     * the order the modules were configured.
+     */
+    public Map<String, Long> getModuleTimes() {
+        synchronized (modules) {
+            return new LinkedHashMap<>(modules);
+        }
+    }
+
+    /**
+     * Returns total time in nanoseconds spent creating instances for each binding,
+     * excluding the time spent creating their dependencies.
+     */
+    public Map<Key<?>, Long> getBindingTimes() {
+        Map<Key<?>, Long> times = new LinkedHashMap<>();
+        for (Map.Entry<Key<?>, BindingTime> e : sortedBindings()) {
+            times.put(e.getKey(), e.getValue().nanos);
+        }
+        return times;
+    }
+
+    private List<Map.Entry<Key<?>, BindingTime>> sortedBindings() {
+        List<Map.Entry<Key<?>, BindingTime>> entries = new ArrayList<>(bindings.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue().nanos, e1.getValue().nanos));
+        return entries;
+    }
+
+    /**
+     * Returns a human-readable report with modules in the order of configuration and
+     * bindings from the slowest to the fastest.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("DI injector trace");
+
+        Map<String, Long> modules = getModuleTimes();
+        out.append("\n  modules (").append(modules.size()).append("):");
+        for (Map.Entry<String, Long> e : modules.entrySet()) {
+            out.append("\n    ").append(e.getKey()).append(": ").append(millis(e.getValue())).append(" ms.");
+        }
+
+        List<Map.Entry<Key<?>, BindingTime>> bindings = sortedBindings();
+        out.append("\n  bindings (").append(bindings.size()).append("):");
+        for (Map.Entry<Key<?>, BindingTime> e : bindings) {
+            out.append("\n    ").append(e.getKey()).append(": ").append(millis(e.getValue().nanos))
+                    .append(" ms., instances: ").append(e.getValue().instances);
+        }
+
+        return out.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1000000d);
+    }
+
+    private static class BindingTime {
+
+        volatile long nanos;
+        volatile int instances;
+
+        synchronized void add(long nanos) {
+            this.nanos += nanos;
+            this.instances++;
+        }
+    }
+}
@@ -18,11 +18,17 @@
  ****************************************************************/
 package org.apache.cayenne.di.spi;
 
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.mock.MockImplementation1;
 import org.apache.cayenne.di.mock.MockImplementation1_EventAnnotations;
+import org.apache.cayenne.di.mock.MockImplementation2;
 import org.apache.cayenne.di.mock.MockInterface1;
+import org.apache.cayenne.di.mock.MockInterface2;
 import org.junit.Test;
 
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 public class DefaultInjectorTest {
@@ -83,4 +89,31 @@ public class DefaultInjectorTest {
         assertTrue(MockImplementation1_EventAnnotations.shutdown3);
     }
 
+    @Test
+    public void testTrace() {
+
+        Module module = binder -> {
+            binder.bind(MockInterface1.class).to(MockImplementation1.class);
+            binder.bind(MockInterface2.class).to(MockImplementation2.class).withoutScope();
+        };
+
+        DefaultInjector injector = new DefaultInjector(new InjectorTrace(), module);
+        InjectorTrace trace = injector.getTrace();
+        assertNotNull(trace);
+        assertEquals(1, trace.getModuleTimes().size());
+
+        injector.getInstance(MockInterface2.class);
+        injector.getInstance(MockInterface2.class);
+
+        Map<Key<?>, Long> times = trace.getBindingTimes();
+        assertTrue(times.containsKey(Key.get(MockInterface1.class)));
+        assertTrue(times.containsKey(Key.get(MockInterface2.class)));
+        assertTrue(trace.toString().contains("MockInterface2"));
+    }
+
+    @Test
+    public void testTrace_Disabled() {
+        DefaultInjector injector = new DefaultInjector();
+        assertNull(injector.getTrace());
+    }
 }
@@ -0,0 +1,129 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import java.io.File;
+
+import org.apache.cayenne.configuration.ConfigurationNameMapper;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.DefaultConfigurationNameMapper;
+import org.apache.cayenne.configuration.binary.BinaryDataChannelDescriptorWriter;
+import org.apache.cayenne.dbsync.DbSyncModule;
+import org.apache.cayenne.dbsync.reverse.configuration.ToolsModule;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.resource.URLResource;
+import org.apache.cayenne.util.Util;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Precompiles Cayenne project XML and its DataMaps into a binary file, that is loaded by ServerRuntime at startup
+ * instead of parsing XML.
+ *
+ * @since 4.1
+ */
+public class BinaryModelTask extends DefaultTask {
+
+    private File cayenneProject;
+
+    private File destDir;
+
+    @TaskAction
+    public void generateBinaryModel() throws GradleException {
+
+        Injector injector = DIBootstrap.createInjector(new DbSyncModule(), new ToolsModule(getLogger()),
+                binder -> binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class));
+
+        try {
+            DataChannelDescriptor descriptor = injector.getInstance(DataChannelDescriptorLoader.class)
+                    .load(new URLResource(getCayenneProject().toURI().toURL()))
+                    .getRootNode();
+
+            File dir = getDestDir();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new GradleException("Can't create directory " + dir);
+            }
+
+            File file = new BinaryDataChannelDescriptorWriter().write(descriptor, dir);
+            getLogger().info("Precompiled project {} to {}", getCayenneProject().getName(), file);
+        } catch (GradleException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            Throwable th = Util.unwindException(ex);
+            String message = "Error precompiling project";
+            if (th.getLocalizedMessage() != null) {
+                message += ": " + th.getLocalizedMessage();
+            }
+
+            getLogger().error(message);
+            throw new GradleException(message, th);
+        } finally {
+            injector.shutdown();
+        }
+    }
+
+    @InputFile
+    public File getCayenneProject() {
+        if (cayenneProject == null) {
+            throw new InvalidUserDataException("No cayenneProject configured in cmodel task.");
+        }
+        return cayenneProject;
+    }
+
+    public void setCayenneProject(File cayenneProject) {
+        this.cayenneProject = cayenneProject;
+    }
+
+    public void cayenneProject(File cayenneProject) {
+        setCayenneProject(cayenneProject);
+    }
+
+    public void cayenneProject(String cayenneProjectFileName) {
+        setCayenneProject(getProject().file(cayenneProjectFileName));
+    }
+
+    /**
+     * Returns a directory where the binary file is created, by default "build/resources/main".
+     */
+    @OutputDirectory
+    public File getDestDir() {
+        if (destDir == null) {
+            return new File(getProject().getBuildDir(), "resources/main");
+        }
+        return destDir;
+    }
+
+    public void setDestDir(File destDir) {
+        this.destDir = destDir;
+    }
+
+    public void destDir(File destDir) {
+        setDestDir(destDir);
+    }
+
+    public void destDir(String destDirName) {
+        setDestDir(getProject().file(destDirName));
+    }
+}
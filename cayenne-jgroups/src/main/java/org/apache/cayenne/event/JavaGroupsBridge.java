@@ -20,11 +20,15 @@
 package org.apache.cayenne.event;
 
 import org.jgroups.Channel;
+import org.jgroups.Header;
 import org.jgroups.JChannel;
 import org.jgroups.Message;
 import org.jgroups.MessageListener;
 import org.jgroups.blocks.PullPushAdapter;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
@@ -49,6 +53,15 @@ public class JavaGroupsBridge extends EventBridge implements MessageListener {
      */
     public static final String JGROUPS_CONFIG_URL_PROPERTY = "javagroupsbridge.config.url";
 
+    /**
+     * A name of the message header that marks messages encoded with an
+     * {@link EventCodec}. Messages without this header are Java-serialized events sent
+     * by nodes that have no codec configured.
+     *
+     * @since 4.1
+     */
+    public static final String CODEC_HEADER = "cayenne.codec";
+
     // TODO: Meaning of "state" in JGroups is not yet clear to me
     protected byte[] state;
 
@@ -85,6 +98,8 @@ public class JavaGroupsBridge extends EventBridge implements MessageListener {
         this.configURL = properties.get(JGROUPS_CONFIG_URL_PROPERTY);
         this.multicastAddress = (multicastAddress != null) ? multicastAddress : MCAST_ADDRESS_DEFAULT;
         this.multicastPort = (multicastPort != null) ? multicastPort : MCAST_PORT_DEFAULT;
+
+        initEventCodec(properties);
     }
 
     public String getConfigURL() {
@@ -125,7 +140,15 @@ public class JavaGroupsBridge extends EventBridge implements MessageListener {
      */
     public void receive(Message message) {
         try {
-            CayenneEvent event = messageObjectToEvent((Serializable) message.getObject());
+            CayenneEvent event;
+            if (message.getHeader(CODEC_HEADER) != null) {
+                // can't decode without a codec
+                event = eventCodec != null ? eventCodec.decode(message.getBuffer()) : null;
+            }
+            else {
+                event = messageObjectToEvent((Serializable) message.getObject());
+            }
+
             if (event != null) {
 
                 onExternalEvent(event);
@@ -208,7 +231,14 @@ public class JavaGroupsBridge extends EventBridge implements MessageListener {
 
     @Override
     protected void sendExternalEvent(CayenneEvent localEvent) throws Exception {
-        Message message = new Message(null, null, eventToMessageObject(localEvent));
+        Message message;
+        if (eventCodec != null) {
+            message = new Message(null, null, eventCodec.encode(localEvent));
+            message.putHeader(CODEC_HEADER, new CodecHeader(eventCodec.getClass().getName()));
+        }
+        else {
+            message = new Message(null, null, eventToMessageObject(localEvent));
+        }
         channel.send(message);
     }
 
@@ -229,4 +259,41 @@ public class JavaGroupsBridge extends EventBridge implements MessageListener {
     protected CayenneEvent messageObjectToEvent(Serializable object) throws Exception {
         return (object instanceof CayenneEvent) ? (CayenneEvent) object : null;
     }
+
+    /**
+     * A message header identifying the codec used to encode the message.
+     *
+     * @since 4.1
+     */
+    public static class CodecHeader extends Header {
+
+        private String codecName;
+
+        // required for deserialization
+        public CodecHeader() {
+        }
+
+        public CodecHeader(String codecName) {
+            this.codecName = codecName;
+        }
+
+        public String getCodecName() {
+            return codecName;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeUTF(codecName);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            codecName = in.readUTF();
+        }
+
+        @Override
+        public String toString() {
+            return "[CodecHeader: " + codecName + "]";
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import org.jgroups.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JavaGroupsBridgeTest {
+
+    private List<CayenneEvent> received;
+    private JavaGroupsBridge bridge;
+
+    @Before
+    public void before() {
+        received = new ArrayList<>();
+        bridge = new JavaGroupsBridge(Collections.singleton(new EventSubject("test")), "subject") {
+
+            @Override
+            protected void onExternalEvent(CayenneEvent event) {
+                received.add(event);
+            }
+        };
+    }
+
+    @Test
+    public void testReceive_Codec() throws Exception {
+        CayenneEvent event = new CayenneEvent(this);
+        byte[] data = {1, 2, 3};
+
+        EventCodec codec = mock(EventCodec.class);
+        when(codec.decode(any())).thenReturn(event);
+        bridge.setEventCodec(codec);
+
+        Message message = new Message(null, null, data);
+        message.putHeader(JavaGroupsBridge.CODEC_HEADER, new JavaGroupsBridge.CodecHeader(codec.getClass().getName()));
+        bridge.receive(message);
+
+        assertEquals(1, received.size());
+        assertSame(event, received.get(0));
+    }
+
+    @Test
+    public void testReceive_CodecLegacyMessage() throws Exception {
+        EventCodec codec = mock(EventCodec.class);
+        bridge.setEventCodec(codec);
+
+        // sent by a node without a codec
+        bridge.receive(new Message(null, null, new CayenneEvent("source")));
+
+        assertEquals(1, received.size());
+        verify(codec, never()).decode(any());
+    }
+
+    @Test
+    public void testReceive_NoCodec() throws Exception {
+        Message message = new Message(null, null, new byte[] {1, 2, 3});
+        message.putHeader(JavaGroupsBridge.CODEC_HEADER, new JavaGroupsBridge.CodecHeader("x"));
+        bridge.receive(message);
+
+        assertTrue(received.isEmpty());
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.cayenne.event;
 
 import org.apache.cayenne.util.IDUtil;
 
+import javax.jms.BytesMessage;
 import javax.jms.Message;
 import javax.jms.MessageFormatException;
 import javax.jms.MessageListener;
@@ -90,6 +91,8 @@ public class JMSBridge extends EventBridge implements MessageListener {
         this.topicConnectionFactoryName = (topicConnectionFactory != null)
                 ? topicConnectionFactory
                 : TOPIC_CONNECTION_FACTORY_DEFAULT;
+
+        initEventCodec(properties);
     }
 
     /**
@@ -104,12 +107,20 @@ public class JMSBridge extends EventBridge implements MessageListener {
                 return;
             }
 
-            if (!(message instanceof ObjectMessage)) {
+            CayenneEvent event;
+            if (message instanceof BytesMessage && eventCodec != null) {
+                BytesMessage bytesMessage = (BytesMessage) message;
+                byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(bytes);
+                event = eventCodec.decode(bytes);
+            }
+            else if (message instanceof ObjectMessage) {
+                event = messageObjectToEvent(((ObjectMessage) message).getObject());
+            }
+            else {
                 return;
             }
 
-            ObjectMessage objectMessage = (ObjectMessage) message;
-            CayenneEvent event = messageObjectToEvent(objectMessage.getObject());
             if (event != null) {
                 onExternalEvent(event);
             }
@@ -254,8 +265,16 @@ public class JMSBridge extends EventBridge implements MessageListener {
 
     @Override
     protected void sendExternalEvent(CayenneEvent localEvent) throws Exception {
-        ObjectMessage message = sendSession
-                .createObjectMessage(eventToMessageObject(localEvent));
+        Message message;
+        if (eventCodec != null) {
+            BytesMessage bytesMessage = sendSession.createBytesMessage();
+            bytesMessage.writeBytes(eventCodec.encode(localEvent));
+            message = bytesMessage;
+        }
+        else {
+            message = sendSession.createObjectMessage(eventToMessageObject(localEvent));
+        }
+
         message.setObjectProperty(JMSBridge.VM_ID_PROPERTY, JMSBridge.VM_ID);
         publisher.publish(message);
     }
@@ -0,0 +1,201 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Exports metrics of a {@link MetricsRegistry} as JMX MBeans, one MBean per metric.
+ * Metrics created after the exporter was started are exported as they appear.
+ *
+ * @since 4.1
+ */
+public class JmxMetricsExporter implements MetricsRegistryListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmxMetricsExporter.class);
+
+    private final MBeanServer server;
+    private final String domain;
+    private final Collection<ObjectName> registered;
+    private MetricsRegistry registry;
+
+    public JmxMetricsExporter(MBeanServer server, String domain) {
+        this.server = server;
+        this.domain = domain;
+        this.registered = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Exports all current and future metrics of the registry.
+     */
+    public void start(MetricsRegistry registry) {
+        this.registry = registry;
+
+        // add listener first, so that no metric is missed; duplicate registrations
+        // are ignored
+        registry.addListener(this);
+        for (Metric metric : registry.getMetrics().values()) {
+            metricAdded(metric);
+        }
+    }
+
+    /**
+     * Unregisters all MBeans registered by this exporter.
+     */
+    public void stop() {
+        if (registry != null) {
+            registry.removeListener(this);
+            registry = null;
+        }
+
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOGGER.debug("Error unregistering MBean " + name, e);
+            }
+        }
+
+        registered.clear();
+    }
+
+    /**
+     * Returns a name of the MBean of a given metric.
+     */
+    public ObjectName objectName(Metric metric) throws JMException {
+        String type = metric instanceof Timer ? "Timer" : "Counter";
+        return new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(metric.getName()));
+    }
+
+    @Override
+    public void metricAdded(Metric metric) {
+        try {
+            Object mbean;
+            if (metric instanceof Timer) {
+                mbean = new StandardMBean(new TimerAdapter((Timer) metric), TimerMBean.class, false);
+            } else if (metric instanceof Counter) {
+                mbean = new StandardMBean(new CounterAdapter((Counter) metric), CounterMBean.class, false);
+            } else {
+                return;
+            }
+
+            // a metric with the same name may be already exported by another runtime in
+            // the same JVM and domain, which is not an error
+            ObjectName name = objectName(metric);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Error registering MBean for metric '" + metric.getName() + "'", e);
+        }
+    }
+
+    public interface CounterMBean {
+
+        long getCount();
+    }
+
+    public interface TimerMBean {
+
+        long getCount();
+
+        double getTotalMillis();
+
+        double getMeanMillis();
+
+        double getMaxMillis();
+
+        double get50thPercentileMillis();
+
+        double get95thPercentileMillis();
+
+        double get99thPercentileMillis();
+    }
+
+    static class CounterAdapter implements CounterMBean {
+
+        private final Counter counter;
+
+        CounterAdapter(Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public long getCount() {
+            return counter.getCount();
+        }
+    }
+
+    static class TimerAdapter implements TimerMBean {
+
+        private final Timer timer;
+
+        TimerAdapter(Timer timer) {
+            this.timer = timer;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1000000d;
+        }
+
+        @Override
+        public long getCount() {
+            return timer.getCount();
+        }
+
+        @Override
+        public double getTotalMillis() {
+            return millis(timer.getTotalTime());
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return millis(timer.getMeanTime());
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return millis(timer.getMaxTime());
+        }
+
+        @Override
+        public double get50thPercentileMillis() {
+            return millis(timer.getPercentileTime(0.5));
+        }
+
+        @Override
+        public double get95thPercentileMillis() {
+            return millis(timer.getPercentileTime(0.95));
+        }
+
+        @Override
+        public double get99thPercentileMillis() {
+            return millis(timer.getPercentileTime(0.99));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+/**
+ * @since 4.1
+ */
+public interface MetricsConstants {
+
+    /**
+     * Whether metrics should be exported as JMX MBeans. "true" by default.
+     */
+    String JMX_ENABLED_PROPERTY = "cayenne.metrics.jmx";
+
+    /**
+     * A JMX domain of the exported MBeans. "org.apache.cayenne.metrics" by default.
+     */
+    String JMX_DOMAIN_PROPERTY = "cayenne.metrics.jmx.domain";
+
+    /**
+     * A maximum number of distinct select statements that get their own timer. Once
+     * the limit is reached, new statements are only counted in per-entity timers.
+     * 200 by default.
+     */
+    String MAX_TRACKED_QUERIES_PROPERTY = "cayenne.metrics.max_tracked_queries";
+}
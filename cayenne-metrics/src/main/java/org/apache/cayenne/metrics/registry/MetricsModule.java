@@ -0,0 +1,56 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.cache.QueryCache;
+import org.apache.cayenne.configuration.server.ServerModule;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.metrics.MetricsCollector;
+
+/**
+ * A module that collects runtime metrics in an in-memory {@link MetricsRegistry} and
+ * exports them to JMX. The module is auto-loaded when present on classpath.
+ *
+ * @since 4.1
+ */
+public class MetricsModule implements Module {
+
+    /**
+     * Enables or disables export of metrics as JMX MBeans.
+     */
+    public static void contributeJmxEnabled(Binder binder, boolean enabled) {
+        ServerModule.contributeProperties(binder).put(MetricsConstants.JMX_ENABLED_PROPERTY, String.valueOf(enabled));
+    }
+
+    /**
+     * Sets a maximum number of distinct SQL statements that get their own timer.
+     */
+    public static void contributeMaxTrackedQueries(Binder binder, int maxTrackedQueries) {
+        ServerModule.contributeProperties(binder)
+                .put(MetricsConstants.MAX_TRACKED_QUERIES_PROPERTY, String.valueOf(maxTrackedQueries));
+    }
+
+    @Override
+    public void configure(Binder binder) {
+        binder.bind(MetricsRegistry.class).to(MetricsRegistry.class);
+        binder.bind(MetricsCollector.class).to(RegistryMetricsCollector.class);
+        binder.decorate(QueryCache.class).before(MetricsQueryCache.class);
+    }
+}
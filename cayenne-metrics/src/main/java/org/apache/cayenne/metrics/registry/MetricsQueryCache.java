@@ -0,0 +1,93 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.cache.QueryCache;
+import org.apache.cayenne.cache.QueryCacheEntryFactory;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.query.QueryMetadata;
+
+import java.util.List;
+
+/**
+ * A {@link QueryCache} decorator that reports cache hits, misses and puts to a
+ * {@link MetricsCollector}.
+ *
+ * @since 4.1
+ */
+public class MetricsQueryCache implements QueryCache {
+
+    private final QueryCache delegate;
+    private final MetricsCollector metricsCollector;
+
+    public MetricsQueryCache(@Inject QueryCache delegate, @Inject MetricsCollector metricsCollector) {
+        this.delegate = delegate;
+        this.metricsCollector = metricsCollector;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata) {
+        List result = delegate.get(metadata);
+        metricsCollector.queryCacheRead(metadata.getCacheGroup(), result != null);
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+        boolean[] miss = new boolean[1];
+        List result = delegate.get(metadata, () -> {
+            miss[0] = true;
+            return factory.createObject();
+        });
+
+        metricsCollector.queryCacheRead(metadata.getCacheGroup(), !miss[0]);
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void put(QueryMetadata metadata, List results) {
+        delegate.put(metadata, results);
+        metricsCollector.queryCacheWrite(metadata.getCacheGroup());
+    }
+
+    @Override
+    public void remove(String key) {
+        delegate.remove(key);
+    }
+
+    @Override
+    public void removeGroup(String groupKey) {
+        delegate.removeGroup(groupKey);
+    }
+
+    @Override
+    public void removeGroup(String groupKey, Class<?> keyType, Class<?> valueType) {
+        delegate.removeGroup(groupKey, keyType, valueType);
+    }
+
+    @Deprecated
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
@@ -0,0 +1,120 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * An in-memory storage of named metrics. Metrics are created on first access and are
+ * never removed. Lookups and metric updates do not lock.
+ *
+ * @since 4.1
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, Metric> metrics;
+    private final List<MetricsRegistryListener> listeners;
+
+    public MetricsRegistry() {
+        this.metrics = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Returns a counter with a given name, creating it if needed.
+     */
+    public Counter counter(String name) {
+        return getOrCreate(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * Returns a timer with a given name, creating it if needed.
+     */
+    public Timer timer(String name) {
+        return getOrCreate(name, Timer.class, Timer::new);
+    }
+
+    /**
+     * Returns a metric with a given name or null if it doesn't exist.
+     */
+    public Metric getMetric(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * Returns a snapshot of all metrics sorted by name.
+     */
+    public SortedMap<String, Metric> getMetrics() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(metrics));
+    }
+
+    public int size() {
+        return metrics.size();
+    }
+
+    public void addListener(MetricsRegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MetricsRegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+    private <T extends Metric> T getOrCreate(String name, Class<T> type, Function<String, T> factory) {
+
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            T created = factory.apply(name);
+            metric = metrics.putIfAbsent(name, created);
+            if (metric == null) {
+                for (MetricsRegistryListener listener : listeners) {
+                    listener.metricAdded(created);
+                }
+
+                return created;
+            }
+        }
+
+        if (!type.isInstance(metric)) {
+            throw new CayenneRuntimeException("Metric '%s' is a %s, not a %s", name,
+                    metric.getClass().getSimpleName(), type.getSimpleName());
+        }
+
+        return type.cast(metric);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Metric> e : getMetrics().entrySet()) {
+            out.append(e.getValue()).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,248 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.metrics.MetricsCollector;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link MetricsCollector} that aggregates events in a {@link MetricsRegistry} and
+ * optionally exports the registry to JMX. The following metrics are created:
+ * <ul>
+ * <li>"node.[node]" - timer of query groups run by a DataNode</li>
+ * <li>"select.[entity]", "select.[entity].rows" - select timer and fetched rows counter
+ * per DbEntity</li>
+ * <li>"query.[sql]" - select timer per SQL statement</li>
+ * <li>"batch.[insert|update|delete].[entity]", "batch.[type].[entity].rows" - batch
+ * timer and affected rows counter per DbEntity</li>
+ * <li>"querycache.[group].hits", "querycache.[group].misses",
+ * "querycache.[group].puts" - query cache counters</li>
+ * <li>"snapshots.[cache].hits", "snapshots.[cache].misses",
+ * "snapshots.[cache].evictions" - shared snapshot cache counters</li>
+ * <li>"flush", "flush.preprocess", "flush.queries", "flush.postprocess" - commit timers
+ * per phase, "flush.statements" - counter of statements run by commits</li>
+ * <li>"pool.[name].wait", "pool.[name].timeouts" - connection pool wait timer and
+ * timeouts counter</li>
+ * </ul>
+ *
+ * @since 4.1
+ */
+public class RegistryMetricsCollector implements MetricsCollector {
+
+    static final int MAX_TRACKED_QUERIES_DEFAULT = 200;
+    static final String JMX_DOMAIN_DEFAULT = "org.apache.cayenne.metrics";
+
+    // key used for null names in the lookup maps below
+    private static final String NO_NAME = "";
+
+    private final MetricsRegistry registry;
+    private final int maxTrackedQueries;
+    private final JmxMetricsExporter exporter;
+
+    // metrics are cached by the raw event arguments to avoid building names on every event
+    private final ConcurrentMap<String, Timer> nodeTimers;
+    private final ConcurrentMap<String, Timer> selectTimers;
+    private final ConcurrentMap<String, Counter> selectRows;
+    private final ConcurrentMap<String, Timer> queryTimers;
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> batchTimers;
+    private final ConcurrentMap<String, ConcurrentMap<String, Counter>> batchRows;
+    private final ConcurrentMap<String, Counter> queryCacheHits;
+    private final ConcurrentMap<String, Counter> queryCacheMisses;
+    private final ConcurrentMap<String, Counter> queryCachePuts;
+    private final ConcurrentMap<String, Counter> snapshotHits;
+    private final ConcurrentMap<String, Counter> snapshotMisses;
+    private final ConcurrentMap<String, Counter> snapshotEvictions;
+    private final ConcurrentMap<String, Timer> poolWaits;
+    private final ConcurrentMap<String, Counter> poolTimeouts;
+
+    private final Timer flush;
+    private final Timer flushPreprocess;
+    private final Timer flushQueries;
+    private final Timer flushPostprocess;
+    private final Counter flushStatements;
+
+    public RegistryMetricsCollector(@Inject MetricsRegistry registry, @Inject RuntimeProperties properties) {
+        this.registry = registry;
+        this.maxTrackedQueries = properties.getInt(MetricsConstants.MAX_TRACKED_QUERIES_PROPERTY,
+                MAX_TRACKED_QUERIES_DEFAULT);
+
+        this.nodeTimers = new ConcurrentHashMap<>();
+        this.selectTimers = new ConcurrentHashMap<>();
+        this.selectRows = new ConcurrentHashMap<>();
+        this.queryTimers = new ConcurrentHashMap<>();
+        this.batchTimers = new ConcurrentHashMap<>();
+        this.batchRows = new ConcurrentHashMap<>();
+        this.queryCacheHits = new ConcurrentHashMap<>();
+        this.queryCacheMisses = new ConcurrentHashMap<>();
+        this.queryCachePuts = new ConcurrentHashMap<>();
+        this.snapshotHits = new ConcurrentHashMap<>();
+        this.snapshotMisses = new ConcurrentHashMap<>();
+        this.snapshotEvictions = new ConcurrentHashMap<>();
+        this.poolWaits = new ConcurrentHashMap<>();
+        this.poolTimeouts = new ConcurrentHashMap<>();
+
+        this.flush = registry.timer("flush");
+        this.flushPreprocess = registry.timer("flush.preprocess");
+        this.flushQueries = registry.timer("flush.queries");
+        this.flushPostprocess = registry.timer("flush.postprocess");
+        this.flushStatements = registry.counter("flush.statements");
+
+        if (properties.getBoolean(MetricsConstants.JMX_ENABLED_PROPERTY, true)) {
+            this.exporter = new JmxMetricsExporter(ManagementFactory.getPlatformMBeanServer(),
+                    properties.get(MetricsConstants.JMX_DOMAIN_PROPERTY, JMX_DOMAIN_DEFAULT));
+            this.exporter.start(registry);
+        } else {
+            this.exporter = null;
+        }
+    }
+
+    private static String name(String prefix, String name, String suffix) {
+        StringBuilder out = new StringBuilder(prefix);
+        if (name != null) {
+            out.append('.').append(name);
+        }
+
+        if (suffix != null) {
+            out.append('.').append(suffix);
+        }
+
+        return out.toString();
+    }
+
+    private Timer timer(ConcurrentMap<String, Timer> timers, String prefix, String name, String suffix) {
+        String key = name != null ? name : NO_NAME;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            // the registry guarantees a single instance per name, so no need to lock here
+            timer = registry.timer(name(prefix, name, suffix));
+            timers.putIfAbsent(key, timer);
+        }
+
+        return timer;
+    }
+
+    private Counter counter(ConcurrentMap<String, Counter> counters, String prefix, String name, String suffix) {
+        String key = name != null ? name : NO_NAME;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = registry.counter(name(prefix, name, suffix));
+            counters.putIfAbsent(key, counter);
+        }
+
+        return counter;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @BeforeScopeEnd
+    public void shutdown() {
+        if (exporter != null) {
+            exporter.stop();
+        }
+    }
+
+    @Override
+    public void queriesPerformed(String dataNode, int queryCount, long time) {
+        timer(nodeTimers, "node", dataNode, null).record(time);
+    }
+
+    @Override
+    public void selectExecuted(String entityName, String sql, int rows, long time) {
+        timer(selectTimers, "select", entityName, null).record(time);
+        counter(selectRows, "select", entityName, "rows").inc(rows);
+
+        if (sql != null) {
+            Timer queryTimer = queryTimers.get(sql);
+            if (queryTimer == null && queryTimers.size() < maxTrackedQueries) {
+                queryTimer = timer(queryTimers, "query", sql, null);
+            }
+
+            if (queryTimer != null) {
+                queryTimer.record(time);
+            }
+        }
+    }
+
+    @Override
+    public void batchExecuted(String entityName, String batchType, int rows, long time) {
+        String prefix = name("batch", batchType, null);
+
+        ConcurrentMap<String, Timer> timers = batchTimers.computeIfAbsent(batchType, t -> new ConcurrentHashMap<>());
+        timer(timers, prefix, entityName, null).record(time);
+
+        ConcurrentMap<String, Counter> counters = batchRows.computeIfAbsent(batchType, t -> new ConcurrentHashMap<>());
+        counter(counters, prefix, entityName, "rows").inc(rows);
+    }
+
+    @Override
+    public void queryCacheRead(String cacheGroup, boolean hit) {
+        if (hit) {
+            counter(queryCacheHits, "querycache", cacheGroup, "hits").inc();
+        } else {
+            counter(queryCacheMisses, "querycache", cacheGroup, "misses").inc();
+        }
+    }
+
+    @Override
+    public void queryCacheWrite(String cacheGroup) {
+        counter(queryCachePuts, "querycache", cacheGroup, "puts").inc();
+    }
+
+    @Override
+    public void snapshotCacheRead(String cacheName, boolean hit) {
+        if (hit) {
+            counter(snapshotHits, "snapshots", cacheName, "hits").inc();
+        } else {
+            counter(snapshotMisses, "snapshots", cacheName, "misses").inc();
+        }
+    }
+
+    @Override
+    public void snapshotCacheEviction(String cacheName) {
+        counter(snapshotEvictions, "snapshots", cacheName, "evictions").inc();
+    }
+
+    @Override
+    public void flushPerformed(int queryCount, long preprocessTime, long queriesTime, long postprocessTime) {
+        flush.record(preprocessTime + queriesTime + postprocessTime);
+        flushPreprocess.record(preprocessTime);
+        flushQueries.record(queriesTime);
+        flushPostprocess.record(postprocessTime);
+        flushStatements.inc(queryCount);
+    }
+
+    @Override
+    public void connectionAcquired(String poolName, long waitTime) {
+        timer(poolWaits, "pool", poolName, "wait").record(waitTime);
+    }
+
+    @Override
+    public void connectionUnavailable(String poolName, long waitTime) {
+        timer(poolWaits, "pool", poolName, "wait").record(waitTime);
+        counter(poolTimeouts, "pool", poolName, "timeouts").inc();
+    }
+}
@@ -0,0 +1,138 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that records durations of events. Besides the count, total and max time,
+ * the timer keeps a histogram with power of two buckets (in microseconds), so the
+ * percentiles it reports are approximate, with the error of up to 2x. All updates
+ * are lock-free.
+ *
+ * @since 4.1
+ */
+public class Timer implements Metric {
+
+    // bucket "i" holds durations between 2^(i-1) and 2^i microseconds, the last one -
+    // everything longer than ~9 minutes
+    static final int BUCKETS = 30;
+
+    private final String name;
+    private final LongAdder count;
+    private final LongAdder totalTime;
+    private final AtomicLong maxTime;
+    private final AtomicLongArray histogram;
+
+    public Timer(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+        this.totalTime = new LongAdder();
+        this.maxTime = new AtomicLong();
+        this.histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a single event that took the specified number of nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        count.increment();
+        totalTime.add(nanos);
+        histogram.incrementAndGet(bucket(nanos));
+
+        long max;
+        while (nanos > (max = maxTime.get())) {
+            if (maxTime.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalTime() {
+        return totalTime.sum();
+    }
+
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+
+    public long getMeanTime() {
+        long count = getCount();
+        return count > 0 ? getTotalTime() / count : 0;
+    }
+
+    /**
+     * Returns an approximate duration in nanoseconds that the given fraction of
+     * events didn't exceed. The result is an upper bound of the histogram bucket
+     * containing the percentile, capped by the max time.
+     */
+    public long getPercentileTime(double percentile) {
+
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1: " + percentile);
+        }
+
+        long[] buckets = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+            total += buckets[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= threshold && seen > 0) {
+                return Math.min((1L << i) * 1000, getMaxTime());
+            }
+        }
+
+        return getMaxTime();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + getCount() + " in " + (getTotalTime() / 1000000) + " ms.";
+    }
+}
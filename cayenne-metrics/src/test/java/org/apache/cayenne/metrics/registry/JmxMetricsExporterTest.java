@@ -0,0 +1,87 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JmxMetricsExporterTest {
+
+    private MBeanServer server;
+    private MetricsRegistry registry;
+    private JmxMetricsExporter exporter;
+
+    @Before
+    public void before() {
+        server = ManagementFactory.getPlatformMBeanServer();
+        registry = new MetricsRegistry();
+        exporter = new JmxMetricsExporter(server, "org.apache.cayenne.metrics.test");
+    }
+
+    @After
+    public void after() {
+        exporter.stop();
+    }
+
+    @Test
+    public void testExport() throws Exception {
+
+        Counter c1 = registry.counter("c1");
+        c1.inc(3);
+
+        exporter.start(registry);
+
+        Timer t1 = registry.timer("select.ARTIST");
+        t1.record(2000000);
+
+        ObjectName c1Name = exporter.objectName(c1);
+        ObjectName t1Name = exporter.objectName(t1);
+
+        assertEquals("org.apache.cayenne.metrics.test:type=Timer,name=\"select.ARTIST\"", t1Name.toString());
+
+        assertEquals(3L, server.getAttribute(c1Name, "Count"));
+        assertEquals(1L, server.getAttribute(t1Name, "Count"));
+        assertEquals(2.0, (Double) server.getAttribute(t1Name, "MaxMillis"), 0.0001);
+
+        exporter.stop();
+        assertFalse(server.isRegistered(c1Name));
+        assertFalse(server.isRegistered(t1Name));
+
+        // metrics created after stop are not exported
+        Counter c2 = registry.counter("c2");
+        assertFalse(server.isRegistered(exporter.objectName(c2)));
+    }
+
+    @Test
+    public void testExport_QuotedName() throws Exception {
+        exporter.start(registry);
+
+        Timer t = registry.timer("query.SELECT t0.ID, t0.NAME FROM A t0 WHERE t0.X = ?");
+        assertTrue(server.isRegistered(exporter.objectName(t)));
+    }
+}
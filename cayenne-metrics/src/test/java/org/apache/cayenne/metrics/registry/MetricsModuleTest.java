@@ -0,0 +1,73 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.cache.QueryCache;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.query.QueryMetadata;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsModuleTest {
+
+    @Test
+    public void testRuntime() throws Exception {
+
+        ServerRuntime runtime = ServerRuntime.builder().build();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName flushName = new ObjectName("org.apache.cayenne.metrics:type=Timer,name=\"flush\"");
+
+        try {
+            MetricsCollector collector = runtime.getInjector().getInstance(MetricsCollector.class);
+            assertTrue(collector instanceof RegistryMetricsCollector);
+            assertTrue(server.isRegistered(flushName));
+
+            QueryCache cache = runtime.getInjector().getInstance(QueryCache.class);
+            assertTrue(cache instanceof MetricsQueryCache);
+
+            QueryMetadata md = mock(QueryMetadata.class);
+            when(md.getCacheKey()).thenReturn("k1");
+            when(md.getCacheGroup()).thenReturn("g1");
+
+            cache.get(md);
+            cache.put(md, Collections.emptyList());
+            cache.get(md);
+
+            MetricsRegistry registry = runtime.getInjector().getInstance(MetricsRegistry.class);
+            assertEquals(1, ((Counter) registry.getMetric("querycache.g1.misses")).getCount());
+            assertEquals(1, ((Counter) registry.getMetric("querycache.g1.hits")).getCount());
+            assertEquals(1, ((Counter) registry.getMetric("querycache.g1.puts")).getCount());
+        } finally {
+            runtime.shutdown();
+        }
+
+        assertFalse(server.isRegistered(flushName));
+    }
+}
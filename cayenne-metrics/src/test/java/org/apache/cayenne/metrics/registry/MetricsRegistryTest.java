@@ -0,0 +1,104 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testCounter() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        Counter c = registry.counter("c");
+        assertSame(c, registry.counter("c"));
+        assertSame(c, registry.getMetric("c"));
+        assertNull(registry.getMetric("x"));
+
+        c.inc();
+        c.inc(5);
+        assertEquals(6, c.getCount());
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testTypeMismatch() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("m");
+        registry.timer("m");
+    }
+
+    @Test
+    public void testTimer() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        Timer t = registry.timer("t");
+        assertEquals(0, t.getPercentileTime(0.5));
+
+        for (int i = 0; i < 99; i++) {
+            t.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        t.record(TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(100, t.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(99 * 100 + 50000), t.getTotalTime());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), t.getMaxTime());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(599), t.getMeanTime());
+
+        // 100 microseconds fall into a (64, 128] bucket
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(128), t.getPercentileTime(0.5));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(128), t.getPercentileTime(0.99));
+
+        // the top bucket is capped by the max
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), t.getPercentileTime(1));
+    }
+
+    @Test
+    public void testBucket() {
+        assertEquals(0, Timer.bucket(999));
+        assertEquals(1, Timer.bucket(1000));
+        assertEquals(2, Timer.bucket(2000));
+        assertEquals(2, Timer.bucket(3999));
+        assertEquals(Timer.BUCKETS - 1, Timer.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testListener() {
+        MetricsRegistry registry = new MetricsRegistry();
+        List<String> added = new ArrayList<>();
+        registry.addListener(m -> added.add(m.getName()));
+
+        registry.counter("a");
+        registry.timer("b");
+        registry.counter("a");
+
+        assertEquals(2, added.size());
+        assertEquals("a", added.get(0));
+        assertEquals("b", added.get(1));
+        assertEquals(2, registry.getMetrics().size());
+    }
+}
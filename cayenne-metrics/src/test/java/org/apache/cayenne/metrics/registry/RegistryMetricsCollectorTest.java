@@ -0,0 +1,111 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics.registry;
+
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RegistryMetricsCollectorTest {
+
+    private MetricsRegistry registry;
+    private RegistryMetricsCollector collector;
+
+    @Before
+    public void before() {
+        Map<String, String> props = new HashMap<>();
+        props.put(MetricsConstants.JMX_ENABLED_PROPERTY, "false");
+        props.put(MetricsConstants.MAX_TRACKED_QUERIES_PROPERTY, "1");
+
+        registry = new MetricsRegistry();
+        collector = new RegistryMetricsCollector(registry, new DefaultRuntimeProperties(props));
+    }
+
+    private Timer timer(String name) {
+        return (Timer) registry.getMetric(name);
+    }
+
+    private Counter counter(String name) {
+        return (Counter) registry.getMetric(name);
+    }
+
+    @Test
+    public void testSelectExecuted() {
+        collector.selectExecuted("ARTIST", "SELECT 1", 5, 1000);
+        collector.selectExecuted("ARTIST", "SELECT 1", 3, 2000);
+        collector.selectExecuted("PAINTING", "SELECT 2", 1, 3000);
+
+        assertEquals(2, timer("select.ARTIST").getCount());
+        assertEquals(3000, timer("select.ARTIST").getTotalTime());
+        assertEquals(8, counter("select.ARTIST.rows").getCount());
+        assertEquals(1, timer("select.PAINTING").getCount());
+
+        assertEquals(2, timer("query.SELECT 1").getCount());
+
+        // over the limit of tracked queries
+        assertNull(registry.getMetric("query.SELECT 2"));
+    }
+
+    @Test
+    public void testBatchExecuted() {
+        collector.batchExecuted("ARTIST", "insert", 10, 1000);
+        collector.batchExecuted("ARTIST", "update", 2, 1000);
+        collector.batchExecuted("ARTIST", "insert", 5, 1000);
+
+        assertEquals(2, timer("batch.insert.ARTIST").getCount());
+        assertEquals(15, counter("batch.insert.ARTIST.rows").getCount());
+        assertEquals(2, counter("batch.update.ARTIST.rows").getCount());
+    }
+
+    @Test
+    public void testCaches() {
+        collector.queryCacheRead("g1", true);
+        collector.queryCacheRead("g1", false);
+        collector.queryCacheRead(null, false);
+        collector.queryCacheWrite("g1");
+        collector.snapshotCacheRead("domain", true);
+        collector.snapshotCacheEviction("domain");
+
+        assertEquals(1, counter("querycache.g1.hits").getCount());
+        assertEquals(1, counter("querycache.g1.misses").getCount());
+        assertEquals(1, counter("querycache.misses").getCount());
+        assertEquals(1, counter("querycache.g1.puts").getCount());
+        assertEquals(1, counter("snapshots.domain.hits").getCount());
+        assertEquals(1, counter("snapshots.domain.evictions").getCount());
+    }
+
+    @Test
+    public void testFlushAndPool() {
+        collector.flushPerformed(3, 100, 200, 300);
+        collector.connectionAcquired("node", 10);
+        collector.connectionUnavailable("node", 20);
+
+        assertEquals(600, timer("flush").getTotalTime());
+        assertEquals(200, timer("flush.queries").getTotalTime());
+        assertEquals(3, counter("flush.statements").getCount());
+        assertEquals(2, timer("pool.node.wait").getCount());
+        assertEquals(1, counter("pool.node.timeouts").getCount());
+    }
+}
@@ -122,6 +122,11 @@ public class CompatibilityDataChannelDescriptorLoader extends XMLDataChannelDesc
             parser.setContentHandler(rootHandler);
             parser.setErrorHandler(rootHandler);
             parser.parse(isource);
+
+            // upgrade of DataMaps is not thread-safe, so loading them one by one
+            for (String dataMapName : rootHandler.dataMapNames) {
+                descriptor.getDataMaps().add(loadDataMap(descriptor, dataMapName));
+            }
         } catch (Exception e) {
             throw new ConfigurationException("Error loading configuration from %s", e, configurationURL);
         }
@@ -0,0 +1,58 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.rop.protostuff;
+
+import io.protostuff.LinkedBuffer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of reusable Protostuff {@link LinkedBuffer}s. Buffers are taken for a
+ * single (de)serialization call and returned afterwards, so large object graphs don't
+ * allocate and throw away a chain of buffers on every ROP request. If the pool is
+ * empty, a new buffer is allocated, and if it is full, returned buffers are discarded.
+ *
+ * @since 4.1
+ */
+class LinkedBufferPool {
+
+    private final BlockingQueue<LinkedBuffer> buffers;
+    private final int bufferSize;
+
+    LinkedBufferPool(int bufferSize, int maxSize) {
+        this.bufferSize = Math.max(bufferSize, LinkedBuffer.MIN_BUFFER_SIZE);
+        this.buffers = new ArrayBlockingQueue<>(Math.max(maxSize, 1));
+    }
+
+    LinkedBuffer acquire() {
+        LinkedBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : LinkedBuffer.allocate(bufferSize);
+    }
+
+    void release(LinkedBuffer buffer) {
+        // drops the buffers chained to this one during serialization, so that the pool
+        // only retains the head buffers
+        buffers.offer(buffer.clear());
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,46 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.rop.protostuff;
+
+/**
+ * Runtime properties of the Protostuff ROP serialization.
+ *
+ * @since 4.1
+ */
+public interface ProtostuffConstants {
+
+    /**
+     * A size in bytes of the buffers used to (de)serialize ROP messages. When writing
+     * to a stream, the buffer is flushed to the stream each time it fills up. The
+     * default is 8192.
+     */
+    String BUFFER_SIZE_PROPERTY = "cayenne.protostuff.buffer_size";
+
+    /**
+     * A maximum number of idle buffers kept for reuse. The default is 32.
+     */
+    String BUFFER_POOL_SIZE_PROPERTY = "cayenne.protostuff.buffer_pool_size";
+
+    /**
+     * A comma-separated list of class names, usually the client persistent classes,
+     * whose Protostuff schemas should be built on startup instead of on the first
+     * request that uses them.
+     */
+    String SCHEMA_CLASSES_PROPERTY = "cayenne.protostuff.schema_classes";
+}
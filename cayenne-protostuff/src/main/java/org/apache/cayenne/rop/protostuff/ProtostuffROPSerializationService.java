@@ -24,8 +24,23 @@ import io.protostuff.Schema;
 import io.protostuff.runtime.DefaultIdStrategy;
 import io.protostuff.runtime.RuntimeEnv;
 import io.protostuff.runtime.RuntimeSchema;
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectContextChangeLogSubListMessageFactory;
+import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.access.ToManyList;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.graph.ArcCreateOperation;
+import org.apache.cayenne.graph.ArcDeleteOperation;
+import org.apache.cayenne.graph.CompoundDiff;
+import org.apache.cayenne.graph.NodeCreateOperation;
+import org.apache.cayenne.graph.NodeDeleteOperation;
+import org.apache.cayenne.graph.NodeIdChangeOperation;
+import org.apache.cayenne.graph.NodePropertyChangeOperation;
+import org.apache.cayenne.remote.BootstrapMessage;
+import org.apache.cayenne.remote.QueryMessage;
+import org.apache.cayenne.remote.RemoteSession;
+import org.apache.cayenne.remote.SyncMessage;
 import org.apache.cayenne.query.PrefetchTreeNode;
 import org.apache.cayenne.query.PrefetchTreeNodeSchema;
 import org.apache.cayenne.rop.ROPSerializationService;
@@ -36,21 +51,60 @@ import org.apache.cayenne.util.PersistentObjectSet;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * This {@link ROPSerializationService} implementation uses Protostuff {@link GraphIOUtil} to (de)serialize
- * Cayenne object graph.
+ * Cayenne object graph. Schemas of the ROP messages, {@link ObjectId} and graph diff classes, as well as of
+ * the classes listed in {@link ProtostuffConstants#SCHEMA_CLASSES_PROPERTY} property, are built when the service is
+ * created. Serialization buffers are pooled and reused between calls.
  *
  * @since 4.0
  */
 public class ProtostuffROPSerializationService implements ROPSerializationService {
 
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int DEFAULT_BUFFER_POOL_SIZE = 32;
+
     protected Schema<Wrapper> wrapperSchema;
     protected DefaultIdStrategy strategy;
 
+    private final LinkedBufferPool buffers;
+
     public ProtostuffROPSerializationService() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_POOL_SIZE, Collections.<String>emptyList());
+    }
+
+    /**
+     * @since 4.1
+     */
+    public ProtostuffROPSerializationService(@Inject RuntimeProperties properties) {
+        this((int) properties.getLong(ProtostuffConstants.BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE),
+                (int) properties.getLong(ProtostuffConstants.BUFFER_POOL_SIZE_PROPERTY, DEFAULT_BUFFER_POOL_SIZE),
+                parseClassNames(properties.get(ProtostuffConstants.SCHEMA_CLASSES_PROPERTY)));
+    }
+
+    /**
+     * @param bufferSize a size in bytes of the serialization buffers.
+     * @param bufferPoolSize a maximum number of idle buffers kept for reuse.
+     * @param schemaClasses names of the classes whose schemas should be built right away.
+     * @since 4.1
+     */
+    public ProtostuffROPSerializationService(int bufferSize, int bufferPoolSize, Collection<String> schemaClasses) {
         this.strategy = (DefaultIdStrategy) RuntimeEnv.ID_STRATEGY;
+        this.buffers = new LinkedBufferPool(bufferSize, bufferPoolSize);
         register();
+        registerSchemas(schemaClasses);
+    }
+
+    private static Collection<String> parseClassNames(String names) {
+        if (names == null || names.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.asList(names.trim().split("\\s*,\\s*"));
     }
 
     protected void register() {
@@ -63,22 +117,73 @@ public class ProtostuffROPSerializationService implements ROPSerializationServic
         RuntimeSchema.register(PersistentObjectMap.class);
         RuntimeSchema.register(PersistentObjectSet.class);
         RuntimeSchema.register(ToManyList.class);
+
+        // build schemas of the classes present in every exchange upfront, so that the
+        // first requests don't pay for the schema introspection
+        RuntimeSchema.getSchema(ObjectId.class);
+        RuntimeSchema.getSchema(BootstrapMessage.class);
+        RuntimeSchema.getSchema(QueryMessage.class);
+        RuntimeSchema.getSchema(SyncMessage.class);
+        RuntimeSchema.getSchema(RemoteSession.class);
+        RuntimeSchema.getSchema(CompoundDiff.class);
+        RuntimeSchema.getSchema(NodeCreateOperation.class);
+        RuntimeSchema.getSchema(NodeDeleteOperation.class);
+        RuntimeSchema.getSchema(NodeIdChangeOperation.class);
+        RuntimeSchema.getSchema(NodePropertyChangeOperation.class);
+        RuntimeSchema.getSchema(ArcCreateOperation.class);
+        RuntimeSchema.getSchema(ArcDeleteOperation.class);
+    }
+
+    /**
+     * Builds and caches Protostuff schemas for the named classes.
+     *
+     * @since 4.1
+     */
+    protected void registerSchemas(Collection<String> classNames) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = ProtostuffROPSerializationService.class.getClassLoader();
+        }
+
+        for (String className : classNames) {
+            try {
+                RuntimeSchema.getSchema(Class.forName(className, true, loader));
+            } catch (ClassNotFoundException e) {
+                throw new CayenneRuntimeException("Can't load class '%s' to build its Protostuff schema", e, className);
+            }
+        }
     }
 
     @Override
     public byte[] serialize(Object object) throws IOException {
-        return GraphIOUtil.toByteArray(new Wrapper(object), wrapperSchema, LinkedBuffer.allocate());
+        LinkedBuffer buffer = buffers.acquire();
+        try {
+            return GraphIOUtil.toByteArray(new Wrapper(object), wrapperSchema, buffer);
+        } finally {
+            buffers.release(buffer);
+        }
     }
 
     @Override
     public void serialize(Object object, OutputStream outputStream) throws IOException {
-        GraphIOUtil.writeTo(outputStream, new Wrapper(object), wrapperSchema, LinkedBuffer.allocate());
+        // the buffer is flushed straight to the stream as it fills up
+        LinkedBuffer buffer = buffers.acquire();
+        try {
+            GraphIOUtil.writeTo(outputStream, new Wrapper(object), wrapperSchema, buffer);
+        } finally {
+            buffers.release(buffer);
+        }
     }
 
     @Override
     public <T> T deserialize(InputStream inputStream, Class<T> objectClass) throws IOException {
         Wrapper result = wrapperSchema.newMessage();
-        GraphIOUtil.mergeFrom(inputStream, result, wrapperSchema);
+        LinkedBuffer buffer = buffers.acquire();
+        try {
+            GraphIOUtil.mergeFrom(inputStream, result, wrapperSchema, buffer);
+        } finally {
+            buffers.release(buffer);
+        }
         return objectClass.cast(result.data);
     }
 
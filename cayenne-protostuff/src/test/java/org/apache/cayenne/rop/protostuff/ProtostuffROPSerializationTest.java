@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.rop.protostuff;
 
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.rop.ROPSerializationService;
 import org.apache.cayenne.rop.protostuff.persistent.ClientMtTable1;
@@ -31,6 +32,7 @@ import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collections;
 import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
@@ -122,6 +124,37 @@ public class ProtostuffROPSerializationTest extends ProtostuffProperties {
         assertEquals(property.getExpression(), clone.getExpression());
     }
 
+    @Test
+    public void testStreamSerialization_SmallPooledBuffer() throws Exception {
+        // a buffer smaller than the message is flushed to the stream several times
+        // and then reused for the next call
+        ROPSerializationService service = new ProtostuffROPSerializationService(
+                256, 1, Collections.singletonList(ClientMtTable2.class.getName()));
+
+        StringBuilder longAttribute = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longAttribute.append(i);
+        }
+        table2.setGlobalAttribute(longAttribute.toString());
+
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.serialize(table2, out);
+
+            ClientMtTable2 clone = service.deserialize(new ByteArrayInputStream(out.toByteArray()), ClientMtTable2.class);
+            assertEquals(longAttribute.toString(), clone.getGlobalAttribute());
+            assertEquals(GLOBAL_ATTRIBUTE1, clone.getTable1().getGlobalAttribute());
+        }
+
+        ClientMtTable2 clone = service.deserialize(service.serialize(table2), ClientMtTable2.class);
+        assertEquals(longAttribute.toString(), clone.getGlobalAttribute());
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testSchemaClasses_Invalid() {
+        new ProtostuffROPSerializationService(256, 1, Collections.singletonList("org.example.NoSuchClass"));
+    }
+
     private void assertCorrectness(ClientMtTable2 table2) {
         ClientMtTable1 table1 = table2.getTable1();
         assertEquals(GLOBAL_ATTRIBUTE2, table2.getGlobalAttribute());
@@ -26,6 +26,7 @@ import org.apache.cayenne.graph.GraphManager;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.remote.PageReadAheadExecutor;
 import org.apache.cayenne.util.EventUtil;
 import org.apache.cayenne.validation.ValidationException;
 import org.apache.cayenne.validation.ValidationResult;
@@ -49,6 +50,9 @@ public class CayenneContext extends BaseContext {
     // object that merges "backdoor" changes that come from the channel.
     CayenneContextMergeHandler mergeHandler;
 
+    int pageReadAhead;
+    PageReadAheadExecutor pageReadAheadExecutor;
+
     /**
      * Creates a new CayenneContext with no channel and disabled graph events.
      */
@@ -121,6 +125,44 @@ public class CayenneContext extends BaseContext {
         return graphManager.lifecycleEventsEnabled;
     }
 
+    /**
+     * Returns a number of pages that paginated lists returned by this context fetch
+     * in the background ahead of the last accessed page. Zero means that pages are
+     * only fetched when accessed.
+     *
+     * @since 4.1
+     */
+    public int getPageReadAhead() {
+        return pageReadAhead;
+    }
+
+    /**
+     * Sets a number of pages that paginated lists returned by this context fetch in
+     * the background ahead of the last accessed page.
+     *
+     * @since 4.1
+     */
+    public void setPageReadAhead(int pageReadAhead) {
+        this.pageReadAhead = pageReadAhead;
+    }
+
+    /**
+     * Returns an executor used by paginated lists to fetch pages in the background.
+     * Pages are not read ahead if the executor is null.
+     *
+     * @since 4.1
+     */
+    public PageReadAheadExecutor getPageReadAheadExecutor() {
+        return pageReadAheadExecutor;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setPageReadAheadExecutor(PageReadAheadExecutor pageReadAheadExecutor) {
+        this.pageReadAheadExecutor = pageReadAheadExecutor;
+    }
+
     @Override
     public GraphManager getGraphManager() {
         return graphManager;
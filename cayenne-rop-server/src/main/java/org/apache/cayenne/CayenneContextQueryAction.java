@@ -51,7 +51,9 @@ class CayenneContextQueryAction extends ObjectContextQueryAction {
         if (metadata.getPageSize() > 0) {
             response = new ListResponse(new RemoteIncrementalFaultList(
                     actingContext,
-                    query));
+                    query,
+                    ((CayenneContext) actingContext).getPageReadAhead(),
+                    ((CayenneContext) actingContext).getPageReadAheadExecutor()));
             return DONE;
         }
 
@@ -0,0 +1,84 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote;
+
+import org.apache.cayenne.di.BeforeScopeEnd;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded thread pool used by {@link RemoteIncrementalFaultList} to fetch pages in
+ * the background. Threads are started on demand and released when idle. If all threads
+ * are busy and the queue is full, read-ahead requests are dropped, and the pages are
+ * fetched when accessed. The pool is shut down together with the runtime, cancelling
+ * the queued requests, whose pages are then also fetched when accessed.
+ *
+ * @since 4.1
+ */
+public class PageReadAheadExecutor {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    public PageReadAheadExecutor(int threads, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "cayenne-rop-read-ahead-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits a task for execution, returning null if the executor is saturated or shut
+     * down.
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    @BeforeScopeEnd
+    public void shutdown() {
+
+        // cancel the tasks that never started, so that the lists waiting for them fetch
+        // the pages themselves instead of blocking forever
+        for (Runnable task : executor.shutdownNow()) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.query.EntityResultSegment;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.util.DeepMergeOperation;
+
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Registers objects of a QueryResponse received from the server in a client
+ * ObjectContext, replacing them in the response with the context objects. Response lists
+ * are assumed to be mutable.
+ *
+ * @since 4.1
+ */
+public class QueryResponseMerger {
+
+    protected ObjectContext context;
+
+    public QueryResponseMerger(ObjectContext context) {
+        this.context = context;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void merge(Query query, QueryResponse response) {
+
+        QueryMetadata info = query.getMetaData(context.getEntityResolver());
+        if (info.isFetchingDataRows()) {
+            return;
+        }
+
+        response.reset();
+
+        while (response.next()) {
+            if (response.isList()) {
+
+                List objects = response.currentList();
+
+                if (!objects.isEmpty()) {
+
+                    DeepMergeOperation merger = new DeepMergeOperation(context);
+                    List<Object> rsMapping = info.getResultSetMapping();
+                    if (rsMapping == null) {
+                        convertSingleObjects(objects, merger);
+                    }
+                    else {
+                        if (rsMapping.size() == 1) {
+                            if (rsMapping.get(0) instanceof EntityResultSegment) {
+                                convertSingleObjects(objects, merger);
+                            }
+                        }
+                        else {
+                            processMixedResult(objects, merger, rsMapping);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void processMixedResult(
+            List<Object[]> objects,
+            DeepMergeOperation merger,
+            List<Object> rsMapping) {
+
+        int width = rsMapping.size();
+        for (int i = 0; i < width; i++) {
+            if (rsMapping.get(i) instanceof EntityResultSegment) {
+                for (Object[] object : objects) {
+                    object[i] = convertObject(merger, (Persistent) object[i]);
+                }
+            }
+        }
+    }
+
+    private void convertSingleObjects(List<Object> objects, DeepMergeOperation merger) {
+
+        ListIterator<Object> it = objects.listIterator();
+        while (it.hasNext()) {
+            Object next = it.next();
+            it.set(convertObject(merger, (Persistent) next));
+        }
+    }
+
+    private Object convertObject(DeepMergeOperation merger, Persistent object) {
+
+        ObjectId id = object.getObjectId();
+
+        // sanity check
+        if (id == null) {
+            throw new CayenneRuntimeException("Server returned an object without an id: %s", object);
+        }
+
+        return merger.merge(object);
+    }
+}
@@ -21,11 +21,15 @@ package org.apache.cayenne.remote;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ObjectContext;
@@ -52,6 +56,15 @@ import org.apache.cayenne.util.Util;
  * Certain operations like <code>toArray</code> would trigger full list fetch.
  * </p>
  * <p>
+ * Optionally the list can "read ahead" a number of pages following the last accessed
+ * page. Such pages are fetched from the server in the background by a
+ * {@link PageReadAheadExecutor}, and are merged into the list and its ObjectContext by
+ * the thread that accesses them, so sequential traversal of the list doesn't have to
+ * wait for each page round trip. Background fetches are sent via the context channel
+ * concurrently with other requests, so the channel must be thread-safe, as
+ * ClientChannel is.
+ * </p>
+ * <p>
  * Synchronization Note: this list is not synchronized. All access to it should follow
  * synchronization rules applicable for ArrayList.
  * </p>
@@ -77,9 +90,34 @@ public class RemoteIncrementalFaultList implements List {
      */
     protected int rowWidth;
 
+    /**
+     * A number of pages following the last accessed page that are fetched in the
+     * background.
+     *
+     * @since 4.1
+     */
+    protected int readAheadPages;
+
     private ListHelper helper;
 
+    private transient PageReadAheadExecutor readAheadExecutor;
+
+    // pages being fetched in the background by their index
+    private transient Map<Integer, Future<QueryResponse>> pagesInFlight;
+
     public RemoteIncrementalFaultList(ObjectContext context, Query paginatedQuery) {
+        this(context, paginatedQuery, 0, null);
+    }
+
+    /**
+     * Creates a list that fetches up to "readAheadPages" pages following the last
+     * accessed page in the background, using the provided executor. If the executor is
+     * null, pages are only fetched on access.
+     *
+     * @since 4.1
+     */
+    public RemoteIncrementalFaultList(ObjectContext context, Query paginatedQuery, int readAheadPages,
+                                      PageReadAheadExecutor readAheadExecutor) {
 
         QueryMetadata metadata = paginatedQuery.getMetaData(context.getEntityResolver());
 
@@ -159,6 +197,13 @@ public class RemoteIncrementalFaultList implements List {
                 unfetchedObjects = 0;
             }
         }
+
+        this.readAheadPages = readAheadExecutor != null ? Math.max(readAheadPages, 0) : 0;
+        this.readAheadExecutor = readAheadExecutor;
+        if (this.readAheadPages > 0 && unfetchedObjects > 0) {
+            this.pagesInFlight = new HashMap<>();
+            readAhead(0);
+        }
     }
 
     private String generateCacheKey() {
@@ -217,6 +262,12 @@ public class RemoteIncrementalFaultList implements List {
         int fromPage = pageIndex(fromIndex);
         int toPage = pageIndex(toIndex - 1);
 
+        if (pagesInFlight != null && !pagesInFlight.isEmpty()) {
+            for (int i = fromPage; i <= toPage; i++) {
+                applyReadAheadPage(i);
+            }
+        }
+
         int rangeStartIndex = -1;
         for (int i = fromPage; i <= toPage; i++) {
 
@@ -271,6 +322,77 @@ public class RemoteIncrementalFaultList implements List {
         unfetchedObjects -= sublist.size();
     }
 
+    /**
+     * Starts background fetching of the unresolved pages following a given page.
+     */
+    void readAhead(int page) {
+
+        int lastPage = pageIndex(size() - 1);
+        for (int i = page + 1; i <= page + readAheadPages && i <= lastPage; i++) {
+
+            int pageStart = i * pageSize;
+            if (!isUnresolved(elements.get(pageStart)) || pagesInFlight.containsKey(i)) {
+                continue;
+            }
+
+            int fetchLimit = Math.min(pageSize, size() - pageStart);
+            RangeQuery query = new RangeQuery(cacheKey, pageStart, fetchLimit, paginatedQuery);
+
+            // only fetch the raw objects in the background; merging them into the
+            // context is done by the thread accessing the list
+            Future<QueryResponse> future = readAheadExecutor.submit(() -> context.getChannel().onQuery(null, query));
+            if (future == null) {
+                // executor is saturated, the rest of the pages will be fetched on access
+                break;
+            }
+
+            pagesInFlight.put(i, future);
+        }
+    }
+
+    /**
+     * Waits for a page fetched in the background, if any, and puts its objects into the
+     * list.
+     */
+    void applyReadAheadPage(int page) {
+
+        Future<QueryResponse> future = pagesInFlight.remove(page);
+        if (future == null) {
+            return;
+        }
+
+        QueryResponse response;
+        try {
+            response = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CayenneRuntimeException("Interrupted while waiting for page %d", e, page);
+        } catch (ExecutionException | CancellationException e) {
+            // leave the page unresolved, so that it is fetched again synchronously
+            return;
+        }
+
+        int pageStart = page * pageSize;
+        int fetchLimit = Math.min(pageSize, size() - pageStart);
+
+        // the list could've been modified since the page was requested
+        List sublist = response.firstList();
+        if (sublist == null || sublist.size() != fetchLimit || !isUnresolved(elements.get(pageStart))) {
+            return;
+        }
+
+        // register objects in the context the same way the channel does for the
+        // pages fetched on access
+        RangeQuery query = new RangeQuery(cacheKey, pageStart, fetchLimit, paginatedQuery);
+        new QueryResponseMerger(context).merge(query, response);
+
+        for (int i = 0; i < fetchLimit; i++) {
+            elements.set(pageStart + i, sublist.get(i));
+        }
+
+        unfetchedObjects -= fetchLimit;
+    }
+
     /**
      * Returns zero-based index of the virtual "page" for a given array element index.
      */
@@ -428,9 +550,14 @@ public class RemoteIncrementalFaultList implements List {
 
         if (isUnresolved(o)) {
             // read this page
-            int pageStart = pageIndex(index) * pageSize;
+            int page = pageIndex(index);
+            int pageStart = page * pageSize;
             resolveInterval(pageStart, pageStart + pageSize);
 
+            if (pagesInFlight != null) {
+                readAhead(page);
+            }
+
             return elements.get(index);
         }
         else {
@@ -99,6 +99,15 @@ public abstract class BaseRemoteService implements RemoteService {
 	 */
 	protected abstract ServerSession getServerSession();
 
+	/**
+	 * Called when processing of a message obtained via {@link #getServerSession()}
+	 * is finished. Does nothing by default.
+	 * 
+	 * @since 4.1
+	 */
+	protected void releaseServerSession(ServerSession session) {
+	}
+
 	@Override
 	public RemoteSession establishSession() {
 		logger.debug("Session requested by client");
@@ -149,6 +158,8 @@ public abstract class BaseRemoteService implements RemoteService {
 			Exception cause = new Exception(Util.unwindException(th).getLocalizedMessage());
 
 			throw new CayenneRuntimeException(wrapperMessageString, cause);
+		} finally {
+			releaseServerSession(handler);
 		}
 	}
 
@@ -42,6 +42,11 @@ public abstract class HttpRemoteService extends BaseRemoteService {
 
     private Map<String, WeakReference<DataChannel>> sharedChannels;
 
+    /**
+     * @since 4.1
+     */
+    protected ServerSessionStore sessionStore;
+
     /**
      * @since 3.1
      */
@@ -51,6 +56,26 @@ public abstract class HttpRemoteService extends BaseRemoteService {
         this.sharedChannels = new HashMap<>();
     }
 
+    /**
+     * Returns a store that bounds memory held by dedicated sessions, or null if session
+     * memory is not managed.
+     *
+     * @since 4.1
+     */
+    public ServerSessionStore getSessionStore() {
+        return sessionStore;
+    }
+
+    /**
+     * Sets a store that bounds memory held by dedicated sessions. Null (default) means
+     * sessions keep their server-side objects until the HTTP session expires.
+     *
+     * @since 4.1
+     */
+    public void setSessionStore(ServerSessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
     /**
      * Returns an HttpSession associated with the current request in progress.
      */
@@ -64,7 +89,23 @@ public abstract class HttpRemoteService extends BaseRemoteService {
     @Override
     protected ServerSession getServerSession() {
         HttpSession httpSession = getSession(true);
-        return (ServerSession) httpSession.getAttribute(SESSION_ATTRIBUTE);
+        ServerSession serverSession = (ServerSession) httpSession.getAttribute(SESSION_ATTRIBUTE);
+
+        if (serverSession != null && sessionStore != null) {
+            sessionStore.sessionAccessed(serverSession, this::createChannel);
+        }
+
+        return serverSession;
+    }
+
+    /**
+     * @since 4.1
+     */
+    @Override
+    protected void releaseServerSession(ServerSession session) {
+        if (session != null && sessionStore != null) {
+            sessionStore.sessionReleased(session);
+        }
     }
 
     /**
@@ -83,6 +124,10 @@ public abstract class HttpRemoteService extends BaseRemoteService {
                 false);
         ServerSession serverSession = new ServerSession(remoteSession, channel);
 
+        if (sessionStore != null) {
+            sessionStore.sessionCreated(serverSession);
+        }
+
         httpSession.setAttribute(SESSION_ATTRIBUTE, serverSession);
         return serverSession;
     }
@@ -34,6 +34,10 @@ public class ServerSession implements Serializable {
     protected RemoteSession session;
     protected DataChannel channel;
 
+    // state maintained by ServerSessionStore
+    transient volatile long lastAccessed;
+    transient int activeRequests;
+
     public ServerSession(RemoteSession session, DataChannel channel) {
         this.session = session;
         this.channel = channel;
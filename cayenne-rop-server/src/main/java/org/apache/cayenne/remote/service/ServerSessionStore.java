@@ -0,0 +1,402 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote.service;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.access.ClientServerChannel;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.ObjectStore;
+
+/**
+ * Keeps track of dedicated {@link ServerSession}s and bounds the memory held by their
+ * server-side object graphs. A session is weighed by the number of objects registered in
+ * its server-side context. Sessions that stay idle longer than the idle timeout, as well
+ * as the least recently used sessions over the session or object count limits, are
+ * evicted: their context objects are unregistered and the channel is dropped. The next
+ * request of an evicted session transparently gets a fresh channel, with objects
+ * refetched on demand.
+ * <p>
+ * Only dedicated sessions based on a {@link ClientServerChannel} are evicted. Shared
+ * sessions, sessions with requests in progress and sessions whose server-side context
+ * has uncommitted changes are always kept. The store keeps running totals of resident
+ * sessions and objects, so that accessing a session takes constant time. Sessions are
+ * swept when a limit is exceeded, and periodically when the idle timeout is set, so the
+ * store doesn't need a background thread.
+ *
+ * @since 4.1
+ */
+public class ServerSessionStore {
+
+    /**
+     * How often a store that can't get under its limits retries the sweep, in ms.
+     */
+    static final long SATURATED_SWEEP_INTERVAL = 1000L;
+
+    protected int maxResidentSessions;
+    protected long maxResidentObjects;
+    protected long idleTimeout;
+
+    // access-ordered, so iteration goes from the least recently used session; values
+    // are weak, as sessions are owned by the HTTP container
+    private final Map<String, SessionReference> sessions;
+    private final ReferenceQueue<ServerSession> collectedSessions;
+
+    private int residentSessions;
+    private long residentObjects;
+    private long evictions;
+    private long rehydrations;
+
+    private long nextSweep;
+    private boolean saturated;
+
+    /**
+     * Creates a store with the specified limits. Zero or negative values disable the
+     * corresponding limit.
+     */
+    public ServerSessionStore(int maxResidentSessions, long maxResidentObjects, long idleTimeout) {
+        this.maxResidentSessions = maxResidentSessions;
+        this.maxResidentObjects = maxResidentObjects;
+        this.idleTimeout = idleTimeout;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true);
+        this.collectedSessions = new ReferenceQueue<>();
+        this.nextSweep = System.currentTimeMillis() + sweepInterval();
+    }
+
+    /**
+     * Registers a newly created session with the store.
+     */
+    public synchronized void sessionCreated(ServerSession session) {
+        session.lastAccessed = System.currentTimeMillis();
+        expungeCollectedSessions();
+        register(session);
+    }
+
+    /**
+     * Marks the session as being used by a request in progress, restoring its channel
+     * with the provided factory if the session was previously evicted. Each call must
+     * be matched with a call to {@link #sessionReleased(ServerSession)}.
+     */
+    public synchronized void sessionAccessed(ServerSession session, Supplier<DataChannel> channelFactory) {
+
+        expungeCollectedSessions();
+
+        SessionReference ref = sessions.get(session.getSession().getSessionId());
+
+        // sessions restored by the container (e.g. after a restart or failover) are
+        // not known to the store yet
+        if (ref == null || ref.get() != session) {
+            ref = register(session);
+        }
+
+        session.lastAccessed = System.currentTimeMillis();
+        session.activeRequests++;
+
+        if (session.channel == null) {
+            session.channel = channelFactory.get();
+            rehydrations++;
+        }
+
+        reweigh(ref, session);
+        sweepIfNeeded(session.lastAccessed);
+    }
+
+    /**
+     * Marks the end of a request started with
+     * {@link #sessionAccessed(ServerSession, Supplier)}.
+     */
+    public synchronized void sessionReleased(ServerSession session) {
+        if (session.activeRequests > 0) {
+            session.activeRequests--;
+        }
+        session.lastAccessed = System.currentTimeMillis();
+
+        // the request may have changed the number of objects in the session context
+        SessionReference ref = sessions.get(session.getSession().getSessionId());
+        if (ref != null && ref.get() == session) {
+            reweigh(ref, session);
+        }
+
+        sweepIfNeeded(session.lastAccessed);
+    }
+
+    /**
+     * Evicts idle sessions and the least recently used sessions over the store limits.
+     */
+    public synchronized void evict() {
+        evict(System.currentTimeMillis());
+    }
+
+    private SessionReference register(ServerSession session) {
+        SessionReference ref = new SessionReference(session, collectedSessions);
+        SessionReference replaced = sessions.put(ref.id, ref);
+        if (replaced != null) {
+            unweigh(replaced);
+        }
+
+        reweigh(ref, session);
+        return ref;
+    }
+
+    private void expungeCollectedSessions() {
+        Reference<? extends ServerSession> collected;
+        while ((collected = collectedSessions.poll()) != null) {
+            SessionReference ref = (SessionReference) collected;
+
+            // the reference may have been replaced or already removed by a sweep
+            if (sessions.get(ref.id) == ref) {
+                sessions.remove(ref.id);
+                unweigh(ref);
+            }
+        }
+    }
+
+    private void reweigh(SessionReference ref, ServerSession session) {
+        unweigh(ref);
+
+        if (session.channel != null) {
+            ref.resident = true;
+            ref.weight = weigh(session);
+            residentSessions++;
+            residentObjects += ref.weight;
+        }
+    }
+
+    private void unweigh(SessionReference ref) {
+        if (ref.resident) {
+            residentSessions--;
+            residentObjects -= ref.weight;
+            ref.resident = false;
+            ref.weight = 0;
+        }
+    }
+
+    private void sweepIfNeeded(long now) {
+
+        // a store that couldn't get under its limits last time only retries
+        // periodically, so that requests don't keep sweeping in vain
+        boolean sweep = isOverLimit(residentSessions, residentObjects)
+                ? !saturated || now >= nextSweep
+                : idleTimeout > 0 && now >= nextSweep;
+
+        if (sweep) {
+            evict(now);
+        }
+    }
+
+    private long sweepInterval() {
+        if (idleTimeout > 0) {
+            // idle sessions are evicted at most half of the timeout late
+            return Math.max(idleTimeout / 2, 1L);
+        }
+
+        return SATURATED_SWEEP_INTERVAL;
+    }
+
+    private void evict(long now) {
+
+        List<SessionReference> candidates = new ArrayList<>();
+        int resident = 0;
+        long objects = 0;
+
+        Iterator<SessionReference> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            SessionReference ref = it.next();
+            ServerSession session = ref.get();
+            if (session == null) {
+                it.remove();
+                continue;
+            }
+
+            ref.resident = false;
+            ref.weight = 0;
+
+            if (session.channel == null) {
+                continue;
+            }
+
+            boolean evictable = isEvictable(session);
+            if (evictable && idleTimeout > 0 && now - session.lastAccessed > idleTimeout) {
+                evict(session);
+                continue;
+            }
+
+            ref.resident = true;
+            ref.weight = weigh(session);
+            resident++;
+            objects += ref.weight;
+
+            if (evictable) {
+                candidates.add(ref);
+            }
+        }
+
+        // candidates are in LRU order
+        int len = candidates.size();
+        for (int i = 0; i < len && isOverLimit(resident, objects); i++) {
+            SessionReference ref = candidates.get(i);
+            ServerSession session = ref.get();
+            if (session != null) {
+                evict(session);
+            }
+
+            resident--;
+            objects -= ref.weight;
+            ref.resident = false;
+            ref.weight = 0;
+        }
+
+        this.residentSessions = resident;
+        this.residentObjects = objects;
+        this.saturated = isOverLimit(resident, objects);
+        this.nextSweep = now + sweepInterval();
+    }
+
+    private boolean isOverLimit(int resident, long objects) {
+        return (maxResidentSessions > 0 && resident > maxResidentSessions)
+                || (maxResidentObjects > 0 && objects > maxResidentObjects);
+    }
+
+    protected boolean isEvictable(ServerSession session) {
+
+        // shared sessions have a name
+        if (session.activeRequests > 0 || session.getSession().getName() != null) {
+            return false;
+        }
+
+        DataContext context = getServerContext(session);
+        return context != null && !context.hasChanges();
+    }
+
+    protected int weigh(ServerSession session) {
+        DataContext context = getServerContext(session);
+        return context != null ? context.getObjectStore().registeredObjectsCount() : 0;
+    }
+
+    protected void evict(ServerSession session) {
+
+        DataContext context = getServerContext(session);
+        if (context != null) {
+            // detach objects, so that the ones still referenced from elsewhere (e.g.
+            // cached query results) don't pin the whole graph
+            ObjectStore objectStore = context.getObjectStore();
+            objectStore.objectsUnregistered(new ArrayList<>(objectStore.registeredNodes()));
+        }
+
+        session.channel = null;
+        evictions++;
+    }
+
+    private DataContext getServerContext(ServerSession session) {
+        DataChannel channel = session.channel;
+        if (channel instanceof ClientServerChannel) {
+            DataChannel parent = ((ClientServerChannel) channel).getParentChannel();
+            return parent instanceof DataContext ? (DataContext) parent : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of live sessions known to the store.
+     */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the number of sessions holding a server-side object graph.
+     */
+    public synchronized int getResidentSessionCount() {
+        return residentSessions;
+    }
+
+    /**
+     * Returns the total number of objects registered in the server-side contexts of
+     * resident sessions, as of the end of their last request.
+     */
+    public synchronized long getResidentObjectCount() {
+        return residentObjects;
+    }
+
+    /**
+     * Returns the number of sessions evicted since the store was created.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of evicted sessions that were restored since the store was
+     * created.
+     */
+    public synchronized long getRehydrationCount() {
+        return rehydrations;
+    }
+
+    /**
+     * Returns JVM heap memory currently in use, in bytes.
+     */
+    public long getUsedHeapMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Returns the maximum JVM heap memory, in bytes.
+     */
+    public long getMaxHeapMemory() {
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    public int getMaxResidentSessions() {
+        return maxResidentSessions;
+    }
+
+    public long getMaxResidentObjects() {
+        return maxResidentObjects;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    private static final class SessionReference extends WeakReference<ServerSession> {
+
+        final String id;
+
+        // session contribution to the store totals
+        boolean resident;
+        int weight;
+
+        SessionReference(ServerSession session, ReferenceQueue<ServerSession> queue) {
+            super(session, queue);
+            this.id = session.getSession().getSessionId();
+        }
+    }
+}
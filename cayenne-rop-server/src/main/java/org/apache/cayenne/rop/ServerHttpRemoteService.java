@@ -20,8 +20,10 @@ package org.apache.cayenne.rop;
 
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.ObjectContextFactory;
+import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.remote.service.HttpRemoteService;
+import org.apache.cayenne.remote.service.ServerSessionStore;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -34,6 +36,23 @@ public class ServerHttpRemoteService extends HttpRemoteService {
 		super(contextFactory, eventBridgeProperties);
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	public ServerHttpRemoteService(@Inject ObjectContextFactory contextFactory,
+								   @Inject(Constants.SERVER_ROP_EVENT_BRIDGE_PROPERTIES_MAP) Map<String, String> eventBridgeProperties,
+								   @Inject RuntimeProperties properties) {
+		super(contextFactory, eventBridgeProperties);
+
+		int maxSessions = properties.getInt(Constants.SERVER_ROP_SESSION_STORE_MAX_SESSIONS_PROPERTY, 0);
+		long maxObjects = properties.getLong(Constants.SERVER_ROP_SESSION_STORE_MAX_OBJECTS_PROPERTY, 0L);
+		long idleTimeout = properties.getLong(Constants.SERVER_ROP_SESSION_STORE_IDLE_TIMEOUT_PROPERTY, 0L);
+
+		if (maxSessions > 0 || maxObjects > 0 || idleTimeout > 0) {
+			setSessionStore(new ServerSessionStore(maxSessions, maxObjects, idleTimeout));
+		}
+	}
+
 	@Override
 	protected HttpSession getSession(boolean create) {
 		HttpServletRequest request = (HttpServletRequest) ROPRequestContext.getContextRequest();
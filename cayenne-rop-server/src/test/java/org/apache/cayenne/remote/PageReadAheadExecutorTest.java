@@ -0,0 +1,99 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PageReadAheadExecutorTest {
+
+    @Test
+    public void testSubmit_Saturated() throws Exception {
+        PageReadAheadExecutor executor = new PageReadAheadExecutor(1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            // one running, one queued
+            Future<String> f1 = executor.submit(() -> {
+                latch.await();
+                return "a";
+            });
+            Future<String> f2 = executor.submit(() -> "b");
+            assertNotNull(f1);
+            assertNotNull(f2);
+
+            assertNull(executor.submit(() -> "c"));
+
+            latch.countDown();
+            assertEquals("a", f1.get(5, TimeUnit.SECONDS));
+            assertEquals("b", f2.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdown_CancelsQueuedTasks() throws Exception {
+        PageReadAheadExecutor executor = new PageReadAheadExecutor(1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Future<String> f1 = executor.submit(() -> {
+            latch.await();
+            return "a";
+        });
+        Future<String> f2 = executor.submit(() -> "b");
+
+        executor.shutdown();
+
+        // the queued task never runs, but waiting for it doesn't block
+        assertTrue(f2.isCancelled());
+        try {
+            f2.get(5, TimeUnit.SECONDS);
+            fail("Queued task must be cancelled");
+        } catch (CancellationException e) {
+            // expected
+        }
+
+        // the running task is interrupted
+        try {
+            f1.get(5, TimeUnit.SECONDS);
+            fail("Running task must be interrupted");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+    }
+
+    @Test
+    public void testSubmit_Shutdown() {
+        PageReadAheadExecutor executor = new PageReadAheadExecutor(1, 1);
+        executor.shutdown();
+        assertNull(executor.submit(() -> "a"));
+    }
+}
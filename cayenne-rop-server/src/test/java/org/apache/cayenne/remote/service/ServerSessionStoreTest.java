@@ -0,0 +1,223 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.remote.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.access.ClientServerChannel;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.ObjectStore;
+import org.apache.cayenne.remote.RemoteSession;
+import org.junit.Test;
+
+public class ServerSessionStoreTest {
+
+	private static ServerSession session(String id, int objects, boolean changes) {
+		ObjectStore objectStore = mock(ObjectStore.class);
+		when(objectStore.registeredObjectsCount()).thenReturn(objects);
+
+		DataContext context = mock(DataContext.class);
+		when(context.getObjectStore()).thenReturn(objectStore);
+		when(context.hasChanges()).thenReturn(changes);
+
+		return new ServerSession(new RemoteSession(id), new ClientServerChannel(context));
+	}
+
+	private static ObjectStore objectStore(DataChannel channel) {
+		return ((DataContext) ((ClientServerChannel) channel).getParentChannel()).getObjectStore();
+	}
+
+	private static void request(ServerSessionStore store, ServerSession session) {
+		store.sessionAccessed(session, () -> session("new", 0, false).getChannel());
+		store.sessionReleased(session);
+	}
+
+	@Test
+	public void testMaxResidentSessions() {
+		ServerSessionStore store = new ServerSessionStore(2, 0, 0);
+
+		ServerSession s1 = session("s1", 10, false);
+		ServerSession s2 = session("s2", 10, false);
+		ServerSession s3 = session("s3", 10, false);
+		store.sessionCreated(s1);
+		store.sessionCreated(s2);
+		store.sessionCreated(s3);
+
+		DataChannel c1 = s1.getChannel();
+
+		request(store, s2);
+		request(store, s3);
+
+		// s1 is the least recently used
+		assertNull(s1.getChannel());
+		assertNotNull(s2.getChannel());
+		assertNotNull(s3.getChannel());
+		verify(objectStore(c1)).objectsUnregistered(any(Collection.class));
+
+		assertEquals(3, store.getSessionCount());
+		assertEquals(2, store.getResidentSessionCount());
+		assertEquals(20, store.getResidentObjectCount());
+		assertEquals(1, store.getEvictionCount());
+	}
+
+	@Test
+	public void testMaxResidentObjects() {
+		ServerSessionStore store = new ServerSessionStore(0, 100, 0);
+
+		ServerSession s1 = session("s1", 60, false);
+		ServerSession s2 = session("s2", 30, false);
+		ServerSession s3 = session("s3", 50, false);
+		store.sessionCreated(s1);
+		store.sessionCreated(s2);
+		store.sessionCreated(s3);
+
+		request(store, s3);
+
+		assertNull(s1.getChannel());
+		assertNotNull(s2.getChannel());
+		assertNotNull(s3.getChannel());
+		assertEquals(80, store.getResidentObjectCount());
+	}
+
+	@Test
+	public void testIdleTimeout() throws InterruptedException {
+		ServerSessionStore store = new ServerSessionStore(0, 0, 1);
+
+		ServerSession s1 = session("s1", 10, false);
+		ServerSession s2 = session("s2", 10, false);
+		store.sessionCreated(s1);
+		store.sessionCreated(s2);
+
+		Thread.sleep(5);
+		request(store, s2);
+
+		assertNull(s1.getChannel());
+		assertNotNull(s2.getChannel());
+	}
+
+	@Test
+	public void testNotEvictable() {
+		ServerSessionStore store = new ServerSessionStore(1, 0, 0);
+
+		ServerSession dirty = session("s1", 10, true);
+
+		ServerSession shared = session("s2", 10, false);
+		shared.getSession().setName("shared");
+
+		ServerSession active = session("s3", 10, false);
+
+		store.sessionCreated(dirty);
+		store.sessionCreated(shared);
+		store.sessionCreated(active);
+
+		DataChannel activeChannel = active.getChannel();
+		store.sessionAccessed(active, () -> null);
+
+		ServerSession s4 = session("s4", 10, false);
+		store.sessionCreated(s4);
+		request(store, s4);
+
+		assertNotNull(dirty.getChannel());
+		assertNotNull(shared.getChannel());
+		assertSame(activeChannel, active.getChannel());
+		assertNotNull(s4.getChannel());
+		verify(objectStore(activeChannel), never()).objectsUnregistered(any(Collection.class));
+
+		store.sessionReleased(active);
+		store.evict();
+		assertNull(active.getChannel());
+	}
+
+	@Test
+	public void testRehydrate() {
+		ServerSessionStore store = new ServerSessionStore(1, 0, 0);
+
+		ServerSession s1 = session("s1", 10, false);
+		ServerSession s2 = session("s2", 10, false);
+		store.sessionCreated(s1);
+		store.sessionCreated(s2);
+
+		DataChannel c1 = s1.getChannel();
+		request(store, s2);
+		assertNull(s1.getChannel());
+
+		request(store, s1);
+		assertNotNull(s1.getChannel());
+		assertNotSame(c1, s1.getChannel());
+		assertNull(s2.getChannel());
+
+		assertEquals(1, store.getRehydrationCount());
+		assertEquals(2, store.getEvictionCount());
+	}
+
+	@Test
+	public void testAccessUnderLimitsDoesNotSweep() {
+		ServerSessionStore store = new ServerSessionStore(10, 1000, 0);
+
+		ServerSession s1 = session("s1", 10, false);
+		ServerSession s2 = session("s2", 10, false);
+		store.sessionCreated(s1);
+		store.sessionCreated(s2);
+
+		DataChannel c2 = s2.getChannel();
+		when(objectStore(c2).registeredObjectsCount()).thenReturn(25);
+		request(store, s2);
+
+		// totals are maintained incrementally, other sessions are not checked
+		assertEquals(2, store.getResidentSessionCount());
+		assertEquals(35, store.getResidentObjectCount());
+		verify((DataContext) ((ClientServerChannel) s1.getChannel()).getParentChannel(), never()).hasChanges();
+		assertEquals(0, store.getEvictionCount());
+	}
+
+	@Test
+	public void testSaturatedStoreDoesNotSweepOnEveryRequest() {
+		ServerSessionStore store = new ServerSessionStore(1, 0, 0);
+
+		ServerSession dirty = session("s1", 10, true);
+		ServerSession s2 = session("s2", 10, false);
+		store.sessionCreated(dirty);
+		store.sessionCreated(s2);
+		store.sessionAccessed(s2, () -> null);
+
+		// nothing can be evicted, so the next request doesn't sweep again
+		DataContext dirtyContext = (DataContext) ((ClientServerChannel) dirty.getChannel()).getParentChannel();
+		verify(dirtyContext).hasChanges();
+		store.sessionReleased(s2);
+		request(store, s2);
+		verify(dirtyContext).hasChanges();
+
+		assertNotNull(s2.getChannel());
+		store.evict();
+		assertNull(s2.getChannel());
+		assertNotNull(dirty.getChannel());
+	}
+}
@@ -79,6 +79,11 @@ public class DataContext extends BaseContext {
     protected boolean usingSharedSnaphsotCache;
     protected ObjectStore objectStore;
 
+    /**
+     * @since 4.1
+     */
+    protected int batchFaultingSize;
+
     /**
      * @deprecated since 4.0 used in a method that itself should be deprecated,
      *             so this is a temp code
@@ -218,6 +223,30 @@ public class DataContext extends BaseContext {
         return (delegate != null) ? delegate : NoopDelegate.noopDelegate;
     }
 
+    /**
+     * Returns a maximum number of objects whose unresolved relationship is faulted
+     * together with the relationship of an object being accessed. Zero or one means
+     * that batch faulting is disabled.
+     *
+     * @since 4.1
+     */
+    public int getBatchFaultingSize() {
+        return batchFaultingSize;
+    }
+
+    /**
+     * Sets a maximum number of objects whose unresolved relationship is faulted
+     * together with the relationship of an object being accessed. When enabled,
+     * accessing a relationship of one object fetches related objects of up to this
+     * number of other committed objects of the same entity registered in the context
+     * with a single query.
+     *
+     * @since 4.1
+     */
+    public void setBatchFaultingSize(int batchFaultingSize) {
+        this.batchFaultingSize = batchFaultingSize;
+    }
+
     /**
      * Returns ObjectStore associated with this DataContext.
      */
@@ -290,6 +319,21 @@ public class DataContext extends BaseContext {
         return objects;
     }
 
+    /**
+     * In addition to resolving HOLLOW objects and relationship faults, resolves attribute
+     * values that were fetched as {@link Fault}s.
+     *
+     * @since 4.1
+     */
+    @Override
+    public void prepareForAccess(Persistent object, String property, boolean lazyFaulting) {
+        super.prepareForAccess(object, property, lazyFaulting);
+
+        if (property != null) {
+            getObjectStore().resolveLazyAttribute(object, property);
+        }
+    }
+
     /**
      * Returns a DataRow reflecting current, possibly uncommitted, object state.
      * <p>
@@ -309,6 +353,8 @@ public class DataContext extends BaseContext {
             return getObjectStore().getSnapshot(object.getObjectId());
         }
 
+        getObjectStore().resolveLazyAttributes(object);
+
         ObjEntity entity = getEntityResolver().getObjEntity(object);
         final ClassDescriptor descriptor = getEntityResolver().getClassDescriptor(entity.getName());
         final DataRow snapshot = new DataRow(10);
@@ -852,7 +898,9 @@ public class DataContext extends BaseContext {
     public ResultIterator performIteratedQuery(Query query) {
 
         if (BaseTransaction.getThreadTransaction() != null) {
-            return internalPerformIteratedQuery(query);
+            // the caller's transaction connection may be used for other queries while
+            // the iterator is open
+            return internalPerformIteratedQuery(query, false);
         } else {
 
 
@@ -865,7 +913,7 @@ public class DataContext extends BaseContext {
 
             ResultIterator<?> result;
             try {
-                result = internalPerformIteratedQuery(query);
+                result = internalPerformIteratedQuery(query, true);
             } catch (Exception e) {
 
                 tx.setRollbackOnly();
@@ -896,10 +944,10 @@ public class DataContext extends BaseContext {
     /**
      * Runs an iterated query in a transactional context provided by the caller.
      */
-    ResultIterator internalPerformIteratedQuery(Query query) {
+    ResultIterator internalPerformIteratedQuery(Query query, boolean dedicatedConnection) {
         // note that for now DataChannel API does not support cursors (aka
         // ResultIterator), so we have to go directly to the DataDomain.
-        IteratedSelectObserver observer = new IteratedSelectObserver();
+        IteratedSelectObserver observer = new IteratedSelectObserver(dedicatedConnection);
         getParentDataDomain().performQueries(Collections.singletonList(query), observer);
         return observer.getResultIterator();
     }
@@ -951,6 +999,15 @@ public class DataContext extends BaseContext {
             return new ArrayList<>(1);
         }
 
+        // relationship faults are resolved via RelationshipQuery
+        if (batchFaultingSize > 1 && query instanceof RelationshipQuery && getObjectStore().getDataRowCache() != null) {
+            List<?> related = new RelationshipBatchFaultingAction(this, (RelationshipQuery) query, batchFaultingSize)
+                    .execute();
+            if (related != null) {
+                return related;
+            }
+        }
+
         List result = onQuery(this, query).firstList();
         return result != null ? result : new ArrayList<>(1);
     }
@@ -39,6 +39,8 @@ import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.EntitySorter;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.QueryChain;
 import org.apache.cayenne.tx.BaseTransaction;
@@ -90,6 +92,16 @@ public class DataDomain implements QueryEngine, DataChannel {
 	 */
 	protected int maxIdQualifierSize;
 
+	/**
+	 * @since 4.1
+	 */
+	protected int batchFaultingSize;
+
+	/**
+	 * @since 4.1
+	 */
+	protected MetricsCollector metricsCollector;
+
 	/**
 	 * @since 3.1
 	 * @deprecated since 4.1 this field is unused
@@ -168,6 +180,7 @@ public class DataDomain implements QueryEngine, DataChannel {
 		// specific map
 		// for that matter
 		this.properties = Collections.emptyMap();
+		this.metricsCollector = NoopMetricsCollector.getInstance();
 
 		setName(name);
 	}
@@ -620,6 +633,7 @@ public class DataDomain implements QueryEngine, DataChannel {
 
 		DataDomainFlushAction action = new DataDomainFlushAction(this);
 		action.setJdbcEventLogger(jdbcEventLogger);
+		action.setMetricsCollector(metricsCollector);
 
 		return action.flush((DataContext) originatingContext, childChanges);
 	}
@@ -656,6 +670,22 @@ public class DataDomain implements QueryEngine, DataChannel {
 		this.dataRowStoreFactory = dataRowStoreFactory;
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	public MetricsCollector getMetricsCollector() {
+		return metricsCollector;
+	}
+
+	/**
+	 * Sets a collector notified about commits of this domain.
+	 *
+	 * @since 4.1
+	 */
+	public void setMetricsCollector(MetricsCollector metricsCollector) {
+		this.metricsCollector = metricsCollector;
+	}
+
 	/**
 	 * @since 3.1
 	 */
@@ -864,6 +894,26 @@ public class DataDomain implements QueryEngine, DataChannel {
 		this.maxIdQualifierSize = maxIdQualifierSize;
 	}
 
+	/**
+	 * Returns a maximum number of objects whose relationship faults are resolved
+	 * together by the contexts created from this domain. Zero or one disables batch
+	 * faulting. It can be changed either by calling
+	 * {@link #setBatchFaultingSize(int)} or changing the value for property
+	 * {@link Constants#SERVER_BATCH_FAULTING_SIZE_PROPERTY}.
+	 *
+	 * @since 4.1
+	 */
+	public int getBatchFaultingSize() {
+		return batchFaultingSize;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setBatchFaultingSize(int batchFaultingSize) {
+		this.batchFaultingSize = batchFaultingSize;
+	}
+
 	TransactionManager getTransactionManager() {
 		return transactionManager;
 	}
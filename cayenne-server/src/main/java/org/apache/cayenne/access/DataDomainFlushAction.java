@@ -28,6 +28,8 @@ import org.apache.cayenne.graph.CompoundDiff;
 import org.apache.cayenne.graph.GraphDiff;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.query.BatchQuery;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.reflect.ClassDescriptor;
@@ -68,9 +70,11 @@ class DataDomainFlushAction {
     private List<Query> queries;
 
     private JdbcEventLogger logger;
+    private MetricsCollector metricsCollector;
 
     DataDomainFlushAction(DataDomain domain) {
         this.domain = domain;
+        this.metricsCollector = NoopMetricsCollector.getInstance();
     }
 
     DataDomain getDomain() {
@@ -105,6 +109,13 @@ class DataDomainFlushAction {
         return this.logger;
     }
 
+    /**
+     * @since 4.1
+     */
+    public void setMetricsCollector(MetricsCollector metricsCollector) {
+        this.metricsCollector = metricsCollector;
+    }
+
     ObjectDiff objectDiff(Object objectId) {
         return changesByObjectId.get(objectId);
     }
@@ -140,6 +151,7 @@ class DataDomainFlushAction {
         this.queries = new ArrayList<>();
         this.resultIndirectlyModifiedIds = new HashSet<>();
 
+        long t0 = System.nanoTime();
         preprocess(context, changes);
 
         if (queries.isEmpty()) {
@@ -150,9 +162,14 @@ class DataDomainFlushAction {
         this.resultDeletedIds = new ArrayList<>();
         this.resultModifiedSnapshots = new HashMap<>();
 
+        long t1 = System.nanoTime();
         runQueries();
 
+        long t2 = System.nanoTime();
         postprocess(context);
+
+        metricsCollector.flushPerformed(queries.size(), t1 - t0, t2 - t1, System.nanoTime() - t2);
+
         return resultDiff;
     }
 
@@ -189,6 +189,11 @@ class DataDomainLegacyQueryAction implements QueryRouter, OperationObserver {
         return callback.isIteratedResult();
     }
 
+    @Override
+    public boolean isIteratedResultOnDedicatedConnection() {
+        return callback.isIteratedResultOnDedicatedConnection();
+    }
+
     Query queryForExecutedQuery(Query executedQuery) {
         Query q = null;
 
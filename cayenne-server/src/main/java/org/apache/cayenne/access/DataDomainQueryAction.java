@@ -33,9 +33,11 @@ import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.map.DbRelationship;
 import org.apache.cayenne.map.EntityInheritanceTree;
 import org.apache.cayenne.map.LifecycleEvent;
+import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.query.EntityResultSegment;
 import org.apache.cayenne.query.ObjectIdQuery;
+import org.apache.cayenne.query.ObjectSelect;
 import org.apache.cayenne.query.PrefetchSelectQuery;
 import org.apache.cayenne.query.PrefetchTreeNode;
 import org.apache.cayenne.query.Query;
@@ -44,8 +46,10 @@ import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.QueryRouter;
 import org.apache.cayenne.query.RefreshQuery;
 import org.apache.cayenne.query.RelationshipQuery;
+import org.apache.cayenne.query.SelectByUniqueKey;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.apache.cayenne.reflect.LifecycleCallbackRegistry;
+import org.apache.cayenne.tx.BaseTransaction;
 import org.apache.cayenne.util.GenericResponse;
 import org.apache.cayenne.util.ListResponse;
 import org.apache.cayenne.util.Util;
@@ -113,11 +117,15 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
 
         // run chain...
         if (interceptOIDQuery() != DONE) {
-            if (interceptRelationshipQuery() != DONE) {
-                if (interceptRefreshQuery() != DONE) {
-                    if (interceptSharedCache() != DONE) {
-                        if (interceptDataDomainQuery() != DONE) {
-                            runQueryInTransaction();
+            if (interceptUniqueKeyQuery() != DONE) {
+                if (interceptRelationshipQuery() != DONE) {
+                    if (interceptRefreshQuery() != DONE) {
+                        if (interceptFullyCachedEntityQuery() != DONE) {
+                            if (interceptSharedCache() != DONE) {
+                                if (interceptDataDomainQuery() != DONE) {
+                                    runQueryInTransaction();
+                                }
+                            }
                         }
                     }
                 }
@@ -172,7 +180,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
                     response = new ListResponse();
                 }
             } else {
-                response = new ListResponse(row);
+                response = new ListResponse(cachedRowForResponse(row));
             }
 
             return DONE;
@@ -213,6 +221,53 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
 		return null;
 	}
 
+    // cached rows may contain faulted attribute values that are resolved lazily when
+    // the rows are converted to objects; rows returned to the caller as is must be
+    // resolved, unless requested by the ObjectStore to be merged into objects
+    private DataRow cachedRowForResponse(DataRow row) {
+        return metadata.isFetchingDataRows() && !(query instanceof ObjectStore.CachedSnapshotQuery)
+                ? DataRowUtils.resolveFaults(row)
+                : row;
+    }
+
+    /**
+     * Resolves SelectByUniqueKey queries via the unique key index of the snapshot cache,
+     * indexing the rows fetched from the database.
+     *
+     * @since 4.1
+     */
+    private boolean interceptUniqueKeyQuery() {
+
+        if (!(query instanceof SelectByUniqueKey) || cache == null) {
+            return !DONE;
+        }
+
+        // index keeps ids of the query root entity, so polymorphic results are not supported
+        ObjEntity entity = metadata.getObjEntity();
+        if (!domain.getEntityResolver().getInheritanceTree(entity.getName()).getChildren().isEmpty()) {
+            return !DONE;
+        }
+
+        SelectByUniqueKey<?> keyQuery = (SelectByUniqueKey<?>) query;
+        String column = keyQuery.getUniqueAttribute(domain.getEntityResolver()).getName();
+        Object value = keyQuery.getValue();
+
+        DataRow row = cache.getCachedSnapshot(entity.getName(), column, value);
+        if (row != null) {
+            response = new ListResponse(cachedRowForResponse(row));
+            return DONE;
+        }
+
+        runQueryInTransaction();
+
+        List<?> rows = response.firstList();
+        if (rows != null && rows.size() == 1) {
+            cache.indexUniqueKey(DataRowUtils.createObjectId(entity, (DataRow) rows.get(0)), column, value);
+        }
+
+        return DONE;
+    }
+
     private boolean interceptRelationshipQuery() {
 
         if (query instanceof RelationshipQuery) {
@@ -368,6 +423,32 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         return !DONE;
     }
 
+    /**
+     * Answers ObjectSelect queries against "fully cached" entities from memory.
+     *
+     * @since 4.1
+     */
+    private boolean interceptFullyCachedEntityQuery() {
+
+        if (cache == null || !(query instanceof ObjectSelect)) {
+            return !DONE;
+        }
+
+        ObjEntity entity = metadata.getObjEntity();
+        if (entity == null || !entity.isFullyCached()) {
+            return !DONE;
+        }
+
+        List<DataRow> rows = new FullyCachedEntityQueryAction(domain, cache, (ObjectSelect<?>) query, metadata)
+                .execute();
+        if (rows == null) {
+            return !DONE;
+        }
+
+        this.response = new ListResponse(rows);
+        return DONE;
+    }
+
     /*
      * Wraps execution in shared cache checks
      */
@@ -433,13 +514,17 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
      * Gets response from the underlying DataNodes.
      */
     void runQueryInTransaction() {
+
+        // selects that are not a part of a user transaction can go to read replicas
+        boolean replicaRead = BaseTransaction.getThreadTransaction() == null;
+
         domain.getTransactionManager().performInTransaction(() -> {
-            runQuery();
+            runQuery(replicaRead);
             return null;
         });
     }
 
-    private void runQuery() {
+    private void runQuery(boolean replicaRead) {
         // reset
         this.fullResponse = new GenericResponse();
         this.response = this.fullResponse;
@@ -458,7 +543,11 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             for (Map.Entry<QueryEngine, Collection<Query>> entry : queriesByNode.entrySet()) {
                 QueryEngine nextNode = entry.getKey();
                 Collection<Query> nodeQueries = entry.getValue();
-                nextNode.performQueries(nodeQueries, this);
+                if (replicaRead && nextNode instanceof DataNode) {
+                    ((DataNode) nextNode).performReadOnlyQueries(nodeQueries, this);
+                } else {
+                    nextNode.performQueries(nodeQueries, this);
+                }
             }
         }
     }
@@ -34,6 +34,8 @@ import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.JdbcAdapter;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.log.NoopJdbcEventLogger;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjAttribute;
@@ -63,6 +65,9 @@ import java.util.logging.Logger;
  */
 public class DataNode implements QueryEngine {
 
+	// prefix of transaction connection resource names
+	static final String CONNECTION_RESOURCE_PREFIX = "DataNode.Connection.";
+
 	protected String name;
 	protected DataSource dataSource;
 	protected DbAdapter adapter;
@@ -77,6 +82,8 @@ public class DataNode implements QueryEngine {
 	private BatchTranslatorFactory batchTranslatorFactory;
 	private SelectTranslatorFactory selectTranslatorFactory;
 	private SQLTemplateProcessor sqlTemplateProcessor;
+	private ReadReplicaPool readReplicas;
+	private MetricsCollector metricsCollector;
 
 	TransactionDataSource readThroughDataSource;
 
@@ -98,6 +105,7 @@ public class DataNode implements QueryEngine {
 
 		// make sure logger is not null
 		this.jdbcEventLogger = NoopJdbcEventLogger.getInstance();
+		this.metricsCollector = NoopMetricsCollector.getInstance();
 	}
 
 	/**
@@ -132,6 +140,20 @@ public class DataNode implements QueryEngine {
 		this.jdbcEventLogger = logger;
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	public MetricsCollector getMetricsCollector() {
+		return metricsCollector;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setMetricsCollector(MetricsCollector metricsCollector) {
+		this.metricsCollector = metricsCollector;
+	}
+
 	/**
 	 * Returns node name. Name is used to uniquely identify DataNode within a
 	 * DataDomain.
@@ -201,6 +223,23 @@ public class DataNode implements QueryEngine {
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * Returns a pool of read replica DataSources used for select queries, or null if
+	 * the node sends all queries to its main DataSource.
+	 *
+	 * @since 4.1
+	 */
+	public ReadReplicaPool getReadReplicas() {
+		return readReplicas;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setReadReplicas(ReadReplicaPool readReplicas) {
+		this.readReplicas = readReplicas;
+	}
+
 	/**
 	 * Returns DbAdapter object. This is a plugin that handles RDBMS
 	 * vendor-specific features.
@@ -231,6 +270,49 @@ public class DataNode implements QueryEngine {
 	@Override
 	public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
 
+		if (readReplicas != null && !isReadOnly(queries)) {
+			readReplicas.writePerformed();
+		}
+
+		performQueries(queries, callback, -1);
+	}
+
+	/**
+	 * Runs read-only queries, sending them to one of the read replicas, unless the node
+	 * has no replicas or the current thread has recently written to the main
+	 * DataSource. Callers must ensure that the queries are not a part of a transaction
+	 * that has modified the data, as such changes wouldn't be visible on a replica.
+	 *
+	 * @since 4.1
+	 */
+	public void performReadOnlyQueries(Collection<? extends Query> queries, OperationObserver callback) {
+
+		ReadReplicaPool replicas = this.readReplicas;
+		if (replicas == null || replicas.isSticky() || !isReadOnly(queries)) {
+			performQueries(queries, callback);
+			return;
+		}
+
+		int replica = replicas.acquire();
+		try {
+			performQueries(queries, callback, replica);
+		} finally {
+			replicas.release(replica);
+		}
+	}
+
+	private boolean isReadOnly(Collection<? extends Query> queries) {
+		for (Query query : queries) {
+			if (!(query instanceof SelectQuery)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void performQueries(Collection<? extends Query> queries, OperationObserver callback, int replica) {
+
 		int listSize = queries.size();
 		if (listSize == 0) {
 			return;
@@ -247,10 +329,11 @@ public class DataNode implements QueryEngine {
 		// upper limit.
 		getAdapter().getExtendedTypes();
 
+		long t0 = System.nanoTime();
 		Connection connection = null;
 
 		try {
-			connection = this.getDataSource().getConnection();
+			connection = replica < 0 ? this.getDataSource().getConnection() : getReplicaConnection(replica);
 		} catch (Exception globalEx) {
 			getJdbcEventLogger().logQueryError(globalEx);
 
@@ -291,9 +374,24 @@ public class DataNode implements QueryEngine {
 			} catch (SQLException e) {
 				// ignore closing exceptions...
 			}
+
+			metricsCollector.queriesPerformed(name, listSize, System.nanoTime() - t0);
 		}
 	}
 
+	private Connection getReplicaConnection(int replica) throws SQLException {
+
+		// replicas are expected to get their schema from the main DB through replication,
+		// so the schema update strategy is not applied to them
+
+		DataSource replicaDataSource = readReplicas.getDataSource(replica);
+		Transaction t = BaseTransaction.getThreadTransaction();
+		return (t != null)
+				? t.getOrCreateConnection(CONNECTION_RESOURCE_PREFIX + name + ".replica." + replica,
+						replicaDataSource)
+				: replicaDataSource.getConnection();
+	}
+
 	/**
 	 * Returns EntityResolver that handles DataMaps of this node.
 	 */
@@ -413,9 +511,6 @@ public class DataNode implements QueryEngine {
     // transaction.
     final class TransactionDataSource implements DataSource {
 
-        final String CONNECTION_RESOURCE_PREFIX = "DataNode.Connection.";
-
-
         @Override
         public Connection getConnection() throws SQLException {
             if (schemaUpdateStrategy != null) {
@@ -91,6 +91,11 @@ class DataNodeQueryAction {
             public boolean isIteratedResult() {
                 return observer.isIteratedResult();
             }
+
+            @Override
+            public boolean isIteratedResultOnDedicatedConnection() {
+                return observer.isIteratedResultOnDedicatedConnection();
+            }
         };
 
         SQLAction action = node.getAdapter().getAction(originalQuery, node);
@@ -31,7 +31,11 @@ import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.event.EventSubject;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
+import org.apache.cayenne.util.Util;
 import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import org.apache.cayenne.util.concurrentlinkedhashmap.EvictionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +47,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -59,17 +64,38 @@ public class DataRowStore implements Serializable {
     public static final long SNAPSHOT_EXPIRATION_DEFAULT = 2 * 60 * 60; // default expiration time is 2 hours
     public static final int SNAPSHOT_CACHE_SIZE_DEFAULT = 10000;
 
+    /**
+     * @since 4.1
+     */
+    public static final int SNAPSHOT_EVENT_COALESCING_MAX_IDS_DEFAULT = 1000;
+
     protected String name;
     private int maxSize;
+    private long eventCoalescingWindow;
+    private int eventCoalescingMaxIds;
     protected ConcurrentMap<ObjectId, DataRow> snapshots;
 
+    // whether the snapshot map has an eviction listener
+    private boolean countingEvictions;
+
+    // complete row sets of the entities mapped as "fully cached", keyed by entity name
+    protected transient ConcurrentMap<String, FullyCachedRows> fullyCachedRows;
+
+    // ObjectIds of cached snapshots keyed by values of unique columns
+    protected transient UniqueKeyIndex uniqueKeys;
+
     protected transient EventManager eventManager;
     protected transient EventBridge remoteNotificationsHandler;
 
+    // merges changes sent to EventBridge, null if coalescing is disabled
+    private transient SnapshotEventCoalescer eventCoalescer;
+
     // IMPORTANT: EventSubject must be an ivar to avoid its deallocation
     // too early, and thus disabling events.
     protected transient EventSubject eventSubject;
 
+    private transient MetricsCollector metricsCollector;
+
     /**
      * Creates new DataRowStore with a specified name and a set of properties. If no
      * properties are defined, default values are used.
@@ -90,6 +116,8 @@ public class DataRowStore implements Serializable {
         this.name = name;
         this.eventSubject = createSubject();
         this.eventManager = eventManager;
+        this.fullyCachedRows = new ConcurrentHashMap<>();
+        this.metricsCollector = NoopMetricsCollector.getInstance();
         initWithProperties(properties);
     }
 
@@ -106,9 +134,13 @@ public class DataRowStore implements Serializable {
             logger.debug("DataRowStore property " + Constants.SNAPSHOT_CACHE_SIZE_PROPERTY + " = " + maxSize);
         }
 
-        this.snapshots = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
-                .maximumWeightedCapacity(maxSize)
-                .build();
+        this.snapshots = createSnapshotMap(false);
+        this.uniqueKeys = new UniqueKeyIndex(maxSize);
+
+        eventCoalescingWindow = properties.getLong(Constants.SNAPSHOT_EVENT_COALESCING_WINDOW_PROPERTY, 0);
+        eventCoalescingMaxIds = properties.getInt(
+                Constants.SNAPSHOT_EVENT_COALESCING_MAX_IDS_PROPERTY,
+                SNAPSHOT_EVENT_COALESCING_MAX_IDS_DEFAULT);
     }
 
     protected void setEventBridge(EventBridge eventBridge) {
@@ -232,6 +264,42 @@ public class DataRowStore implements Serializable {
         this.name = name;
     }
 
+    /**
+     * @since 4.1
+     */
+    public MetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    /**
+     * Sets a collector notified about cache hits, misses and evictions.
+     *
+     * @since 4.1
+     */
+    public void setMetricsCollector(MetricsCollector metricsCollector) {
+        this.metricsCollector = metricsCollector;
+
+        // an eviction listener makes the map queue every eviction for delivery, so it is
+        // only installed when evictions are actually counted
+        boolean countEvictions = !(metricsCollector instanceof NoopMetricsCollector);
+        if (countEvictions != countingEvictions) {
+            ConcurrentLinkedHashMap<ObjectId, DataRow> newSnapshots = createSnapshotMap(countEvictions);
+            newSnapshots.putAll(snapshots);
+            this.snapshots = newSnapshots;
+        }
+    }
+
+    private ConcurrentLinkedHashMap<ObjectId, DataRow> createSnapshotMap(boolean countEvictions) {
+        ConcurrentLinkedHashMap.Builder<ObjectId, DataRow> builder = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
+                .maximumWeightedCapacity(maxSize);
+        if (countEvictions) {
+            builder.listener(new EvictionCounter());
+        }
+
+        this.countingEvictions = countEvictions;
+        return builder.build();
+    }
+
     /**
      * Returns an EventManager associated with this DataRowStore.
      *
@@ -259,7 +327,80 @@ public class DataRowStore implements Serializable {
      * ObjectId.
      */
     public DataRow getCachedSnapshot(ObjectId oid) {
-        return snapshots.get(oid);
+        DataRow snapshot = snapshots.get(oid);
+        metricsCollector.snapshotCacheRead(name, snapshot != null);
+        return snapshot;
+    }
+
+    /**
+     * Returns cached snapshot of an object with a given value of a unique column, or
+     * null if no such snapshot is currently cached. Only the values previously
+     * registered via {@link #indexUniqueKey(ObjectId, String, Object)} can be found.
+     *
+     * @since 4.1
+     */
+    public DataRow getCachedSnapshot(String entityName, String uniqueColumn, Object value) {
+        ObjectId id = uniqueKeys.get(entityName, uniqueColumn, value);
+        if (id == null) {
+            return null;
+        }
+
+        DataRow snapshot = snapshots.get(id);
+
+        // snapshot was evicted, or the index is behind the snapshot
+        if (snapshot == null || !Util.nullSafeEquals(snapshot.get(uniqueColumn), value)) {
+            uniqueKeys.remove(entityName, uniqueColumn, value);
+            return null;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Registers a value of a unique column of an object, so that the object snapshot
+     * could be found via {@link #getCachedSnapshot(String, String, Object)}. The index
+     * is updated as object snapshots change and is cleared when they are removed.
+     *
+     * @since 4.1
+     */
+    public void indexUniqueKey(ObjectId id, String uniqueColumn, Object value) {
+        if (value != null) {
+            uniqueKeys.put(id, uniqueColumn, value);
+        }
+    }
+
+    /**
+     * Returns all rows of a "fully cached" entity, or null if the rows of the entity are
+     * not loaded, or were invalidated since they were loaded. Returned collection must
+     * not be modified by the caller.
+     *
+     * @since 4.1
+     */
+    public Collection<DataRow> getFullyCachedRows(String entityName) {
+        FullyCachedRows entityRows = fullyCachedRows.get(entityName);
+        return entityRows != null ? entityRows.getRows() : null;
+    }
+
+    /**
+     * Returns a counter of changes applied to the rows of a "fully cached" entity. The
+     * value must be obtained before fetching entity rows from the database and passed to
+     * {@link #loadFullyCachedRows(String, Map, long)} to detect concurrent changes.
+     *
+     * @since 4.1
+     */
+    public long getFullyCachedRowsVersion(String entityName) {
+        return fullyCachedRows.computeIfAbsent(entityName, n -> new FullyCachedRows()).getVersion();
+    }
+
+    /**
+     * Stores a complete set of rows of a "fully cached" entity. Returns false and
+     * ignores the rows if the entity was modified after the "version" was obtained via
+     * {@link #getFullyCachedRowsVersion(String)}.
+     *
+     * @since 4.1
+     */
+    public boolean loadFullyCachedRows(String entityName, Map<ObjectId, DataRow> rows, long version) {
+        return fullyCachedRows.computeIfAbsent(entityName, n -> new FullyCachedRows()).load(rows, version);
     }
 
     /**
@@ -274,6 +415,8 @@ public class DataRowStore implements Serializable {
      */
     public void clear() {
         snapshots.clear();
+        fullyCachedRows.clear();
+        uniqueKeys.clear();
     }
 
     /**
@@ -281,6 +424,7 @@ public class DataRowStore implements Serializable {
      */
     public void forgetSnapshot(ObjectId id) {
         snapshots.remove(id);
+        uniqueKeys.remove(id);
     }
 
     /**
@@ -357,6 +501,12 @@ public class DataRowStore implements Serializable {
         if (!deletedSnapshotIDs.isEmpty()) {
             for (ObjectId deletedSnapshotID : deletedSnapshotIDs) {
                 snapshots.remove(deletedSnapshotID);
+                uniqueKeys.remove(deletedSnapshotID);
+
+                FullyCachedRows entityRows = fullyCachedRowsFor(deletedSnapshotID);
+                if (entityRows != null) {
+                    entityRows.remove(deletedSnapshotID);
+                }
             }
         }
     }
@@ -366,6 +516,13 @@ public class DataRowStore implements Serializable {
         if (!invalidatedSnapshotIds.isEmpty()) {
             for (ObjectId invalidatedSnapshotId : invalidatedSnapshotIds) {
                 snapshots.remove(invalidatedSnapshotId);
+                uniqueKeys.remove(invalidatedSnapshotId);
+
+                // the row may be stale, so the entity has to be reloaded
+                FullyCachedRows entityRows = fullyCachedRowsFor(invalidatedSnapshotId);
+                if (entityRows != null) {
+                    entityRows.invalidate();
+                }
             }
         }
     }
@@ -379,6 +536,9 @@ public class DataRowStore implements Serializable {
                 ObjectId key = entry.getKey();
                 DataRow newSnapshot = entry.getValue();
                 DataRow oldSnapshot = snapshots.put(key, newSnapshot);
+                uniqueKeys.update(key, newSnapshot);
+
+                FullyCachedRows entityRows = fullyCachedRowsFor(key);
 
                 // generate diff for the updated event, if this not a new
                 // snapshot
@@ -398,6 +558,13 @@ public class DataRowStore implements Serializable {
                 // the two (we don't even know which one is newer due to
                 // multithreading). Just throw out this snapshot....
 
+                // "fully cached" entity rows are not subject to LRU eviction, so
+                // cases 1 and 2 also include newly inserted rows
+                if (entityRows != null
+                        && (oldSnapshot == null || oldSnapshot.getVersion() == newSnapshot.getReplacesVersion())) {
+                    entityRows.put(key, newSnapshot);
+                }
+
                 if (oldSnapshot != null) {
                     // case 4 above... have to throw out the snapshot since
                     // no good options exist to tell how to merge the two.
@@ -414,6 +581,10 @@ public class DataRowStore implements Serializable {
                         }
 
                         forgetSnapshot(key);
+
+                        if (entityRows != null) {
+                            entityRows.invalidate();
+                        }
                         continue;
                     }
 
@@ -439,6 +610,12 @@ public class DataRowStore implements Serializable {
             for (Map.Entry<ObjectId, DataRow> entry : diffs.entrySet()) {
                 ObjectId key = entry.getKey();
                 DataRow oldSnapshot = snapshots.remove(key);
+                uniqueKeys.update(key, entry.getValue());
+
+                FullyCachedRows entityRows = fullyCachedRowsFor(key);
+                if (entityRows != null) {
+                    entityRows.applyDiff(key, entry.getValue());
+                }
 
                 if (oldSnapshot == null) {
                     continue;
@@ -478,9 +655,20 @@ public class DataRowStore implements Serializable {
             // synchronously notify listeners; leaving it up to the listeners to
             // register as "non-blocking" if needed.
             eventManager.postEvent(event, getSnapshotEventSubject());
+
+            // local changes are sent to the EventBridge separately when coalesced;
+            // changes received from the EventBridge must not be sent back
+            SnapshotEventCoalescer coalescer = this.eventCoalescer;
+            if (coalescer != null && postedBy != remoteNotificationsHandler) {
+                coalescer.add(diffs, deletedSnapshotIDs, invalidatedSnapshotIDs, indirectlyModifiedIds);
+            }
         }
     }
 
+    private FullyCachedRows fullyCachedRowsFor(ObjectId id) {
+        return fullyCachedRows.isEmpty() ? null : fullyCachedRows.get(id.getEntityName());
+    }
+
     // deserialization support
     private void readObject(ObjectInputStream in) throws IOException,
             ClassNotFoundException {
@@ -489,6 +677,9 @@ public class DataRowStore implements Serializable {
 
         // restore subjects
         this.eventSubject = createSubject();
+        this.fullyCachedRows = new ConcurrentHashMap<>();
+        this.uniqueKeys = new UniqueKeyIndex(maxSize);
+        this.metricsCollector = NoopMetricsCollector.getInstance();
     }
 
     void stopListeners() {
@@ -496,6 +687,11 @@ public class DataRowStore implements Serializable {
             eventManager.removeListener(this);
         }
 
+        if (eventCoalescer != null) {
+            eventCoalescer.shutdown();
+            eventCoalescer = null;
+        }
+
         if (remoteNotificationsHandler != null) {
             try {
                 remoteNotificationsHandler.shutdown();
@@ -526,11 +722,24 @@ public class DataRowStore implements Serializable {
                             getSnapshotEventSubject(),
                             remoteNotificationsHandler);
 
-                    // start EventBridge - it will listen to all event sources for this
-                    // subject
-                    remoteNotificationsHandler.startup(
-                            eventManager,
-                            EventBridge.RECEIVE_LOCAL_EXTERNAL);
+                    if (eventCoalescingWindow > 0) {
+                        // start EventBridge for external events only, local events
+                        // will be sent by the coalescer
+                        eventCoalescer = new SnapshotEventCoalescer(
+                                this,
+                                remoteNotificationsHandler,
+                                eventCoalescingWindow,
+                                eventCoalescingMaxIds);
+                        remoteNotificationsHandler.startup(
+                                eventManager,
+                                EventBridge.RECEIVE_EXTERNAL);
+                    } else {
+                        // start EventBridge - it will listen to all event sources for
+                        // this subject
+                        remoteNotificationsHandler.startup(
+                                eventManager,
+                                EventBridge.RECEIVE_LOCAL_EXTERNAL);
+                    }
                 } catch (Exception ex) {
                     throw new CayenneRuntimeException(
                             "Error initializing DataRowStore.",
@@ -539,4 +748,77 @@ public class DataRowStore implements Serializable {
             }
         }
     }
+
+    // serializable, as it is a part of the serialized snapshots map
+    private class EvictionCounter implements EvictionListener<ObjectId, DataRow>, Serializable {
+
+        private static final long serialVersionUID = -2817104530466185291L;
+
+        @Override
+        public void onEviction(ObjectId key, DataRow value) {
+            metricsCollector.snapshotCacheEviction(name);
+        }
+    }
+
+    /**
+     * A complete set of rows of a single "fully cached" entity. Unlike the main snapshot
+     * map, the rows are never evicted. Any change that can't be applied reliably
+     * discards the rows, so that they are reloaded on the next query.
+     */
+    static final class FullyCachedRows {
+
+        // null if not loaded or invalidated
+        private volatile Map<ObjectId, DataRow> rows;
+        private long version;
+
+        Collection<DataRow> getRows() {
+            Map<ObjectId, DataRow> rows = this.rows;
+            return rows != null ? Collections.unmodifiableCollection(rows.values()) : null;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized boolean load(Map<ObjectId, DataRow> loadedRows, long expectedVersion) {
+            if (version != expectedVersion) {
+                return false;
+            }
+
+            this.rows = new ConcurrentHashMap<>(loadedRows);
+            return true;
+        }
+
+        synchronized void put(ObjectId id, DataRow row) {
+            version++;
+            if (rows != null) {
+                rows.put(id, row);
+            }
+        }
+
+        synchronized void applyDiff(ObjectId id, DataRow diff) {
+            version++;
+            if (rows != null) {
+                DataRow row = rows.get(id);
+                if (row != null) {
+                    rows.put(id, row.applyDiff(diff));
+                } else {
+                    // a remote insert... we can't restore a full row from a diff
+                    rows = null;
+                }
+            }
+        }
+
+        synchronized void remove(ObjectId id) {
+            version++;
+            if (rows != null) {
+                rows.remove(id);
+            }
+        }
+
+        synchronized void invalidate() {
+            version++;
+            rows = null;
+        }
+    }
 }
@@ -19,15 +19,20 @@
 
 package org.apache.cayenne.access;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.Fault;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbJoin;
 import org.apache.cayenne.map.DbRelationship;
 import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.reflect.ArcProperty;
 import org.apache.cayenne.reflect.AttributeProperty;
@@ -83,6 +88,13 @@ class DataRowUtils {
 
         final boolean[] isPartialSnapshot = new boolean[1];
 
+        final ObjectStore objectStore = object.getObjectContext() instanceof DataContext
+                ? ((DataContext) object.getObjectContext()).getObjectStore()
+                : null;
+        if (objectStore != null) {
+            objectStore.clearLazyAttributes(object);
+        }
+
         descriptor.visitProperties(new PropertyVisitor() {
 
             public boolean visitAttribute(AttributeProperty property) {
@@ -90,6 +102,18 @@ class DataRowUtils {
                 String dbAttrPath = attr.getDbAttributePath();
 
                 Object value = snapshot.get(dbAttrPath);
+
+                // defer resolving of the faulted values until the attribute is read
+                if (value instanceof Fault) {
+                    if (objectStore != null) {
+                        objectStore.lazyAttributeFetched(object, property.getName(), (Fault) value);
+                        property.writePropertyDirectly(object, null, null);
+                        return true;
+                    }
+
+                    value = ((Fault) value).resolveFault(object, property.getName());
+                }
+
                 property.writePropertyDirectly(object, null, value);
 
                 // note that a check "snaphsot.get(..) == null" would be incorrect in this
@@ -143,6 +167,10 @@ class DataRowUtils {
                 // for a key... so check for partial snapshot
                 // only if the value is null
                 Object newValue = snapshot.get(dbAttrPath);
+                if (newValue instanceof Fault) {
+                    newValue = ((Fault) newValue).resolveFault(object, property.getName());
+                }
+
                 if (newValue != null || snapshot.containsKey(dbAttrPath)) {
 
                     Object curValue = property.readPropertyDirectly(object);
@@ -218,6 +246,21 @@ class DataRowUtils {
         });
     }
 
+    /**
+     * Creates an ObjectId of a non-polymorphic entity from a full snapshot of its row.
+     *
+     * @since 4.1
+     */
+    static ObjectId createObjectId(ObjEntity entity, DataRow snapshot) {
+        Collection<DbAttribute> pk = entity.getDbEntity().getPrimaryKeys();
+        Map<String, Object> idSnapshot = new HashMap<>(pk.size() * 2);
+        for (DbAttribute attribute : pk) {
+            idSnapshot.put(attribute.getName(), snapshot.get(attribute.getName()));
+        }
+
+        return new ObjectId(entity.getName(), idSnapshot);
+    }
+
     static boolean hasFK(DbRelationship relationship, Map<String, Object> snapshot) {
         for (final DbJoin join : relationship.getJoins()) {
             if (!snapshot.containsKey(join.getSourceName())) {
@@ -261,6 +304,29 @@ class DataRowUtils {
         return !Util.nullSafeEquals(currentId, targetId);
     }
 
+    /**
+     * Returns a snapshot with attribute values stored as {@link Fault}s (e.g. encrypted
+     * columns) resolved. The snapshot itself is returned if it has no such values,
+     * otherwise a copy is made, so the cached snapshot is not modified.
+     *
+     * @since 4.1
+     */
+    static DataRow resolveFaults(DataRow snapshot) {
+        if (snapshot == null || snapshot.values().stream().noneMatch(v -> v instanceof Fault)) {
+            return snapshot;
+        }
+
+        DataRow resolved = new DataRow(snapshot.size());
+        resolved.setEntityName(snapshot.getEntityName());
+        resolved.setReplacesVersion(snapshot.getReplacesVersion());
+        for (Map.Entry<String, Object> e : snapshot.entrySet()) {
+            Object value = e.getValue();
+            resolved.put(e.getKey(), value instanceof Fault ? ((Fault) value).resolveFault(null, e.getKey()) : value);
+        }
+
+        return resolved;
+    }
+
     // not for instantiation
     DataRowUtils() {
     }
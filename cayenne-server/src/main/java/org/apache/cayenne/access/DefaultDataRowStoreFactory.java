@@ -27,6 +27,8 @@ import org.apache.cayenne.di.Provider;
 import org.apache.cayenne.event.EventBridge;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.event.NoopEventBridge;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 
 /**
  * A default implementation of {@link DataRowStoreFactory}
@@ -41,17 +43,31 @@ public class DefaultDataRowStoreFactory implements DataRowStoreFactory {
 
     RuntimeProperties properties;
 
+    MetricsCollector metricsCollector;
+
     public DefaultDataRowStoreFactory(@Inject Provider<EventBridge> eventBridgeProvider,
                                       @Inject EventManager eventManager,
                                       @Inject RuntimeProperties properties) {
+        this(eventBridgeProvider, eventManager, properties, NoopMetricsCollector.getInstance());
+    }
+
+    /**
+     * @since 4.1
+     */
+    public DefaultDataRowStoreFactory(@Inject Provider<EventBridge> eventBridgeProvider,
+                                      @Inject EventManager eventManager,
+                                      @Inject RuntimeProperties properties,
+                                      @Inject MetricsCollector metricsCollector) {
         this.eventBridgeProvider = eventBridgeProvider;
         this.eventManager = eventManager;
         this.properties = properties;
+        this.metricsCollector = metricsCollector;
     }
 
     @Override
     public DataRowStore createDataRowStore(String name) throws DIRuntimeException {
         DataRowStore store = new DataRowStore(name, properties, eventManager);
+        store.setMetricsCollector(metricsCollector);
         setUpEventBridge(store);
         return store;
     }
@@ -0,0 +1,210 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.SelectQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers {@link ObjectSelect} queries against "fully cached" entities from the rows
+ * kept in {@link DataRowStore}, loading entity rows from the database if they are not
+ * loaded yet. Qualifier and orderings are evaluated against the rows in memory. Queries
+ * that can't be evaluated in memory (e.g. those with relationship paths, prefetches or
+ * pagination) are left for the database.
+ *
+ * @since 4.1
+ */
+class FullyCachedEntityQueryAction {
+
+    private DataDomain domain;
+    private DataRowStore cache;
+    private ObjectSelect<?> query;
+    private QueryMetadata metadata;
+    private ObjEntity entity;
+
+    FullyCachedEntityQueryAction(DataDomain domain, DataRowStore cache, ObjectSelect<?> query, QueryMetadata metadata) {
+        this.domain = domain;
+        this.cache = cache;
+        this.query = query;
+        this.metadata = metadata;
+        this.entity = metadata.getObjEntity();
+    }
+
+    /**
+     * Returns a list of matching rows, or null if the query must be sent to the database.
+     */
+    List<DataRow> execute() {
+
+        if (!isEntitySupported() || !isQuerySupported()) {
+            return null;
+        }
+
+        Expression qualifier = entity.translateToDbPath(query.getWhere());
+        if (qualifier != null && !isDbAttributesOnly(qualifier)) {
+            return null;
+        }
+
+        List<Ordering> orderings = translateOrderings();
+        if (orderings == null) {
+            return null;
+        }
+
+        Collection<DataRow> rows = cache.getFullyCachedRows(entity.getName());
+        if (rows == null) {
+            rows = loadRows();
+            if (rows == null) {
+                return null;
+            }
+        }
+
+        try {
+            return filter(rows, qualifier, orderings);
+        } catch (ExpressionException e) {
+            // some expressions can only be evaluated by the database
+            return null;
+        }
+    }
+
+    private boolean isEntitySupported() {
+        return entity.getDbEntity() != null
+                && entity.getDeclaredQualifier() == null
+                && entity.getSuperEntity() == null
+                && domain.getEntityResolver().getInheritanceTree(entity.getName()).getChildren().isEmpty();
+    }
+
+    private boolean isQuerySupported() {
+        return metadata.getPrefetchTree() == null
+                && metadata.getPageSize() <= 0
+                && metadata.getResultSetMapping() == null;
+    }
+
+    private List<Ordering> translateOrderings() {
+        Collection<Ordering> orderings = query.getOrderings();
+        if (orderings == null || orderings.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+
+        List<Ordering> dbOrderings = new ArrayList<>(orderings.size());
+        for (Ordering ordering : orderings) {
+            Expression sortSpec = entity.translateToDbPath(ordering.getSortSpec());
+            if (!isDbAttributesOnly(sortSpec)) {
+                return null;
+            }
+
+            Ordering dbOrdering = new Ordering(sortSpec, ordering.getSortOrder());
+            dbOrdering.setNullSortedFirst(ordering.isNullSortedFirst());
+            dbOrdering.setPathExceptionSupressed(ordering.isPathExceptionSuppressed());
+            dbOrderings.add(dbOrdering);
+        }
+
+        return dbOrderings;
+    }
+
+    // checks that all paths in the expression point to the columns of the root table
+    private boolean isDbAttributesOnly(Expression expression) {
+
+        if (expression.getType() == Expression.OBJ_PATH) {
+            return false;
+        }
+
+        if (expression.getType() == Expression.DB_PATH) {
+            String path = String.valueOf(expression.getOperand(0));
+            return entity.getDbEntity().getAttribute(path) != null;
+        }
+
+        int len = expression.getOperandCount();
+        for (int i = 0; i < len; i++) {
+            Object operand = expression.getOperand(i);
+            if (operand instanceof Expression && !isDbAttributesOnly((Expression) operand)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Collection<DataRow> loadRows() {
+
+        long version = cache.getFullyCachedRowsVersion(entity.getName());
+
+        SelectQuery<DataRow> loadQuery = new SelectQuery<>(entity);
+        loadQuery.setFetchingDataRows(true);
+
+        // SelectQuery is not intercepted by FullyCachedEntityQueryAction, so this
+        // goes straight to the database
+        @SuppressWarnings("unchecked")
+        List<DataRow> loaded = (List<DataRow>) new DataDomainQueryAction(null, domain, loadQuery)
+                .execute()
+                .firstList();
+
+        Map<ObjectId, DataRow> rows = new HashMap<>((int) (loaded.size() / 0.75f) + 1);
+        for (DataRow row : loaded) {
+            rows.put(DataRowUtils.createObjectId(entity, row), row);
+        }
+
+        // entity was modified while we were loading, so the loaded rows may be stale
+        if (!cache.loadFullyCachedRows(entity.getName(), rows, version)) {
+            return null;
+        }
+
+        return rows.values();
+    }
+
+    private List<DataRow> filter(Collection<DataRow> rows, Expression qualifier, List<Ordering> orderings) {
+
+        List<DataRow> matched = new ArrayList<>(qualifier == null ? rows.size() : 16);
+        for (DataRow row : rows) {
+            if (qualifier == null || qualifier.match(row)) {
+                matched.add(row);
+            }
+        }
+
+        if (!orderings.isEmpty()) {
+            Ordering.orderList(matched, orderings);
+        }
+
+        int offset = metadata.getFetchOffset();
+        int limit = metadata.getFetchLimit();
+
+        int from = Math.min(Math.max(offset, 0), matched.size());
+        int to = limit > 0 ? Math.min(from + limit, matched.size()) : matched.size();
+
+        // cached rows are shared between queries, so hand out copies that callers
+        // (e.g. object resolvers) can safely modify
+        List<DataRow> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(new DataRow(matched.get(i)));
+        }
+
+        return result;
+    }
+}
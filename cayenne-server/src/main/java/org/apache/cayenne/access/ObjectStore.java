@@ -22,6 +22,7 @@ package org.apache.cayenne.access;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.DataRow;
+import org.apache.cayenne.Fault;
 import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
@@ -44,12 +45,15 @@ import org.apache.cayenne.reflect.PropertyVisitor;
 import org.apache.cayenne.reflect.ToManyProperty;
 import org.apache.cayenne.reflect.ToOneProperty;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,6 +79,22 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      */
     protected Map<Object, Set<String>> trackedFlattenedPaths;
 
+    /**
+     * Attribute values of registered objects that were fetched as {@link Fault}s and are
+     * resolved on the first access of the attribute. Keyed by object identity, so that
+     * the values go away together with the objects. Lookups are not synchronized, so
+     * that reading objects without pending faults doesn't lock the store.
+     * @since 4.1
+     */
+    private transient volatile WeakIdentityMap<Persistent, Map<String, Fault>> lazyAttributes;
+
+    /**
+     * Ids of registered objects by entity name, used to find batch faulting siblings
+     * without scanning the whole store. Built on first use, ids of objects that are no
+     * longer registered are dropped lazily.
+     */
+    private transient Map<String, Set<Object>> idsByEntity;
+
     // a sequential id used to tag GraphDiffs so that they can later be sorted in the
     // original creation order
     int currentDiffId;
@@ -200,6 +220,9 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
                 }
             }
 
+            // diff snapshot must contain real values of all attributes
+            resolveLazyAttributes(object);
+
             objectDiff = new ObjectDiff(object);
             objectDiff.setDiffId(++currentDiffId);
             changes.put(nodeId, objectDiff);
@@ -212,6 +235,99 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         return objectDiff;
     }
 
+    /**
+     * Stores an attribute value fetched as a {@link Fault} (e.g. a value that is expensive
+     * to convert, such as an encrypted column), to be resolved and written to the object
+     * on the first access of the attribute.
+     *
+     * @since 4.1
+     */
+    synchronized void lazyAttributeFetched(Persistent object, String property, Fault value) {
+        if (lazyAttributes == null) {
+            lazyAttributes = new WeakIdentityMap<>();
+        }
+
+        lazyAttributes.computeIfAbsent(object, o -> new HashMap<>()).put(property, value);
+    }
+
+    /**
+     * Forgets any unresolved attribute values of the object, e.g. before the object is
+     * refreshed from a snapshot.
+     *
+     * @since 4.1
+     */
+    void clearLazyAttributes(Persistent object) {
+        if (!hasLazyAttributes(object)) {
+            return;
+        }
+
+        synchronized (this) {
+            lazyAttributes.remove(object);
+        }
+    }
+
+    /**
+     * Resolves an attribute value of the object that was fetched as a {@link Fault}, if
+     * the attribute has not been resolved yet.
+     *
+     * @since 4.1
+     */
+    public void resolveLazyAttribute(Persistent object, String property) {
+        if (!hasLazyAttributes(object)) {
+            return;
+        }
+
+        Fault fault;
+        synchronized (this) {
+            Map<String, Fault> faults = lazyAttributes.get(object);
+            if (faults == null || (fault = faults.remove(property)) == null) {
+                return;
+            }
+
+            if (faults.isEmpty()) {
+                lazyAttributes.remove(object);
+            }
+        }
+
+        writeLazyAttribute(object, property, fault);
+    }
+
+    /**
+     * Resolves all attribute values of the object that were fetched as {@link Fault}s.
+     *
+     * @since 4.1
+     */
+    public void resolveLazyAttributes(Persistent object) {
+        if (!hasLazyAttributes(object)) {
+            return;
+        }
+
+        Map<String, Fault> faults;
+        synchronized (this) {
+            faults = lazyAttributes.remove(object);
+        }
+
+        if (faults != null) {
+            for (Map.Entry<String, Fault> entry : faults.entrySet()) {
+                writeLazyAttribute(object, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // unsynchronized check, so that only objects with pending faults take the lock
+    private boolean hasLazyAttributes(Persistent object) {
+        WeakIdentityMap<Persistent, Map<String, Fault>> lazyAttributes = this.lazyAttributes;
+        return lazyAttributes != null && lazyAttributes.get(object) != null;
+    }
+
+    private void writeLazyAttribute(Persistent object, String property, Fault fault) {
+        Object value = fault.resolveFault(object, property);
+        context.getEntityResolver()
+                .getClassDescriptor(object.getObjectId().getEntityName())
+                .getProperty(property)
+                .writePropertyDirectly(object, null, value);
+    }
+
     /**
      * Returns a number of objects currently registered with this ObjectStore.
      * 
@@ -305,6 +421,9 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
             if(id != null && trackedFlattenedPaths != null) {
                 trackedFlattenedPaths.remove(id);
             }
+            if(lazyAttributes != null) {
+                lazyAttributes.remove(object);
+            }
             ids.add(id);
 
             object.setObjectContext(null);
@@ -487,14 +606,22 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * Returns a snapshot for ObjectId from the underlying snapshot cache. If cache
      * contains no snapshot, it will attempt fetching it using provided QueryEngine. If
      * fetch attempt fails or inconsistent data is returned, underlying cache will throw a
-     * CayenneRuntimeException.
+     * CayenneRuntimeException. Attribute values stored in the cache as {@link Fault}s
+     * (e.g. encrypted columns) are resolved in the returned snapshot, which is a copy of
+     * the cached one in this case.
      * 
      * @since 1.2
      */
     public synchronized DataRow getSnapshot(ObjectId oid) {
+        return DataRowUtils.resolveFaults(fetchSnapshot(oid));
+    }
+
+    // returns a snapshot that may contain faulted attribute values, which are resolved
+    // lazily when the snapshot is merged into an object
+    private DataRow fetchSnapshot(ObjectId oid) {
 
         if (context != null && context.getChannel() != null) {
-            ObjectIdQuery query = new ObjectIdQuery(oid, true, ObjectIdQuery.CACHE);
+            ObjectIdQuery query = new CachedSnapshotQuery(oid, ObjectIdQuery.CACHE);
             List<?> results = context.getChannel().onQuery(context, query).firstList();
             return results.isEmpty() ? null : (DataRow) results.get(0);
         }
@@ -510,6 +637,67 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         return objectMap.values().iterator();
     }
 
+    /**
+     * Returns up to "count" registered objects of the entity, taken round-robin, so that
+     * consecutive calls return different objects. The cost is proportional to "count"
+     * and not to the number of registered objects. Requires external synchronization.
+     *
+     * @since 4.1
+     */
+    List<Persistent> nextObjectsOfEntity(String entityName, int count) {
+
+        if (idsByEntity == null) {
+            idsByEntity = new HashMap<>();
+            for (Map.Entry<Object, Persistent> e : objectMap.entrySet()) {
+                indexNode(e.getKey(), e.getValue());
+            }
+        }
+
+        Set<Object> ids = idsByEntity.get(entityName);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        List<Persistent> objects = new ArrayList<>(count);
+        List<Object> visited = new ArrayList<>(count);
+
+        Iterator<Object> it = ids.iterator();
+        while (it.hasNext() && objects.size() < count) {
+            Object id = it.next();
+            it.remove();
+
+            Persistent object = objectMap.get(id);
+            if (object != null && id.equals(object.getObjectId())) {
+                objects.add(object);
+                visited.add(id);
+            }
+        }
+
+        // move returned objects to the end of the queue
+        ids.addAll(visited);
+        return objects;
+    }
+
+    private void indexNode(Object nodeId, Persistent object) {
+        if (idsByEntity == null || object == null || object.getObjectId() == null) {
+            return;
+        }
+
+        Set<Object> ids = idsByEntity.computeIfAbsent(object.getObjectId().getEntityName(), e -> new LinkedHashSet<>());
+
+        // drop an id of an unregistered object from the head of the queue, so that ids
+        // of objects that were never scanned don't accumulate
+        Iterator<Object> it = ids.iterator();
+        if (it.hasNext()) {
+            Object head = it.next();
+            if (objectMap.get(head) == null) {
+                it.remove();
+            }
+        }
+
+        ids.add(nodeId);
+    }
+
     /**
      * Returns <code>true</code> if there are any modified, deleted or new objects
      * registered with this ObjectStore, <code>false</code> otherwise. This method will
@@ -595,6 +783,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         if (object != null) {
             object.setObjectId((ObjectId) newId);
             objectMap.put(newId, object);
+            indexNode(newId, object);
 
             ObjectDiff change = changes.remove(nodeId);
             if (change != null) {
@@ -689,7 +878,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
                         break;
                     case PersistenceState.MODIFIED:
                         DataContext context = (DataContext) object.getObjectContext();
-                        DataRow diff = getSnapshot(oid);
+                        DataRow diff = fetchSnapshot(oid);
                         // consult delegate if it exists
                         DataContextDelegate delegate = context.nonNullDelegate();
                         if (delegate.shouldMergeChanges(object, diff)) {
@@ -801,7 +990,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
                         // This sounds counterintuitive (Not sure if this is some HotSpot related glitch)...
                         // still keeping the old algorithm here until we switch from snapshot events
                         // to GraphEvents and all this code becomes obsolete.
-                        DataRow snapshot = getSnapshot(object.getObjectId());
+                        DataRow snapshot = fetchSnapshot(object.getObjectId());
 
                         DataRowUtils.refreshObjectWithSnapshot(
                                 descriptor,
@@ -882,6 +1071,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     @Override
     public synchronized void registerNode(Object nodeId, Object nodeObject) {
         objectMap.put(nodeId, (Persistent) nodeObject);
+        indexNode(nodeId, (Persistent) nodeObject);
     }
 
     /**
@@ -1013,11 +1203,16 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     }
 
     // an ObjectIdQuery optimized for retrieval of multiple snapshots - it can be reset
-    // with the new id
+    // with the new id. Cached snapshots are returned as is, with faulted attribute values
+    // left unresolved
     final class CachedSnapshotQuery extends ObjectIdQuery {
 
         CachedSnapshotQuery(ObjectId oid) {
-            super(oid, true, ObjectIdQuery.CACHE_NOREFRESH);
+            this(oid, ObjectIdQuery.CACHE_NOREFRESH);
+        }
+
+        CachedSnapshotQuery(ObjectId oid, int cachePolicy) {
+            super(oid, true, cachePolicy);
         }
 
         void resetId(ObjectId oid) {
@@ -1026,6 +1221,22 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
         }
     }
 
+    // unresolved attribute values are not serialized, so resolve them before the objects are written
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (lazyAttributes != null) {
+            Collection<Persistent> objects;
+            synchronized (this) {
+                objects = lazyAttributes.keys();
+            }
+
+            for (Persistent object : objects) {
+                resolveLazyAttributes(object);
+            }
+        }
+
+        out.defaultWriteObject();
+    }
+
     class SnapshotEventDecorator implements GraphDiff {
 
         SnapshotEvent event;
@@ -32,4 +32,16 @@ public interface OperationHints {
      * results are expected as a list.
      */
     public boolean isIteratedResult();
+
+    /**
+     * Returns <code>true</code> if an iterated result is the only user of its connection
+     * until the iterator is closed, so that rows may be streamed in a way that blocks
+     * other statements on the same connection. <code>false</code> is returned when the
+     * connection is shared, e.g. with a transaction started by the caller.
+     *
+     * @since 4.1
+     */
+    default boolean isIteratedResultOnDedicatedConnection() {
+        return false;
+    }
 }
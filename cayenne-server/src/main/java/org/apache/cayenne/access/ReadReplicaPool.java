@@ -0,0 +1,174 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A group of read-only DataSources pointing to the replicas of a {@link DataNode}
+ * primary database. DataNode sends select queries executed outside of user
+ * transactions to one of the replicas, picked according to the pool
+ * {@link Balancing} strategy. For read-your-writes consistency, a thread that
+ * recently wrote to the primary keeps reading from the primary for the duration of
+ * the "stickiness" period.
+ *
+ * @since 4.1
+ */
+public class ReadReplicaPool {
+
+    /**
+     * Defines how a replica is picked for a query.
+     */
+    public enum Balancing {
+
+        /**
+         * Replicas are used one after another.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * A replica with the smallest number of queries in progress is used.
+         */
+        LEAST_BUSY
+    }
+
+    private final List<DataSource> dataSources;
+    private final AtomicInteger[] activeQueries;
+    private final AtomicInteger next;
+    private final Balancing balancing;
+    private final long stickiness;
+
+    // time of the last write to the primary done by the current thread
+    private final ThreadLocal<Long> lastWrite;
+
+    /**
+     * @param dataSources replica DataSources.
+     * @param balancing replica balancing strategy.
+     * @param stickiness a time in milliseconds after a write during which the writing
+     *            thread reads from the primary.
+     */
+    public ReadReplicaPool(List<DataSource> dataSources, Balancing balancing, long stickiness) {
+
+        if (dataSources == null || dataSources.isEmpty()) {
+            throw new CayenneRuntimeException("At least one replica DataSource is required");
+        }
+
+        this.dataSources = Collections.unmodifiableList(new ArrayList<>(dataSources));
+        this.balancing = balancing != null ? balancing : Balancing.ROUND_ROBIN;
+        this.stickiness = stickiness;
+        this.next = new AtomicInteger();
+        this.lastWrite = new ThreadLocal<>();
+
+        this.activeQueries = new AtomicInteger[dataSources.size()];
+        for (int i = 0; i < activeQueries.length; i++) {
+            activeQueries[i] = new AtomicInteger();
+        }
+    }
+
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    public long getStickiness() {
+        return stickiness;
+    }
+
+    /**
+     * Returns a number of queries currently running against a replica at the specified
+     * index.
+     */
+    public int getActiveQueries(int replica) {
+        return activeQueries[replica].get();
+    }
+
+    /**
+     * Picks a replica for a query, returning its index. Each call must be followed by a
+     * {@link #release(int)} call once the query is done.
+     */
+    public int acquire() {
+
+        int replica;
+        if (balancing == Balancing.LEAST_BUSY) {
+
+            // start scanning from a rotating index, so that idle replicas share the load
+            int start = Math.floorMod(next.getAndIncrement(), activeQueries.length);
+            replica = start;
+            int min = Integer.MAX_VALUE;
+
+            for (int i = 0; i < activeQueries.length; i++) {
+                int candidate = (start + i) % activeQueries.length;
+                int active = activeQueries[candidate].get();
+                if (active < min) {
+                    min = active;
+                    replica = candidate;
+                }
+            }
+        } else {
+            replica = Math.floorMod(next.getAndIncrement(), activeQueries.length);
+        }
+
+        activeQueries[replica].incrementAndGet();
+        return replica;
+    }
+
+    public void release(int replica) {
+        activeQueries[replica].decrementAndGet();
+    }
+
+    public DataSource getDataSource(int replica) {
+        return dataSources.get(replica);
+    }
+
+    /**
+     * Records that the current thread has written to the primary database.
+     */
+    public void writePerformed() {
+        if (stickiness > 0) {
+            lastWrite.set(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Returns true if the current thread should read from the primary database, as it
+     * wrote to it within the stickiness period.
+     */
+    public boolean isSticky() {
+        Long writeTime = lastWrite.get();
+        if (writeTime == null) {
+            return false;
+        }
+
+        if (System.currentTimeMillis() - writeTime < stickiness) {
+            return true;
+        }
+
+        lastWrite.remove();
+        return false;
+    }
+}
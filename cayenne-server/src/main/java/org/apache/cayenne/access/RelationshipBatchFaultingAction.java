@@ -0,0 +1,267 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.Fault;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.DbJoin;
+import org.apache.cayenne.map.DbRelationship;
+import org.apache.cayenne.map.EntityInheritanceTree;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.RelationshipQuery;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.reflect.ArcProperty;
+import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.reflect.PropertyDescriptor;
+import org.apache.cayenne.util.PersistentObjectList;
+import org.apache.cayenne.util.PersistentObjectSet;
+
+/**
+ * Resolves a relationship fault of a single object together with the same unresolved
+ * relationship of other committed objects of the same entity registered in the context,
+ * using a single query with an "IN" qualifier on the join column. Only relationships
+ * based on a single DbRelationship with a single join are supported. For all others
+ * {@link #execute()} returns null, and the fault is resolved the usual way.
+ *
+ * @since 4.1
+ */
+class RelationshipBatchFaultingAction {
+
+    // how many registered objects are checked for each sibling in the batch
+    static final int SCAN_FACTOR = 4;
+
+    private DataContext context;
+    private RelationshipQuery query;
+    private int batchSize;
+
+    private EntityResolver resolver;
+    private ObjRelationship relationship;
+    private DbJoin join;
+    private ArcProperty property;
+
+    RelationshipBatchFaultingAction(DataContext context, RelationshipQuery query, int batchSize) {
+        this.context = context;
+        this.query = query;
+        this.batchSize = batchSize;
+        this.resolver = context.getEntityResolver();
+    }
+
+    /**
+     * Returns related objects of the query source object, or null if the relationship
+     * can't be batch-faulted.
+     */
+    List<?> execute() {
+
+        if (query.isRefreshing() || !isRelationshipSupported()) {
+            return null;
+        }
+
+        ObjectId sourceId = query.getObjectId();
+        Persistent source = (Persistent) context.getObjectStore().getNode(sourceId);
+        if (source == null) {
+            return null;
+        }
+
+        Object sourceKey = joinValue(source);
+        if (sourceKey == null || isTargetResolved(sourceKey)) {
+            return null;
+        }
+
+        Map<Persistent, Object> batch = new HashMap<>();
+        batch.put(source, sourceKey);
+        collectSiblings(source, batch);
+
+        // nothing to batch, let the regular fault resolution use the cache if it can
+        if (batch.size() == 1) {
+            return null;
+        }
+
+        Map<Object, List<Persistent>> targets = fetchTargets(batch.values());
+
+        for (Map.Entry<Persistent, Object> e : batch.entrySet()) {
+            if (e.getKey() != source) {
+                List<Persistent> related = targets.get(normalize(e.getValue()));
+                resolveSibling(e.getKey(), related != null ? related : new ArrayList<>(1));
+            }
+        }
+
+        List<Persistent> related = targets.get(normalize(sourceKey));
+        return related != null ? new ArrayList<>(related) : new ArrayList<>(1);
+    }
+
+    private boolean isRelationshipSupported() {
+        this.relationship = query.getRelationship(resolver);
+        if (relationship.isFlattened()) {
+            return false;
+        }
+
+        List<DbRelationship> dbRelationships = relationship.getDbRelationships();
+        if (dbRelationships.size() != 1 || dbRelationships.get(0).getJoins().size() != 1) {
+            return false;
+        }
+
+        ObjRelationship reverse = relationship.getReverseRelationship();
+        if (relationship.isToMany() && (reverse == null || reverse.isToMany())) {
+            // to-many without a reverse to-one would need extra care when merging local changes
+            return false;
+        }
+
+        this.join = dbRelationships.get(0).getJoins().get(0);
+        ClassDescriptor descriptor = resolver.getClassDescriptor(query.getObjectId().getEntityName());
+        PropertyDescriptor propertyDescriptor = descriptor.getProperty(relationship.getName());
+        if (!(propertyDescriptor instanceof ArcProperty)) {
+            return false;
+        }
+
+        this.property = (ArcProperty) propertyDescriptor;
+        return true;
+    }
+
+    private void collectSiblings(Persistent source, Map<Persistent, Object> batch) {
+
+        String entityName = source.getObjectId().getEntityName();
+        List<Persistent> candidates = new ArrayList<>(batchSize);
+
+        // only look at a bounded number of objects of the entity, so that faulting takes
+        // the same time regardless of the context size
+        ObjectStore objectStore = context.getObjectStore();
+        synchronized (objectStore) {
+            for (Persistent object : objectStore.nextObjectsOfEntity(entityName, batchSize * SCAN_FACTOR)) {
+                if (object != source
+                        && object.getPersistenceState() == PersistenceState.COMMITTED
+                        && property.isFault(object)) {
+                    candidates.add(object);
+
+                    if (candidates.size() == batchSize - 1) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (Persistent candidate : candidates) {
+            Object key = joinValue(candidate);
+            if (key != null && !isTargetResolved(key)) {
+                batch.put(candidate, key);
+            }
+        }
+    }
+
+    // returns a value of the source join column, or null if the value is not known or is null
+    private Object joinValue(Persistent object) {
+        Object value = object.getObjectId().getIdSnapshot().get(join.getSourceName());
+        if (value == null) {
+            DataRow snapshot = context.getObjectStore().getCachedSnapshot(object.getObjectId());
+            value = snapshot != null ? snapshot.get(join.getSourceName()) : null;
+        }
+
+        return value;
+    }
+
+    // checks whether a to-one target is already resolved in the context, so that the
+    // regular fault resolution would not need a query
+    private boolean isTargetResolved(Object key) {
+        if (relationship.isToMany() || relationship.isSourceIndependentFromTargetChange()) {
+            return false;
+        }
+
+        EntityInheritanceTree inheritanceTree = resolver.getInheritanceTree(relationship.getTargetEntityName());
+        if (inheritanceTree != null && !inheritanceTree.getChildren().isEmpty()) {
+            return false;
+        }
+
+        ObjectId targetId = new ObjectId(relationship.getTargetEntityName(), join.getTargetName(), key);
+        Persistent target = (Persistent) context.getObjectStore().getNode(targetId);
+        return target != null && target.getPersistenceState() != PersistenceState.HOLLOW;
+    }
+
+    private Map<Object, List<Persistent>> fetchTargets(Collection<Object> keys) {
+
+        SelectQuery<DataRow> select = new SelectQuery<>(
+                resolver.getObjEntity(relationship.getTargetEntityName()),
+                ExpressionFactory.inDbExp(join.getTargetName(), new HashSet<>(keys)));
+        select.setFetchingDataRows(true);
+
+        @SuppressWarnings("unchecked")
+        List<DataRow> rows = context.performQuery(select);
+
+        ClassDescriptor targetDescriptor = resolver.getClassDescriptor(relationship.getTargetEntityName());
+        List<?> objects = context.objectsFromDataRows(targetDescriptor, rows);
+
+        Map<Object, List<Persistent>> targets = new HashMap<>();
+        int len = rows.size();
+        for (int i = 0; i < len; i++) {
+            Object key = normalize(rows.get(i).get(join.getTargetName()));
+            targets.computeIfAbsent(key, k -> new ArrayList<>(2)).add((Persistent) objects.get(i));
+        }
+
+        return targets;
+    }
+
+    private void resolveSibling(Persistent sibling, List<Persistent> related) {
+
+        if (!relationship.isToMany()) {
+            property.writePropertyDirectly(sibling, null, related.isEmpty() ? null : related.get(0));
+            return;
+        }
+
+        Object value = property.readPropertyDirectly(sibling);
+        if (value instanceof Fault) {
+            value = ((Fault) value).resolveFault(sibling, relationship.getName());
+            property.writePropertyDirectly(sibling, null, value);
+        }
+
+        if (value instanceof PersistentObjectList) {
+            ((PersistentObjectList<Persistent>) value).setObjectList(new ArrayList<>(related));
+        } else if (value instanceof PersistentObjectSet) {
+            ((PersistentObjectSet<Persistent>) value).setObjectSet(new HashSet<>(related));
+        } else {
+            // e.g. a map relationship - will be resolved individually
+            return;
+        }
+
+        PropertyDescriptor reverse = resolver
+                .getClassDescriptor(relationship.getTargetEntityName())
+                .getProperty(relationship.getReverseRelationship().getName());
+        for (Persistent target : related) {
+            reverse.writePropertyDirectly(target, null, sibling);
+        }
+    }
+
+    // join columns on the two sides may be mapped to different numeric types
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+
+        return value;
+    }
+}
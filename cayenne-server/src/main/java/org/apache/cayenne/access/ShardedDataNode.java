@@ -0,0 +1,732 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionParameter;
+import org.apache.cayenne.exp.parser.ASTList;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.BatchQuery;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.tx.BaseTransaction;
+import org.apache.cayenne.tx.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DataNode that spreads the data of its DataMaps over a number of "shard" DataNodes
+ * with identical schemas. Each sharded table has a shard key column, whose value is
+ * mapped to a shard by a {@link ShardFunction}. Tables without a shard key are treated
+ * as reference tables replicated to all shards.
+ * <p>
+ * Queries are routed as follows:
+ * <ul>
+ * <li>Selects with a qualifier restricting the shard key (e.g. SelectById or an
+ * ObjectSelect matching the key column with "=" or "in") go to the matching shards
+ * only. Other selects against sharded tables are sent to all shards in parallel, and
+ * the results are merged in the query ordering, with the fetch offset and limit
+ * applied to the merged list. Selects against reference tables go to the first
+ * shard.</li>
+ * <li>Insert, update and delete batches against sharded tables are split by the shard
+ * key, and each shard receives only its own rows. Batches against reference tables
+ * are sent to all shards.</li>
+ * <li>All other queries (SQLTemplate, procedures, primary key generation queries)
+ * go to the first shard.</li>
+ * </ul>
+ * To activate sharding, register the node with a DataDomain in place of the node
+ * that originally handled the DataMaps:
+ *
+ * <pre>
+ * ShardedDataNode node = new ShardedDataNode("sharded", Arrays.asList(node1, node2));
+ * node.setShardKey("ARTIST", "ARTIST_ID");
+ * runtime.getDataDomain().addNode(node);
+ * </pre>
+ *
+ * @since 4.1
+ */
+public class ShardedDataNode extends DataNode {
+
+    /**
+     * Maps a value of a shard key to a shard index.
+     */
+    public interface ShardFunction {
+
+        /**
+         * Returns a shard index between 0 and "shardCount - 1" for a non-null shard key
+         * value.
+         */
+        int getShard(Object value, int shardCount);
+    }
+
+    /**
+     * A default ShardFunction. Integral numbers are mapped to shards by the value
+     * modulo the number of shards, so that the same key is mapped to the same shard
+     * regardless of its Java type. Other values are mapped by their hash code.
+     */
+    public static final ShardFunction DEFAULT_SHARD_FUNCTION = (value, shardCount) -> {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            return (int) Math.floorMod(((Number) value).longValue(), (long) shardCount);
+        }
+
+        return Math.floorMod(value.hashCode(), shardCount);
+    };
+
+    private final List<DataNode> shards;
+    private final Map<String, ShardKey> shardKeys;
+    private final ExecutorService executor;
+    private final boolean managedExecutor;
+
+    /**
+     * Creates a sharded node with an internal thread pool used to query the shards in
+     * parallel. The pool should be stopped via {@link #shutdown()} when the node is no
+     * longer in use.
+     */
+    public ShardedDataNode(String name, List<DataNode> shards) {
+        this(name, shards, null);
+    }
+
+    /**
+     * Creates a sharded node that queries the shards in parallel using the provided
+     * executor. If the executor is null, an internal thread pool is created.
+     */
+    public ShardedDataNode(String name, List<DataNode> shards, ExecutorService executor) {
+        super(name);
+
+        if (shards == null || shards.isEmpty()) {
+            throw new CayenneRuntimeException("At least one shard DataNode is required");
+        }
+
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.shardKeys = new HashMap<>();
+        this.managedExecutor = executor == null;
+        this.executor = executor != null ? executor : createExecutor(name, shards.size());
+
+        // the first shard is used as a template for the node configuration, and as the
+        // target for unsharded queries, including primary key generation
+        DataNode primary = this.shards.get(0);
+        setDataMaps(primary.getDataMaps());
+        setAdapter(primary.getAdapter());
+        setDataSource(primary.getDataSource());
+        setJdbcEventLogger(primary.getJdbcEventLogger());
+        setRowReaderFactory(primary.getRowReaderFactory());
+        setBatchTranslatorFactory(primary.getBatchTranslatorFactory());
+        setSelectTranslatorFactory(primary.getSelectTranslatorFactory());
+        setSqlTemplateProcessor(primary.getSqlTemplateProcessor());
+        setEntityResolver(primary.getEntityResolver());
+    }
+
+    private static ExecutorService createExecutor(String name, int size) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "cayenne-shard-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the internal thread pool if the node was created without an external
+     * executor.
+     */
+    public void shutdown() {
+        if (managedExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    public List<DataNode> getShards() {
+        return shards;
+    }
+
+    public DataNode getShard(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Configures a table to be sharded by the values of the specified column, using
+     * the default {@link ShardFunction}.
+     */
+    public void setShardKey(String dbEntityName, String column) {
+        setShardKey(dbEntityName, column, DEFAULT_SHARD_FUNCTION);
+    }
+
+    /**
+     * Configures a table to be sharded by the values of the specified column, using a
+     * custom {@link ShardFunction}.
+     */
+    public void setShardKey(String dbEntityName, String column, ShardFunction function) {
+        shardKeys.put(dbEntityName, new ShardKey(column, function));
+    }
+
+    /**
+     * Returns an index of the shard that stores the rows of the table with a given
+     * shard key value.
+     */
+    public int getShardIndex(String dbEntityName, Object shardKeyValue) {
+        ShardKey key = shardKeys.get(dbEntityName);
+        if (key == null) {
+            throw new CayenneRuntimeException("Table '%s' is not sharded", dbEntityName);
+        }
+
+        return key.shard(shardKeyValue);
+    }
+
+    @Override
+    public void setEntityResolver(EntityResolver entityResolver) {
+        super.setEntityResolver(entityResolver);
+
+        if (shards != null) {
+            for (DataNode shard : shards) {
+                shard.setEntityResolver(entityResolver);
+            }
+        }
+    }
+
+    @Override
+    public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+
+        if (callback.isIteratedResult() && queries.size() > 1) {
+            throw new CayenneRuntimeException("Iterated queries are not allowed in a batch. Batch size: %d",
+                    queries.size());
+        }
+
+        FailureTrackingObserver observer = new FailureTrackingObserver(callback);
+        for (Query query : queries) {
+
+            if (query instanceof BatchQuery) {
+                performBatch((BatchQuery) query, observer);
+            } else if (query instanceof SelectQuery) {
+                performSelect((SelectQuery<?>) query, observer);
+            } else {
+                shards.get(0).performQueries(Collections.singletonList(query), observer);
+            }
+
+            // same as a regular DataNode, stop running further queries after a failure
+            if (observer.failed) {
+                break;
+            }
+        }
+    }
+
+    private void performBatch(BatchQuery query, FailureTrackingObserver callback) {
+
+        ShardKey key = shardKeys.get(query.getDbEntity().getName());
+
+        // reference table, must be updated on all shards
+        if (key == null) {
+            shards.get(0).performQueries(Collections.singletonList(query), callback);
+            for (int i = 1; i < shards.size() && !callback.failed; i++) {
+                shards.get(i).performQueries(Collections.singletonList(query), new ErrorForwardingObserver(callback));
+            }
+
+            return;
+        }
+
+        int keyIndex = -1;
+        if (query instanceof InsertBatchQuery) {
+            List<DbAttribute> attributes = query.getDbAttributes();
+            for (int i = 0; i < attributes.size(); i++) {
+                if (key.column.equals(attributes.get(i).getName())) {
+                    keyIndex = i;
+                    break;
+                }
+            }
+        }
+
+        List<List<BatchQueryRow>> rowsByShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            rowsByShard.add(new ArrayList<>());
+        }
+
+        for (BatchQueryRow row : query.getRows()) {
+            Object value = shardKeyValue(row, key, keyIndex);
+            if (value == null) {
+                throw new CayenneRuntimeException("Can't determine shard of a '%s' row, no value for the shard key '%s': %s",
+                        query.getDbEntity().getName(), key.column, row.getObjectId());
+            }
+
+            rowsByShard.get(key.shard(value)).add(row);
+        }
+
+        for (int i = 0; i < shards.size() && !callback.failed; i++) {
+            List<BatchQueryRow> rows = rowsByShard.get(i);
+            if (!rows.isEmpty()) {
+                shards.get(i).performQueries(Collections.singletonList(query.withRows(rows)), callback);
+            }
+        }
+    }
+
+    private Object shardKeyValue(BatchQueryRow row, ShardKey key, int keyIndex) {
+
+        if (keyIndex >= 0) {
+            return row.getValue(keyIndex);
+        }
+
+        Map<String, Object> qualifier = row.getQualifier();
+        if (qualifier != null && qualifier.get(key.column) != null) {
+            return qualifier.get(key.column);
+        }
+
+        ObjectId id = row.getObjectId();
+        return id != null ? id.getIdSnapshot().get(key.column) : null;
+    }
+
+    private void performSelect(SelectQuery<?> query, FailureTrackingObserver callback) {
+
+        QueryMetadata metadata = query.getMetaData(getEntityResolver());
+        DbEntity dbEntity = metadata.getDbEntity();
+        ShardKey key = dbEntity != null ? shardKeys.get(dbEntity.getName()) : null;
+
+        // reference table
+        if (key == null) {
+            shards.get(0).performQueries(Collections.singletonList(query), callback);
+            return;
+        }
+
+        ObjEntity objEntity = metadata.getObjEntity();
+        Expression qualifier = objEntity != null ? objEntity.translateToDbPath(query.getQualifier()) : query.getQualifier();
+        Set<Integer> targetShards = qualifier != null ? key.shards(qualifier) : null;
+
+        if (targetShards != null && targetShards.size() <= 1) {
+            int shard = targetShards.isEmpty() ? 0 : targetShards.iterator().next();
+            shards.get(shard).performQueries(Collections.singletonList(query), callback);
+            return;
+        }
+
+        List<DataNode> targets = new ArrayList<>(targetShards != null ? targetShards.size() : shards.size());
+        if (targetShards != null) {
+            for (Integer shard : targetShards) {
+                targets.add(shards.get(shard));
+            }
+        } else {
+            targets.addAll(shards);
+        }
+
+        scatterSelect(query, metadata, objEntity, targets, callback);
+    }
+
+    private void scatterSelect(
+            SelectQuery<?> query,
+            QueryMetadata metadata,
+            ObjEntity objEntity,
+            List<DataNode> targets,
+            FailureTrackingObserver callback) {
+
+        if (callback.isIteratedResult()) {
+            throw new CayenneRuntimeException("Iterated queries spanning multiple shards are not supported");
+        }
+
+        if (metadata.getResultSetMapping() != null) {
+            throw new CayenneRuntimeException("Column and aggregate queries spanning multiple shards are not supported");
+        }
+
+        List<Ordering> orderings = translateOrderings(query, objEntity, metadata.getDbEntity());
+
+        // each shard must return enough rows to fill the requested range of the merged
+        // result
+        int offset = metadata.getFetchOffset();
+        int limit = metadata.getFetchLimit();
+
+        SelectQuery<?> shardQuery = query;
+        if (offset > 0) {
+            if (query.getClass() != SelectQuery.class) {
+                throw new CayenneRuntimeException("Fetch offset is not supported for %s spanning multiple shards",
+                        query.getClass().getSimpleName());
+            }
+
+            shardQuery = query.queryWithParameters(Collections.<String, Object>emptyMap(), false);
+            shardQuery.setFetchLimit(limit > 0 ? offset + limit : 0);
+        }
+
+        List<ShardResultObserver> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            results.add(new ShardResultObserver());
+        }
+
+        Transaction transaction = BaseTransaction.getThreadTransaction();
+        if (transaction != null && !transaction.getConnections().isEmpty()) {
+
+            // the transaction may have uncommitted changes that are only visible
+            // to its own connections, so query the shards one by one in this thread
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).performQueries(Collections.singletonList(shardQuery), results.get(i));
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                DataNode target = targets.get(i);
+                ShardResultObserver result = results.get(i);
+                Query q = shardQuery;
+                futures.add(executor.submit(() -> target.performQueries(Collections.singletonList(q), result)));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    callback.nextQueryException(query, e);
+                    return;
+                } catch (ExecutionException e) {
+                    callback.nextQueryException(query, e.getCause() instanceof Exception
+                            ? (Exception) e.getCause()
+                            : new CayenneRuntimeException(e.getCause()));
+                    return;
+                }
+            }
+        }
+
+        List<Object> merged = new ArrayList<>();
+        for (ShardResultObserver result : results) {
+            if (result.exception != null) {
+                callback.nextQueryException(query, result.exception);
+                return;
+            }
+
+            if (result.rows != null) {
+                merged.addAll(result.rows);
+            }
+        }
+
+        if (!orderings.isEmpty()) {
+            Ordering.orderList(merged, orderings);
+        }
+
+        int from = Math.min(Math.max(offset, 0), merged.size());
+        int to = limit > 0 ? Math.min(from + limit, merged.size()) : merged.size();
+        callback.nextRows(query, from == 0 && to == merged.size() ? merged : new ArrayList<>(merged.subList(from, to)));
+    }
+
+    // translates orderings to the form that can be evaluated against the fetched rows
+    private List<Ordering> translateOrderings(SelectQuery<?> query, ObjEntity objEntity, DbEntity dbEntity) {
+
+        List<Ordering> orderings = query.getOrderings();
+        if (orderings == null || orderings.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Ordering> dbOrderings = new ArrayList<>(orderings.size());
+        for (Ordering ordering : orderings) {
+            Expression sortSpec = objEntity != null
+                    ? objEntity.translateToDbPath(ordering.getSortSpec())
+                    : ordering.getSortSpec();
+
+            if (sortSpec.getType() != Expression.DB_PATH
+                    || dbEntity.getAttribute(String.valueOf(sortSpec.getOperand(0))) == null) {
+                throw new CayenneRuntimeException("Ordering by '%s' is not supported for queries spanning multiple shards. "
+                        + "Only the root table columns can be used", ordering.getSortSpecString());
+            }
+
+            Ordering dbOrdering = new Ordering(sortSpec, ordering.getSortOrder());
+            dbOrdering.setNullSortedFirst(ordering.isNullSortedFirst());
+            dbOrdering.setPathExceptionSupressed(ordering.isPathExceptionSuppressed());
+            dbOrderings.add(dbOrdering);
+        }
+
+        return dbOrderings;
+    }
+
+    private class ShardKey {
+
+        final String column;
+        final ShardFunction function;
+
+        ShardKey(String column, ShardFunction function) {
+            this.column = column;
+            this.function = function;
+        }
+
+        int shard(Object value) {
+            int shard = function.getShard(value, shards.size());
+            if (shard < 0 || shard >= shards.size()) {
+                throw new CayenneRuntimeException("Invalid shard index %d for the shard key value %s", shard, value);
+            }
+
+            return shard;
+        }
+
+        /**
+         * Returns the shards that may contain the rows matching a DB qualifier, or null
+         * if the qualifier doesn't restrict the shard key.
+         */
+        Set<Integer> shards(Expression qualifier) {
+
+            switch (qualifier.getType()) {
+                case Expression.EQUAL_TO:
+                    Object value = keyValue(qualifier.getOperand(0), qualifier.getOperand(1));
+                    if (value == null) {
+                        value = keyValue(qualifier.getOperand(1), qualifier.getOperand(0));
+                    }
+
+                    return value != null ? Collections.singleton(shard(value)) : null;
+
+                case Expression.IN:
+                    if (isKeyPath(qualifier.getOperand(0)) && qualifier.getOperand(1) instanceof ASTList) {
+                        Object[] values = (Object[]) ((ASTList) qualifier.getOperand(1)).evaluate(null);
+                        Set<Integer> shards = new TreeSet<>();
+                        for (Object v : values) {
+                            if (v == null || v instanceof Expression || v instanceof ExpressionParameter) {
+                                return null;
+                            }
+
+                            shards.add(shard(v));
+                        }
+
+                        return shards;
+                    }
+
+                    return null;
+
+                case Expression.AND:
+                    Set<Integer> intersection = null;
+                    for (int i = 0; i < qualifier.getOperandCount(); i++) {
+                        Set<Integer> operandShards = operandShards(qualifier.getOperand(i));
+                        if (operandShards != null) {
+                            if (intersection == null) {
+                                intersection = new TreeSet<>(operandShards);
+                            } else {
+                                intersection.retainAll(operandShards);
+                            }
+                        }
+                    }
+
+                    return intersection;
+
+                case Expression.OR:
+                    Set<Integer> union = new TreeSet<>();
+                    for (int i = 0; i < qualifier.getOperandCount(); i++) {
+                        Set<Integer> operandShards = operandShards(qualifier.getOperand(i));
+                        if (operandShards == null) {
+                            return null;
+                        }
+
+                        union.addAll(operandShards);
+                    }
+
+                    return union;
+
+                default:
+                    return null;
+            }
+        }
+
+        private Set<Integer> operandShards(Object operand) {
+            return operand instanceof Expression ? shards((Expression) operand) : null;
+        }
+
+        private Object keyValue(Object path, Object value) {
+            return isKeyPath(path)
+                    && value != null
+                    && !(value instanceof Expression)
+                    && !(value instanceof ExpressionParameter) ? value : null;
+        }
+
+        private boolean isKeyPath(Object operand) {
+            return operand instanceof Expression
+                    && ((Expression) operand).getType() == Expression.DB_PATH
+                    && column.equals(((Expression) operand).getOperand(0));
+        }
+    }
+
+    /**
+     * Forwards all events to the wrapped observer, recording whether the queries
+     * failed.
+     */
+    private static class FailureTrackingObserver implements OperationObserver {
+
+        final OperationObserver delegate;
+        boolean failed;
+
+        FailureTrackingObserver(OperationObserver delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void nextCount(Query query, int resultCount) {
+            delegate.nextCount(query, resultCount);
+        }
+
+        @Override
+        public void nextBatchCount(Query query, int[] resultCount) {
+            delegate.nextBatchCount(query, resultCount);
+        }
+
+        @Override
+        public void nextRows(Query query, List<?> dataRows) {
+            delegate.nextRows(query, dataRows);
+        }
+
+        @Override
+        public void nextRows(Query q, ResultIterator<?> it) {
+            delegate.nextRows(q, it);
+        }
+
+        @Override
+        public void nextGeneratedRows(Query query, ResultIterator<?> keys, ObjectId idToUpdate) {
+            delegate.nextGeneratedRows(query, keys, idToUpdate);
+        }
+
+        @Override
+        public void nextQueryException(Query query, Exception ex) {
+            failed = true;
+            delegate.nextQueryException(query, ex);
+        }
+
+        @Override
+        public void nextGlobalException(Exception ex) {
+            failed = true;
+            delegate.nextGlobalException(ex);
+        }
+
+        @Override
+        public boolean isIteratedResult() {
+            return delegate.isIteratedResult();
+        }
+
+        @Override
+        public boolean isIteratedResultOnDedicatedConnection() {
+            return delegate.isIteratedResultOnDedicatedConnection();
+        }
+    }
+
+    /**
+     * Ignores the results of a query replicated to a secondary shard, only passing
+     * through the errors.
+     */
+    private static class ErrorForwardingObserver implements OperationObserver {
+
+        final OperationObserver delegate;
+
+        ErrorForwardingObserver(OperationObserver delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void nextCount(Query query, int resultCount) {
+        }
+
+        @Override
+        public void nextBatchCount(Query query, int[] resultCount) {
+        }
+
+        @Override
+        public void nextRows(Query query, List<?> dataRows) {
+        }
+
+        @Override
+        public void nextRows(Query q, ResultIterator<?> it) {
+            it.close();
+        }
+
+        @Override
+        public void nextGeneratedRows(Query query, ResultIterator<?> keys, ObjectId idToUpdate) {
+            if (keys != null) {
+                keys.close();
+            }
+        }
+
+        @Override
+        public void nextQueryException(Query query, Exception ex) {
+            delegate.nextQueryException(query, ex);
+        }
+
+        @Override
+        public void nextGlobalException(Exception ex) {
+            delegate.nextGlobalException(ex);
+        }
+
+        @Override
+        public boolean isIteratedResult() {
+            return false;
+        }
+    }
+
+    /**
+     * Collects the rows returned by a single shard.
+     */
+    private static class ShardResultObserver implements OperationObserver {
+
+        volatile List<?> rows;
+        volatile Exception exception;
+
+        @Override
+        public void nextCount(Query query, int resultCount) {
+        }
+
+        @Override
+        public void nextBatchCount(Query query, int[] resultCount) {
+        }
+
+        @Override
+        public void nextRows(Query query, List<?> dataRows) {
+            this.rows = dataRows;
+        }
+
+        @Override
+        public void nextRows(Query q, ResultIterator<?> it) {
+            it.close();
+        }
+
+        @Override
+        public void nextGeneratedRows(Query query, ResultIterator<?> keys, ObjectId idToUpdate) {
+            if (keys != null) {
+                keys.close();
+            }
+        }
+
+        @Override
+        public void nextQueryException(Query query, Exception ex) {
+            this.exception = ex;
+        }
+
+        @Override
+        public void nextGlobalException(Exception ex) {
+            this.exception = ex;
+        }
+
+        @Override
+        public boolean isIteratedResult() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.event.EventBridge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges snapshot changes of multiple commits into a single {@link SnapshotEvent} sent
+ * to the {@link EventBridge}. Changes are collected over a time window or until the
+ * number of pending ids reaches a limit, whichever comes first. If an ObjectId is
+ * changed more than once within a window, only its latest state is sent, except that
+ * deletion and invalidation take precedence over modification.
+ *
+ * @since 4.1
+ */
+class SnapshotEventCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotEventCoalescer.class);
+
+    private final DataRowStore store;
+    private final EventBridge eventBridge;
+    private final long window;
+    private final int maxIds;
+    private final ScheduledExecutorService executor;
+
+    // all pending changes are guarded by "this"
+    private Map<ObjectId, DataRow> diffs;
+    private Set<ObjectId> deletedIds;
+    private Set<ObjectId> invalidatedIds;
+    private Set<ObjectId> indirectlyModifiedIds;
+    private ScheduledFuture<?> scheduledFlush;
+
+    SnapshotEventCoalescer(DataRowStore store, EventBridge eventBridge, long window, int maxIds) {
+        this.store = store;
+        this.eventBridge = eventBridge;
+        this.window = window;
+        this.maxIds = maxIds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cayenne-snapshot-events-" + store.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        reset();
+    }
+
+    synchronized void add(
+            Map<ObjectId, DataRow> diffs,
+            Collection<ObjectId> deletedIds,
+            Collection<ObjectId> invalidatedIds,
+            Collection<ObjectId> indirectlyModifiedIds) {
+
+        if (deletedIds != null) {
+            for (ObjectId id : deletedIds) {
+                this.diffs.remove(id);
+                this.invalidatedIds.remove(id);
+                this.indirectlyModifiedIds.remove(id);
+                this.deletedIds.add(id);
+            }
+        }
+
+        if (invalidatedIds != null) {
+            for (ObjectId id : invalidatedIds) {
+                if (!this.deletedIds.contains(id)) {
+                    this.diffs.remove(id);
+                    this.invalidatedIds.add(id);
+                }
+            }
+        }
+
+        if (diffs != null) {
+            for (Map.Entry<ObjectId, DataRow> entry : diffs.entrySet()) {
+                ObjectId id = entry.getKey();
+
+                // an object re-created after deletion - peers can't patch their
+                // snapshots, so make them refetch it
+                if (this.deletedIds.remove(id)) {
+                    this.invalidatedIds.add(id);
+                    continue;
+                }
+
+                if (this.invalidatedIds.contains(id)) {
+                    continue;
+                }
+
+                this.diffs.merge(id, entry.getValue(), DataRow::applyDiff);
+            }
+        }
+
+        if (indirectlyModifiedIds != null) {
+            for (ObjectId id : indirectlyModifiedIds) {
+                if (!this.deletedIds.contains(id)) {
+                    this.indirectlyModifiedIds.add(id);
+                }
+            }
+        }
+
+        int size = this.diffs.size()
+                + this.deletedIds.size()
+                + this.invalidatedIds.size()
+                + this.indirectlyModifiedIds.size();
+
+        if (size == 0) {
+            return;
+        }
+
+        if (size >= maxIds) {
+            cancelScheduledFlush();
+            executor.execute(this::flush);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = executor.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends all pending changes to the EventBridge and stops the flushing thread.
+     */
+    void shutdown() {
+        synchronized (this) {
+            cancelScheduledFlush();
+        }
+
+        flush();
+        executor.shutdown();
+    }
+
+    void flush() {
+
+        SnapshotEvent event;
+
+        synchronized (this) {
+            scheduledFlush = null;
+
+            if (diffs.isEmpty()
+                    && deletedIds.isEmpty()
+                    && invalidatedIds.isEmpty()
+                    && indirectlyModifiedIds.isEmpty()) {
+                return;
+            }
+
+            event = new SnapshotEvent(
+                    store,
+                    store,
+                    diffs,
+                    deletedIds,
+                    invalidatedIds,
+                    indirectlyModifiedIds);
+            reset();
+        }
+
+        event.setSubject(store.getSnapshotEventSubject());
+
+        try {
+            eventBridge.sendEvent(event);
+        } catch (Exception e) {
+            logger.warn("Error sending snapshot event to EventBridge", e);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private void reset() {
+        this.diffs = new HashMap<>();
+        this.deletedIds = new LinkedHashSet<>();
+        this.invalidatedIds = new LinkedHashSet<>();
+        this.indirectlyModifiedIds = new LinkedHashSet<>();
+    }
+}
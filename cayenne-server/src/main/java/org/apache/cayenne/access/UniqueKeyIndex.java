@@ -0,0 +1,168 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.util.Util;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A secondary index of {@link DataRowStore} that maps values of unique columns to
+ * ObjectIds. Both index maps are bounded LRU maps evicting independently, so the index
+ * is only a hint - callers must verify that a snapshot found via the index still has
+ * the indexed value.
+ *
+ * @since 4.1
+ */
+class UniqueKeyIndex {
+
+    private final ConcurrentMap<UniqueKey, ObjectId> ids;
+    private final ConcurrentMap<ObjectId, Set<UniqueKey>> keysById;
+
+    UniqueKeyIndex(int maxSize) {
+        this.keysById = new ConcurrentLinkedHashMap.Builder<ObjectId, Set<UniqueKey>>()
+                .maximumWeightedCapacity(maxSize)
+                .build();
+        this.ids = new ConcurrentLinkedHashMap.Builder<UniqueKey, ObjectId>()
+                .maximumWeightedCapacity(maxSize)
+                .build();
+    }
+
+    ObjectId get(String entityName, String column, Object value) {
+        return ids.get(new UniqueKey(entityName, column, value));
+    }
+
+    void put(ObjectId id, String column, Object value) {
+        UniqueKey key = new UniqueKey(id.getEntityName(), column, value);
+        ObjectId oldId = ids.put(key, id);
+        if (oldId != null && !oldId.equals(id)) {
+            removeKey(oldId, key);
+        }
+
+        keysById.computeIfAbsent(id, i -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    void remove(String entityName, String column, Object value) {
+        UniqueKey key = new UniqueKey(entityName, column, value);
+        ObjectId id = ids.remove(key);
+        if (id != null) {
+            removeKey(id, key);
+        }
+    }
+
+    /**
+     * Removes all keys of the object.
+     */
+    void remove(ObjectId id) {
+        if (keysById.isEmpty()) {
+            return;
+        }
+
+        Set<UniqueKey> keys = keysById.remove(id);
+        if (keys != null) {
+            for (UniqueKey key : keys) {
+                ids.remove(key, id);
+            }
+        }
+    }
+
+    /**
+     * Re-keys the object if any of its indexed columns are present in the changed
+     * values map. The map can be either a full snapshot or a diff.
+     */
+    void update(ObjectId id, Map<String, Object> changes) {
+        if (keysById.isEmpty()) {
+            return;
+        }
+
+        Set<UniqueKey> keys = keysById.get(id);
+        if (keys == null) {
+            return;
+        }
+
+        for (UniqueKey key : keys) {
+            if (changes.containsKey(key.column) && !Util.nullSafeEquals(changes.get(key.column), key.value)) {
+                keys.remove(key);
+                ids.remove(key, id);
+
+                Object newValue = changes.get(key.column);
+                if (newValue != null) {
+                    put(id, key.column, newValue);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        ids.clear();
+        keysById.clear();
+    }
+
+    private void removeKey(ObjectId id, UniqueKey key) {
+        Set<UniqueKey> keys = keysById.get(id);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysById.remove(id, keys);
+            }
+        }
+    }
+
+    static final class UniqueKey {
+
+        final String entityName;
+        final String column;
+        final Object value;
+
+        UniqueKey(String entityName, String column, Object value) {
+            this.entityName = entityName;
+            this.column = column;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof UniqueKey)) {
+                return false;
+            }
+
+            UniqueKey key = (UniqueKey) o;
+            return entityName.equals(key.entityName)
+                    && column.equals(key.column)
+                    && Util.nullSafeEquals(value, key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = entityName.hashCode();
+            result = 31 * result + column.hashCode();
+            result = 31 * result + (value != null ? value.hashCode() : 0);
+            return result;
+        }
+    }
+}
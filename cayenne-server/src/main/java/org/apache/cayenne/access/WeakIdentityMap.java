@@ -0,0 +1,114 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A minimal map with weakly referenced keys compared by identity. Lookups don't need
+ * external synchronization, while modifications do.
+ *
+ * @since 4.1
+ */
+final class WeakIdentityMap<K, V> {
+
+    private final Map<IdentityReference<K>, V> map;
+    private final ReferenceQueue<K> queue;
+
+    WeakIdentityMap() {
+        this.map = new ConcurrentHashMap<>();
+        this.queue = new ReferenceQueue<>();
+    }
+
+    V get(K key) {
+        return map.get(new IdentityReference<>(key, null));
+    }
+
+    V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        expungeStaleEntries();
+        return map.computeIfAbsent(new IdentityReference<>(key, queue), r -> mappingFunction.apply(key));
+    }
+
+    V remove(K key) {
+        expungeStaleEntries();
+        return map.remove(new IdentityReference<>(key, null));
+    }
+
+    boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns a list of keys that are still referenced.
+     */
+    List<K> keys() {
+        List<K> keys = new ArrayList<>(map.size());
+        for (IdentityReference<K> ref : map.keySet()) {
+            K key = ref.get();
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends K> ref;
+        while ((ref = queue.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    private static final class IdentityReference<T> extends WeakReference<T> {
+
+        private final int hashCode;
+
+        IdentityReference(T referent, ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof IdentityReference)) {
+                return false;
+            }
+
+            Object referent = get();
+            return referent != null && referent == ((IdentityReference<?>) o).get();
+        }
+    }
+}
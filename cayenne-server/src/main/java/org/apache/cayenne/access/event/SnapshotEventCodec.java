@@ -0,0 +1,592 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.access.event;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.event.CayenneEvent;
+import org.apache.cayenne.event.EventCodec;
+import org.apache.cayenne.event.EventSubject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link EventCodec} that encodes {@link SnapshotEvent SnapshotEvents} in a compact
+ * versioned binary format instead of Java serialization. Entity and column names are
+ * written once per message and referenced by index afterwards, numbers are written as
+ * variable length integers. Events of other types, as well as events that contain
+ * temporary ids, are written using Java serialization wrapped in the same header.
+ * Messages produced by Java serialization without a codec are also accepted on decode,
+ * so nodes can be switched to the codec one by one, as long as the senders are switched
+ * last.
+ * <p>
+ * An "ids only" codec does not send snapshot diffs at all, and instead tells the
+ * receivers to invalidate modified objects. Use {@link IdsOnly} class name with
+ * {@link org.apache.cayenne.event.EventBridge#EVENT_CODEC_PROPERTY} to configure such
+ * codec for a bridge.
+ *
+ * @since 4.1
+ */
+public class SnapshotEventCodec implements EventCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    static final int MAGIC_0 = 0xCA;
+    static final int MAGIC_1 = 0x7E;
+
+    // Java serialization stream magic
+    static final int JAVA_MAGIC_0 = 0xAC;
+    static final int JAVA_MAGIC_1 = 0xED;
+
+    static final int TYPE_SERIALIZED = 0;
+    static final int TYPE_SNAPSHOT_EVENT = 1;
+
+    static final int VALUE_NULL = 0;
+    static final int VALUE_TRUE = 1;
+    static final int VALUE_FALSE = 2;
+    static final int VALUE_INT = 3;
+    static final int VALUE_LONG = 4;
+    static final int VALUE_SHORT = 5;
+    static final int VALUE_BYTE = 6;
+    static final int VALUE_STRING = 7;
+    static final int VALUE_DOUBLE = 8;
+    static final int VALUE_FLOAT = 9;
+    static final int VALUE_BIG_DECIMAL = 10;
+    static final int VALUE_BIG_INTEGER = 11;
+    static final int VALUE_BYTES = 12;
+    static final int VALUE_SQL_DATE = 13;
+    static final int VALUE_SQL_TIME = 14;
+    static final int VALUE_SQL_TIMESTAMP = 15;
+    static final int VALUE_DATE = 16;
+    static final int VALUE_CHAR = 17;
+    static final int VALUE_SERIALIZED = 18;
+
+    private final boolean idsOnly;
+
+    public SnapshotEventCodec() {
+        this(false);
+    }
+
+    /**
+     * @param idsOnly if true, modified objects are sent as invalidated ids without
+     *            snapshot diffs.
+     */
+    public SnapshotEventCodec(boolean idsOnly) {
+        this.idsOnly = idsOnly;
+    }
+
+    public boolean isIdsOnly() {
+        return idsOnly;
+    }
+
+    @Override
+    public byte[] encode(CayenneEvent event) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(FORMAT_VERSION);
+
+        if (event instanceof SnapshotEvent && isEncodable((SnapshotEvent) event)) {
+            out.writeByte(TYPE_SNAPSHOT_EVENT);
+            new Writer(out).writeEvent((SnapshotEvent) event);
+        } else {
+            out.writeByte(TYPE_SERIALIZED);
+            writeSerialized(out, event);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public CayenneEvent decode(byte[] data) throws Exception {
+
+        if (data.length >= 2 && (data[0] & 0xFF) == JAVA_MAGIC_0 && (data[1] & 0xFF) == JAVA_MAGIC_1) {
+            Object object = readSerialized(data, 0, data.length);
+            return object instanceof CayenneEvent ? (CayenneEvent) object : null;
+        }
+
+        if (data.length < 4 || (data[0] & 0xFF) != MAGIC_0 || (data[1] & 0xFF) != MAGIC_1) {
+            throw new CayenneRuntimeException("Unrecognized event message format");
+        }
+
+        int version = data[2] & 0xFF;
+        if (version != FORMAT_VERSION) {
+            throw new CayenneRuntimeException("Unsupported event message format version: %d", version);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 4, data.length - 4));
+        int type = data[3] & 0xFF;
+        switch (type) {
+            case TYPE_SNAPSHOT_EVENT:
+                return new Reader(in).readEvent();
+            case TYPE_SERIALIZED:
+                Object object = readSerialized(in);
+                return object instanceof CayenneEvent ? (CayenneEvent) object : null;
+            default:
+                throw new CayenneRuntimeException("Unsupported event message type: %d", type);
+        }
+    }
+
+    protected boolean isEncodable(SnapshotEvent event) {
+        return !hasTemporaryIds(event.getDeletedIds())
+                && !hasTemporaryIds(event.getInvalidatedIds())
+                && !hasTemporaryIds(event.getIndirectlyModifiedIds())
+                && !hasTemporaryIds(event.getModifiedDiffs().keySet());
+    }
+
+    private static boolean hasTemporaryIds(Collection<ObjectId> ids) {
+        for (ObjectId id : ids) {
+            if (id.isTemporary()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static void writeSerialized(DataOutputStream out, Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(object);
+        }
+
+        writeVarInt(out, bytes.size());
+        bytes.writeTo(out);
+    }
+
+    static Object readSerialized(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return readSerialized(bytes, 0, bytes.length);
+    }
+
+    static Object readSerialized(byte[] bytes, int offset, int length) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return objectIn.readObject();
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte(((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new CayenneRuntimeException("Malformed varint in event message");
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new CayenneRuntimeException("Malformed varint in event message");
+    }
+
+    static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new CayenneRuntimeException("Invalid length in event message: %d", length);
+        }
+
+        return length;
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // zigzag encoding keeps small negative numbers short
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a single event. Keeps a dictionary of entity and column names, so each name
+     * is written once per message.
+     */
+    final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> names;
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+            this.names = new HashMap<>();
+        }
+
+        void writeEvent(SnapshotEvent event) throws IOException {
+
+            EventSubject subject = event.getSubject();
+            if (subject != null) {
+                writeString(out, subject.getSubjectName());
+            } else {
+                writeVarInt(out, 0);
+            }
+
+            writeVarLong(out, event.getTimestamp());
+
+            Map<ObjectId, DataRow> diffs = event.getModifiedDiffs();
+            Collection<ObjectId> invalidated = event.getInvalidatedIds();
+
+            writeIds(event.getDeletedIds());
+
+            if (idsOnly && !diffs.isEmpty()) {
+                List<ObjectId> ids = new ArrayList<>(invalidated.size() + diffs.size());
+                ids.addAll(invalidated);
+                ids.addAll(diffs.keySet());
+                writeIds(ids);
+                writeIds(event.getIndirectlyModifiedIds());
+                writeVarInt(out, 0);
+            } else {
+                writeIds(invalidated);
+                writeIds(event.getIndirectlyModifiedIds());
+                writeDiffs(diffs);
+            }
+        }
+
+        void writeIds(Collection<ObjectId> ids) throws IOException {
+            writeVarInt(out, ids.size());
+            for (ObjectId id : ids) {
+                writeId(id);
+            }
+        }
+
+        void writeDiffs(Map<ObjectId, DataRow> diffs) throws IOException {
+            writeVarInt(out, diffs.size());
+            for (Map.Entry<ObjectId, DataRow> e : diffs.entrySet()) {
+                writeId(e.getKey());
+
+                DataRow diff = e.getValue();
+                writeVarInt(out, diff.size());
+                for (Map.Entry<String, Object> column : diff.entrySet()) {
+                    writeName(column.getKey());
+                    writeValue(column.getValue());
+                }
+            }
+        }
+
+        void writeId(ObjectId id) throws IOException {
+            writeName(id.getEntityName());
+
+            Map<String, Object> snapshot = id.getIdSnapshot();
+            writeVarInt(out, snapshot.size());
+            for (Map.Entry<String, Object> e : snapshot.entrySet()) {
+                writeName(e.getKey());
+                writeValue(e.getValue());
+            }
+        }
+
+        void writeName(String name) throws IOException {
+            Integer ref = names.get(name);
+            if (ref != null) {
+                writeVarInt(out, ref);
+            } else {
+                writeVarInt(out, 0);
+                writeString(out, name);
+                names.put(name, names.size() + 1);
+            }
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(VALUE_NULL);
+            } else if (value instanceof Integer) {
+                out.writeByte(VALUE_INT);
+                writeVarInt(out, zigZag((Integer) value));
+            } else if (value instanceof Long) {
+                out.writeByte(VALUE_LONG);
+                writeVarLong(out, zigZag((Long) value));
+            } else if (value instanceof String) {
+                out.writeByte(VALUE_STRING);
+                writeString(out, (String) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof Short) {
+                out.writeByte(VALUE_SHORT);
+                writeVarInt(out, zigZag((int) (Short) value));
+            } else if (value instanceof Byte) {
+                out.writeByte(VALUE_BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof Double) {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(VALUE_FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value.getClass() == BigDecimal.class) {
+                out.writeByte(VALUE_BIG_DECIMAL);
+                writeString(out, value.toString());
+            } else if (value.getClass() == BigInteger.class) {
+                out.writeByte(VALUE_BIG_INTEGER);
+                writeString(out, value.toString());
+            } else if (value instanceof byte[]) {
+                byte[] bytes = (byte[]) value;
+                out.writeByte(VALUE_BYTES);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            } else if (value.getClass() == java.sql.Timestamp.class) {
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                out.writeByte(VALUE_SQL_TIMESTAMP);
+                writeVarLong(out, zigZag(timestamp.getTime()));
+                writeVarInt(out, timestamp.getNanos());
+            } else if (value.getClass() == java.sql.Date.class) {
+                out.writeByte(VALUE_SQL_DATE);
+                writeVarLong(out, zigZag(((java.util.Date) value).getTime()));
+            } else if (value.getClass() == java.sql.Time.class) {
+                out.writeByte(VALUE_SQL_TIME);
+                writeVarLong(out, zigZag(((java.util.Date) value).getTime()));
+            } else if (value.getClass() == java.util.Date.class) {
+                out.writeByte(VALUE_DATE);
+                writeVarLong(out, zigZag(((java.util.Date) value).getTime()));
+            } else if (value instanceof Character) {
+                out.writeByte(VALUE_CHAR);
+                out.writeChar((Character) value);
+            } else if (value instanceof Serializable) {
+                out.writeByte(VALUE_SERIALIZED);
+                writeSerialized(out, value);
+            } else {
+                throw new CayenneRuntimeException("Value of type %s can't be sent with an event",
+                        value.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Reads a single event written by {@link Writer}.
+     */
+    final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> names;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+            this.names = new ArrayList<>();
+        }
+
+        SnapshotEvent readEvent() throws IOException, ClassNotFoundException {
+
+            String subjectName = readString(in);
+            long timestamp = readVarLong(in);
+
+            List<ObjectId> deleted = readIds();
+            List<ObjectId> invalidated = readIds();
+            List<ObjectId> indirectlyModified = readIds();
+            Map<ObjectId, DataRow> diffs = readDiffs();
+
+            // source can't be null, and is replaced by the receiving bridge anyway
+            SnapshotEvent event = new SnapshotEvent(SnapshotEventCodec.this, null, diffs, deleted, invalidated,
+                    indirectlyModified);
+            event.timestamp = timestamp;
+
+            if (!subjectName.isEmpty()) {
+                event.setSubject(EventSubject.getSubject(subjectName));
+            }
+
+            return event;
+        }
+
+        List<ObjectId> readIds() throws IOException, ClassNotFoundException {
+            int size = readLength(in);
+            List<ObjectId> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ids.add(readId());
+            }
+
+            return ids;
+        }
+
+        Map<ObjectId, DataRow> readDiffs() throws IOException, ClassNotFoundException {
+            int size = readLength(in);
+            Map<ObjectId, DataRow> diffs = new HashMap<>((int) (size / 0.75f) + 1);
+            for (int i = 0; i < size; i++) {
+                ObjectId id = readId();
+
+                int columns = readLength(in);
+                DataRow diff = new DataRow((int) (columns / 0.75f) + 1);
+                for (int j = 0; j < columns; j++) {
+                    diff.put(readName(), readValue());
+                }
+
+                diffs.put(id, diff);
+            }
+
+            return diffs;
+        }
+
+        ObjectId readId() throws IOException, ClassNotFoundException {
+            String entityName = readName();
+
+            int size = readLength(in);
+            if (size == 1) {
+                return new ObjectId(entityName, readName(), readValue());
+            }
+
+            Map<String, Object> snapshot = new HashMap<>((int) (size / 0.75f) + 1);
+            for (int i = 0; i < size; i++) {
+                snapshot.put(readName(), readValue());
+            }
+
+            return new ObjectId(entityName, snapshot);
+        }
+
+        String readName() throws IOException {
+            int ref = readVarInt(in);
+            if (ref == 0) {
+                String name = readString(in);
+                names.add(name);
+                return name;
+            }
+
+            if (ref < 0 || ref > names.size()) {
+                throw new CayenneRuntimeException("Invalid name reference in event message: %d", ref);
+            }
+
+            return names.get(ref - 1);
+        }
+
+        Object readValue() throws IOException, ClassNotFoundException {
+            int type = in.readUnsignedByte();
+            switch (type) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_INT:
+                    return unZigZag(readVarInt(in));
+                case VALUE_LONG:
+                    return unZigZag(readVarLong(in));
+                case VALUE_SHORT:
+                    return (short) unZigZag(readVarInt(in));
+                case VALUE_BYTE:
+                    return in.readByte();
+                case VALUE_STRING:
+                    return readString(in);
+                case VALUE_DOUBLE:
+                    return in.readDouble();
+                case VALUE_FLOAT:
+                    return in.readFloat();
+                case VALUE_BIG_DECIMAL:
+                    return new BigDecimal(readString(in));
+                case VALUE_BIG_INTEGER:
+                    return new BigInteger(readString(in));
+                case VALUE_BYTES:
+                    byte[] bytes = new byte[readLength(in)];
+                    in.readFully(bytes);
+                    return bytes;
+                case VALUE_SQL_TIMESTAMP:
+                    java.sql.Timestamp timestamp = new java.sql.Timestamp(unZigZag(readVarLong(in)));
+                    timestamp.setNanos(readVarInt(in));
+                    return timestamp;
+                case VALUE_SQL_DATE:
+                    return new java.sql.Date(unZigZag(readVarLong(in)));
+                case VALUE_SQL_TIME:
+                    return new java.sql.Time(unZigZag(readVarLong(in)));
+                case VALUE_DATE:
+                    return new java.util.Date(unZigZag(readVarLong(in)));
+                case VALUE_CHAR:
+                    return in.readChar();
+                case VALUE_SERIALIZED:
+                    return readSerialized(in);
+                default:
+                    throw new CayenneRuntimeException("Unsupported value type in event message: %d", type);
+            }
+        }
+    }
+
+    /**
+     * A codec that sends modified objects as invalidated ids, without snapshot diffs.
+     * Has a default constructor, so its class name can be used with
+     * {@link org.apache.cayenne.event.EventBridge#EVENT_CODEC_PROPERTY}.
+     */
+    public static class IdsOnly extends SnapshotEventCodec {
+
+        public IdsOnly() {
+            super(true);
+        }
+    }
+}
@@ -33,7 +33,9 @@ import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.query.BatchQuery;
 import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.DeleteBatchQuery;
 import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.UpdateBatchQuery;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -81,6 +83,7 @@ public class BatchAction extends BaseSQLAction {
 	@Override
 	public void performAction(Connection connection, OperationObserver observer) throws SQLException, Exception {
 
+		long t0 = System.nanoTime();
 		BatchTranslator translator = createTranslator();
 		boolean generatesKeys = hasGeneratedKeys();
 
@@ -89,6 +92,21 @@ public class BatchAction extends BaseSQLAction {
 		} else {
 			runAsIndividualQueries(connection, translator, observer, generatesKeys);
 		}
+
+		dataNode.getMetricsCollector().batchExecuted(query.getDbEntity().getName(), batchType(),
+				query.getRows().size(), System.nanoTime() - t0);
+	}
+
+	private String batchType() {
+		if (query instanceof InsertBatchQuery) {
+			return "insert";
+		} else if (query instanceof UpdateBatchQuery) {
+			return "update";
+		} else if (query instanceof DeleteBatchQuery) {
+			return "delete";
+		}
+
+		return query.getClass().getSimpleName().toLowerCase();
 	}
 
 	protected BatchTranslator createTranslator() {
@@ -27,6 +27,7 @@ import org.apache.cayenne.access.translator.DbAttributeBinding;
 import org.apache.cayenne.access.translator.select.SelectTranslator;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.query.PrefetchProcessor;
 import org.apache.cayenne.query.PrefetchTreeNode;
 import org.apache.cayenne.query.QueryMetadata;
@@ -35,6 +36,7 @@ import org.apache.cayenne.query.SelectQuery;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -81,6 +83,7 @@ public class SelectAction extends BaseSQLAction {
 	public void performAction(Connection connection, OperationObserver observer) throws Exception {
 
 		final long t1 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
 		SelectTranslator translator = dataNode.selectTranslator(query);
@@ -92,10 +95,7 @@ public class SelectAction extends BaseSQLAction {
 		PreparedStatement statement = connection.prepareStatement(sql);
 		bind(dataNode.getAdapter(), statement, bindings);
 
-		int fetchSize = queryMetadata.getStatementFetchSize();
-		if (fetchSize != 0) {
-			statement.setFetchSize(fetchSize);
-		}
+		setFetchSize(statement, observer);
 
 		ResultSet rs;
 
@@ -113,7 +113,7 @@ public class SelectAction extends BaseSQLAction {
 		RowReader<?> rowReader = dataNode.rowReader(descriptor, queryMetadata, translator.getAttributeOverrides());
 
 		ResultIterator<?> it = new JDBCResultIterator<>(statement, rs, rowReader);
-		it = forIteratedResult(it, observer, connection, t1, sql);
+		it = forIteratedResult(it, observer, connection, t1, t0, sql);
 		it = forSuppressedDistinct(it, translator);
 		it = forFetchLimit(it, translator);
 
@@ -137,13 +137,28 @@ public class SelectAction extends BaseSQLAction {
 			}
 
 			dataNode.getJdbcEventLogger().logSelectCount(resultRows.size(), System.currentTimeMillis() - t1, sql);
+			dataNode.getMetricsCollector().selectExecuted(entityName(), sql, resultRows.size(), System.nanoTime() - t0);
 
 			observer.nextRows(query, resultRows);
 		}
 	}
 
+	/**
+	 * Configures JDBC fetch size of the statement based on the query
+	 * "statementFetchSize". Adapters whose drivers buffer the entire ResultSet by
+	 * default may override this method to stream iterated results instead.
+	 *
+	 * @since 4.1
+	 */
+	protected void setFetchSize(PreparedStatement statement, OperationObserver observer) throws SQLException {
+		int fetchSize = queryMetadata.getStatementFetchSize();
+		if (fetchSize != 0) {
+			statement.setFetchSize(fetchSize);
+		}
+	}
+
 	private <T> ResultIterator<T> forIteratedResult(ResultIterator<T> iterator, OperationObserver observer,
-			Connection connection, final long queryStartedAt, final String sql) {
+			Connection connection, final long queryStartedAt, final long queryStartedAtNanos, final String sql) {
 		if (!observer.isIteratedResult()) {
 			return iterator;
 		}
@@ -152,11 +167,18 @@ public class SelectAction extends BaseSQLAction {
 			@Override
 			protected void doClose() {
 				dataNode.getJdbcEventLogger().logSelectCount(rowCounter, System.currentTimeMillis() - queryStartedAt, sql);
+				dataNode.getMetricsCollector().selectExecuted(entityName(), sql, rowCounter,
+						System.nanoTime() - queryStartedAtNanos);
 				super.doClose();
 			}
 		};
 	}
 
+	private String entityName() {
+		DbEntity entity = queryMetadata.getDbEntity();
+		return entity != null ? entity.getName() : null;
+	}
+
 	private <T> ResultIterator<T> forFetchLimit(ResultIterator<T> iterator, SelectTranslator translator) {
 		// wrap iterator in a fetch limit checker ... there are a few cases when
 		// in-memory fetch limit is a noop, however in a general case this is
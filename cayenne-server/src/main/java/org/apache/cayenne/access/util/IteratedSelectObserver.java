@@ -35,12 +35,28 @@ import org.apache.cayenne.query.Query;
  */
 public class IteratedSelectObserver extends DefaultOperationObserver {
     protected ResultIterator resultIterator;
+    protected boolean dedicatedConnection;
+
+    public IteratedSelectObserver() {
+    }
+
+    /**
+     * @since 4.1
+     */
+    public IteratedSelectObserver(boolean dedicatedConnection) {
+        this.dedicatedConnection = dedicatedConnection;
+    }
 
     @Override
     public boolean isIteratedResult() {
         return true;
     }
 
+    @Override
+    public boolean isIteratedResultOnDedicatedConnection() {
+        return dedicatedConnection;
+    }
+
     @Override
     public void nextRows(Query query, List<?> dataRows) {
         throw new CayenneRuntimeException("Results unexpectedly returned as list.");
@@ -41,10 +41,12 @@ import org.apache.cayenne.query.ObjectIdQuery;
 import org.apache.cayenne.reflect.ClassDescriptor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -217,59 +219,53 @@ public class AshwoodEntitySorter implements EntitySorter {
 			reflexiveRelNames[i] = (objRel != null ? objRel.getName() : null);
 		}
 
-		List<Persistent> sorted = new ArrayList<>(size);
+		// index objects by identity, so that masters are found in constant time instead
+		// of scanning the whole list for each object
+		Map<Persistent, Integer> positions = new IdentityHashMap<>(size);
+		for (int i = 0; i < size; i++) {
+			positions.put(persistent.get(i), i);
+		}
+
+		// master -> dependent arcs
+		int maxArcs = size * reflexiveRelNames.length;
+		int[] arcMasters = new int[maxArcs];
+		int[] arcDependents = new int[maxArcs];
+		int arcCount = 0;
 
-		Digraph<Persistent, Boolean> objectDependencyGraph = new MapDigraph<>();
-		Object[] masters = new Object[reflexiveRelNames.length];
 		for (int i = 0; i < size; i++) {
-			Persistent current = (Persistent) objects.get(i);
-			objectDependencyGraph.addVertex(current);
-			int actualMasterCount = 0;
-			for (int k = 0; k < reflexiveRelNames.length; k++) {
-				String reflexiveRelName = reflexiveRelNames[k];
+			Persistent current = persistent.get(i);
+
+			for (String reflexiveRelName : reflexiveRelNames) {
 
 				if (reflexiveRelName == null) {
 					continue;
 				}
 
-				masters[k] = descriptor.getProperty(reflexiveRelName).readProperty(current);
+				Object master = descriptor.getProperty(reflexiveRelName).readProperty(current);
 
-				if (masters[k] == null) {
-					masters[k] = findReflexiveMaster(current, objEntity.getRelationship(reflexiveRelName), current
+				if (master == null) {
+					master = findReflexiveMaster(current, objEntity.getRelationship(reflexiveRelName), current
 							.getObjectId().getEntityName());
 				}
 
-				if (masters[k] != null) {
-					actualMasterCount++;
-				}
-			}
-
-			int mastersFound = 0;
-			for (int j = 0; j < size && mastersFound < actualMasterCount; j++) {
-
-				if (i == j) {
-					continue;
-				}
-
-				Persistent masterCandidate = persistent.get(j);
-				for (Object master : masters) {
-					if (masterCandidate == master) {
-						objectDependencyGraph.putArc(masterCandidate, current, Boolean.TRUE);
-						mastersFound++;
-					}
+				Integer j = master != null ? positions.get(master) : null;
+				if (j != null && j != i) {
+					arcMasters[arcCount] = j;
+					arcDependents[arcCount] = i;
+					arcCount++;
 				}
 			}
 		}
 
-		IndegreeTopologicalSort<Persistent> sorter = new IndegreeTopologicalSort<>(objectDependencyGraph);
+		int[] order = sortTopologically(size, arcMasters, arcDependents, arcCount);
+		if (order == null) {
+			throw new CayenneRuntimeException("Sorting objects for %s failed. Cycles found."
+					, objEntity.getClassName());
+		}
 
-		while (sorter.hasNext()) {
-			Persistent o = sorter.next();
-			if (o == null) {
-				throw new CayenneRuntimeException("Sorting objects for %s failed. Cycles found."
-						, objEntity.getClassName());
-			}
-			sorted.add(o);
+		List<Persistent> sorted = new ArrayList<>(size);
+		for (int i : order) {
+			sorted.add(persistent.get(i));
 		}
 
 		// since API requires sorting within the same array,
@@ -283,6 +279,55 @@ public class AshwoodEntitySorter implements EntitySorter {
 		}
 	}
 
+	/**
+	 * Sorts vertices of a graph given as a list of arcs in linear time, returning the
+	 * vertex indexes with masters going before their dependents, or null if the graph
+	 * has cycles. Vertices that don't depend on each other keep their original order.
+	 */
+	static int[] sortTopologically(int size, int[] arcMasters, int[] arcDependents, int arcCount) {
+
+		// group dependents by master in a single array; dependents of vertex "i" are
+		// stored between offsets[i] and offsets[i + 1]
+		int[] offsets = new int[size + 1];
+		int[] indegree = new int[size];
+		for (int a = 0; a < arcCount; a++) {
+			offsets[arcMasters[a] + 1]++;
+			indegree[arcDependents[a]]++;
+		}
+
+		for (int i = 0; i < size; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+
+		int[] dependents = new int[arcCount];
+		int[] next = Arrays.copyOf(offsets, size);
+		for (int a = 0; a < arcCount; a++) {
+			dependents[next[arcMasters[a]]++] = arcDependents[a];
+		}
+
+		// the queue of vertices with no unsorted masters, doubles as a result
+		int[] order = new int[size];
+		int head = 0;
+		int tail = 0;
+
+		for (int i = 0; i < size; i++) {
+			if (indegree[i] == 0) {
+				order[tail++] = i;
+			}
+		}
+
+		while (head < tail) {
+			int master = order[head++];
+			for (int d = offsets[master]; d < offsets[master + 1]; d++) {
+				if (--indegree[dependents[d]] == 0) {
+					order[tail++] = dependents[d];
+				}
+			}
+		}
+
+		return tail == size ? order : null;
+	}
+
 	protected Object findReflexiveMaster(Persistent object, ObjRelationship toOneRel, String targetEntityName) {
 
 		DbRelationship finalRel = toOneRel.getDbRelationships().get(0);
@@ -337,6 +382,15 @@ public class AshwoodEntitySorter implements EntitySorter {
 		return reflexiveDbEntities.containsKey(metadata);
 	}
 
+	private int rank(DbEntity entity) {
+		ComponentRecord rec = components.get(entity);
+		if (rec == null) {
+			throw new NullPointerException("No record for DbEntity: " + entity);
+		}
+
+		return rec.index;
+	}
+
 	private final class ObjEntityComparator implements Comparator<ObjEntity> {
 
 		@Override
@@ -364,28 +418,9 @@ public class AshwoodEntitySorter implements EntitySorter {
 				return 1;
 			}
 			else {
-				ComponentRecord rec1 = components.get(t1);
-				ComponentRecord rec2 = components.get(t2);
-
-				if(rec1 == null) {
-					throw new NullPointerException("No record for DbEntity: " + t1);
-				}
-
-				if(rec2 == null) {
-					throw new NullPointerException("No record for DbEntity: " + t2);
-				}
-
-				int index1 = rec1.index;
-				int index2 = rec2.index;
-
-				int result = index1 > index2 ? 1 : (index1 < index2 ? -1 : 0);
-
-				// TODO: is this check really needed?
-				if (result != 0 && rec1.component == rec2.component) {
-					result = 0;
-				}
-
-				return result;
+				// entities of the same component share the record, so comparing ranks
+				// is enough
+				return Integer.compare(rank(t1), rank(t2));
 			}
 		}
 	}
@@ -68,6 +68,15 @@ public interface Constants {
      */
     String SERVER_PROJECT_LOCATIONS_LIST = "cayenne.server.project_locations";
 
+    /**
+     * A DI container key for the List&lt;DataSource&gt; storing read replicas used by
+     * DataNodes that have no replicas configured in the project.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#contributeReadReplicas(Binder)
+     * @since 4.1
+     */
+    String SERVER_READ_REPLICAS_LIST = "cayenne.server.read_replicas";
+
     /**
      * A DI container key for the List&lt;ExtendedType&gt; storing default
      * adapter-agnostic ExtendedTypes.
@@ -176,6 +185,35 @@ public interface Constants {
      */
     String SERVER_ROP_EVENT_BRIDGE_FACTORY_PROPERTY = "cayenne.server.rop_event_bridge_factory";
 
+    /**
+     * An integer property defining the maximum number of dedicated ROP server sessions
+     * that keep their server-side object graph in memory. Least recently used idle
+     * sessions over the limit are evicted and transparently restored on the next
+     * client request. Zero (default) means no limit.
+     *
+     * @since 4.1
+     */
+    String SERVER_ROP_SESSION_STORE_MAX_SESSIONS_PROPERTY = "cayenne.server.rop_session_store.max_sessions";
+
+    /**
+     * A long property defining the maximum total number of objects registered in the
+     * server-side contexts of all resident ROP sessions. Least recently used idle
+     * sessions are evicted until the total is within the limit. Zero (default) means no
+     * limit.
+     *
+     * @since 4.1
+     */
+    String SERVER_ROP_SESSION_STORE_MAX_OBJECTS_PROPERTY = "cayenne.server.rop_session_store.max_objects";
+
+    /**
+     * A long property defining a time in milliseconds after which an idle ROP session
+     * drops its server-side object graph. Zero (default) means sessions are never
+     * evicted for being idle.
+     *
+     * @since 4.1
+     */
+    String SERVER_ROP_SESSION_STORE_IDLE_TIMEOUT_PROPERTY = "cayenne.server.rop_session_store.idle_timeout";
+
     /**
      * A property that defines a maximum number of ID qualifiers in where clause
      * of queries that are generated for example in
@@ -185,6 +223,25 @@ public interface Constants {
      */
     String SERVER_MAX_ID_QUALIFIER_SIZE_PROPERTY = "cayenne.server.max_id_qualifier_size";
 
+    /**
+     * A property that enables batch faulting of relationships. When it is set to a value
+     * greater than 1, resolving a relationship fault of one object also resolves the same
+     * relationship of up to this number of other objects of the same entity in the
+     * context, using a single query. The default is 0, i.e. batch faulting is disabled.
+     *
+     * @since 4.1
+     */
+    String SERVER_BATCH_FAULTING_SIZE_PROPERTY = "cayenne.server.batch_faulting_size";
+
+    /**
+     * A boolean property that defines whether the runtime should load project configuration from a precompiled
+     * binary file found next to the project XML, if one exists and is up to date. The default is "true".
+     *
+     * @see org.apache.cayenne.configuration.binary.BinaryDataChannelDescriptorLoader
+     * @since 4.1
+     */
+    String SERVER_BINARY_MODEL_PROPERTY = "cayenne.server.binary_model";
+
     /**
      * Defines a maximum time in milliseconds that a connection request could
      * wait in the connection queue. After this period expires, an exception
@@ -219,4 +276,61 @@ public interface Constants {
      */
     String SNAPSHOT_CACHE_SIZE_PROPERTY = "cayenne.DataRowStore.snapshot.size";
 
+    /**
+     * A time window in milliseconds over which snapshot changes of multiple commits are
+     * merged into a single event sent to the EventBridge. Zero (the default) disables
+     * coalescing, so that each commit is sent separately.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotEventCoalescing(Binder, long, int)
+     * @since 4.1
+     */
+    String SNAPSHOT_EVENT_COALESCING_WINDOW_PROPERTY = "cayenne.DataRowStore.EventBridge.coalescing.window";
+
+    /**
+     * Max number of ObjectIds that can be accumulated by coalescing of snapshot events
+     * before an event is sent to the EventBridge without waiting for the end of the
+     * coalescing window. The default is 1000.
+     *
+     * @see org.apache.cayenne.configuration.server.ServerModule#setSnapshotEventCoalescing(Binder, long, int)
+     * @since 4.1
+     */
+    String SNAPSHOT_EVENT_COALESCING_MAX_IDS_PROPERTY = "cayenne.DataRowStore.EventBridge.coalescing.max_ids";
+
+    /**
+     * Defines how DataNodes balance select queries between read replicas. Possible
+     * values are "ROUND_ROBIN" (the default) and "LEAST_BUSY".
+     *
+     * @see org.apache.cayenne.access.ReadReplicaPool.Balancing
+     * @since 4.1
+     */
+    String READ_REPLICAS_BALANCING_PROPERTY = "cayenne.DataNode.read_replicas.balancing";
+
+    /**
+     * A time in milliseconds after a write to the main database during which the
+     * writing thread keeps reading from the main database instead of read replicas, so
+     * that it can see its own changes. The default is 1000.
+     *
+     * @since 4.1
+     */
+    String READ_REPLICAS_STICKINESS_PROPERTY = "cayenne.DataNode.read_replicas.stickiness";
+
+    /**
+     * Size of the ring buffer of {@link org.apache.cayenne.log.AsyncJdbcEventLogger}.
+     * Rounded up to a power of two. Events logged while the buffer is full are dropped.
+     * The default is 8192.
+     *
+     * @since 4.1
+     */
+    String JDBC_EVENT_LOGGER_BUFFER_SIZE_PROPERTY = "cayenne.server.jdbc_event_logger.buffer_size";
+
+    /**
+     * A fraction of statements (from 0 to 1) logged by
+     * {@link org.apache.cayenne.log.AsyncJdbcEventLogger}. Slow queries (see
+     * {@link #QUERY_EXECUTION_TIME_LOGGING_THRESHOLD_PROPERTY}) and errors are always
+     * logged. The default is 1, i.e. all statements are logged.
+     *
+     * @since 4.1
+     */
+    String JDBC_EVENT_LOGGER_SAMPLING_RATE_PROPERTY = "cayenne.server.jdbc_event_logger.sampling_rate";
+
 }
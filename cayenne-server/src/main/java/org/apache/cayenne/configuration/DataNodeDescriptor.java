@@ -51,6 +51,11 @@ public class DataNodeDescriptor implements ConfigurationNode, XMLSerializable,
     // (DataSourceDescriptor?)
     protected DataSourceInfo dataSourceDescriptor;
 
+    /**
+     * @since 4.1
+     */
+    protected List<DataSourceInfo> readReplicaDescriptors;
+
     protected transient Resource configurationSource;
 
     /**
@@ -64,6 +69,7 @@ public class DataNodeDescriptor implements ConfigurationNode, XMLSerializable,
 
     public DataNodeDescriptor(String name) {
         this.dataMapNames = new ArrayList<>();
+        this.readReplicaDescriptors = new ArrayList<>();
         this.name = name;
     }
 
@@ -123,6 +129,10 @@ public class DataNodeDescriptor implements ConfigurationNode, XMLSerializable,
             dataSourceDescriptor.encodeAsXML(encoder, delegate);
         }
 
+        for (DataSourceInfo replica : readReplicaDescriptors) {
+            replica.encodeAsXML(encoder, delegate, "read-replica");
+        }
+
         delegate.visitDataNodeDescriptor(this);
         encoder.end();
     }
@@ -189,6 +199,15 @@ public class DataNodeDescriptor implements ConfigurationNode, XMLSerializable,
         this.dataSourceDescriptor = dataSourceDescriptor;
     }
 
+    /**
+     * Returns a mutable list of connection descriptors of the node read replicas.
+     *
+     * @since 4.1
+     */
+    public List<DataSourceInfo> getReadReplicaDescriptors() {
+        return readReplicaDescriptors;
+    }
+
     /**
      * Returns configuration resource for this descriptor. Configuration is usually shared
      * with the parent {@link DataChannelDescriptor}.
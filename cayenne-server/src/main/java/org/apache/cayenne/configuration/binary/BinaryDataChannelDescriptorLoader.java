@@ -0,0 +1,201 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.binary;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.ConfigurationTree;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link DataChannelDescriptorLoader} decorator that loads a descriptor from a binary file produced by
+ * {@link BinaryDataChannelDescriptorWriter} (e.g. by "cmodel" build plugin task), if such file exists next to the
+ * project XML. Falls back to the XML loader if the binary file is absent, was produced by a different version of
+ * Cayenne, or is stale compared to the XML files. Can be disabled via
+ * {@link Constants#SERVER_BINARY_MODEL_PROPERTY}.
+ *
+ * @since 4.1
+ */
+public class BinaryDataChannelDescriptorLoader implements DataChannelDescriptorLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryDataChannelDescriptorLoader.class);
+
+    private final DataChannelDescriptorLoader delegate;
+    private final boolean enabled;
+
+    public BinaryDataChannelDescriptorLoader(@Inject DataChannelDescriptorLoader delegate,
+                                             @Inject RuntimeProperties properties) {
+        this.delegate = delegate;
+        this.enabled = properties.getBoolean(Constants.SERVER_BINARY_MODEL_PROPERTY, true);
+    }
+
+    @Override
+    public ConfigurationTree<DataChannelDescriptor> load(Resource configurationResource) throws ConfigurationException {
+
+        if (enabled && configurationResource != null) {
+            DataChannelDescriptor descriptor = loadBinary(configurationResource);
+            if (descriptor != null) {
+                return new ConfigurationTree<>(descriptor, null);
+            }
+        }
+
+        return delegate.load(configurationResource);
+    }
+
+    /**
+     * Returns a descriptor loaded from the binary file, or null if the file can't be used.
+     */
+    protected DataChannelDescriptor loadBinary(Resource configurationResource) {
+
+        String location = BinaryDataChannelDescriptorWriter
+                .binaryLocation(BinaryDataChannelDescriptorWriter.fileName(configurationResource.getURL()));
+        URL binaryURL = configurationResource.getRelativeResource(location).getURL();
+
+        try (InputStream in = openStream(binaryURL)) {
+            DataInputStream data = new DataInputStream(in);
+
+            if (data.readInt() != BinaryDataChannelDescriptorWriter.MAGIC
+                    || data.readInt() != BinaryDataChannelDescriptorWriter.FORMAT_VERSION
+                    || !BinaryDataChannelDescriptorWriter.cayenneVersion().equals(data.readUTF())) {
+                logger.info("Ignoring incompatible binary configuration resource " + binaryURL);
+                return null;
+            }
+
+            int sources = data.readInt();
+            for (int i = 0; i < sources; i++) {
+                String sourceLocation = data.readUTF();
+                long checksum = data.readLong();
+
+                Resource source = i == 0 ? configurationResource : configurationResource.getRelativeResource(sourceLocation);
+                if (BinaryDataChannelDescriptorWriter.checksum(source) != checksum) {
+                    logger.info("Ignoring stale binary configuration resource " + binaryURL
+                            + ", '" + sourceLocation + "' was changed");
+                    return null;
+                }
+            }
+
+            DataChannelDescriptor descriptor = (DataChannelDescriptor) new ObjectInputStream(data).readObject();
+            restoreConfigurationSources(descriptor, configurationResource);
+
+            logger.info("Loaded binary configuration resource from " + binaryURL);
+            return descriptor;
+        } catch (FileNotFoundException e) {
+            // no binary file, this is normal
+            return null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn("Error loading binary configuration resource " + binaryURL + ", will use XML", e);
+            return null;
+        }
+    }
+
+    private void restoreConfigurationSources(DataChannelDescriptor descriptor, Resource configurationResource) {
+        // resources are not serialized, so restoring them the same way as XML loader does
+        descriptor.setConfigurationSource(configurationResource);
+
+        for (DataMap map : descriptor.getDataMaps()) {
+            map.setConfigurationSource(configurationResource.getRelativeResource(map.getLocation()));
+            map.setDataChannelDescriptor(descriptor);
+        }
+
+        for (DataNodeDescriptor node : descriptor.getNodeDescriptors()) {
+            node.setConfigurationSource(configurationResource);
+            node.setDataChannelDescriptor(descriptor);
+        }
+    }
+
+    private static InputStream openStream(URL url) throws IOException {
+
+        if ("file".equals(url.getProtocol())) {
+            Path path;
+            try {
+                path = Paths.get(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return new BufferedInputStream(url.openStream());
+            }
+
+            if (!Files.isRegularFile(path)) {
+                throw new FileNotFoundException(path.toString());
+            }
+
+            // the mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        return new BufferedInputStream(url.openStream());
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int read = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
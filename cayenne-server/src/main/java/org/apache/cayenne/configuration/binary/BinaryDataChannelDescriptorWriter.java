@@ -0,0 +1,143 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.binary;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.util.LocalizedStringsHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a {@link DataChannelDescriptor} loaded from XML to a binary file that {@link BinaryDataChannelDescriptorLoader}
+ * can load at startup without parsing XML. The file is placed next to the project XML and records checksums of the
+ * project and DataMap XML files, so that it is ignored once any of them change.
+ *
+ * @since 4.1
+ */
+public class BinaryDataChannelDescriptorWriter {
+
+    static final int MAGIC = 0x43415942;
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Returns a location of the binary file for a given project XML location, e.g. "cayenne-project.bin" for
+     * "cayenne-project.xml".
+     */
+    public static String binaryLocation(String location) {
+        String base = location.endsWith(".xml") ? location.substring(0, location.length() - ".xml".length()) : location;
+        return base + ".bin";
+    }
+
+    static String fileName(URL url) {
+        String path = url.getPath();
+        int slash = path.lastIndexOf('/');
+        return slash >= 0 ? path.substring(slash + 1) : path;
+    }
+
+    static String cayenneVersion() {
+        return LocalizedStringsHandler.getString("cayenne.version");
+    }
+
+    /**
+     * Returns a CRC32 checksum of the resource contents combined with its length.
+     */
+    static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        long length = 0;
+
+        byte[] buffer = new byte[8192];
+        try (InputStream in = resource.getURL().openStream()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                length += read;
+            }
+        }
+
+        return (length << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Writes the descriptor to a binary file in the specified directory, returning the file.
+     */
+    public File write(DataChannelDescriptor descriptor, File directory) throws IOException {
+        File file = new File(directory, binaryLocation(fileName(configurationSource(descriptor).getURL())));
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(descriptor, out);
+        }
+        return file;
+    }
+
+    public void write(DataChannelDescriptor descriptor, OutputStream out) throws IOException {
+        Resource configurationSource = configurationSource(descriptor);
+
+        List<String> locations = new ArrayList<>();
+        List<Resource> sources = new ArrayList<>();
+
+        locations.add(fileName(configurationSource.getURL()));
+        sources.add(configurationSource);
+
+        for (DataMap map : descriptor.getDataMaps()) {
+            if (map.getLocation() == null) {
+                throw new CayenneRuntimeException("DataMap '%s' has no location", map.getName());
+            }
+
+            locations.add(map.getLocation());
+            sources.add(configurationSource.getRelativeResource(map.getLocation()));
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeUTF(cayenneVersion());
+
+        data.writeInt(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            data.writeUTF(locations.get(i));
+            data.writeLong(checksum(sources.get(i)));
+        }
+
+        ObjectOutputStream objects = new ObjectOutputStream(data);
+        objects.writeObject(descriptor);
+        objects.flush();
+    }
+
+    private Resource configurationSource(DataChannelDescriptor descriptor) {
+        Resource configurationSource = descriptor.getConfigurationSource();
+        if (configurationSource == null) {
+            throw new CayenneRuntimeException("DataChannelDescriptor '%s' has no configuration source",
+                    descriptor.getName());
+        }
+        return configurationSource;
+    }
+}
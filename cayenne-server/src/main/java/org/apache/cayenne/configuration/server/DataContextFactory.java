@@ -87,6 +87,7 @@ public class DataContextFactory implements ObjectContextFactory {
         DataContext context = newInstance(
                 parent, objectStoreFactory.createObjectStore(snapshotCache));
         context.setValidatingObjectsOnCommit(dataDomain.isValidatingObjectsOnCommit());
+        context.setBatchFaultingSize(dataDomain.getBatchFaultingSize());
         context.setQueryCache(new NestedQueryCache(queryCache));
         return context;
     }
@@ -99,6 +100,7 @@ public class DataContextFactory implements ObjectContextFactory {
         DataContext context = newInstance(parent, objectStore);
 
         context.setValidatingObjectsOnCommit(parent.isValidatingObjectsOnCommit());
+        context.setBatchFaultingSize(parent.getBatchFaultingSize());
         context.setUsingSharedSnapshotCache(parent.isUsingSharedSnapshotCache());
         context.setQueryCache(new NestedQueryCache(queryCache));
         context.setTransactionFactory(transactionFactory);
@@ -117,6 +119,7 @@ public class DataContextFactory implements ObjectContextFactory {
         DataContext context = newInstance(
                 parent, objectStoreFactory.createObjectStore(snapshotCache));
         context.setValidatingObjectsOnCommit(parent.isValidatingObjectsOnCommit());
+        context.setBatchFaultingSize(parent.getBatchFaultingSize());
         context.setQueryCache(new NestedQueryCache(queryCache));
         context.setTransactionFactory(transactionFactory);
         return context;
@@ -39,9 +39,12 @@ import org.apache.cayenne.configuration.RuntimeProperties;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.di.Injector;
 import org.apache.cayenne.di.Provider;
+import org.apache.cayenne.di.spi.DefaultInjector;
+import org.apache.cayenne.di.spi.InjectorTrace;
 import org.apache.cayenne.event.EventManager;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntitySorter;
+import org.apache.cayenne.metrics.MetricsCollector;
 import org.apache.cayenne.resource.Resource;
 import org.apache.cayenne.resource.ResourceLocator;
 import org.slf4j.Logger;
@@ -131,16 +134,22 @@ public class DataDomainProvider implements Provider<DataDomain> {
 	@SuppressWarnings("deprecation")
 	protected DataDomain createAndInitDataDomain() throws Exception {
 
+		long t0 = System.currentTimeMillis();
+
 		DataChannelDescriptor descriptor = loadDescriptor();
 
+		long t1 = System.currentTimeMillis();
+
 		DataDomain dataDomain = createDataDomain(descriptor.getName());
 
 		dataDomain.setMaxIdQualifierSize(runtimeProperties.getInt(Constants.SERVER_MAX_ID_QUALIFIER_SIZE_PROPERTY, -1));
+		dataDomain.setBatchFaultingSize(runtimeProperties.getInt(Constants.SERVER_BATCH_FAULTING_SIZE_PROPERTY, 0));
 
 		dataDomain.setQueryCache(new NestedQueryCache(queryCache));
 		dataDomain.setEntitySorter(injector.getInstance(EntitySorter.class));
 		dataDomain.setEventManager(injector.getInstance(EventManager.class));
 		dataDomain.setDataRowStoreFactory(injector.getInstance(DataRowStoreFactory.class));
+		dataDomain.setMetricsCollector(injector.getInstance(MetricsCollector.class));
 
 		dataDomain.initWithProperties(descriptor.getProperties());
 
@@ -151,10 +160,14 @@ public class DataDomainProvider implements Provider<DataDomain> {
 		dataDomain.getEntityResolver().applyDBLayerDefaults();
 		dataDomain.getEntityResolver().setValueObjectTypeRegistry(valueObjectTypeRegistry);
 
+		long t2 = System.currentTimeMillis();
+
 		for (DataNodeDescriptor nodeDescriptor : descriptor.getNodeDescriptors()) {
 			addDataNode(dataDomain, nodeDescriptor);
 		}
 
+		long t3 = System.currentTimeMillis();
+
 		// init default node
 		DataNode defaultNode = null;
 
@@ -192,6 +205,20 @@ public class DataDomainProvider implements Provider<DataDomain> {
 			dataDomain.addListener(listener);
 		}
 
+		long t4 = System.currentTimeMillis();
+
+		logger.info("DataDomain '" + dataDomain.getName() + "' started in " + (t4 - t0) + " ms. (configuration loading: "
+				+ (t1 - t0) + " ms., mapping: " + (t2 - t1) + " ms., DataNodes: " + (t3 - t2) + " ms., filters and listeners: "
+				+ (t4 - t3) + " ms.)");
+
+		// most of the DI services are created by now, so this is a good place to report DI startup
+		if (injector instanceof DefaultInjector) {
+			InjectorTrace trace = ((DefaultInjector) injector).getTrace();
+			if (trace != null) {
+				logger.info(trace.toString());
+			}
+		}
+
 		return dataDomain;
 	}
 
@@ -18,18 +18,33 @@
  ****************************************************************/
 package org.apache.cayenne.configuration.server;
 
+import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.ReadReplicaPool;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
 import org.apache.cayenne.access.translator.select.SelectTranslatorFactory;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.conn.DataSourceInfo;
+import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.ScopeEventListener;
 import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.metrics.MetricsCollector;
 
 import javax.sql.DataSource;
+import java.sql.Driver;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * @since 4.0
@@ -63,6 +78,27 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
     @Inject
     protected SQLTemplateProcessor sqlTemplateProcessor;
 
+    /**
+     * @since 4.1
+     */
+    @Inject
+    protected RuntimeProperties runtimeProperties;
+
+    /**
+     * @since 4.1
+     */
+    @Inject(Constants.SERVER_READ_REPLICAS_LIST)
+    protected List<DataSource> readReplicas;
+
+    /**
+     * @since 4.1
+     */
+    @Inject
+    protected MetricsCollector metricsCollector;
+
+    // replica pools created from the project configuration, that must be closed on shutdown
+    private final Collection<ScopeEventListener> managedReplicas = new ConcurrentLinkedQueue<>();
+
     @Override
     public DataNode createDataNode(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -73,6 +109,7 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         dataNode.setBatchTranslatorFactory(batchTranslatorFactory);
         dataNode.setSelectTranslatorFactory(selectTranslatorFactory);
         dataNode.setSqlTemplateProcessor(sqlTemplateProcessor);
+        dataNode.setMetricsCollector(metricsCollector);
 
         DataSource dataSource = dataSourceFactory.getDataSource(nodeDescriptor);
 
@@ -82,8 +119,78 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         dataNode.setSchemaUpdateStrategy(schemaUpdateStrategyFactory.create(nodeDescriptor));
 
         dataNode.setAdapter(adapterFactory.createAdapter(nodeDescriptor, dataSource));
+        dataNode.setReadReplicas(createReadReplicas(nodeDescriptor));
 
         return dataNode;
     }
 
+    /**
+     * Creates a pool of read replicas for the node. Replicas configured in the project
+     * take precedence over the replicas contributed via DI.
+     *
+     * @since 4.1
+     */
+    protected ReadReplicaPool createReadReplicas(DataNodeDescriptor nodeDescriptor) throws Exception {
+
+        List<DataSource> replicas;
+        if (!nodeDescriptor.getReadReplicaDescriptors().isEmpty()) {
+            replicas = new ArrayList<>(nodeDescriptor.getReadReplicaDescriptors().size());
+            for (DataSourceInfo info : nodeDescriptor.getReadReplicaDescriptors()) {
+                DataSource replica = createReadReplica(info);
+                if (replica instanceof ScopeEventListener) {
+                    managedReplicas.add((ScopeEventListener) replica);
+                }
+
+                replicas.add(replica);
+            }
+        } else {
+            replicas = readReplicas;
+        }
+
+        if (replicas == null || replicas.isEmpty()) {
+            return null;
+        }
+
+        String balancing = runtimeProperties.get(Constants.READ_REPLICAS_BALANCING_PROPERTY);
+        ReadReplicaPool.Balancing balancingType;
+        try {
+            balancingType = balancing != null
+                    ? ReadReplicaPool.Balancing.valueOf(balancing.toUpperCase())
+                    : ReadReplicaPool.Balancing.ROUND_ROBIN;
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid read replicas balancing: %s", e, balancing);
+        }
+
+        long stickiness = runtimeProperties.getLong(Constants.READ_REPLICAS_STICKINESS_PROPERTY, 1000L);
+        return new ReadReplicaPool(replicas, balancingType, stickiness);
+    }
+
+    /**
+     * @since 4.1
+     */
+    protected DataSource createReadReplica(DataSourceInfo info) throws Exception {
+
+        long maxQueueWaitTime = runtimeProperties.getLong(Constants.JDBC_MAX_QUEUE_WAIT_TIME,
+                UnmanagedPoolingDataSource.MAX_QUEUE_WAIT_DEFAULT);
+
+        Driver driver = (Driver) objectFactory.getJavaClass(info.getJdbcDriver()).newInstance();
+
+        return DataSourceBuilder.url(info.getDataSourceUrl()).driver(driver).userName(info.getUserName())
+                .password(info.getPassword())
+                .pool(info.getMinConnections(), info.getMaxConnections())
+                .maxQueueWaitTime(maxQueueWaitTime).build();
+    }
+
+    /**
+     * @since 4.1
+     */
+    @BeforeScopeEnd
+    public void shutdown() {
+        for (ScopeEventListener replica : managedReplicas) {
+            replica.beforeScopeEnd();
+        }
+
+        managedReplicas.clear();
+    }
+
 }
@@ -21,6 +21,8 @@ package org.apache.cayenne.configuration.server;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 
+import javax.sql.DataSource;
+
 import org.apache.cayenne.DataChannel;
 import org.apache.cayenne.DataChannelFilter;
 import org.apache.cayenne.DataChannelQueryFilter;
@@ -81,6 +83,7 @@ import org.apache.cayenne.configuration.DefaultRuntimeProperties;
 import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.configuration.ObjectStoreFactory;
 import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.configuration.binary.BinaryDataChannelDescriptorLoader;
 import org.apache.cayenne.configuration.xml.DataChannelMetaData;
 import org.apache.cayenne.configuration.xml.DefaultHandlerFactory;
 import org.apache.cayenne.configuration.xml.HandlerFactory;
@@ -143,6 +146,8 @@ import org.apache.cayenne.event.NoopEventBridgeProvider;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.log.Slf4jJdbcEventLogger;
 import org.apache.cayenne.map.EntitySorter;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.resource.ClassLoaderResourceLocator;
 import org.apache.cayenne.resource.ResourceLocator;
 import org.apache.cayenne.template.CayenneSQLTemplateProcessor;
@@ -186,6 +191,23 @@ public class ServerModule implements Module {
         contributeProperties(binder).put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, Integer.toString(size));
     }
 
+    /**
+     * Enables coalescing of snapshot events sent to the EventBridge. Changes of multiple
+     * commits are merged and sent as a single event, once the time window elapses or the
+     * number of changed ObjectIds reaches the limit. Local listeners still receive an
+     * event per commit.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @param windowMs coalescing time window in milliseconds
+     * @param maxIds max number of changed ids in a single coalesced event
+     * @since 4.1
+     */
+    public static void setSnapshotEventCoalescing(Binder binder, long windowMs, int maxIds) {
+        contributeProperties(binder)
+                .put(Constants.SNAPSHOT_EVENT_COALESCING_WINDOW_PROPERTY, Long.toString(windowMs))
+                .put(Constants.SNAPSHOT_EVENT_COALESCING_MAX_IDS_PROPERTY, Integer.toString(maxIds));
+    }
+
     /**
      * Provides access to a DI collection builder for String locations that allows downstream modules to
      * "contribute" their own Cayenne project locations.
@@ -247,6 +269,18 @@ public class ServerModule implements Module {
         return binder.bindList(Object.class, Constants.SERVER_DOMAIN_LISTENERS_LIST);
     }
 
+    /**
+     * Provides access to a DI collection builder for read replica DataSources used by DataNodes that have no
+     * replicas configured in the project.
+     *
+     * @param binder DI binder passed to the module during injector startup.
+     * @return ListBuilder for replica DataSources.
+     * @since 4.1
+     */
+    public static ListBuilder<DataSource> contributeReadReplicas(Binder binder) {
+        return binder.bindList(DataSource.class, Constants.SERVER_READ_REPLICAS_LIST);
+    }
+
     /**
      * Provides access to a DI collection builder for {@link DbAdapterDetector}'s that allows downstream modules to
      * "contribute" their own adapter detectors.
@@ -347,6 +381,7 @@ public class ServerModule implements Module {
                 .put(Constants.SERVER_CONTEXTS_SYNC_PROPERTY, String.valueOf(false));
 
         binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+        binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
         binder.bind(ClassLoaderManager.class).to(DefaultClassLoaderManager.class);
         binder.bind(AdhocObjectFactory.class).to(DefaultAdhocObjectFactory.class);
 
@@ -397,6 +432,9 @@ public class ServerModule implements Module {
         // init listener list
         contributeDomainListeners(binder);
 
+        // no read replicas by default
+        contributeReadReplicas(binder);
+
         // configure extended types
         contributeDefaultTypes(binder)
                 .add(new VoidType())
@@ -456,6 +494,7 @@ public class ServerModule implements Module {
 
         // a service to load project XML descriptors
         binder.bind(DataChannelDescriptorLoader.class).to(XMLDataChannelDescriptorLoader.class);
+        binder.decorate(DataChannelDescriptorLoader.class).before(BinaryDataChannelDescriptorLoader.class);
         binder.bind(DataChannelDescriptorMerger.class).to(DefaultDataChannelDescriptorMerger.class);
 
         // a service to load DataMap XML descriptors
@@ -19,6 +19,7 @@
 package org.apache.cayenne.configuration.server;
 
 import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.ReadReplicaPool;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.datasource.DataSourceBuilder;
 import org.apache.cayenne.di.ListBuilder;
@@ -58,6 +59,9 @@ public class ServerRuntimeBuilder {
     private long maxQueueWaitTime;
     private String validationQuery;
     private boolean autoLoadModules;
+    private List<DataSource> readReplicas;
+    private ReadReplicaPool.Balancing readReplicaBalancing;
+    private long readReplicaStickiness;
 
     /**
      * Creates a builder with a fixed name of the DataDomain of the resulting
@@ -69,6 +73,8 @@ public class ServerRuntimeBuilder {
         this.modules = new ArrayList<>();
         this.name = name;
         this.autoLoadModules = true;
+        this.readReplicas = new ArrayList<>();
+        this.readReplicaStickiness = -1;
     }
 
     /**
@@ -164,6 +170,39 @@ public class ServerRuntimeBuilder {
         return this;
     }
 
+    /**
+     * Adds a DataSource of a read-only database replica. Select queries executed outside
+     * of transactions will be balanced between the replicas. Replicas are used by all
+     * DataNodes that have no replicas configured in the project.
+     *
+     * @since 4.1
+     */
+    public ServerRuntimeBuilder readReplica(DataSource dataSource) {
+        this.readReplicas.add(dataSource);
+        return this;
+    }
+
+    /**
+     * Sets how select queries are balanced between read replicas.
+     *
+     * @since 4.1
+     */
+    public ServerRuntimeBuilder readReplicaBalancing(ReadReplicaPool.Balancing balancing) {
+        this.readReplicaBalancing = balancing;
+        return this;
+    }
+
+    /**
+     * Sets a time in milliseconds after a write during which the writing thread reads
+     * from the main DataSource instead of read replicas.
+     *
+     * @since 4.1
+     */
+    public ServerRuntimeBuilder readReplicaStickiness(long stickinessMs) {
+        this.readReplicaStickiness = stickinessMs;
+        return this;
+    }
+
     public ServerRuntimeBuilder addConfig(String configurationLocation) {
         configs.add(configurationLocation);
         return this;
@@ -283,6 +322,22 @@ public class ServerRuntimeBuilder {
             });
         }
 
+        if (!readReplicas.isEmpty() || readReplicaBalancing != null || readReplicaStickiness >= 0) {
+            modules.add(binder -> {
+                ServerModule.contributeReadReplicas(binder).addAll(readReplicas);
+
+                if (readReplicaBalancing != null) {
+                    ServerModule.contributeProperties(binder)
+                            .put(Constants.READ_REPLICAS_BALANCING_PROPERTY, readReplicaBalancing.name());
+                }
+
+                if (readReplicaStickiness >= 0) {
+                    ServerModule.contributeProperties(binder)
+                            .put(Constants.READ_REPLICAS_STICKINESS_PROPERTY, Long.toString(readReplicaStickiness));
+                }
+            });
+        }
+
         return modules;
     }
 }
@@ -31,6 +31,7 @@ import org.apache.cayenne.datasource.DataSourceBuilder;
 import org.apache.cayenne.datasource.UnmanagedPoolingDataSource;
 import org.apache.cayenne.di.AdhocObjectFactory;
 import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.metrics.MetricsCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +54,9 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 	@Inject
 	private AdhocObjectFactory objectFactory;
 
+	@Inject
+	private MetricsCollector metricsCollector;
+
 	@Override
 	public DataSource getDataSource(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -72,7 +76,8 @@ public class XMLPoolingDataSourceFactory implements DataSourceFactory {
 		return DataSourceBuilder.url(descriptor.getDataSourceUrl()).driver(driver).userName(descriptor.getUserName())
 				.password(descriptor.getPassword())
 				.pool(descriptor.getMinConnections(), descriptor.getMaxConnections())
-				.maxQueueWaitTime(maxQueueWaitTime).build();
+				.maxQueueWaitTime(maxQueueWaitTime)
+				.metricsCollector(nodeDescriptor.getName(), metricsCollector).build();
 	}
 
 }
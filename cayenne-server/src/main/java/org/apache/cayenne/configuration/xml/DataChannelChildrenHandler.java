@@ -22,10 +22,6 @@ package org.apache.cayenne.configuration.xml;
 import org.apache.cayenne.ConfigurationException;
 import org.apache.cayenne.configuration.DataChannelDescriptor;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
-import org.apache.cayenne.map.DataMap;
-import org.apache.cayenne.resource.Resource;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 
@@ -34,8 +30,6 @@ import org.xml.sax.ContentHandler;
  */
 final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
 
-    private static final Logger logger = LoggerFactory.getLogger(XMLDataChannelDescriptorLoader.class);
-
     static final String OLD_MAP_TAG = "map";
     static final String NODE_TAG = "node";
     static final String PROPERTY_TAG = "property";
@@ -45,6 +39,7 @@ final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
 
     private XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader;
     private DataChannelDescriptor descriptor;
+    private DataChannelHandler parentHandler;
 
     private DataNodeDescriptor nodeDescriptor;
 
@@ -52,6 +47,7 @@ final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
         super(parentHandler);
         this.xmlDataChannelDescriptorLoader = xmlDataChannelDescriptorLoader;
         this.descriptor = parentHandler.descriptor;
+        this.parentHandler = parentHandler;
     }
 
     @Override
@@ -100,21 +96,7 @@ final class DataChannelChildrenHandler extends NamespaceAwareNestedTagHandler {
     }
 
     private void addMap(Attributes attributes) {
-        String dataMapName = attributes.getValue("name");
-        Resource baseResource = descriptor.getConfigurationSource();
-
-        String dataMapLocation = xmlDataChannelDescriptorLoader.nameMapper.configurationLocation(DataMap.class, dataMapName);
-
-        Resource dataMapResource = baseResource.getRelativeResource(dataMapLocation);
-
-        logger.info("Loading XML DataMap resource from " + dataMapResource.getURL());
-
-        DataMap dataMap = xmlDataChannelDescriptorLoader.dataMapLoader.load(dataMapResource);
-        dataMap.setName(dataMapName);
-        dataMap.setLocation(dataMapLocation);
-        dataMap.setDataChannelDescriptor(descriptor);
-
-        descriptor.getDataMaps().add(dataMap);
+        parentHandler.dataMapNames.add(attributes.getValue("name"));
     }
 
     private void addNode(Attributes attributes) {
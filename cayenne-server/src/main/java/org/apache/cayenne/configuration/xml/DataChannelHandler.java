@@ -25,6 +25,9 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @since 4.1
  */
@@ -37,6 +40,9 @@ final class DataChannelHandler extends VersionAwareHandler {
     private XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader;
     DataChannelDescriptor descriptor;
 
+    // DataMaps are loaded after the project is parsed, so that they can be loaded in parallel
+    final List<String> dataMapNames = new ArrayList<>();
+
     DataChannelHandler(XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader, DataChannelDescriptor dataChannelDescriptor, LoaderContext loaderContext) {
         super(loaderContext, DOMAIN_TAG);
         this.xmlDataChannelDescriptorLoader = xmlDataChannelDescriptorLoader;
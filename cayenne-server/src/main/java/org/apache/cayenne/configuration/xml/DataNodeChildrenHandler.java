@@ -31,6 +31,7 @@ final class DataNodeChildrenHandler extends NamespaceAwareNestedTagHandler {
 
     static final String DATA_SOURCE_TAG = "data-source";
     static final String MAP_REF_TAG = "map-ref";
+    static final String READ_REPLICA_TAG = "read-replica";
 
     private XMLDataChannelDescriptorLoader xmlDataChannelDescriptorLoader;
     private DataNodeDescriptor nodeDescriptor;
@@ -53,6 +54,10 @@ final class DataNodeChildrenHandler extends NamespaceAwareNestedTagHandler {
             case DATA_SOURCE_TAG:
                 nodeDescriptor.setDataSourceDescriptor(dataSourceDescriptor);
                 return true;
+
+            case READ_REPLICA_TAG:
+                nodeDescriptor.getReadReplicaDescriptors().add(dataSourceDescriptor);
+                return true;
         }
 
         return false;
@@ -61,7 +66,7 @@ final class DataNodeChildrenHandler extends NamespaceAwareNestedTagHandler {
     @Override
     protected ContentHandler createChildTagHandler(String namespaceURI, String localName,
                                                    String name, Attributes attributes) {
-        if (DATA_SOURCE_TAG.equals(localName)) {
+        if (DATA_SOURCE_TAG.equals(localName) || READ_REPLICA_TAG.equals(localName)) {
             dataSourceDescriptor = new DataSourceInfo();
             return new DataSourceChildrenHandler(xmlDataChannelDescriptorLoader, this, dataSourceDescriptor);
         }
@@ -125,6 +125,7 @@ public class DbEntityHandler extends NamespaceAwareNestedTagHandler {
         lastAttribute.setPrimaryKey(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("isPrimaryKey")));
         lastAttribute.setMandatory(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("isMandatory")));
         lastAttribute.setGenerated(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("isGenerated")));
+        lastAttribute.setUnique(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("isUnique")));
     }
 
     private void createQualifier(String qualifier) {
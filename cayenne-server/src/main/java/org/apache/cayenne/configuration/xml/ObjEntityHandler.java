@@ -127,6 +127,7 @@ public class ObjEntityHandler extends NamespaceAwareNestedTagHandler {
         entity.setClientClassName(attributes.getValue("clientClassName"));
         entity.setAbstract(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("abstract")));
         entity.setReadOnly(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("readOnly")));
+        entity.setFullyCached(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("fullyCached")));
         entity.setServerOnly(DataMapHandler.TRUE.equalsIgnoreCase(attributes.getValue("serverOnly")));
         if ("optimistic".equals(attributes.getValue("", "lock-type"))) {
             entity.setDeclaredLockType(ObjEntity.LOCK_TYPE_OPTIMISTIC);
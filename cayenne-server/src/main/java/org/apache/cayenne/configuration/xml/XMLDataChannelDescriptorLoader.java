@@ -40,7 +40,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @since 3.1
@@ -147,7 +154,8 @@ public class XMLDataChannelDescriptorLoader implements DataChannelDescriptorLoad
 			input.setSystemId(configurationURL.toString());
 			parser.parse(input);
 
-            loaderContext.dataChannelLoaded(descriptor);
+			loadDataMaps(descriptor, rootHandler.dataMapNames);
+			loaderContext.dataChannelLoaded(descriptor);
 		} catch (Exception e) {
 			throw new ConfigurationException("Error loading configuration from %s", e, configurationURL);
 		}
@@ -156,4 +164,59 @@ public class XMLDataChannelDescriptorLoader implements DataChannelDescriptorLoad
 		return new ConfigurationTree<>(descriptor, null);
 	}
 
+	/**
+	 * Loads DataMaps referenced from the project. If there's more than one map, they are
+	 * parsed in parallel, and added to the descriptor in the order they are declared.
+	 *
+	 * @since 4.1
+	 */
+	protected void loadDataMaps(DataChannelDescriptor descriptor, List<String> dataMapNames) throws Exception {
+
+		int threads = Math.min(dataMapNames.size(), Runtime.getRuntime().availableProcessors());
+		if (threads < 2) {
+			for (String dataMapName : dataMapNames) {
+				descriptor.getDataMaps().add(loadDataMap(descriptor, dataMapName));
+			}
+			return;
+		}
+
+		AtomicInteger counter = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "cayenne-datamap-loader-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			List<Future<DataMap>> futures = new ArrayList<>(dataMapNames.size());
+			for (String dataMapName : dataMapNames) {
+				futures.add(executor.submit(() -> loadDataMap(descriptor, dataMapName)));
+			}
+
+			for (Future<DataMap> future : futures) {
+				descriptor.getDataMaps().add(future.get());
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception) cause : e;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	protected DataMap loadDataMap(DataChannelDescriptor descriptor, String dataMapName) {
+		String dataMapLocation = nameMapper.configurationLocation(DataMap.class, dataMapName);
+		Resource dataMapResource = descriptor.getConfigurationSource().getRelativeResource(dataMapLocation);
+
+		logger.info("Loading XML DataMap resource from " + dataMapResource.getURL());
+
+		DataMap dataMap = dataMapLoader.load(dataMapResource);
+		dataMap.setName(dataMapName);
+		dataMap.setLocation(dataMapLocation);
+		dataMap.setDataChannelDescriptor(descriptor);
+		return dataMap;
+	}
 }
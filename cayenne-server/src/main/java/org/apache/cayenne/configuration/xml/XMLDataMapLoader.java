@@ -43,7 +43,7 @@ public class XMLDataMapLoader implements DataMapLoader {
     @Inject
     protected Provider<XMLReader> xmlReaderProvider;
 
-    public synchronized DataMap load(Resource configurationResource) throws CayenneRuntimeException {
+    public DataMap load(Resource configurationResource) throws CayenneRuntimeException {
 
         final DataMap[] maps = new DataMap[1];
 
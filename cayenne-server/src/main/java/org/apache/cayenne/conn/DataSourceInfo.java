@@ -147,7 +147,16 @@ public class DataSourceInfo implements Cloneable, Serializable, XMLSerializable
 	 */
 	@Override
 	public void encodeAsXML(XMLEncoder encoder, ConfigurationNodeVisitor delegate) {
-		encoder.start("data-source");
+		encodeAsXML(encoder, delegate, "data-source");
+	}
+
+	/**
+	 * Encodes connection info as XML element with the specified tag name.
+	 *
+	 * @since 4.1
+	 */
+	public void encodeAsXML(XMLEncoder encoder, ConfigurationNodeVisitor delegate, String tagName) {
+		encoder.start(tagName);
 
 		encoder.start("driver").attribute("value", jdbcDriver).end();
 		encoder.start("url").attribute("value", dataSourceUrl).end();
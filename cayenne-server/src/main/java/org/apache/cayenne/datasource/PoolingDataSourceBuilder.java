@@ -21,6 +21,7 @@ package org.apache.cayenne.datasource;
 import javax.sql.DataSource;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.metrics.MetricsCollector;
 
 /**
  * Turns unpooled DataSource to a connection pool. Normally you won't be
@@ -63,6 +64,18 @@ public class PoolingDataSourceBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets a collector notified about connection wait times of the pool, and a name
+	 * that identifies the pool in the metrics.
+	 *
+	 * @since 4.1
+	 */
+	public PoolingDataSourceBuilder metricsCollector(String poolName, MetricsCollector metricsCollector) {
+		poolParameters.setName(poolName);
+		poolParameters.setMetricsCollector(metricsCollector);
+		return this;
+	}
+
 	/**
 	 * Builds a pooling DataSource that needs to be explicitly closed by the
 	 * caller when no longer in use.
@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.cayenne.datasource;
 
+import org.apache.cayenne.metrics.MetricsCollector;
+
 /**
  * A collection of pooling parameters used by {@link UnmanagedPoolingDataSource}.
  * 
@@ -29,6 +31,8 @@ public class PoolingDataSourceParameters {
 	private int minConnections;
 	private int maxConnections;
 	private long maxQueueWaitTime;
+	private String name;
+	private MetricsCollector metricsCollector;
 
 	public int getMinConnections() {
 		return minConnections;
@@ -61,4 +65,34 @@ public class PoolingDataSourceParameters {
 	public void setValidationQuery(String validationQuery) {
 		this.validationQuery = validationQuery;
 	}
+
+	/**
+	 * Returns a name of the pool used to report pool metrics.
+	 *
+	 * @since 4.1
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public MetricsCollector getMetricsCollector() {
+		return metricsCollector;
+	}
+
+	/**
+	 * @since 4.1
+	 */
+	public void setMetricsCollector(MetricsCollector metricsCollector) {
+		this.metricsCollector = metricsCollector;
+	}
 }
@@ -33,6 +33,8 @@ import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -101,6 +103,8 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 	private int minConnections;
 	private int maxConnections;
 	private String validationQuery;
+	private String name;
+	private MetricsCollector metricsCollector;
 
 	static int maxIdleConnections(int min, int max) {
 		return min == max ? min : min + (int) Math.ceil((max - min) / 2d);
@@ -128,6 +132,10 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		this.nonPoolingDataSource = nonPoolingDataSource;
 		this.maxQueueWaitTime = parameters.getMaxQueueWaitTime();
 		this.validationQuery = parameters.getValidationQuery();
+		this.name = parameters.getName();
+		this.metricsCollector = parameters.getMetricsCollector() != null
+				? parameters.getMetricsCollector()
+				: NoopMetricsCollector.getInstance();
 		this.minConnections = minConnections;
 		this.maxConnections = maxConnections;
 		this.pool = new ConcurrentHashMap<PoolAwareConnection, Object>((int) (maxConnections / 0.75));
@@ -327,23 +335,29 @@ public class UnmanagedPoolingDataSource implements PoolingDataSource {
 		// 2. create new one
 		// 3. wait for a user to return connection
 
+		long t0 = System.nanoTime();
 		PoolAwareConnection c;
 
 		c = uncheckNonBlocking(true);
 		if (c != null) {
+			metricsCollector.connectionAcquired(name, System.nanoTime() - t0);
 			return resetState(c);
 		}
 
 		c = createUnchecked();
 		if (c != null) {
+			metricsCollector.connectionAcquired(name, System.nanoTime() - t0);
 			return resetState(c);
 		}
 
 		c = uncheckBlocking(true);
 		if (c != null) {
+			metricsCollector.connectionAcquired(name, System.nanoTime() - t0);
 			return resetState(c);
 		}
 
+		metricsCollector.connectionUnavailable(name, System.nanoTime() - t0);
+
 		int poolSize = poolSize();
 		int canGrow = poolCap.availablePermits();
 
@@ -19,9 +19,13 @@
 package org.apache.cayenne.dba.mysql;
 
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.SelectAction;
 import org.apache.cayenne.query.SelectQuery;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 /**
  * @since 3.0
  */
@@ -35,4 +39,24 @@ class MySQLSelectAction extends SelectAction {
 	protected int getInMemoryOffset(int queryOffset) {
 		return 0;
 	}
+
+	/**
+	 * Connector/J reads the whole ResultSet into memory unless the fetch size is
+	 * set to Integer.MIN_VALUE. Do that for iterated queries without an explicit
+	 * fetch size, so that rows are streamed one by one. As no other statements can
+	 * be executed on the same connection until the iterator is closed, this is only
+	 * done when the iterator has a dedicated connection, and not when it runs in a
+	 * transaction started by the caller.
+	 *
+	 * @since 4.1
+	 */
+	@Override
+	protected void setFetchSize(PreparedStatement statement, OperationObserver observer) throws SQLException {
+		if (observer.isIteratedResult() && observer.isIteratedResultOnDedicatedConnection()
+				&& queryMetadata.getStatementFetchSize() == 0) {
+			statement.setFetchSize(Integer.MIN_VALUE);
+		} else {
+			super.setFetchSize(statement, observer);
+		}
+	}
 }
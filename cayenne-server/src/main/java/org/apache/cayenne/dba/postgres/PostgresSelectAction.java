@@ -19,14 +19,25 @@
 package org.apache.cayenne.dba.postgres;
 
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.SelectAction;
 import org.apache.cayenne.query.SelectQuery;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 /**
  * @since 3.0
  */
 class PostgresSelectAction extends SelectAction {
 
+	/**
+	 * Fetch size used for iterated queries that do not specify their own.
+	 *
+	 * @since 4.1
+	 */
+	static final int ITERATED_FETCH_SIZE = 1000;
+
 	<T> PostgresSelectAction(SelectQuery<T> query, DataNode dataNode) {
 		super(query, dataNode);
 	}
@@ -35,4 +46,21 @@ class PostgresSelectAction extends SelectAction {
 	protected int getInMemoryOffset(int queryOffset) {
 		return 0;
 	}
+
+	/**
+	 * PostgreSQL driver reads the whole ResultSet into memory unless a fetch size
+	 * is set and the connection is not in autocommit mode. Iterated queries run
+	 * within a Cayenne transaction, so setting a default fetch size is enough to
+	 * switch the driver to cursor-based fetching.
+	 *
+	 * @since 4.1
+	 */
+	@Override
+	protected void setFetchSize(PreparedStatement statement, OperationObserver observer) throws SQLException {
+		if (observer.isIteratedResult() && queryMetadata.getStatementFetchSize() == 0) {
+			statement.setFetchSize(ITERATED_FETCH_SIZE);
+		} else {
+			super.setFetchSize(statement, observer);
+		}
+	}
 }
@@ -0,0 +1,155 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map with weakly referenced keys, used by the EventManager to store
+ * subjects and senders without locking on every event dispatch. Unlike WeakHashMap, reads
+ * do not require external synchronization. Entries with collected keys are purged on
+ * subsequent map access.
+ *
+ * @since 4.1
+ */
+class ConcurrentWeakKeyMap<K, V> {
+
+    private final ConcurrentMap<Object, V> map;
+    private final ReferenceQueue<K> referenceQueue;
+
+    ConcurrentWeakKeyMap() {
+        this.map = new ConcurrentHashMap<>();
+        this.referenceQueue = new ReferenceQueue<>();
+    }
+
+    V get(K key) {
+        purge();
+        return map.get(new LookupKey(key));
+    }
+
+    V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        purge();
+
+        V value = map.get(new LookupKey(key));
+        if (value == null) {
+            value = map.computeIfAbsent(new WeakKey<>(key, referenceQueue), k -> factory.apply(key));
+        }
+
+        return value;
+    }
+
+    V remove(K key) {
+        purge();
+        return map.remove(new LookupKey(key));
+    }
+
+    boolean isEmpty() {
+        purge();
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns a snapshot of map values, skipping entries with collected keys, even if
+     * those were not purged yet.
+     */
+    Collection<V> values() {
+        purge();
+
+        Collection<V> values = new ArrayList<>(map.size());
+        for (Map.Entry<Object, V> e : map.entrySet()) {
+            if (((Key) e.getKey()).get() != null) {
+                values.add(e.getValue());
+            }
+        }
+        return values;
+    }
+
+    private void purge() {
+        Object ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    private interface Key {
+
+        Object get();
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> implements Key {
+
+        private final int hashCode;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hashCode = key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            // a cleared key is only equal to itself, so that it can be purged
+            Object key = get();
+            return key != null && key.equals(((Key) o).get());
+        }
+    }
+
+    private static final class LookupKey implements Key {
+
+        private final Object key;
+
+        LookupKey(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object get() {
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && key.equals(((Key) o).get());
+        }
+    }
+}
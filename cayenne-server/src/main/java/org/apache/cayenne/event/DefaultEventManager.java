@@ -25,27 +25,39 @@ import org.apache.cayenne.util.Invocation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A default implementation of {@link EventManager}.
+ * <p>
+ * Non-blocking events are dispatched by a pool of threads, each with its own lock-free
+ * queue. All events of a given subject are handled by the same thread, so non-blocking
+ * listeners receive events of a subject in the order they were posted. Queue depth and
+ * dispatch latency can be monitored via {@link #getQueueDepth()} and
+ * {@link #getAverageDispatchLatency(TimeUnit)} to detect slow listeners.
  * 
  * @since 3.1
+ * @since 4.1 uses lock-free queues and preserves per-subject event order.
  */
 public class DefaultEventManager implements EventManager {
 
     static final int DEFAULT_DISPATCH_THREAD_COUNT = 5;
 
     // keeps weak references to subjects
-    protected Map<EventSubject, DispatchQueue> subjects;
-    protected List<Dispatch> eventQueue;
+    protected ConcurrentWeakKeyMap<EventSubject, DispatchQueue> subjects;
     protected boolean singleThread;
     protected volatile boolean stopped;
     List<DispatchThread> dispatchThreads;
 
+    private final LongAdder dispatchedEvents;
+    private final LongAdder dispatchLatency;
+    private final AtomicLong maxDispatchLatency;
+
     /**
      * Creates a multithreaded EventManager using default thread count.
      */
@@ -59,10 +71,11 @@ public class DefaultEventManager implements EventManager {
      * less.
      */
     public DefaultEventManager(int dispatchThreadCount) {
-        this.subjects = Collections
-                .synchronizedMap(new WeakHashMap<EventSubject, DispatchQueue>());
-        this.eventQueue = Collections.synchronizedList(new LinkedList<Dispatch>());
+        this.subjects = new ConcurrentWeakKeyMap<>();
         this.singleThread = dispatchThreadCount <= 0;
+        this.dispatchedEvents = new LongAdder();
+        this.dispatchLatency = new LongAdder();
+        this.maxDispatchLatency = new AtomicLong();
 
         if (!singleThread) {
             dispatchThreads = new ArrayList<>(dispatchThreadCount);
@@ -81,6 +94,74 @@ public class DefaultEventManager implements EventManager {
         }
     }
 
+    /**
+     * Returns the number of non-blocking events that were posted, but not yet delivered
+     * to listeners. A growing queue depth indicates that listeners can't keep up with
+     * the events.
+     *
+     * @since 4.1
+     */
+    public long getQueueDepth() {
+        long depth = 0;
+        for (DispatchThread thread : dispatchThreads) {
+            depth += thread.queueDepth.get();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of non-blocking events queued for the given subject and any
+     * other subjects handled by the same dispatch thread.
+     *
+     * @since 4.1
+     */
+    public long getQueueDepth(EventSubject subject) {
+        return !dispatchThreads.isEmpty() ? dispatchThreadForSubject(subject).queueDepth.get() : 0;
+    }
+
+    /**
+     * Returns the total number of non-blocking event deliveries performed by dispatch
+     * threads.
+     *
+     * @since 4.1
+     */
+    public long getDispatchedEventCount() {
+        return dispatchedEvents.sum();
+    }
+
+    /**
+     * Returns average time between posting a non-blocking event and its delivery to a
+     * listener is complete, including the time the event spent in the queue.
+     *
+     * @since 4.1
+     */
+    public long getAverageDispatchLatency(TimeUnit unit) {
+        long count = dispatchedEvents.sum();
+        return count > 0 ? unit.convert(dispatchLatency.sum() / count, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * Returns the longest time between posting a non-blocking event and its delivery to
+     * a listener is complete since the EventManager start or the last call to
+     * {@link #resetDispatchMetrics()}.
+     *
+     * @since 4.1
+     */
+    public long getMaxDispatchLatency(TimeUnit unit) {
+        return unit.convert(maxDispatchLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Resets dispatch counters and latencies.
+     *
+     * @since 4.1
+     */
+    public void resetDispatchMetrics() {
+        dispatchedEvents.reset();
+        dispatchLatency.reset();
+        maxDispatchLatency.set(0);
+    }
+
     /**
      * Returns true if the EventManager was stopped via {@link #shutdown()} method.
      * 
@@ -117,8 +198,6 @@ public class DefaultEventManager implements EventManager {
             for (DispatchThread thread : dispatchThreads) {
                 thread.interrupt();
             }
-
-            dispatchThreads.clear();
         }
     }
 
@@ -237,12 +316,8 @@ public class DefaultEventManager implements EventManager {
 
         boolean didRemove = false;
 
-        synchronized (subjects) {
-            if (!subjects.isEmpty()) {
-                for (EventSubject subject : subjects.keySet()) {
-                    didRemove |= this.removeListener(listener, subject);
-                }
-            }
+        for (DispatchQueue subjectQueue : subjects.values()) {
+            didRemove |= subjectQueue.removeInvocations(listener, null);
         }
 
         return didRemove;
@@ -253,9 +328,7 @@ public class DefaultEventManager implements EventManager {
      */
     public boolean removeAllListeners(EventSubject subject) {
         if (subject != null) {
-            synchronized (subjects) {
-                return subjects.remove(subject) != null;
-            }
+            return subjects.remove(subject) != null;
         }
 
         return false;
@@ -327,12 +400,31 @@ public class DefaultEventManager implements EventManager {
         }
 
         // add dispatch to the queue and return
-        synchronized (eventQueue) {
-            eventQueue.add(new Dispatch(event, subject));
-            eventQueue.notifyAll();
+        enqueue(new Dispatch(event, subject));
+    }
+
+    private void enqueue(Dispatch dispatch) {
+        if (!stopped) {
+            if (dispatch.postedAt == 0) {
+                dispatch.postedAt = System.nanoTime();
+            }
+            dispatchThreadForSubject(dispatch.subject).enqueue(dispatch);
         }
     }
 
+    // events of the same subject always go to the same thread to preserve their order
+    private DispatchThread dispatchThreadForSubject(EventSubject subject) {
+        int index = (subject.hashCode() & Integer.MAX_VALUE) % dispatchThreads.size();
+        return dispatchThreads.get(index);
+    }
+
+    private void recordLatency(Dispatch dispatch) {
+        long latency = System.nanoTime() - dispatch.postedAt;
+        dispatchedEvents.increment();
+        dispatchLatency.add(latency);
+        maxDispatchLatency.accumulateAndGet(latency, Math::max);
+    }
+
     private void dispatchEvent(Dispatch dispatch) {
         DispatchQueue dispatchQueue = dispatchQueueForSubject(dispatch.subject, false);
         if (dispatchQueue != null) {
@@ -342,14 +434,9 @@ public class DefaultEventManager implements EventManager {
 
     // returns a subject's mapping from senders to registered listener invocations
     private DispatchQueue dispatchQueueForSubject(EventSubject subject, boolean create) {
-        synchronized (subjects) {
-            DispatchQueue listenersStore = subjects.get(subject);
-            if (create && listenersStore == null) {
-                listenersStore = new DispatchQueue();
-                subjects.put(subject, listenersStore);
-            }
-            return listenersStore;
-        }
+        return create
+                ? subjects.computeIfAbsent(subject, s -> new DispatchQueue())
+                : subjects.get(subject);
     }
 
     // represents a posted event
@@ -357,6 +444,11 @@ public class DefaultEventManager implements EventManager {
 
         EventObject[] eventArgument;
         EventSubject subject;
+        long postedAt;
+
+        // true if any listener was invoked directly by this dispatch, and not forwarded
+        // as an InvocationDispatch
+        boolean delivered;
 
         Dispatch(EventObject event, EventSubject subject) {
             this(new EventObject[] {
@@ -385,18 +477,17 @@ public class DefaultEventManager implements EventManager {
                     return false;
                 }
 
-                // inject single invocation dispatch into the queue
-                synchronized (eventQueue) {
-                    eventQueue.add(new InvocationDispatch(
-                            eventArgument,
-                            subject,
-                            invocation));
-                    eventQueue.notifyAll();
-                }
+                // inject single invocation dispatch into the queue; if this event was
+                // itself queued, keep its post time, so that the latency is counted
+                // from the original post
+                InvocationDispatch invocationDispatch = new InvocationDispatch(eventArgument, subject, invocation);
+                invocationDispatch.postedAt = postedAt;
+                enqueue(invocationDispatch);
 
                 return true;
             }
             else {
+                delivered = true;
                 return invocation.fire(eventArgument);
             }
         }
@@ -417,6 +508,7 @@ public class DefaultEventManager implements EventManager {
         void fire() {
             // there is no way to kill the invocation if it is bad...
             // so don't check for status
+            delivered = true;
             target.fire(eventArgument);
         }
     }
@@ -433,9 +525,20 @@ public class DefaultEventManager implements EventManager {
 
     final class DispatchThread extends Thread {
 
+        // multiple producers, single consumer
+        final BlockingQueue<Dispatch> queue;
+        final AtomicLong queueDepth;
+
         DispatchThread(String name) {
             super(name);
             setDaemon(true);
+            this.queue = new LinkedTransferQueue<>();
+            this.queueDepth = new AtomicLong();
+        }
+
+        void enqueue(Dispatch dispatch) {
+            queueDepth.incrementAndGet();
+            queue.add(dispatch);
         }
 
         @Override
@@ -444,25 +547,23 @@ public class DefaultEventManager implements EventManager {
 
                 // get event from the queue, if the queue
                 // is empty, just wait
-                Dispatch dispatch = null;
+                Dispatch dispatch;
+                try {
+                    // wake up occasionally to check whether EM has been stopped
+                    dispatch = queue.poll(3, TimeUnit.MINUTES);
+                }
+                catch (InterruptedException e) {
+                    // ignore interrupts...
+                    continue;
+                }
 
-                synchronized (DefaultEventManager.this.eventQueue) {
-                    if (DefaultEventManager.this.eventQueue.size() > 0) {
-                        dispatch = DefaultEventManager.this.eventQueue.remove(0);
-                    }
-                    else {
-                        try {
-                            // wake up occasionally to check whether EM has been stopped
-                            DefaultEventManager.this.eventQueue.wait(3 * 60 * 1000);
-                        }
-                        catch (InterruptedException e) {
-                            // ignore interrupts...
-                        }
-                    }
+                if (dispatch == null) {
+                    continue;
                 }
 
-                // dispatch outside of synchronized block
-                if (!stopped && dispatch != null) {
+                queueDepth.decrementAndGet();
+
+                if (!stopped) {
                     // this try/catch is needed to prevent DispatchThread
                     // from dying on dispatch errors
                     try {
@@ -471,6 +572,12 @@ public class DefaultEventManager implements EventManager {
                     catch (Throwable th) {
                         // ignoring exception
                     }
+
+                    // a dispatch that only forwarded the event to non-blocking
+                    // listeners is not counted, as each of them is counted on its own
+                    if (dispatch.delivered) {
+                        recordLatency(dispatch);
+                    }
                 }
             }
         }
@@ -19,12 +19,7 @@
 
 package org.apache.cayenne.event;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Arrays;
 
 import org.apache.cayenne.event.DefaultEventManager.Dispatch;
 import org.apache.cayenne.util.Invocation;
@@ -32,22 +27,20 @@ import org.apache.cayenne.util.Invocation;
 /**
  * Stores a set of Invocation objects, organizing them by sender. Listeners have an option
  * to receive events for a particular sender or to receive all events. EventManager
- * creates one DispatchQueue per EventSubject. DispatchQueue is thread-safe - all methods
- * that read/modify internal collections are synchronized.
+ * creates one DispatchQueue per EventSubject. DispatchQueue is thread-safe. Invocations
+ * are stored in copy-on-write arrays, so event dispatch does not require any locking,
+ * while adding and removing listeners is synchronized.
  * 
  * @since 1.1
  */
 class DispatchQueue {
 
-    private final ConcurrentMap<Invocation, Object> subjectInvocations;
-    private final Map<Object, ConcurrentMap<Invocation, Object>> invocationsBySender;
+    private final Invocations subjectInvocations;
+    private final ConcurrentWeakKeyMap<Object, Invocations> invocationsBySender;
 
     DispatchQueue() {
-        subjectInvocations = new ConcurrentHashMap<Invocation, Object>();
-
-        // TODO: need something like com.google.common.collect.MapMaker to avoid
-        // synchronization on invocationsBySender
-        invocationsBySender = new WeakHashMap<Object, ConcurrentMap<Invocation, Object>>();
+        subjectInvocations = new Invocations();
+        invocationsBySender = new ConcurrentWeakKeyMap<>();
     }
 
     /**
@@ -56,112 +49,114 @@ class DispatchQueue {
      */
     void dispatchEvent(Dispatch dispatch) {
         // dispatch to "any sender" listeners
-        dispatchEvent(subjectInvocations.keySet(), dispatch);
+        subjectInvocations.dispatchEvent(dispatch);
 
         // dispatch to the given sender listeners
         Object sender = dispatch.getSender();
-        Map<Invocation, Object> senderInvocations = invocationsForSender(sender, false);
-        if (senderInvocations != null) {
-            dispatchEvent(senderInvocations.keySet(), dispatch);
+        if (sender != null) {
+            Invocations senderInvocations = invocationsBySender.get(sender);
+            if (senderInvocations != null) {
+                senderInvocations.dispatchEvent(dispatch);
+            }
         }
     }
 
     void addInvocation(Invocation invocation, Object sender) {
-        ConcurrentMap<Invocation, Object> invocations;
-
-        if (sender == null) {
-            invocations = subjectInvocations;
-        }
-        else {
-            invocations = invocationsForSender(sender, true);
-        }
+        Invocations invocations = sender == null
+                ? subjectInvocations
+                : invocationsBySender.computeIfAbsent(sender, s -> new Invocations());
 
-        // perform maintenance of the given invocations set, as failure to do that can
-        // result in a memory leak per CAY-770. This seemed to happen when lots of
-        // invocations got registered, but no events were dispatched (hence the stale
-        // invocation removal during dispatch did not happen)
-        Iterator<Invocation> it = invocations.keySet().iterator();
-        while (it.hasNext()) {
-            Invocation i = it.next();
-            if (i.getTarget() == null) {
-                it.remove();
-            }
-        }
-
-        invocations.putIfAbsent(invocation, Boolean.TRUE);
+        invocations.add(invocation);
     }
 
     boolean removeInvocations(Object listener, Object sender) {
 
         // remove only for specific sender
         if (sender != null) {
-            return removeInvocations(invocationsForSender(sender, false), listener);
+            Invocations senderInvocations = invocationsBySender.get(sender);
+            return senderInvocations != null && senderInvocations.removeForTarget(listener);
         }
 
         // remove listener from all collections
-        boolean didRemove = removeInvocations(subjectInvocations, listener);
+        boolean didRemove = subjectInvocations.removeForTarget(listener);
 
-        synchronized (invocationsBySender) {
-            for (ConcurrentMap<Invocation, Object> senderInvocations : invocationsBySender
-                    .values()) {
-                didRemove = removeInvocations(senderInvocations, listener) || didRemove;
-            }
+        for (Invocations senderInvocations : invocationsBySender.values()) {
+            didRemove = senderInvocations.removeForTarget(listener) || didRemove;
         }
 
         return didRemove;
     }
 
-    private ConcurrentMap<Invocation, Object> invocationsForSender(
-            Object sender,
-            boolean create) {
+    /**
+     * A copy-on-write set of invocations.
+     */
+    static final class Invocations {
 
-        synchronized (invocationsBySender) {
+        private static final Invocation[] EMPTY = new Invocation[0];
 
-            ConcurrentMap<Invocation, Object> senderInvocations = invocationsBySender
-                    .get(sender);
-            if (create && senderInvocations == null) {
-                senderInvocations = new ConcurrentHashMap<Invocation, Object>();
-                invocationsBySender.put(sender, senderInvocations);
-            }
+        private volatile Invocation[] invocations = EMPTY;
 
-            return senderInvocations;
+        void dispatchEvent(Dispatch dispatch) {
+            // fire invocation, clean up GC'd invocations...
+            for (Invocation invocation : invocations) {
+                if (!dispatch.fire(invocation)) {
+                    remove(invocation);
+                }
+            }
         }
-    }
 
-    // removes all invocations for a given listener
-    private boolean removeInvocations(
-            ConcurrentMap<Invocation, Object> invocations,
-            Object listener) {
-        if (invocations == null || invocations.isEmpty()) {
-            return false;
+        synchronized void add(Invocation invocation) {
+
+            // perform maintenance of the invocations set, as failure to do that can
+            // result in a memory leak per CAY-770. This seemed to happen when lots of
+            // invocations got registered, but no events were dispatched (hence the stale
+            // invocation removal during dispatch did not happen)
+            Invocation[] copy = new Invocation[invocations.length + 1];
+            int size = 0;
+            for (Invocation i : invocations) {
+                if (i.equals(invocation)) {
+                    return;
+                }
+
+                if (i.getTarget() != null) {
+                    copy[size++] = i;
+                }
+            }
+
+            copy[size++] = invocation;
+            invocations = Arrays.copyOf(copy, size);
         }
 
-        boolean didRemove = false;
+        synchronized void remove(Invocation invocation) {
+            Invocation[] copy = new Invocation[invocations.length];
+            int size = 0;
+            for (Invocation i : invocations) {
+                if (i != invocation) {
+                    copy[size++] = i;
+                }
+            }
 
-        Iterator<Invocation> invocationsIt = invocations.keySet().iterator();
-        while (invocationsIt.hasNext()) {
-            Invocation invocation = invocationsIt.next();
-            if (invocation.getTarget() == listener) {
-                invocationsIt.remove();
-                didRemove = true;
+            if (size < invocations.length) {
+                invocations = Arrays.copyOf(copy, size);
             }
         }
 
-        return didRemove;
-    }
-
-    // dispatches event to a list of listeners
-    private void dispatchEvent(Collection<Invocation> invocations, Dispatch dispatch) {
-
-        Iterator<Invocation> it = invocations.iterator();
-        while (it.hasNext()) {
-
-            // fire invocation, clean up GC'd invocations...
+        // removes all invocations for a given listener
+        synchronized boolean removeForTarget(Object listener) {
+            Invocation[] copy = new Invocation[invocations.length];
+            int size = 0;
+            for (Invocation i : invocations) {
+                if (i.getTarget() != listener) {
+                    copy[size++] = i;
+                }
+            }
 
-            Invocation invocation = it.next();
-            if (!dispatch.fire(invocation)) {
-                it.remove();
+            if (size < invocations.length) {
+                invocations = Arrays.copyOf(copy, size);
+                return true;
             }
+
+            return false;
         }
     }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.event;
 
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.util.Util;
 
 import java.util.ArrayList;
@@ -26,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EventListener;
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * <p>An object that passes events between a local EventManager and some other event dispatch
@@ -60,6 +62,14 @@ public abstract class EventBridge implements EventListener {
     public static final int RECEIVE_EXTERNAL = 2;
     public static final int RECEIVE_LOCAL_EXTERNAL = 3;
 
+    /**
+     * A property that specifies a class name of {@link EventCodec} used by the bridge to
+     * encode events. If not set, events are sent using Java serialization.
+     *
+     * @since 4.1
+     */
+    public static final String EVENT_CODEC_PROPERTY = "cayenne.EventBridge.codec";
+
     protected String externalSubject;
     protected Collection<EventSubject> localSubjects;
     protected EventManager eventManager;
@@ -67,6 +77,11 @@ public abstract class EventBridge implements EventListener {
 
     protected Object externalEventSource;
 
+    /**
+     * @since 4.1
+     */
+    protected EventCodec eventCodec;
+
     // keeps all listeners so that they are not deallocated
     Collection<SubjectListener> listeners;
 
@@ -111,6 +126,52 @@ public abstract class EventBridge implements EventListener {
         return externalSubject;
     }
 
+    /**
+     * Returns a codec used to encode events sent over the external transport, or null if
+     * events are sent using Java serialization.
+     *
+     * @since 4.1
+     */
+    public EventCodec getEventCodec() {
+        return eventCodec;
+    }
+
+    /**
+     * Sets a codec used to encode events sent over the external transport. All bridges
+     * connected to the same external subject must use compatible codecs.
+     *
+     * @since 4.1
+     */
+    public void setEventCodec(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    /**
+     * Instantiates an event codec if it is configured via {@link #EVENT_CODEC_PROPERTY}.
+     * Intended to be called from subclass constructors that take a map of properties.
+     *
+     * @since 4.1
+     */
+    protected void initEventCodec(Map<String, String> properties) {
+        String codecClass = properties.get(EVENT_CODEC_PROPERTY);
+        if (codecClass == null || codecClass.isEmpty()) {
+            return;
+        }
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = EventBridge.class.getClassLoader();
+        }
+
+        try {
+            this.eventCodec = (EventCodec) Class.forName(codecClass, true, loader)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Exception e) {
+            throw new CayenneRuntimeException("Error creating event codec '%s'", e, codecClass);
+        }
+    }
+
     /**
      * Returns true if this bridge is active.
      * 
@@ -310,6 +371,18 @@ public abstract class EventBridge implements EventListener {
      */
     protected abstract void sendExternalEvent(CayenneEvent localEvent) throws Exception;
 
+    /**
+     * Sends an event to the external transport directly, bypassing the local
+     * EventManager. Used by callers that start the bridge in {@link #RECEIVE_EXTERNAL}
+     * mode and decide themselves which local events should be published. The event must
+     * have its subject set to one of the bridge local subjects.
+     *
+     * @since 4.1
+     */
+    public void sendEvent(CayenneEvent event) throws Exception {
+        sendExternalEvent(event);
+    }
+
     final class SubjectListener {
 
         EventSubject subject;
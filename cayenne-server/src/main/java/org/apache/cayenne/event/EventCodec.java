@@ -0,0 +1,39 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.event;
+
+/**
+ * Converts CayenneEvents to and from binary messages sent by an {@link EventBridge}.
+ * Implementations must be thread-safe. If no codec is configured, bridges use standard
+ * Java serialization.
+ *
+ * @see EventBridge#EVENT_CODEC_PROPERTY
+ * @since 4.1
+ */
+public interface EventCodec {
+
+    byte[] encode(CayenneEvent event) throws Exception;
+
+    /**
+     * Decodes an event from a binary message. Returns null if the message is not a
+     * CayenneEvent.
+     */
+    CayenneEvent decode(byte[] data) throws Exception;
+}
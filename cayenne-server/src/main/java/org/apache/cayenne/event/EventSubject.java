@@ -63,14 +63,32 @@ public class EventSubject implements Serializable {
             throw new IllegalArgumentException("Subject name must not be null or empty.");
         }
 
-        String fullSubjectName = subjectOwner.getName() + "/" + subjectName;
-        EventSubject newSubject = _registeredSubjects.get(fullSubjectName);
-        if (newSubject == null) {
-            newSubject = new EventSubject(fullSubjectName);
-            _registeredSubjects.put(newSubject.getSubjectName(), newSubject);
+        return registeredSubject(subjectOwner.getName() + "/" + subjectName);
+    }
+
+    /**
+     * Returns an event subject identified by a fully qualified name in the form
+     * "com.foo.bar/SubjectName", as returned by {@link #getSubjectName()}. Used to restore
+     * subjects of events received from external sources.
+     *
+     * @since 4.1
+     */
+    public static EventSubject getSubject(String fullSubjectName) {
+        if ((fullSubjectName == null) || (fullSubjectName.length() == 0)) {
+            throw new IllegalArgumentException("Subject name must not be null or empty.");
+        }
+
+        return registeredSubject(fullSubjectName);
+    }
+
+    private static EventSubject registeredSubject(String fullSubjectName) {
+        EventSubject subject = _registeredSubjects.get(fullSubjectName);
+        if (subject == null) {
+            subject = new EventSubject(fullSubjectName);
+            _registeredSubjects.put(fullSubjectName, subject);
         }
 
-        return newSubject;
+        return subject;
     }
 
     /**
@@ -0,0 +1,628 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.log;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link JdbcEventLogger} that keeps the cost of logging on the query executing
+ * thread to a minimum. Raw events are captured into a preallocated ring buffer and are
+ * formatted and logged by a background thread using a delegate logger (by default
+ * {@link Slf4jJdbcEventLogger}). When the buffer is full, new events are dropped instead
+ * of blocking the caller.
+ * <p>
+ * The logger can log a sample of statements (see
+ * {@link Constants#JDBC_EVENT_LOGGER_SAMPLING_RATE_PROPERTY}), while slow queries (see
+ * {@link Constants#QUERY_EXECUTION_TIME_LOGGING_THRESHOLD_PROPERTY}) and errors are
+ * always logged. It also collects execution statistics per statement "fingerprint", i.e.
+ * SQL with literals replaced with "?", that can be obtained via
+ * {@link #getStatementSummary()} and are logged on shutdown.
+ * <p>
+ * To use this logger, bind it in a custom module:
+ * <pre>
+ * binder.bind(JdbcEventLogger.class).to(AsyncJdbcEventLogger.class);
+ * </pre>
+ *
+ * @since 4.1
+ */
+public class AsyncJdbcEventLogger implements JdbcEventLogger {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcEventLogger.class);
+
+	static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private static final int MAX_FINGERPRINTS = 1000;
+	private static final int SUMMARY_SIZE = 50;
+	private static final long IDLE_PARK_NANOS = 1000000L;
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final int MESSAGE = 0;
+	private static final int GENERATED_KEY = 1;
+	private static final int QUERY = 2;
+	private static final int QUERY_PARAMETERS = 3;
+	private static final int SELECT_COUNT = 4;
+	private static final int UPDATE_COUNT = 5;
+	private static final int BEGIN_TRANSACTION = 6;
+	private static final int COMMIT_TRANSACTION = 7;
+	private static final int ROLLBACK_TRANSACTION = 8;
+	private static final int QUERY_ERROR = 9;
+
+	protected JdbcEventLogger delegate;
+	protected long queryExecutionTimeLoggingThreshold;
+	protected double samplingRate;
+
+	private final Event[] events;
+	private final int mask;
+	private final AtomicLong tail;
+	private volatile long head;
+	private final LongAdder droppedEvents;
+
+	private final ThreadLocal<boolean[]> statementSampled;
+	private final Map<String, StatementStats> statementStats;
+
+	private final Thread loggingThread;
+	private volatile boolean stopped;
+
+	public AsyncJdbcEventLogger(@Inject RuntimeProperties runtimeProperties) {
+		this(runtimeProperties, defaultDelegate(runtimeProperties));
+	}
+
+	/**
+	 * Creates a logger that formats and outputs events on the background thread using
+	 * the provided delegate, e.g. a {@link FormattedSlf4jJdbcEventLogger}. Slow queries
+	 * are reported by this logger itself, so the delegate shouldn't do it.
+	 */
+	public AsyncJdbcEventLogger(RuntimeProperties runtimeProperties, JdbcEventLogger delegate) {
+		this.delegate = delegate;
+		this.queryExecutionTimeLoggingThreshold = runtimeProperties.getLong(
+				Constants.QUERY_EXECUTION_TIME_LOGGING_THRESHOLD_PROPERTY, 0);
+		this.samplingRate = samplingRate(runtimeProperties.get(Constants.JDBC_EVENT_LOGGER_SAMPLING_RATE_PROPERTY));
+
+		int size = Integer.highestOneBit(Math.max(2, runtimeProperties.getInt(
+				Constants.JDBC_EVENT_LOGGER_BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE)) * 2 - 1);
+		this.events = new Event[size];
+		for (int i = 0; i < size; i++) {
+			events[i] = new Event();
+		}
+
+		this.mask = size - 1;
+		this.tail = new AtomicLong();
+		this.droppedEvents = new LongAdder();
+		this.statementSampled = ThreadLocal.withInitial(() -> new boolean[] { true });
+		this.statementStats = new ConcurrentHashMap<>();
+
+		this.loggingThread = new Thread(this::processEvents, "cayenne-jdbc-event-logger");
+		this.loggingThread.setDaemon(true);
+		this.loggingThread.start();
+	}
+
+	private static double samplingRate(String value) {
+		if (value == null) {
+			return 1d;
+		}
+
+		try {
+			return Math.max(0d, Math.min(1d, Double.parseDouble(value)));
+		} catch (NumberFormatException e) {
+			throw new CayenneRuntimeException("Invalid %s: %s", Constants.JDBC_EVENT_LOGGER_SAMPLING_RATE_PROPERTY,
+					value);
+		}
+	}
+
+	private static JdbcEventLogger defaultDelegate(RuntimeProperties runtimeProperties) {
+		Slf4jJdbcEventLogger delegate = new Slf4jJdbcEventLogger(runtimeProperties);
+		delegate.queryExecutionTimeLoggingThreshold = 0;
+		return delegate;
+	}
+
+	@Override
+	public void log(String message) {
+		if (message != null) {
+			Event e = claim();
+			if (e != null) {
+				e.type = MESSAGE;
+				e.text = message;
+				publish(e);
+			}
+		}
+	}
+
+	@Override
+	public void logGeneratedKey(DbAttribute attribute, Object value) {
+		if (isLoggable() && isStatementSampled()) {
+			Event e = claim();
+			if (e != null) {
+				e.type = GENERATED_KEY;
+				e.attribute = attribute;
+				e.value = value;
+				publish(e);
+			}
+		}
+	}
+
+	@Override
+	public void logQuery(String sql, ParameterBinding[] bindings) {
+
+		// sampling decision is made once per statement and applies to all the events that
+		// follow on this thread until the next statement
+		boolean sampled = sample();
+
+		// statements that are not sampled are still captured (without bindings) to keep
+		// the statistics
+		Event e = claim();
+		if (e != null) {
+			e.type = QUERY;
+			e.sampled = sampled;
+			e.text = sql;
+			if (sampled) {
+				e.captureBindings(bindings);
+			}
+			publish(e);
+		}
+	}
+
+	@Override
+	public void logQueryParameters(String label, ParameterBinding[] bindings) {
+		if (isLoggable() && bindings.length > 0 && isStatementSampled()) {
+			Event e = claim();
+			if (e != null) {
+				e.type = QUERY_PARAMETERS;
+				e.text = label;
+				e.captureBindings(bindings);
+				publish(e);
+			}
+		}
+	}
+
+	@Override
+	public void logSelectCount(int count, long time) {
+		logSelectCount(count, time, null);
+	}
+
+	@Override
+	public void logSelectCount(int count, long time, String sql) {
+		Event e = claim();
+		if (e != null) {
+			e.type = SELECT_COUNT;
+			e.sampled = isStatementSampled();
+			e.count = count;
+			e.time = time;
+			e.text = sql;
+
+			if (queryExecutionTimeLoggingThreshold > 0 && time > queryExecutionTimeLoggingThreshold) {
+				// captures the stack of the caller, same as Slf4jJdbcEventLogger does
+				e.error = new CayenneRuntimeException("Query time exceeded threshold (" + time + " ms): %s", sql);
+			}
+
+			publish(e);
+		}
+	}
+
+	@Override
+	public void logUpdateCount(int count) {
+		Event e = claim();
+		if (e != null) {
+			e.type = UPDATE_COUNT;
+			e.sampled = isStatementSampled();
+			e.count = count;
+			publish(e);
+		}
+	}
+
+	@Override
+	public void logBeginTransaction(String transactionLabel) {
+		logTransaction(BEGIN_TRANSACTION, transactionLabel);
+	}
+
+	@Override
+	public void logCommitTransaction(String transactionLabel) {
+		logTransaction(COMMIT_TRANSACTION, transactionLabel);
+	}
+
+	@Override
+	public void logRollbackTransaction(String transactionLabel) {
+		logTransaction(ROLLBACK_TRANSACTION, transactionLabel);
+	}
+
+	private void logTransaction(int type, String transactionLabel) {
+		Event e = claim();
+		if (e != null) {
+			e.type = type;
+			e.text = transactionLabel;
+			publish(e);
+		}
+	}
+
+	@Override
+	public void logQueryError(Throwable th) {
+		if (isLoggable()) {
+			Event e = claim();
+			if (e != null) {
+				e.type = QUERY_ERROR;
+				e.error = th;
+				publish(e);
+			}
+		}
+	}
+
+	@Override
+	public boolean isLoggable() {
+		return delegate.isLoggable();
+	}
+
+	/**
+	 * Returns the number of events that were dropped because the buffer was full.
+	 */
+	public long getDroppedEvents() {
+		return droppedEvents.sum();
+	}
+
+	/**
+	 * Returns a report of the most expensive statements by total execution time. Note
+	 * that events that are still in the buffer are not included in the report.
+	 */
+	public String getStatementSummary() {
+
+		List<Map.Entry<String, StatementStats>> stats = new ArrayList<>(statementStats.entrySet());
+		stats.sort((s1, s2) -> Long.compare(s2.getValue().totalTime, s1.getValue().totalTime));
+
+		StringBuilder buffer = new StringBuilder("JDBC statements summary (").append(stats.size())
+				.append(" statements, ").append(getDroppedEvents()).append(" dropped events):");
+
+		int size = Math.min(stats.size(), SUMMARY_SIZE);
+		for (int i = 0; i < size; i++) {
+			StatementStats s = stats.get(i).getValue();
+			buffer.append("\n  executed: ").append(s.executions)
+					.append(", total: ").append(s.totalTime).append(" ms.")
+					.append(", max: ").append(s.maxTime).append(" ms.")
+					.append(", rows: ").append(s.rows)
+					.append(" - ").append(stats.get(i).getKey());
+		}
+
+		if (stats.size() > size) {
+			buffer.append("\n  ... and ").append(stats.size() - size).append(" more");
+		}
+
+		return buffer.toString();
+	}
+
+	/**
+	 * Logs the statements summary.
+	 */
+	public void logSummary() {
+		logger.info(getStatementSummary());
+	}
+
+	/**
+	 * Stops the background thread, logging the remaining events and the statements
+	 * summary.
+	 */
+	@BeforeScopeEnd
+	public void shutdown() {
+		if (!stopped) {
+			stopped = true;
+			LockSupport.unpark(loggingThread);
+
+			try {
+				loggingThread.join(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			if (!statementStats.isEmpty()) {
+				logSummary();
+			}
+		}
+	}
+
+	/**
+	 * Normalizes SQL to a form shared by all executions of the same statement,
+	 * replacing literals with "?" and collapsing parameter lists and whitespace.
+	 */
+	static String fingerprint(String sql) {
+		String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+		fingerprint = NUMERIC_LITERAL.matcher(fingerprint).replaceAll("?");
+		fingerprint = PARAMETER_LIST.matcher(fingerprint).replaceAll("?, ...");
+		return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+	}
+
+	private boolean sample() {
+		boolean sampled = samplingRate >= 1d || ThreadLocalRandom.current().nextDouble() < samplingRate;
+		if (samplingRate < 1d) {
+			statementSampled.get()[0] = sampled;
+		}
+		return sampled;
+	}
+
+	private boolean isStatementSampled() {
+		return samplingRate >= 1d || statementSampled.get()[0];
+	}
+
+	private Event claim() {
+		if (stopped) {
+			droppedEvents.increment();
+			return null;
+		}
+
+		long sequence;
+		do {
+			sequence = tail.get();
+			if (sequence - head >= events.length) {
+				droppedEvents.increment();
+				return null;
+			}
+		} while (!tail.compareAndSet(sequence, sequence + 1));
+
+		Event e = events[(int) (sequence & mask)];
+		e.claimed = sequence;
+		e.threadId = Thread.currentThread().getId();
+		e.sampled = true;
+		return e;
+	}
+
+	private void publish(Event e) {
+		e.sequence = e.claimed;
+	}
+
+	private void processEvents() {
+
+		// the state below is only accessed by the logging thread
+		Map<Long, StatementStats> currentStatements = new HashMap<>();
+		Map<String, StatementStats> statsBySql = new HashMap<>();
+
+		while (true) {
+			long next = head;
+			Event e = events[(int) (next & mask)];
+
+			if (e.sequence == next) {
+				try {
+					process(e, currentStatements, statsBySql);
+				} catch (Throwable th) {
+					logger.warn("Error logging JDBC event", th);
+				}
+
+				e.clear();
+				head = next + 1;
+			} else if (stopped && tail.get() == next) {
+				break;
+			} else {
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	private void process(Event e, Map<Long, StatementStats> currentStatements, Map<String, StatementStats> statsBySql) {
+
+		switch (e.type) {
+		case MESSAGE:
+			delegate.log(e.text);
+			break;
+		case GENERATED_KEY:
+			delegate.logGeneratedKey(e.attribute, e.value);
+			break;
+		case QUERY:
+			StatementStats stats = statsFor(e.text, statsBySql);
+			if (stats != null) {
+				stats.executions++;
+				currentStatements.put(e.threadId, stats);
+			}
+
+			if (e.sampled) {
+				delegate.logQuery(e.text, e.bindings());
+			}
+			break;
+		case QUERY_PARAMETERS:
+			delegate.logQueryParameters(e.text, e.bindings());
+			break;
+		case SELECT_COUNT:
+			StatementStats selectStats = currentStatements.get(e.threadId);
+			if (selectStats != null) {
+				selectStats.add(e.count, e.time);
+			}
+
+			if (e.sampled) {
+				delegate.logSelectCount(e.count, e.time, e.text);
+			}
+
+			if (e.error != null) {
+				String message = "Query time exceeded threshold (" + e.time + " ms): ";
+				logger.warn(message + e.text, e.error);
+			}
+			break;
+		case UPDATE_COUNT:
+			StatementStats updateStats = currentStatements.get(e.threadId);
+			if (updateStats != null) {
+				updateStats.add(e.count, 0);
+			}
+
+			if (e.sampled) {
+				delegate.logUpdateCount(e.count);
+			}
+			break;
+		case BEGIN_TRANSACTION:
+			delegate.logBeginTransaction(e.text);
+			break;
+		case COMMIT_TRANSACTION:
+			delegate.logCommitTransaction(e.text);
+			break;
+		case ROLLBACK_TRANSACTION:
+			delegate.logRollbackTransaction(e.text);
+			break;
+		case QUERY_ERROR:
+			delegate.logQueryError(e.error);
+			break;
+		default:
+			throw new IllegalStateException("Unknown event type: " + e.type);
+		}
+	}
+
+	private StatementStats statsFor(String sql, Map<String, StatementStats> statsBySql) {
+
+		// cache by raw SQL to avoid normalizing the same statement over and over
+		StatementStats stats = statsBySql.get(sql);
+		if (stats == null) {
+			String fingerprint = fingerprint(sql);
+			stats = statementStats.get(fingerprint);
+			if (stats == null) {
+				if (statementStats.size() >= MAX_FINGERPRINTS) {
+					return null;
+				}
+
+				stats = new StatementStats();
+				statementStats.put(fingerprint, stats);
+			}
+
+			if (statsBySql.size() >= MAX_FINGERPRINTS) {
+				statsBySql.clear();
+			}
+
+			statsBySql.put(sql, stats);
+		}
+
+		return stats;
+	}
+
+	/**
+	 * A preallocated slot of the ring buffer.
+	 */
+	private static final class Event {
+
+		volatile long sequence = -1;
+		long claimed;
+
+		int type;
+		long threadId;
+		boolean sampled;
+		String text;
+		int count;
+		long time;
+		Object value;
+		DbAttribute attribute;
+		Throwable error;
+
+		// copies of the bindings, as binding objects are reused by the callers
+		int bindingsCount;
+		int[] positions = new int[0];
+		Object[] values = new Object[0];
+		ExtendedType[] types = new ExtendedType[0];
+		DbAttribute[] attributes = new DbAttribute[0];
+
+		void captureBindings(ParameterBinding[] bindings) {
+			int len = bindings.length;
+			if (positions.length < len) {
+				positions = new int[len];
+				values = new Object[len];
+				types = new ExtendedType[len];
+				attributes = new DbAttribute[len];
+			}
+
+			for (int i = 0; i < len; i++) {
+				ParameterBinding b = bindings[i];
+				positions[i] = b.getStatementPosition();
+				values[i] = b.getValue();
+				types[i] = b.getExtendedType();
+				attributes[i] = b instanceof DbAttributeBinding ? ((DbAttributeBinding) b).getAttribute() : null;
+			}
+
+			this.bindingsCount = len;
+		}
+
+		ParameterBinding[] bindings() {
+			ParameterBinding[] bindings = new ParameterBinding[bindingsCount];
+			for (int i = 0; i < bindingsCount; i++) {
+				ParameterBinding b = attributes[i] != null
+						? new DbAttributeBinding(attributes[i])
+						: new ParameterBinding();
+
+				if (positions[i] >= 0) {
+					b.include(positions[i], values[i], types[i]);
+				}
+
+				bindings[i] = b;
+			}
+
+			return bindings;
+		}
+
+		void clear() {
+			text = null;
+			value = null;
+			attribute = null;
+			error = null;
+
+			for (int i = 0; i < bindingsCount; i++) {
+				values[i] = null;
+				types[i] = null;
+				attributes[i] = null;
+			}
+
+			bindingsCount = 0;
+		}
+	}
+
+	/**
+	 * Execution statistics of a statement fingerprint. Updated by the logging thread
+	 * only.
+	 */
+	private static final class StatementStats {
+
+		volatile long executions;
+		volatile long rows;
+		volatile long totalTime;
+		volatile long maxTime;
+
+		void add(int rows, long time) {
+			if (rows > 0) {
+				this.rows += rows;
+			}
+
+			if (time > 0) {
+				this.totalTime += time;
+				if (time > maxTime) {
+					this.maxTime = time;
+				}
+			}
+		}
+	}
+}
@@ -47,14 +47,6 @@ class ClientEntityResolver extends EntityResolver {
             classDescriptorMap.addFactory(new ValueHolderDescriptorFactory(
                     classDescriptorMap));
 
-            // since ClassDescriptorMap is not synchronized, we need to prefill it with
-            // entity proxies here.
-            for (DataMap map : maps) {
-                for (String entityName : map.getObjEntityMap().keySet()) {
-                    classDescriptorMap.getDescriptor(entityName);
-                }
-            }
-
             this.classDescriptorMap = classDescriptorMap;
         }
 
@@ -54,6 +54,14 @@ public class DbAttribute extends Attribute implements ConfigurationNode {
      */
     protected boolean generated;
 
+    /**
+     * Defines whether the column values are unique within the table, i.e.
+     * whether the column is a "natural" key of the table.
+     *
+     * @since 4.1
+     */
+    protected boolean unique;
+
     // The length of CHAR or VARCHAr or max num of digits for DECIMAL.
     protected int maxLength = -1;
 
@@ -118,6 +126,10 @@ public class DbAttribute extends Attribute implements ConfigurationNode {
             encoder.attribute("isMandatory", true);
         }
 
+        if (isUnique()) {
+            encoder.attribute("isUnique", true);
+        }
+
         if (getMaxLength() > 0) {
             encoder.attribute("length", getMaxLength());
         }
@@ -209,6 +221,23 @@ public class DbAttribute extends Attribute implements ConfigurationNode {
         this.mandatory = mandatory;
     }
 
+    /**
+     * Returns true if column values are unique within the table, so that a
+     * value identifies a single row the same way a primary key does.
+     *
+     * @since 4.1
+     */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setUnique(boolean unique) {
+        this.unique = unique;
+    }
+
     /**
      * Returns the length of database column described by this attribute.
      */
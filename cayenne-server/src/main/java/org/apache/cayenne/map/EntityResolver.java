@@ -557,15 +557,7 @@ public class EntityResolver implements MappingNamespace, Serializable {
                     classDescriptorMap.addFactory(new ValueHolderDescriptorFactory(classDescriptorMap));
                     classDescriptorMap.addFactory(new DataObjectDescriptorFactory(classDescriptorMap, faultFactory));
 
-                    // since ClassDescriptorMap is not synchronized, we need to
-                    // prefill
-                    // it with entity proxies here.
-                    for (DataMap map : maps) {
-                        for (String entityName : map.getObjEntityMap().keySet()) {
-                            classDescriptorMap.getDescriptor(entityName);
-                        }
-                    }
-
+                    // descriptors are created lazily on first access
                     this.classDescriptorMap = classDescriptorMap;
                 }
             }
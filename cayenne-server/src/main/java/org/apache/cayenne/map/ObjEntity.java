@@ -72,6 +72,7 @@ public class ObjEntity extends Entity implements ObjEntityListener, Configuratio
     protected String superEntityName;
     protected Expression qualifier;
     protected boolean readOnly;
+    protected boolean fullyCached;
     protected int lockType;
 
     protected boolean _abstract;
@@ -120,7 +121,8 @@ public class ObjEntity extends Entity implements ObjEntityListener, Configuratio
                 .attribute("serverOnly", isServerOnly())
                 .attribute("className", getClassName())
                 .attribute("clientClassName", getClientClassName())
-                .attribute("readOnly", isReadOnly());
+                .attribute("readOnly", isReadOnly())
+                .attribute("fullyCached", isFullyCached());
 
         if (getDeclaredLockType() == LOCK_TYPE_OPTIMISTIC) {
             encoder.attribute("lock-type", "optimistic");
@@ -881,6 +883,25 @@ public class ObjEntity extends Entity implements ObjEntityListener, Configuratio
         this.readOnly = readOnly;
     }
 
+    /**
+     * Returns <code>true</code> if all rows of this entity are kept in memory
+     * by the snapshot cache, so that {@link org.apache.cayenne.query.ObjectSelect}
+     * queries against this entity can be answered without going to the
+     * database. Intended for small, read-mostly "lookup" tables.
+     *
+     * @since 4.1
+     */
+    public boolean isFullyCached() {
+        return fullyCached;
+    }
+
+    /**
+     * @since 4.1
+     */
+    public void setFullyCached(boolean fullyCached) {
+        this.fullyCached = fullyCached;
+    }
+
     /**
      * Returns true if this entity directly or indirectly inherits from a given
      * entity, false otherwise.
@@ -0,0 +1,83 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics;
+
+/**
+ * A service notified by the Cayenne stack about timings and counts of database,
+ * cache and connection pool operations. The default implementation is
+ * {@link NoopMetricsCollector} that publishes nothing. A real implementation is
+ * provided by the "cayenne-metrics" module.
+ * <p>
+ * Methods of the collector are invoked on the threads doing the work, so
+ * implementations must be thread-safe and fast. All times are in nanoseconds. Entity
+ * names are the names of the DbEntities involved.
+ *
+ * @since 4.1
+ */
+public interface MetricsCollector {
+
+	/**
+	 * Called when a DataNode finished running a group of queries on a single connection.
+	 */
+	void queriesPerformed(String dataNode, int queryCount, long time);
+
+	/**
+	 * Called when a select query finished reading its result. The SQL has parameters
+	 * replaced with "?" placeholders, so it can be used to aggregate stats per query.
+	 * "entityName" is null if the query root is not mapped to a DbEntity.
+	 */
+	void selectExecuted(String entityName, String sql, int rows, long time);
+
+	/**
+	 * Called when a batch of INSERT, UPDATE or DELETE statements was executed.
+	 * "batchType" is the lowercase statement type.
+	 */
+	void batchExecuted(String entityName, String batchType, int rows, long time);
+
+	void queryCacheRead(String cacheGroup, boolean hit);
+
+	void queryCacheWrite(String cacheGroup);
+
+	/**
+	 * Called on a lookup of a snapshot by ObjectId in a shared snapshot cache.
+	 */
+	void snapshotCacheRead(String cacheName, boolean hit);
+
+	/**
+	 * Called when a snapshot cache evicts a snapshot because it reached its maximum size.
+	 */
+	void snapshotCacheEviction(String cacheName);
+
+	/**
+	 * Called when a commit flushed its changes to the database, passing the time spent
+	 * in each phase of the flush.
+	 */
+	void flushPerformed(int queryCount, long preprocessTime, long queriesTime, long postprocessTime);
+
+	/**
+	 * Called when a connection was obtained from a pool, passing the time the caller
+	 * had to wait for it.
+	 */
+	void connectionAcquired(String poolName, long waitTime);
+
+	/**
+	 * Called when a connection request timed out, because the pool is exhausted.
+	 */
+	void connectionUnavailable(String poolName, long waitTime);
+}
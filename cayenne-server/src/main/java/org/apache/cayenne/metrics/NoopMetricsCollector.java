@@ -0,0 +1,76 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.metrics;
+
+/**
+ * A default {@link MetricsCollector} that ignores all events.
+ *
+ * @since 4.1
+ */
+public class NoopMetricsCollector implements MetricsCollector {
+
+	private static final NoopMetricsCollector instance = new NoopMetricsCollector();
+
+	public static NoopMetricsCollector getInstance() {
+		return instance;
+	}
+
+	private NoopMetricsCollector() {
+	}
+
+	@Override
+	public void queriesPerformed(String dataNode, int queryCount, long time) {
+	}
+
+	@Override
+	public void selectExecuted(String entityName, String sql, int rows, long time) {
+	}
+
+	@Override
+	public void batchExecuted(String entityName, String batchType, int rows, long time) {
+	}
+
+	@Override
+	public void queryCacheRead(String cacheGroup, boolean hit) {
+	}
+
+	@Override
+	public void queryCacheWrite(String cacheGroup) {
+	}
+
+	@Override
+	public void snapshotCacheRead(String cacheName, boolean hit) {
+	}
+
+	@Override
+	public void snapshotCacheEviction(String cacheName) {
+	}
+
+	@Override
+	public void flushPerformed(int queryCount, long preprocessTime, long queriesTime, long postprocessTime) {
+	}
+
+	@Override
+	public void connectionAcquired(String poolName, long waitTime) {
+	}
+
+	@Override
+	public void connectionUnavailable(String poolName, long waitTime) {
+	}
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.query;
 
+import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
@@ -34,7 +35,7 @@ import java.util.List;
  * values.
  * 
  */
-public abstract class BatchQuery implements Query {
+public abstract class BatchQuery implements Query, Cloneable {
 
     /**
      * @since 1.2
@@ -64,6 +65,25 @@ public abstract class BatchQuery implements Query {
         return rows;
     }
 
+    /**
+     * Returns a shallow copy of this batch with rows replaced with the provided list.
+     * Used to split a batch into several batches, e.g. to send rows to different
+     * DataNodes.
+     *
+     * @since 4.1
+     */
+    public BatchQuery withRows(List<BatchQueryRow> rows) {
+        BatchQuery copy;
+        try {
+            copy = (BatchQuery) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new CayenneRuntimeException("Error cloning batch query", e);
+        }
+
+        copy.rows = rows;
+        return copy;
+    }
+
     /**
      * Returns default select parameters.
      * 
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -142,6 +143,17 @@ public interface QueryMetadata {
      */
     String getCacheKey();
 
+    /**
+     * Returns names of ObjEntities whose changes may affect a cached result of this
+     * query, i.e. the root entity and entities referenced via qualifier, orderings,
+     * columns and prefetches. Returns null if such entities can't be determined.
+     *
+     * @since 4.1
+     */
+    default Collection<String> getDependentEntityNames() {
+        return null;
+    }
+
     /**
      * Returns an optional cache "group".
      * Cache groups allow to invalidate query caches in bulk on different events.
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -82,6 +83,14 @@ public class QueryMetadataProxy implements QueryMetadata {
         return mdDelegate.getObjEntity();
     }
 
+    /**
+     * @since 4.1
+     */
+    @Override
+    public Collection<String> getDependentEntityNames() {
+        return mdDelegate.getDependentEntityNames();
+    }
+
     @Override
     public Query getOriginatingQuery() {
         return mdDelegate.getOriginatingQuery();
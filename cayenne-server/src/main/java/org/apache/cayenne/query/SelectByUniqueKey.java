@@ -0,0 +1,174 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ResultBatchIterator;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.ResultIteratorCallback;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.Property;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+
+import java.util.List;
+
+/**
+ * A query to select single objects by a value of a property mapped to a unique
+ * column (see {@link DbAttribute#isUnique()}), such as an email or an external id.
+ * Similar to {@link SelectById}, results of this query can be served from the snapshot
+ * cache without going to the database.
+ *
+ * @since 4.1
+ */
+public class SelectByUniqueKey<T> extends IndirectQuery implements Select<T> {
+
+	private static final long serialVersionUID = 2516270460462291470L;
+
+	// type is not same as T, as T maybe be DataRow
+	Class<?> entityType;
+	String propertyName;
+	Object value;
+	boolean fetchingDataRows;
+
+	public static <T> SelectByUniqueKey<T> query(Class<T> entityType, Property<?> property, Object value) {
+		return query(entityType, property.getName(), value);
+	}
+
+	public static <T> SelectByUniqueKey<T> query(Class<T> entityType, String propertyName, Object value) {
+		SelectByUniqueKey<T> q = new SelectByUniqueKey<>();
+
+		q.entityType = entityType;
+		q.propertyName = propertyName;
+		q.value = value;
+		q.fetchingDataRows = false;
+
+		return q;
+	}
+
+	public static SelectByUniqueKey<DataRow> dataRowQuery(Class<?> entityType, Property<?> property, Object value) {
+		return dataRowQuery(entityType, property.getName(), value);
+	}
+
+	public static SelectByUniqueKey<DataRow> dataRowQuery(Class<?> entityType, String propertyName, Object value) {
+		SelectByUniqueKey<DataRow> q = new SelectByUniqueKey<>();
+
+		q.entityType = entityType;
+		q.propertyName = propertyName;
+		q.value = value;
+		q.fetchingDataRows = true;
+
+		return q;
+	}
+
+	@Override
+	public List<T> select(ObjectContext context) {
+		return context.select(this);
+	}
+
+	@Override
+	public T selectOne(ObjectContext context) {
+		return context.selectOne(this);
+	}
+
+	@Override
+	public T selectFirst(ObjectContext context) {
+		return context.selectFirst(this);
+	}
+
+	@Override
+	public void iterate(ObjectContext context, ResultIteratorCallback<T> callback) {
+		context.iterate(this, callback);
+	}
+
+	@Override
+	public ResultIterator<T> iterator(ObjectContext context) {
+		return context.iterator(this);
+	}
+
+	@Override
+	public ResultBatchIterator<T> batchIterator(ObjectContext context, int size) {
+		return context.batchIterator(this, size);
+	}
+
+	public String getPropertyName() {
+		return propertyName;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	public boolean isFetchingDataRows() {
+		return fetchingDataRows;
+	}
+
+	/**
+	 * Returns a unique DbAttribute that the query property is mapped to, throwing an
+	 * exception if the property is not mapped to a unique column.
+	 */
+	public DbAttribute getUniqueAttribute(EntityResolver resolver) {
+
+		ObjEntity entity = resolveEntity(resolver);
+		ObjAttribute attribute = entity.getAttribute(propertyName);
+		if (attribute == null) {
+			throw new CayenneRuntimeException("No property '%s' in entity '%s'", propertyName, entity.getName());
+		}
+
+		if (attribute.isFlattened()) {
+			throw new CayenneRuntimeException("Property '%s' of entity '%s' is flattened and can't be used as a unique key",
+					propertyName, entity.getName());
+		}
+
+		DbAttribute dbAttribute = attribute.getDbAttribute();
+		if (dbAttribute == null || !(dbAttribute.isUnique() || dbAttribute.isPrimaryKey())) {
+			throw new CayenneRuntimeException("Property '%s' of entity '%s' is not mapped to a unique column",
+					propertyName, entity.getName());
+		}
+
+		return dbAttribute;
+	}
+
+	@Override
+	protected Query createReplacementQuery(EntityResolver resolver) {
+
+		ObjEntity entity = resolveEntity(resolver);
+		DbAttribute attribute = getUniqueAttribute(resolver);
+
+		SelectQuery<Object> query = new SelectQuery<>();
+		query.setRoot(entity);
+		query.setFetchingDataRows(fetchingDataRows);
+		query.setQualifier(ExpressionFactory.matchDbExp(attribute.getName(), value));
+
+		return query;
+	}
+
+	protected ObjEntity resolveEntity(EntityResolver resolver) {
+
+		if (entityType == null) {
+			throw new CayenneRuntimeException("Misconfigured query. Entity type must be set");
+		}
+
+		return resolver.getObjEntity(entityType, true);
+	}
+}
@@ -24,6 +24,7 @@ import org.apache.cayenne.Persistent;
 import org.apache.cayenne.access.types.ValueObjectType;
 import org.apache.cayenne.access.types.ValueObjectTypeRegistry;
 import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
 import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.exp.Property;
 import org.apache.cayenne.exp.TraversalHandler;
@@ -48,6 +49,7 @@ import org.apache.cayenne.reflect.ToManyProperty;
 import org.apache.cayenne.reflect.ToOneProperty;
 import org.apache.cayenne.util.CayenneMapEntry;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,11 +68,13 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 	Map<String, String> pathSplitAliases;
 	boolean isSingleResultSetMapping;
 	boolean suppressingDistinct;
+	Collection<String> dependentEntityNames;
 
 	@Override
 	void copyFromInfo(QueryMetadata info) {
 		super.copyFromInfo(info);
 		this.pathSplitAliases = new HashMap<>(info.getPathSplitAliases());
+		this.dependentEntityNames = info.getDependentEntityNames();
 	}
 
 	boolean resolve(Object root, EntityResolver resolver, SelectQuery<?> query) {
@@ -82,6 +86,12 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 			}
 
 			resolveAutoAliases(query);
+
+			// dependencies are only needed to invalidate cached results
+			if (cacheStrategy != null && cacheStrategy != QueryCacheStrategy.NO_CACHE) {
+				this.dependentEntityNames = makeDependentEntityNames(query, resolver);
+			}
+
 			buildResultSetMappingForColumns(query, resolver);
 			isSingleResultSetMapping = query.canReturnScalarValue() && super.isSingleResultSetMapping();
 
@@ -161,6 +171,105 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 		return key.toString();
 	}
 
+	private Collection<String> makeDependentEntityNames(SelectQuery<?> query, EntityResolver resolver) {
+
+		ObjEntity entity = getObjEntity();
+		if (entity == null) {
+			return null;
+		}
+
+		Set<String> names = new HashSet<>();
+		names.add(entity.getName());
+
+		try {
+			if (query.getColumns() != null) {
+				for (Property<?> column : query.getColumns()) {
+					addPathDependencies(entity, column.getExpression(), resolver, names);
+				}
+			}
+
+			if (query.getQualifier() != null) {
+				addPathDependencies(entity, query.getQualifier(), resolver, names);
+			}
+
+			for (Ordering o : query.getOrderings()) {
+				addPathDependencies(entity, o.getSortSpec(), resolver, names);
+			}
+
+			if (query.getHavingQualifier() != null) {
+				addPathDependencies(entity, query.getHavingQualifier(), resolver, names);
+			}
+
+			if (query.getPrefetchTree() != null) {
+				for (PrefetchTreeNode node : query.getPrefetchTree().nonPhantomNodes()) {
+					String path = node.getPath();
+					if (!path.isEmpty()) {
+						addPathDependencies(entity, ExpressionFactory.exp(path), resolver, names);
+					}
+				}
+			}
+		} catch (ExpressionException e) {
+			// paths that can't be resolved here will fail later on, so just report
+			// dependencies as unknown
+			return null;
+		}
+
+		return names;
+	}
+
+	private void addPathDependencies(ObjEntity entity, Expression expression, EntityResolver resolver, Set<String> names) {
+
+		if (expression == null) {
+			return;
+		}
+
+		if (expression.getType() == Expression.OBJ_PATH) {
+			for (PathComponent<ObjAttribute, ObjRelationship> component : entity.resolvePath(expression, getPathSplitAliases())) {
+				if (component.getRelationship() != null) {
+					names.add(component.getRelationship().getTargetEntityName());
+				} else if (component.getAttribute() != null && component.getAttribute().isFlattened()) {
+					Iterator<CayenneMapEntry> dbPath = component.getAttribute().getDbPathIterator();
+					while (dbPath.hasNext()) {
+						CayenneMapEntry pathPart = dbPath.next();
+						if (pathPart instanceof DbRelationship) {
+							addMappedEntities((DbEntity) ((DbRelationship) pathPart).getTargetEntity(), resolver, names);
+						}
+					}
+				}
+			}
+			return;
+		}
+
+		if (expression.getType() == Expression.DB_PATH) {
+			for (PathComponent<DbAttribute, DbRelationship> component : entity.getDbEntity().resolvePath(expression, getPathSplitAliases())) {
+				if (component.getRelationship() != null) {
+					addMappedEntities((DbEntity) component.getRelationship().getTargetEntity(), resolver, names);
+				}
+			}
+			return;
+		}
+
+		int len = expression.getOperandCount();
+		for (int i = 0; i < len; i++) {
+			Object operand = expression.getOperand(i);
+			if (operand instanceof Expression) {
+				addPathDependencies(entity, (Expression) operand, resolver, names);
+			}
+		}
+	}
+
+	private void addMappedEntities(DbEntity dbEntity, EntityResolver resolver, Set<String> names) {
+		if (dbEntity == null) {
+			return;
+		}
+
+		for (ObjEntity objEntity : resolver.getObjEntities()) {
+			if (objEntity.getDbEntity() == dbEntity) {
+				names.add(objEntity.getName());
+			}
+		}
+	}
+
 	private void resolveAutoAliases(SelectQuery<?> query) {
 		Expression qualifier = query.getQualifier();
 		if (qualifier != null) {
@@ -189,6 +298,14 @@ class SelectQueryMetadata extends BaseQueryMetadata {
 		}
 	}
 
+	/**
+	 * @since 4.1
+	 */
+	@Override
+	public Collection<String> getDependentEntityNames() {
+		return dependentEntityNames;
+	}
+
 	/**
 	 * @since 3.0
 	 */
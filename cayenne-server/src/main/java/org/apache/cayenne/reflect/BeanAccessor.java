@@ -19,11 +19,16 @@
 
 package org.apache.cayenne.reflect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * A property accessor that uses set/get methods following JavaBean naming
- * conventions.
+ * conventions. Since 4.1 the methods are invoked via {@link MethodHandle}s, falling back
+ * to reflection if the handles can't be created.
  * 
  * @since 1.2
  */
@@ -36,6 +41,9 @@ public class BeanAccessor implements Accessor {
 	protected Method writeMethod;
 	protected Object nullValue;
 
+	private transient MethodHandle readHandle;
+	private transient MethodHandle writeHandle;
+
 	public BeanAccessor(Class<?> objectClass, String propertyName, Class<?> propertyType) {
 		if (objectClass == null) {
 			throw new IllegalArgumentException("Null objectClass");
@@ -109,6 +117,34 @@ public class BeanAccessor implements Accessor {
 				break;
 			}
 		}
+
+		initHandles();
+	}
+
+	private void initHandles() {
+
+		// static methods are not really expected here, leaving them to reflection
+		if (Modifier.isStatic(readMethod.getModifiers())
+				|| (writeMethod != null && Modifier.isStatic(writeMethod.getModifiers()))) {
+			return;
+		}
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+		try {
+			this.readHandle = lookup.unreflect(readMethod).asType(MethodType.methodType(Object.class, Object.class));
+		} catch (IllegalAccessException e) {
+			// e.g. a public method of a non-public class; fallback to reflection
+		}
+
+		if (writeMethod != null) {
+			try {
+				this.writeHandle = lookup.unreflect(writeMethod)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				// fallback to reflection
+			}
+		}
 	}
 
 	public String getName() {
@@ -121,7 +157,7 @@ public class BeanAccessor implements Accessor {
 	public Object getValue(Object object) throws PropertyException {
 
 		try {
-			return readMethod.invoke(object, (Object[]) null);
+			return readHandle != null ? (Object) readHandle.invokeExact(object) : readMethod.invoke(object, (Object[]) null);
 		} catch (Throwable th) {
 			throw new PropertyException("Error reading property: " + propertyName, this, object, th);
 		}
@@ -147,7 +183,11 @@ public class BeanAccessor implements Accessor {
 				newValue = this.nullValue;
 			}
 
-			writeMethod.invoke(object, newValue);
+			if (writeHandle != null) {
+				writeHandle.invokeExact(object, newValue);
+			} else {
+				writeMethod.invoke(object, newValue);
+			}
 		} catch (Throwable th) {
 			throw new PropertyException("Error writing property: " + propertyName, this, object, th);
 		}
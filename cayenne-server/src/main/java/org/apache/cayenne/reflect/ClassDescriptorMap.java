@@ -18,34 +18,34 @@
  ****************************************************************/
 package org.apache.cayenne.reflect;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.map.EntityResolver;
 
 /**
  * An object that holds class descriptors for mapped entities, compiling new
- * descriptors on demand using an internal chain of descriptor factories. Note
- * that the object is not synchronized internally, so it has to be prefilled
- * with descriptors by the caller on initialization via calling 'getDescriptor'
- * for all mapped entities.
+ * descriptors on demand using an internal chain of descriptor factories.
+ * Descriptors are created lazily per entity and can be safely requested from
+ * multiple threads.
  * 
  * @since 3.0
+ * @since 4.1 is thread-safe and doesn't need to be prefilled with descriptors
  */
 public class ClassDescriptorMap {
 
     protected EntityResolver resolver;
-    protected Map<String, ClassDescriptor> descriptors;
+    protected ConcurrentMap<String, ClassDescriptor> descriptors;
     protected List<ClassDescriptorFactory> factories;
 
     public ClassDescriptorMap(EntityResolver resolver) {
-        this.descriptors = new HashMap<>();
+        this.descriptors = new ConcurrentHashMap<>();
         this.resolver = resolver;
-        this.factories = new ArrayList<>();
+        this.factories = new CopyOnWriteArrayList<>();
     }
 
     public EntityResolver getResolver() {
@@ -109,8 +109,10 @@ public class ClassDescriptorMap {
      */
     protected ClassDescriptor createProxyDescriptor(String entityName) {
         ClassDescriptor descriptor = new LazyClassDescriptorDecorator(this, entityName);
-        addDescriptor(entityName, descriptor);
-        return descriptor;
+
+        // another thread may have created a proxy for the same entity in the meantime
+        ClassDescriptor existing = descriptors.putIfAbsent(entityName, descriptor);
+        return existing != null ? existing : descriptor;
     }
 
     /**
@@ -19,13 +19,18 @@
 
 package org.apache.cayenne.reflect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.util.Util;
 
 /**
- * A PropertyAccessor that performs direct Field access.
+ * A PropertyAccessor that performs direct Field access. Since 4.1 the field is accessed
+ * via {@link MethodHandle}s, falling back to reflection if the handles can't be created.
  * 
  * @since 1.2
  */
@@ -35,6 +40,9 @@ public class FieldAccessor implements Accessor {
     protected Field field;
     protected Object nullValue;
 
+    private transient MethodHandle getter;
+    private transient MethodHandle setter;
+
     public FieldAccessor(Class<?> objectClass, String propertyName, Class<?> propertyType) {
         // sanity check
         if (objectClass == null) {
@@ -48,6 +56,31 @@ public class FieldAccessor implements Accessor {
         this.propertyName = propertyName;
         this.field = prepareField(objectClass, propertyName, propertyType);
         this.nullValue = PropertyUtils.defaultNullValueForType(field.getType());
+        initHandles();
+    }
+
+    private void initHandles() {
+
+        // static fields are not really expected here, leaving them to reflection
+        if (Modifier.isStatic(field.getModifiers())) {
+            return;
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            this.getter = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            // fallback to reflection
+        }
+
+        try {
+            this.setter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            // e.g. a final field; fallback to reflection
+        }
     }
 
     public String getName() {
@@ -56,7 +89,7 @@ public class FieldAccessor implements Accessor {
 
     public Object getValue(Object object) throws PropertyException {
         try {
-            return field.get(object);
+            return getter != null ? (Object) getter.invokeExact(object) : field.get(object);
         }
         catch (Throwable th) {
             throw new PropertyException(
@@ -77,7 +110,11 @@ public class FieldAccessor implements Accessor {
         }
 
         try {
-            field.set(object, newValue);
+            if (setter != null) {
+                setter.invokeExact(object, newValue);
+            } else {
+                field.set(object, newValue);
+            }
         }
         catch (Throwable th) {
             throw new PropertyException(
@@ -20,6 +20,7 @@ package org.apache.cayenne.reflect;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.map.DbEntity;
@@ -30,12 +31,17 @@ import org.apache.cayenne.util.ToStringBuilder;
 
 /**
  * A ClassDescriptor wrapper that compiles decorated descriptor lazily on first access.
+ * Initialization is lock-free: if several threads access a new descriptor at the same
+ * time, each may compile it, but only the first compiled instance is published.
  * 
  * @since 3.0
  */
 public class LazyClassDescriptorDecorator implements ClassDescriptor {
 
-    protected ClassDescriptor descriptor;
+    private static final AtomicReferenceFieldUpdater<LazyClassDescriptorDecorator, ClassDescriptor> DESCRIPTOR_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(LazyClassDescriptorDecorator.class, ClassDescriptor.class, "descriptor");
+
+    protected volatile ClassDescriptor descriptor;
     protected ClassDescriptorMap descriptorMap;
     protected String entityName;
 
@@ -56,7 +62,7 @@ public class LazyClassDescriptorDecorator implements ClassDescriptor {
      */
     protected void checkDescriptorInitialized() {
         if (descriptor == null) {
-            descriptor = descriptorMap.createDescriptor(entityName);
+            DESCRIPTOR_UPDATER.compareAndSet(this, null, descriptorMap.createDescriptor(entityName));
         }
     }
 
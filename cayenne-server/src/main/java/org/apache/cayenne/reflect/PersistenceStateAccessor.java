@@ -0,0 +1,59 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import org.apache.cayenne.Persistent;
+
+/**
+ * An accessor of the "persistenceState" property of {@link Persistent} objects that
+ * calls the interface methods directly instead of going through reflection.
+ *
+ * @since 4.1
+ */
+class PersistenceStateAccessor implements Accessor {
+
+    static final Accessor SHARED_ACCESSOR = new PersistenceStateAccessor();
+
+    private PersistenceStateAccessor() {
+    }
+
+    @Override
+    public String getName() {
+        return "persistenceState";
+    }
+
+    @Override
+    public Object getValue(Object object) throws PropertyException {
+        try {
+            return ((Persistent) object).getPersistenceState();
+        } catch (ClassCastException e) {
+            throw new PropertyException("Object is not Persistent: '" + object.getClass().getName() + "'", this,
+                    object, e);
+        }
+    }
+
+    @Override
+    public void setValue(Object object, Object newValue) throws PropertyException {
+        try {
+            ((Persistent) object).setPersistenceState(newValue != null ? (Integer) newValue : 0);
+        } catch (ClassCastException e) {
+            throw new PropertyException("Error writing persistence state: " + newValue, this, object, e);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.Persistent;
 import org.apache.cayenne.dba.TypesMapping;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.TraversalHelper;
@@ -71,7 +72,7 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
         descriptor.setEntity(entity);
         descriptor.setSuperclassDescriptor(superDescriptor);
         descriptor.setObjectClass(entityClass);
-        descriptor.setPersistenceStateAccessor(new BeanAccessor(entityClass, "persistenceState", Integer.TYPE));
+        descriptor.setPersistenceStateAccessor(createPersistenceStateAccessor(entityClass));
 
         // only include this entity attributes and skip superclasses...
         for (ObjAttribute attribute : descriptor.getEntity().getDeclaredAttributes()) {
@@ -346,7 +347,21 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
     }
 
     /**
-     * Creates an accessor for the property.
+     * Creates an accessor for the "persistenceState" property. For {@link Persistent}
+     * classes the state is accessed via interface methods, avoiding reflection.
+     *
+     * @since 4.1
+     */
+    protected Accessor createPersistenceStateAccessor(Class<?> entityClass) {
+        return Persistent.class.isAssignableFrom(entityClass)
+                ? PersistenceStateAccessor.SHARED_ACCESSOR
+                : new BeanAccessor(entityClass, "persistenceState", Integer.TYPE);
+    }
+
+    /**
+     * Creates an accessor for the property. Field access is done via
+     * {@link java.lang.invoke.MethodHandle}s, see {@link FieldAccessor}. Subclasses
+     * may use generated code instead, e.g. "readPropertyDirectly" methods of DataObjects.
      */
     protected Accessor createAccessor(PersistentDescriptor descriptor, String propertyName, Class<?> propertyType)
             throws PropertyException {
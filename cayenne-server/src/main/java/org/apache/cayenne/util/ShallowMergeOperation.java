@@ -22,6 +22,7 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.graph.GraphManager;
 import org.apache.cayenne.reflect.ClassDescriptor;
 
@@ -82,6 +83,13 @@ public class ShallowMergeOperation {
                     && object.getPersistenceState() != PersistenceState.MODIFIED
                     && object.getPersistenceState() != PersistenceState.DELETED) {
 
+                // attributes not yet resolved in the parent are copied as resolved values
+                if (peerInParentContext.getObjectContext() instanceof DataContext) {
+                    ((DataContext) peerInParentContext.getObjectContext())
+                            .getObjectStore()
+                            .resolveLazyAttributes(peerInParentContext);
+                }
+
                 descriptor.shallowMerge(peerInParentContext, object);
 
                 if (object.getPersistenceState() == PersistenceState.HOLLOW) {
@@ -0,0 +1,130 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.List;
+
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.DataChannelInterceptor;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataContextBatchFaultingIT extends ServerCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DataChannelInterceptor queryInterceptor;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        for (int i = 1; i <= 5; i++) {
+            tArtist.insert(i, "a" + i);
+        }
+
+        TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+        tPainting.setColumns("PAINTING_ID", "PAINTING_TITLE", "ARTIST_ID");
+        for (int i = 1; i <= 7; i++) {
+            tPainting.insert(i, "p" + i, i <= 4 ? i : 1);
+        }
+        tPainting.insert(8, "p8", null);
+
+        context.setBatchFaultingSize(3);
+    }
+
+    @Test
+    public void testToOne() {
+
+        List<Painting> paintings = ObjectSelect.query(Painting.class).orderBy(Painting.PAINTING_TITLE.asc()).select(context);
+
+        int queries = queryInterceptor.runWithQueryCounter(() -> {
+            for (Painting p : paintings) {
+                if (p.getToArtist() != null) {
+                    p.getToArtist().getArtistName();
+                }
+            }
+        });
+
+        // 7 paintings with 4 distinct artists in batches of 3, paintings of already
+        // fetched artists are resolved without a query
+        assertTrue(queries <= 3);
+
+        assertEquals("a1", paintings.get(0).getToArtist().getArtistName());
+        assertEquals("a4", paintings.get(3).getToArtist().getArtistName());
+        assertEquals("a1", paintings.get(6).getToArtist().getArtistName());
+        assertNull(paintings.get(7).getToArtist());
+    }
+
+    @Test
+    public void testToMany() {
+
+        List<Artist> artists = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+
+        int queries = queryInterceptor.runWithQueryCounter(() -> {
+            for (Artist a : artists) {
+                a.getPaintingArray().size();
+            }
+        });
+
+        // 5 artists in batches of 3
+        assertEquals(2, queries);
+
+        assertEquals(4, artists.get(0).getPaintingArray().size());
+        assertEquals(1, artists.get(1).getPaintingArray().size());
+        assertEquals(0, artists.get(4).getPaintingArray().size());
+
+        Painting p = artists.get(1).getPaintingArray().get(0);
+        assertEquals("p2", p.getPaintingTitle());
+        assertEquals(artists.get(1), p.getToArtist());
+    }
+
+    @Test
+    public void testDisabled() {
+
+        context.setBatchFaultingSize(0);
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(context);
+
+        int queries = queryInterceptor.runWithQueryCounter(() -> {
+            for (Artist a : artists) {
+                a.getPaintingArray().size();
+            }
+        });
+
+        assertEquals(5, queries);
+    }
+}
@@ -0,0 +1,175 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataNodeReadReplicasIT extends ServerCase {
+
+    @Inject
+    private ServerRuntime runtime;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DataNode node;
+    private CountingDataSource replica1;
+    private CountingDataSource replica2;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "a1");
+        tArtist.insert(2, "a2");
+
+        node = runtime.getDataDomain().getDataNodes().iterator().next();
+
+        // "replicas" point to the same DB as the main DataSource
+        DataSource main = node.getDataSource().unwrap(DataSource.class);
+        replica1 = new CountingDataSource(main);
+        replica2 = new CountingDataSource(main);
+    }
+
+    @After
+    public void after() {
+        node.setReadReplicas(null);
+    }
+
+    @Test
+    public void testSelect_RoundRobin() {
+        node.setReadReplicas(new ReadReplicaPool(Arrays.<DataSource>asList(replica1, replica2),
+                ReadReplicaPool.Balancing.ROUND_ROBIN, 1000));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(2, ObjectSelect.query(Artist.class).select(context).size());
+        }
+
+        assertEquals(2, replica1.connections.get());
+        assertEquals(2, replica2.connections.get());
+    }
+
+    @Test
+    public void testSelect_AfterCommit_Sticky() {
+        node.setReadReplicas(new ReadReplicaPool(Arrays.<DataSource>asList(replica1, replica2),
+                ReadReplicaPool.Balancing.ROUND_ROBIN, 60000));
+
+        Artist a3 = context.newObject(Artist.class);
+        a3.setArtistName("a3");
+        context.commitChanges();
+
+        assertEquals(3, ObjectSelect.query(Artist.class).select(context).size());
+        assertEquals(0, replica1.connections.get() + replica2.connections.get());
+    }
+
+    @Test
+    public void testSelect_InTransaction() {
+        node.setReadReplicas(new ReadReplicaPool(Arrays.<DataSource>asList(replica1, replica2),
+                ReadReplicaPool.Balancing.LEAST_BUSY, 0));
+
+        runtime.performInTransaction(() -> ObjectSelect.query(Artist.class).select(context));
+        assertEquals(0, replica1.connections.get() + replica2.connections.get());
+
+        ObjectSelect.query(Artist.class).select(context);
+        assertEquals(1, replica1.connections.get() + replica2.connections.get());
+    }
+
+    static class CountingDataSource implements DataSource {
+
+        final DataSource delegate;
+        final AtomicInteger connections;
+
+        CountingDataSource(DataSource delegate) {
+            this.delegate = delegate;
+            this.connections = new AtomicInteger();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet();
+            return delegate.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            connections.incrementAndGet();
+            return delegate.getConnection(username, password);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return delegate.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            delegate.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            delegate.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return delegate.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return delegate.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return delegate.isWrapperFor(iface);
+        }
+    }
+}
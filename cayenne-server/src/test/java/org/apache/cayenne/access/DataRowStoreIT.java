@@ -23,6 +23,7 @@ import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.metrics.MetricsCollector;
 import org.apache.cayenne.testdo.testmap.Artist;
 import org.apache.cayenne.unit.di.server.CayenneProjects;
 import org.apache.cayenne.unit.di.server.ServerCase;
@@ -38,6 +39,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * We pass null as EventManager parameter, as having it not null will start
@@ -123,4 +126,38 @@ public class DataRowStoreIT extends ServerCase {
         assertNotNull(cache.getCachedSnapshot(key3));
         assertNull(cache.getCachedSnapshot(key1));
     }
+
+    @Test
+    public void testEvictionMetrics() {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, String.valueOf(1));
+
+        cache = new DataRowStore(
+                "cacheXYZ",
+                new DefaultRuntimeProperties(props),
+                null);
+
+        ObjectId key1 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 1);
+        cache.processSnapshotChanges(
+                this,
+                Collections.singletonMap(key1, new DataRow(1)),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+
+        // cached snapshots survive installing the collector
+        MetricsCollector collector = mock(MetricsCollector.class);
+        cache.setMetricsCollector(collector);
+        assertNotNull(cache.getCachedSnapshot(key1));
+
+        ObjectId key2 = new ObjectId("Artist", Artist.ARTIST_ID_PK_COLUMN, 2);
+        cache.processSnapshotChanges(
+                this,
+                Collections.singletonMap(key2, new DataRow(1)),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList(),
+                Collections.<ObjectId>emptyList());
+
+        verify(collector).snapshotCacheEviction("cacheXYZ");
+    }
 }
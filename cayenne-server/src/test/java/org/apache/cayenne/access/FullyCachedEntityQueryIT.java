@@ -0,0 +1,146 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.List;
+
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.DataChannelInterceptor;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class FullyCachedEntityQueryIT extends ServerCase {
+
+    @Inject
+    private ServerRuntime runtime;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DataChannelInterceptor queryInterceptor;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private ObjEntity artistEntity;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "a1");
+        tArtist.insert(2, "b2");
+        tArtist.insert(3, "a3");
+
+        artistEntity = runtime.getDataDomain().getEntityResolver().getObjEntity(Artist.class);
+        artistEntity.setFullyCached(true);
+    }
+
+    @After
+    public void after() {
+        artistEntity.setFullyCached(false);
+        runtime.getDataDomain().getSharedSnapshotCache().clear();
+    }
+
+    @Test
+    public void testSelect_FromMemory() {
+
+        // first query loads the entity
+        assertEquals(3, ObjectSelect.query(Artist.class).select(context).size());
+        assertNotNull(runtime.getDataDomain().getSharedSnapshotCache().getFullyCachedRows("Artist"));
+
+        queryInterceptor.runWithQueriesBlocked(() -> {
+            List<Artist> artists = ObjectSelect.query(Artist.class)
+                    .where(Artist.ARTIST_NAME.like("a%"))
+                    .orderBy(Artist.ARTIST_NAME.desc())
+                    .select(context);
+
+            assertEquals(2, artists.size());
+            assertEquals("a3", artists.get(0).getArtistName());
+            assertEquals("a1", artists.get(1).getArtistName());
+        });
+    }
+
+    @Test
+    public void testSelect_LimitOffset() {
+
+        assertEquals(3, ObjectSelect.query(Artist.class).select(context).size());
+
+        queryInterceptor.runWithQueriesBlocked(() -> {
+            List<Artist> artists = ObjectSelect.query(Artist.class)
+                    .orderBy(Artist.ARTIST_NAME.asc())
+                    .offset(1)
+                    .limit(1)
+                    .select(context);
+
+            assertEquals(1, artists.size());
+            assertEquals("a3", artists.get(0).getArtistName());
+        });
+    }
+
+    @Test
+    public void testSelect_AfterCommit() {
+
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(context);
+        assertEquals(3, artists.size());
+
+        Artist inserted = context.newObject(Artist.class);
+        inserted.setArtistName("a4");
+        artists.get(0).setArtistName("x1");
+        context.deleteObject(artists.get(1));
+        context.commitChanges();
+
+        queryInterceptor.runWithQueriesBlocked(() -> {
+            List<Artist> matched = ObjectSelect.query(Artist.class)
+                    .orderBy(Artist.ARTIST_NAME.asc())
+                    .select(context);
+
+            assertEquals(3, matched.size());
+            assertEquals("a3", matched.get(0).getArtistName());
+            assertEquals("a4", matched.get(1).getArtistName());
+            assertEquals("x1", matched.get(2).getArtistName());
+        });
+    }
+
+    @Test
+    public void testSelect_RelationshipQualifier_GoesToDb() {
+
+        assertEquals(3, ObjectSelect.query(Artist.class).select(context).size());
+
+        int queries = queryInterceptor.runWithQueryCounter(() -> ObjectSelect.query(Artist.class)
+                .where(Artist.PAINTING_ARRAY.isNotNull())
+                .select(context));
+        assertEquals(1, queries);
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cayenne.access;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.apache.cayenne.ObjectId;
@@ -27,10 +28,13 @@ import org.apache.cayenne.Persistent;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @since 4.0
@@ -68,4 +72,33 @@ public class ObjectStoreTest {
         verify(object, times(0)).setObjectId(null);
         verify(object).setObjectContext(null);
         verify(object).setPersistenceState(PersistenceState.TRANSIENT);    }
+
+    @Test
+    public void testNextObjectsOfEntity() {
+
+        // the index is built on first use, after that objects are queued in the
+        // registration order
+        assertTrue(objectStore.nextObjectsOfEntity("E1", 2).isEmpty());
+
+        Persistent o1 = registerMock(new ObjectId("E1", "ID", 1));
+        Persistent o2 = registerMock(new ObjectId("E1", "ID", 2));
+        registerMock(new ObjectId("E2", "ID", 1));
+        Persistent o3 = registerMock(new ObjectId("E1", "ID", 3));
+
+        assertEquals(Arrays.asList(o1, o2), objectStore.nextObjectsOfEntity("E1", 2));
+        assertEquals(Arrays.asList(o3, o1), objectStore.nextObjectsOfEntity("E1", 2));
+
+        objectStore.unregisterNode(o2.getObjectId());
+        Persistent o4 = registerMock(new ObjectId("E1", "ID", 4));
+        assertEquals(Arrays.asList(o3, o1, o4), objectStore.nextObjectsOfEntity("E1", 5));
+
+        assertTrue(objectStore.nextObjectsOfEntity("E3", 5).isEmpty());
+    }
+
+    private Persistent registerMock(ObjectId id) {
+        Persistent object = mock(Persistent.class);
+        when(object.getObjectId()).thenReturn(id);
+        objectStore.registerNode(id, object);
+        return object;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ReadReplicaPoolTest {
+
+    private ReadReplicaPool createPool(ReadReplicaPool.Balancing balancing, long stickiness) {
+        return new ReadReplicaPool(Arrays.asList(mock(DataSource.class), mock(DataSource.class), mock(DataSource.class)),
+                balancing, stickiness);
+    }
+
+    @Test
+    public void testAcquire_RoundRobin() {
+        ReadReplicaPool pool = createPool(ReadReplicaPool.Balancing.ROUND_ROBIN, 0);
+
+        assertEquals(0, pool.acquire());
+        assertEquals(1, pool.acquire());
+        assertEquals(2, pool.acquire());
+        assertEquals(0, pool.acquire());
+    }
+
+    @Test
+    public void testAcquire_LeastBusy() {
+        ReadReplicaPool pool = createPool(ReadReplicaPool.Balancing.LEAST_BUSY, 0);
+
+        int r1 = pool.acquire();
+        int r2 = pool.acquire();
+        int r3 = pool.acquire();
+        assertEquals(3, Arrays.asList(r1, r2, r3).stream().distinct().count());
+
+        pool.acquire();
+        pool.release(r2);
+
+        // r2 is the only idle replica now
+        assertEquals(r2, pool.acquire());
+    }
+
+    @Test
+    public void testSticky() {
+        ReadReplicaPool pool = createPool(ReadReplicaPool.Balancing.ROUND_ROBIN, 60000);
+        assertFalse(pool.isSticky());
+
+        pool.writePerformed();
+        assertTrue(pool.isSticky());
+    }
+
+    @Test
+    public void testSticky_Disabled() {
+        ReadReplicaPool pool = createPool(ReadReplicaPool.Balancing.ROUND_ROBIN, 0);
+
+        pool.writePerformed();
+        assertFalse(pool.isSticky());
+    }
+}
@@ -0,0 +1,308 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.util.DefaultOperationObserver;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.BatchQuery;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.DeleteBatchQuery;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.query.SortOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedDataNodeTest {
+
+    private DbEntity artist;
+    private DbEntity genre;
+    private StubShard shard0;
+    private StubShard shard1;
+    private ShardedDataNode node;
+
+    @Before
+    public void before() {
+        DataMap map = new DataMap("m");
+
+        artist = new DbEntity("ARTIST");
+        DbAttribute id = new DbAttribute("ARTIST_ID", Types.BIGINT, artist);
+        id.setPrimaryKey(true);
+        artist.addAttribute(id);
+        artist.addAttribute(new DbAttribute("NAME", Types.VARCHAR, artist));
+        map.addDbEntity(artist);
+
+        genre = new DbEntity("GENRE");
+        DbAttribute genreId = new DbAttribute("GENRE_ID", Types.BIGINT, genre);
+        genreId.setPrimaryKey(true);
+        genre.addAttribute(genreId);
+        map.addDbEntity(genre);
+
+        shard0 = new StubShard("shard0", map);
+        shard1 = new StubShard("shard1", map);
+
+        node = new ShardedDataNode("sharded", Arrays.<DataNode>asList(shard0, shard1));
+        node.setEntityResolver(new EntityResolver(Collections.singleton(map)));
+        node.setShardKey("ARTIST", "ARTIST_ID");
+    }
+
+    @After
+    public void after() {
+        node.shutdown();
+    }
+
+    @Test
+    public void testDefaultShardFunction() {
+        assertEquals(1, node.getShardIndex("ARTIST", 5));
+        assertEquals(1, node.getShardIndex("ARTIST", 5L));
+        assertEquals(0, node.getShardIndex("ARTIST", -4));
+        assertEquals(Math.floorMod("a".hashCode(), 2), node.getShardIndex("ARTIST", "a"));
+    }
+
+    @Test
+    public void testSelect_ByShardKey() {
+        shard1.rows.add(row(5, "a5"));
+
+        SelectQuery<DataRow> query = new SelectQuery<>(artist, ExpressionFactory.matchDbExp("ARTIST_ID", 5));
+        List<?> result = select(query);
+
+        assertEquals(1, result.size());
+        assertTrue(shard0.queries.isEmpty());
+        assertEquals(Collections.singletonList(query), shard1.queries);
+    }
+
+    @Test
+    public void testSelect_ByShardKeyInAnd() {
+        SelectQuery<DataRow> query = new SelectQuery<>(artist, ExpressionFactory.matchDbExp("ARTIST_ID", 4)
+                .andExp(ExpressionFactory.matchDbExp("NAME", "a4")));
+        select(query);
+
+        assertEquals(1, shard0.queries.size());
+        assertTrue(shard1.queries.isEmpty());
+    }
+
+    @Test
+    public void testSelect_ByShardKeyIn_Merged() {
+        shard0.rows.add(row(2, "c"));
+        shard0.rows.add(row(4, "a"));
+        shard1.rows.add(row(3, "b"));
+
+        SelectQuery<DataRow> query = new SelectQuery<>(artist, ExpressionFactory.inDbExp("ARTIST_ID", 2, 3, 4));
+        query.addOrdering(new Ordering("db:NAME", SortOrder.ASCENDING));
+        List<?> result = select(query);
+
+        assertEquals(Arrays.asList(row(4, "a"), row(3, "b"), row(2, "c")), result);
+        assertEquals(1, shard0.queries.size());
+        assertEquals(1, shard1.queries.size());
+    }
+
+    @Test
+    public void testSelect_AllShards_OffsetLimit() {
+        shard0.rows.add(row(2, "b"));
+        shard0.rows.add(row(4, "d"));
+        shard1.rows.add(row(1, "a"));
+        shard1.rows.add(row(3, "c"));
+
+        SelectQuery<DataRow> query = new SelectQuery<>(artist);
+        query.addOrdering(new Ordering("db:NAME", SortOrder.DESCENDING));
+        query.setFetchOffset(1);
+        query.setFetchLimit(2);
+        List<?> result = select(query);
+
+        assertEquals(Arrays.asList(row(3, "c"), row(2, "b")), result);
+
+        // each shard is asked for "offset + limit" rows
+        SelectQuery<?> shardQuery = (SelectQuery<?>) shard0.queries.get(0);
+        assertEquals(0, shardQuery.getFetchOffset());
+        assertEquals(3, shardQuery.getFetchLimit());
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testSelect_AllShards_UnsupportedOrdering() {
+        SelectQuery<DataRow> query = new SelectQuery<>(artist);
+        query.addOrdering(new Ordering("db:toPaintings.NAME", SortOrder.ASCENDING));
+        select(query);
+    }
+
+    @Test
+    public void testSelect_ReferenceTable() {
+        select(new SelectQuery<>(genre));
+
+        assertEquals(1, shard0.queries.size());
+        assertTrue(shard1.queries.isEmpty());
+    }
+
+    @Test
+    public void testOtherQueries_FirstShard() {
+        SQLTemplate query = new SQLTemplate(artist, "SELECT 1");
+        node.performQueries(Collections.singletonList(query), new DefaultOperationObserver());
+
+        assertEquals(Collections.singletonList(query), shard0.queries);
+        assertTrue(shard1.queries.isEmpty());
+    }
+
+    @Test
+    public void testInsertBatch_SplitByShardKey() {
+        InsertBatchQuery insert = new InsertBatchQuery(artist, 3);
+        insert.add(snapshot(1, "a"));
+        insert.add(snapshot(2, "b"));
+        insert.add(snapshot(3, "c"));
+
+        node.performQueries(Collections.singletonList(insert), new DefaultOperationObserver());
+
+        assertEquals(Collections.singletonList(2L), batchKeys(shard0, 0));
+        assertEquals(Arrays.asList(1L, 3L), batchKeys(shard1, 0));
+    }
+
+    @Test
+    public void testDeleteBatch_SplitByShardKey() {
+        List<DbAttribute> qualifier = Collections.singletonList(artist.getAttribute("ARTIST_ID"));
+        DeleteBatchQuery delete = new DeleteBatchQuery(artist, qualifier, Collections.<String>emptySet(), 2);
+        delete.add(Collections.<String, Object>singletonMap("ARTIST_ID", 6L));
+        delete.add(Collections.<String, Object>singletonMap("ARTIST_ID", 7L));
+
+        node.performQueries(Collections.singletonList(delete), new DefaultOperationObserver());
+
+        assertEquals(Collections.singletonList(6L), batchKeys(shard0, 0));
+        assertEquals(Collections.singletonList(7L), batchKeys(shard1, 0));
+    }
+
+    @Test
+    public void testInsertBatch_ReferenceTable() {
+        InsertBatchQuery insert = new InsertBatchQuery(genre, 1);
+        insert.add(Collections.<String, Object>singletonMap("GENRE_ID", 1L));
+
+        node.performQueries(Collections.singletonList(insert), new DefaultOperationObserver());
+
+        assertSame(insert, shard0.queries.get(0));
+        assertSame(insert, shard1.queries.get(0));
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testInsertBatch_NoShardKey() {
+        InsertBatchQuery insert = new InsertBatchQuery(artist, 1);
+        insert.add(Collections.<String, Object>singletonMap("NAME", "a"), new ObjectId("Artist"));
+
+        node.performQueries(Collections.singletonList(insert), new DefaultOperationObserver());
+    }
+
+    private List<?> select(SelectQuery<?> query) {
+        List<List<?>> results = new ArrayList<>();
+        DefaultOperationObserver observer = new DefaultOperationObserver() {
+            @Override
+            public void nextRows(Query q, List<?> dataRows) {
+                assertSame(query, q);
+                results.add(dataRows);
+            }
+
+            @Override
+            public void nextQueryException(Query q, Exception ex) {
+                throw ex instanceof CayenneRuntimeException
+                        ? (CayenneRuntimeException) ex
+                        : new CayenneRuntimeException(ex);
+            }
+        };
+
+        node.performQueries(Collections.singletonList(query), observer);
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    private static DataRow row(long id, String name) {
+        DataRow row = new DataRow(2);
+        row.put("ARTIST_ID", id);
+        row.put("NAME", name);
+        return row;
+    }
+
+    private static Map<String, Object> snapshot(long id, String name) {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("ARTIST_ID", id);
+        snapshot.put("NAME", name);
+        return snapshot;
+    }
+
+    private static List<Object> batchKeys(StubShard shard, int queryIndex) {
+        BatchQuery batch = (BatchQuery) shard.queries.get(queryIndex);
+        int keyIndex = batch.getDbAttributes().indexOf(batch.getDbEntity().getAttribute("ARTIST_ID"));
+
+        List<Object> keys = new ArrayList<>();
+        for (BatchQueryRow row : batch.getRows()) {
+            keys.add(row.getValue(keyIndex));
+        }
+        return keys;
+    }
+
+    // a shard that records the queries and returns canned rows for selects
+    static class StubShard extends DataNode {
+
+        final List<Query> queries = Collections.synchronizedList(new ArrayList<>());
+        final List<DataRow> rows = new ArrayList<>();
+
+        StubShard(String name, DataMap map) {
+            super(name);
+            addDataMap(map);
+        }
+
+        @Override
+        public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+            for (Query query : queries) {
+                this.queries.add(query);
+
+                if (query instanceof SelectQuery) {
+                    SelectQuery<?> select = (SelectQuery<?>) query;
+                    List<DataRow> result = new ArrayList<>(rows);
+                    Ordering.orderList(result, Arrays.asList(new Ordering("db:NAME", select.getOrderings().isEmpty()
+                            ? SortOrder.ASCENDING
+                            : select.getOrderings().get(0).getSortOrder())));
+
+                    if (select.getFetchLimit() > 0 && result.size() > select.getFetchLimit()) {
+                        result = result.subList(0, select.getFetchLimit());
+                    }
+
+                    callback.nextRows(query, result);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.event.CayenneEvent;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.apache.cayenne.event.EventBridge;
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotEventCoalescingTest {
+
+    private DefaultEventManager eventManager;
+    private DataRowStore store;
+    private List<CayenneEvent> sentEvents;
+
+    @After
+    public void after() {
+        if (store != null) {
+            store.shutdown();
+        }
+
+        if (eventManager != null) {
+            eventManager.shutdown();
+        }
+    }
+
+    private void createStore(long window, int maxIds) {
+        Map<String, String> props = new HashMap<>();
+        props.put(Constants.SNAPSHOT_EVENT_COALESCING_WINDOW_PROPERTY, String.valueOf(window));
+        props.put(Constants.SNAPSHOT_EVENT_COALESCING_MAX_IDS_PROPERTY, String.valueOf(maxIds));
+
+        eventManager = new DefaultEventManager();
+        store = new DataRowStore("cacheXYZ", new DefaultRuntimeProperties(props), eventManager);
+        sentEvents = new CopyOnWriteArrayList<>();
+
+        store.setEventBridge(new EventBridge(store.getSnapshotEventSubject(), "cacheXYZ") {
+
+            @Override
+            protected void startupExternal() {
+            }
+
+            @Override
+            protected void shutdownExternal() {
+            }
+
+            @Override
+            protected void sendExternalEvent(CayenneEvent localEvent) {
+                sentEvents.add(localEvent);
+            }
+        });
+        store.startListeners();
+    }
+
+    @Test
+    public void testCoalesceWithinWindow() throws Exception {
+        createStore(100, 1000);
+
+        ObjectId id1 = new ObjectId("Artist", "ARTIST_ID", 1);
+        ObjectId id2 = new ObjectId("Artist", "ARTIST_ID", 2);
+        ObjectId id3 = new ObjectId("Artist", "ARTIST_ID", 3);
+
+        DataRow row = new DataRow(2);
+        row.put("ARTIST_NAME", "a");
+        row.put("DATE_OF_BIRTH", null);
+        store.processSnapshotChanges(this, Collections.singletonMap(id1, row),
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+        row = update(row, "ARTIST_NAME", "b");
+        store.processSnapshotChanges(this, Collections.singletonMap(id1, row),
+                Collections.singletonList(id2), Collections.emptyList(), Collections.emptyList());
+
+        row = update(row, "ARTIST_NAME", "c");
+        store.processSnapshotChanges(this, Collections.singletonMap(id1, row),
+                Collections.emptyList(), Collections.singletonList(id3), Collections.singletonList(id2));
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertEquals(1, sentEvents.size());
+            }
+        }.runTest(5000);
+
+        SnapshotEvent event = (SnapshotEvent) sentEvents.get(0);
+        assertEquals(store.getSnapshotEventSubject(), event.getSubject());
+        assertEquals(Collections.singleton(id1), event.getModifiedDiffs().keySet());
+        assertEquals("c", event.getModifiedDiffs().get(id1).get("ARTIST_NAME"));
+        assertEquals(Collections.singletonList(id2), new ArrayList<>(event.getDeletedIds()));
+        assertEquals(Collections.singletonList(id3), new ArrayList<>(event.getInvalidatedIds()));
+        assertTrue(event.getIndirectlyModifiedIds().isEmpty());
+    }
+
+    @Test
+    public void testFlushOnMaxIds() throws Exception {
+        createStore(60000, 2);
+
+        ObjectId id1 = new ObjectId("Artist", "ARTIST_ID", 1);
+        ObjectId id2 = new ObjectId("Artist", "ARTIST_ID", 2);
+
+        store.processSnapshotChanges(this, Collections.emptyMap(),
+                Collections.singletonList(id1), Collections.emptyList(), Collections.emptyList());
+        store.processSnapshotChanges(this, Collections.emptyMap(),
+                Collections.singletonList(id2), Collections.emptyList(), Collections.emptyList());
+
+        new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertEquals(1, sentEvents.size());
+            }
+        }.runTest(5000);
+
+        assertEquals(2, ((SnapshotEvent) sentEvents.get(0)).getDeletedIds().size());
+    }
+
+    private DataRow update(DataRow row, String key, Object value) {
+        DataRow updated = new DataRow(row);
+        updated.put(key, value);
+        updated.setReplacesVersion(row.getVersion());
+        return updated;
+    }
+}
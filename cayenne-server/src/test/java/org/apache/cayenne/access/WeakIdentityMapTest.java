@@ -0,0 +1,51 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WeakIdentityMapTest {
+
+    @Test
+    public void testIdentityKeys() {
+        WeakIdentityMap<String, Integer> map = new WeakIdentityMap<>();
+
+        String k1 = new String("k");
+        String k2 = new String("k");
+
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent(k1, k -> 1));
+        assertNull(map.get(k2));
+        assertEquals(Integer.valueOf(2), map.computeIfAbsent(k2, k -> 2));
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent(k1, k -> 3));
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(map.get(k1), map.get(k2)));
+
+        assertEquals(Integer.valueOf(1), map.remove(k1));
+        assertNull(map.get(k1));
+        assertEquals(Integer.valueOf(2), map.get(k2));
+
+        map.remove(k2);
+        assertTrue(map.isEmpty());
+    }
+}
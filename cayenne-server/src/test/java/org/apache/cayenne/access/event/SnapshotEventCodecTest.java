@@ -0,0 +1,171 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+
+package org.apache.cayenne.access.event;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.event.CayenneEvent;
+import org.apache.cayenne.event.EventSubject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotEventCodecTest {
+
+    private static final EventSubject SUBJECT = EventSubject.getSubject(SnapshotEventCodecTest.class, "test");
+
+    private SnapshotEvent createEvent() {
+        Map<ObjectId, DataRow> modified = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            DataRow diff = new DataRow(4);
+            diff.put("NAME", "name" + i);
+            diff.put("PRICE", new BigDecimal("1.5" + i));
+            diff.put("UPDATED", new Timestamp(1500000000000L + i));
+            diff.put("DATA", new byte[]{1, 2, (byte) i});
+            modified.put(new ObjectId("Painting", "PAINTING_ID", i), diff);
+        }
+
+        Map<String, Object> compoundPk = new HashMap<>();
+        compoundPk.put("KEY1", 5L);
+        compoundPk.put("KEY2", "x");
+
+        Collection<ObjectId> deleted = new ArrayList<>();
+        deleted.add(new ObjectId("Artist", "ARTIST_ID", -3L));
+        deleted.add(new ObjectId("Compound", compoundPk));
+
+        Collection<ObjectId> invalidated = Collections.singletonList(new ObjectId("Artist", "ARTIST_ID", 7L));
+        Collection<ObjectId> related = Collections.singletonList(new ObjectId("Gallery", "GALLERY_ID", 1));
+
+        SnapshotEvent event = new SnapshotEvent(this, this, modified, deleted, invalidated, related);
+        event.setSubject(SUBJECT);
+        return event;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        SnapshotEvent event = createEvent();
+
+        SnapshotEventCodec codec = new SnapshotEventCodec();
+        SnapshotEvent decoded = (SnapshotEvent) codec.decode(codec.encode(event));
+
+        assertSame(SUBJECT, decoded.getSubject());
+        assertNotNull(decoded.getSource());
+        assertEquals(event.getTimestamp(), decoded.getTimestamp());
+        assertEquals(new ArrayList<>(event.getDeletedIds()), decoded.getDeletedIds());
+        assertEquals(new ArrayList<>(event.getInvalidatedIds()), decoded.getInvalidatedIds());
+        assertEquals(new ArrayList<>(event.getIndirectlyModifiedIds()), decoded.getIndirectlyModifiedIds());
+
+        assertEquals(event.getModifiedDiffs().keySet(), decoded.getModifiedDiffs().keySet());
+        for (Map.Entry<ObjectId, DataRow> e : event.getModifiedDiffs().entrySet()) {
+            DataRow expected = e.getValue();
+            DataRow actual = decoded.getModifiedDiffs().get(e.getKey());
+
+            assertEquals(expected.get("NAME"), actual.get("NAME"));
+            assertEquals(expected.get("PRICE"), actual.get("PRICE"));
+            assertEquals(expected.get("UPDATED"), actual.get("UPDATED"));
+            assertArrayEquals((byte[]) expected.get("DATA"), (byte[]) actual.get("DATA"));
+        }
+    }
+
+    @Test
+    public void testIdsOnly() throws Exception {
+        SnapshotEvent event = createEvent();
+
+        SnapshotEventCodec codec = new SnapshotEventCodec.IdsOnly();
+        SnapshotEvent decoded = (SnapshotEvent) codec.decode(codec.encode(event));
+
+        assertTrue(decoded.getModifiedDiffs().isEmpty());
+        assertEquals(21, decoded.getInvalidatedIds().size());
+        assertTrue(decoded.getInvalidatedIds().containsAll(event.getModifiedDiffs().keySet()));
+        assertTrue(decoded.getInvalidatedIds().containsAll(event.getInvalidatedIds()));
+        assertEquals(2, decoded.getDeletedIds().size());
+    }
+
+    @Test
+    public void testSmallerThanSerialization() throws Exception {
+        SnapshotEvent event = createEvent();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+
+        byte[] encoded = new SnapshotEventCodec().encode(event);
+        assertTrue(encoded.length * 3 < bytes.size());
+    }
+
+    @Test
+    public void testLegacySerializedMessage() throws Exception {
+        SnapshotEvent event = createEvent();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+
+        CayenneEvent decoded = new SnapshotEventCodec().decode(bytes.toByteArray());
+        assertEquals(event.getModifiedDiffs().keySet(), ((SnapshotEvent) decoded).getModifiedDiffs().keySet());
+    }
+
+    @Test
+    public void testOtherEventTypes() throws Exception {
+        CayenneEvent event = new CayenneEvent("source");
+        event.setSubject(SUBJECT);
+
+        SnapshotEventCodec codec = new SnapshotEventCodec();
+        CayenneEvent decoded = codec.decode(codec.encode(event));
+        assertEquals(CayenneEvent.class, decoded.getClass());
+        assertEquals(SUBJECT, decoded.getSubject());
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testUnsupportedVersion() throws Exception {
+        SnapshotEventCodec codec = new SnapshotEventCodec();
+        byte[] encoded = codec.encode(createEvent());
+        encoded[2] = (byte) (SnapshotEventCodec.FORMAT_VERSION + 1);
+        codec.decode(encoded);
+    }
+
+    @Test
+    public void testTemporaryIds() throws Exception {
+        List<ObjectId> deleted = Collections.singletonList(new ObjectId("Artist"));
+        SnapshotEvent event = new SnapshotEvent(this, this, null, deleted, null, null);
+
+        SnapshotEventCodec codec = new SnapshotEventCodec();
+        SnapshotEvent decoded = (SnapshotEvent) codec.decode(codec.encode(event));
+        assertEquals(deleted, new ArrayList<>(decoded.getDeletedIds()));
+    }
+}
@@ -0,0 +1,83 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.ashwood;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class AshwoodEntitySorterTest {
+
+    @Test
+    public void testSortTopologically_NoArcs() {
+        int[] order = AshwoodEntitySorter.sortTopologically(3, new int[0], new int[0], 0);
+        assertArrayEquals(new int[]{0, 1, 2}, order);
+    }
+
+    @Test
+    public void testSortTopologically_Chain() {
+
+        // 3 -> 2 -> 1 -> 0
+        int[] masters = {3, 2, 1};
+        int[] dependents = {2, 1, 0};
+
+        int[] order = AshwoodEntitySorter.sortTopologically(4, masters, dependents, 3);
+        assertArrayEquals(new int[]{3, 2, 1, 0}, order);
+    }
+
+    @Test
+    public void testSortTopologically_Tree() {
+
+        // 4 -> 0, 4 -> 2, 0 -> 1, 2 -> 3
+        int[] masters = {4, 0, 4, 2};
+        int[] dependents = {0, 1, 2, 3};
+
+        int[] order = AshwoodEntitySorter.sortTopologically(5, masters, dependents, 4);
+        assertArrayEquals(new int[]{4, 0, 2, 1, 3}, order);
+    }
+
+    @Test
+    public void testSortTopologically_DeepChain() {
+
+        int size = 100000;
+        int[] masters = new int[size - 1];
+        int[] dependents = new int[size - 1];
+        int[] expected = new int[size];
+
+        // each object depends on the next one in the list
+        for (int i = 0; i < size - 1; i++) {
+            masters[i] = i + 1;
+            dependents[i] = i;
+        }
+
+        for (int i = 0; i < size; i++) {
+            expected[i] = size - 1 - i;
+        }
+
+        assertArrayEquals(expected, AshwoodEntitySorter.sortTopologically(size, masters, dependents, size - 1));
+    }
+
+    @Test
+    public void testSortTopologically_Cycle() {
+        int[] masters = {0, 1};
+        int[] dependents = {1, 0};
+        assertNull(AshwoodEntitySorter.sortTopologically(3, masters, dependents, 2));
+    }
+}
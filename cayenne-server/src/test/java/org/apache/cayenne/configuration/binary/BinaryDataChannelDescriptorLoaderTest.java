@@ -0,0 +1,168 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.binary;
+
+import org.apache.cayenne.configuration.ConfigurationNameMapper;
+import org.apache.cayenne.configuration.ConfigurationTree;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.DataMapLoader;
+import org.apache.cayenne.configuration.DefaultConfigurationNameMapper;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.configuration.xml.DataChannelMetaData;
+import org.apache.cayenne.configuration.xml.DefaultHandlerFactory;
+import org.apache.cayenne.configuration.xml.HandlerFactory;
+import org.apache.cayenne.configuration.xml.NoopDataChannelMetaData;
+import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.xml.XMLDataMapLoader;
+import org.apache.cayenne.configuration.xml.XMLReaderProvider;
+import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.ClassLoaderManager;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.di.spi.DefaultAdhocObjectFactory;
+import org.apache.cayenne.di.spi.DefaultClassLoaderManager;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.URLResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class BinaryDataChannelDescriptorLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private XMLDataChannelDescriptorLoader xmlLoader;
+    private File projectFile;
+
+    @Before
+    public void setUp() throws Exception {
+        Injector injector = DIBootstrap.createInjector(binder -> {
+            binder.bind(ClassLoaderManager.class).to(DefaultClassLoaderManager.class);
+            binder.bind(AdhocObjectFactory.class).to(DefaultAdhocObjectFactory.class);
+            binder.bind(DataMapLoader.class).to(XMLDataMapLoader.class);
+            binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class);
+            binder.bind(HandlerFactory.class).to(DefaultHandlerFactory.class);
+            binder.bind(DataChannelMetaData.class).to(NoopDataChannelMetaData.class);
+            binder.bind(XMLReader.class).toProviderInstance(new XMLReaderProvider(false)).withoutScope();
+        });
+
+        xmlLoader = new XMLDataChannelDescriptorLoader();
+        injector.injectMembers(xmlLoader);
+
+        projectFile = copy("cayenne-testmap.xml");
+        copy("testmap.map.xml");
+    }
+
+    private File copy(String name) throws Exception {
+        File file = new File(folder.getRoot(), name);
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+            Files.copy(in, file.toPath());
+        }
+        return file;
+    }
+
+    private URLResource projectResource() throws Exception {
+        return new URLResource(projectFile.toURI().toURL());
+    }
+
+    private void writeBinary() throws Exception {
+        DataChannelDescriptor descriptor = xmlLoader.load(projectResource()).getRootNode();
+        File binary = new BinaryDataChannelDescriptorWriter().write(descriptor, folder.getRoot());
+        assertEquals("cayenne-testmap.bin", binary.getName());
+    }
+
+    private BinaryDataChannelDescriptorLoader binaryLoader(DataChannelDescriptorLoader delegate, boolean enabled) {
+        return new BinaryDataChannelDescriptorLoader(delegate, new DefaultRuntimeProperties(
+                Collections.singletonMap(Constants.SERVER_BINARY_MODEL_PROPERTY, String.valueOf(enabled))));
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        writeBinary();
+
+        DataChannelDescriptorLoader delegate = mock(DataChannelDescriptorLoader.class);
+        ConfigurationTree<DataChannelDescriptor> tree = binaryLoader(delegate, true).load(projectResource());
+        verify(delegate, never()).load(any());
+
+        DataChannelDescriptor descriptor = tree.getRootNode();
+        DataChannelDescriptor expected = xmlLoader.load(projectResource()).getRootNode();
+        assertEquals(expected.getName(), descriptor.getName());
+        assertNotNull(descriptor.getConfigurationSource());
+
+        DataMap map = descriptor.getDataMap("testmap");
+        DataMap expectedMap = expected.getDataMap("testmap");
+        assertNotNull(map);
+        assertSame(descriptor, map.getDataChannelDescriptor());
+        assertNotNull(map.getConfigurationSource());
+        assertEquals(expectedMap.getDbEntities().size(), map.getDbEntities().size());
+        assertEquals(expectedMap.getObjEntities().size(), map.getObjEntities().size());
+        assertEquals(expectedMap.getQueryDescriptors().size(), map.getQueryDescriptors().size());
+        assertNotNull(map.getObjEntity("Artist").getRelationship("paintingArray"));
+    }
+
+    @Test
+    public void testLoad_NoBinary() throws Exception {
+        ConfigurationTree<DataChannelDescriptor> tree = binaryLoader(xmlLoader, true).load(projectResource());
+        assertNotNull(tree.getRootNode().getDataMap("testmap"));
+    }
+
+    @Test
+    public void testLoad_Stale() throws Exception {
+        writeBinary();
+
+        // change one of the sources
+        try (FileWriter out = new FileWriter(new File(folder.getRoot(), "testmap.map.xml"), true)) {
+            out.write("\n");
+        }
+
+        BinaryDataChannelDescriptorLoader loader = binaryLoader(xmlLoader, true);
+        assertNull(loader.loadBinary(projectResource()));
+        assertNotNull(loader.load(projectResource()).getRootNode().getDataMap("testmap"));
+    }
+
+    @Test
+    public void testLoad_Disabled() throws Exception {
+        writeBinary();
+
+        DataChannelDescriptorLoader delegate = mock(DataChannelDescriptorLoader.class);
+        URLResource resource = projectResource();
+        binaryLoader(delegate, false).load(resource);
+        verify(delegate).load(resource);
+    }
+}
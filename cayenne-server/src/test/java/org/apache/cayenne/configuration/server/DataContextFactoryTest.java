@@ -47,6 +47,8 @@ import org.apache.cayenne.event.MockEventManager;
 import org.apache.cayenne.event.NoopEventBridgeProvider;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.log.Slf4jJdbcEventLogger;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.tx.DefaultTransactionFactory;
 import org.apache.cayenne.tx.DefaultTransactionManager;
 import org.apache.cayenne.tx.TransactionFactory;
@@ -66,6 +68,7 @@ public class DataContextFactoryTest {
 
 		Module testModule = binder -> {
 			binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+			binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
 			binder.bind(DataDomain.class).toInstance(domain);
 			binder.bind(EventManager.class).toInstance(eventManager);
 			binder.bind(QueryCache.class).toInstance(new MapQueryCache(5));
@@ -100,6 +103,7 @@ public class DataContextFactoryTest {
 
 		Module testModule = binder -> {
 			binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+			binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
 			binder.bind(DataDomain.class).toInstance(domain);
 			binder.bind(EventManager.class).toInstance(eventManager);
 			binder.bind(QueryCache.class).toInstance(new MapQueryCache(5));
@@ -113,6 +113,8 @@ import org.apache.cayenne.log.Slf4jJdbcEventLogger;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntitySorter;
 import org.apache.cayenne.map.LifecycleEvent;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.resource.ClassLoaderResourceLocator;
 import org.apache.cayenne.resource.Resource;
 import org.apache.cayenne.resource.ResourceLocator;
@@ -203,6 +205,7 @@ public class DataDomainProviderTest {
             ServerModule.contributeDomainSyncFilters(binder);
             ServerModule.contributeDomainListeners(binder).add(mockListener);
             ServerModule.contributeProjectLocations(binder).add(testConfigName);
+            ServerModule.contributeReadReplicas(binder);
 
             binder.bind(PkGenerator.class).to(JdbcPkGenerator.class);
             binder.bind(PkGeneratorFactoryProvider.class).to(PkGeneratorFactoryProvider.class);
@@ -255,6 +258,7 @@ public class DataDomainProviderTest {
 
             binder.bind(DataSourceFactory.class).toInstance(new MockDataSourceFactory());
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
             binder.bind(QueryCache.class).toInstance(mock(QueryCache.class));
             binder.bind(RowReaderFactory.class).toInstance(mock(RowReaderFactory.class));
             binder.bind(DataNodeFactory.class).to(DefaultDataNodeFactory.class);
@@ -34,6 +34,8 @@ import org.apache.cayenne.di.spi.DefaultAdhocObjectFactory;
 import org.apache.cayenne.di.spi.DefaultClassLoaderManager;
 import org.apache.cayenne.log.Slf4jJdbcEventLogger;
 import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.resource.ResourceLocator;
 import org.apache.cayenne.resource.mock.MockResourceLocator;
 import org.junit.Before;
@@ -59,6 +61,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(mock(RuntimeProperties.class));
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
         };
 
         this.injector = DIBootstrap.createInjector(testModule);
@@ -118,6 +121,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(properties);
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
         };
 
         Injector injector = DIBootstrap.createInjector(testModule);
@@ -163,6 +167,7 @@ public class DefaultDataSourceFactoryLoaderTest {
             binder.bind(Key.get(ResourceLocator.class, Constants.SERVER_RESOURCE_LOCATOR)).to(MockResourceLocator.class);
             binder.bind(RuntimeProperties.class).toInstance(properties);
             binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+            binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
         };
 
         Injector injector = DIBootstrap.createInjector(testModule);
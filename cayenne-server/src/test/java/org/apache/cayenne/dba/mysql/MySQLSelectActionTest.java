@@ -0,0 +1,82 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dba.mysql;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MySQLSelectActionTest {
+
+	private DataNode dataNode;
+	private PreparedStatement statement;
+
+	@Before
+	public void before() {
+		dataNode = mock(DataNode.class);
+		when(dataNode.getEntityResolver()).thenReturn(new EntityResolver());
+		statement = mock(PreparedStatement.class);
+	}
+
+	@Test
+	public void testSetFetchSize_Iterated() throws Exception {
+		new MySQLSelectAction(new SelectQuery<>("Artist"), dataNode).setFetchSize(statement, observer(true, true));
+		verify(statement).setFetchSize(Integer.MIN_VALUE);
+	}
+
+	@Test
+	public void testSetFetchSize_IteratedInCallerTransaction() throws Exception {
+		// connection is shared with other queries of the transaction, so no streaming
+		new MySQLSelectAction(new SelectQuery<>("Artist"), dataNode).setFetchSize(statement, observer(true, false));
+		verify(statement, never()).setFetchSize(anyInt());
+	}
+
+	@Test
+	public void testSetFetchSize_IteratedExplicitFetchSize() throws Exception {
+		SelectQuery<Object> query = new SelectQuery<>("Artist");
+		query.setStatementFetchSize(50);
+
+		new MySQLSelectAction(query, dataNode).setFetchSize(statement, observer(true, true));
+		verify(statement).setFetchSize(50);
+	}
+
+	@Test
+	public void testSetFetchSize_NotIterated() throws Exception {
+		new MySQLSelectAction(new SelectQuery<>("Artist"), dataNode).setFetchSize(statement, observer(false, false));
+		verify(statement, never()).setFetchSize(anyInt());
+	}
+
+	private OperationObserver observer(boolean iterated, boolean dedicatedConnection) {
+		OperationObserver observer = mock(OperationObserver.class);
+		when(observer.isIteratedResult()).thenReturn(iterated);
+		when(observer.isIteratedResultOnDedicatedConnection()).thenReturn(dedicatedConnection);
+		return observer;
+	}
+}
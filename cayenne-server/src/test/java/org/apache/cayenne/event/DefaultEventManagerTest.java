@@ -24,8 +24,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Collections;
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.cayenne.test.parallel.ParallelTestContainer;
 import org.junit.After;
@@ -339,6 +341,61 @@ public class DefaultEventManagerTest implements EventListener {
 		assertFalse(eventManager.removeListener(this));
 	}
 
+	@Test
+	public void testNonBlockingEventsOrderAndMetrics() throws Exception {
+		EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+		OrderListener listener = new OrderListener();
+		eventManager.addNonBlockingListener(listener, "seeEvent", CayenneEvent.class, subject);
+
+		for (int i = 0; i < 1000; i++) {
+			eventManager.postEvent(new CayenneEvent(this, Collections.singletonMap("i", i)), subject);
+		}
+
+		DefaultEventManager defaultEventManager = (DefaultEventManager) eventManager;
+		ParallelTestContainer helper = new ParallelTestContainer() {
+
+			@Override
+			protected void assertResult() throws Exception {
+				assertEquals(1000, listener.received);
+				assertEquals(0, defaultEventManager.getQueueDepth());
+			}
+		};
+		helper.runTest(5000);
+
+		assertFalse(listener.outOfOrder);
+		assertEquals(1000, defaultEventManager.getDispatchedEventCount());
+		assertTrue(defaultEventManager.getMaxDispatchLatency(TimeUnit.NANOSECONDS) > 0);
+
+		defaultEventManager.resetDispatchMetrics();
+		assertEquals(0, defaultEventManager.getDispatchedEventCount());
+	}
+
+	@Test
+	public void testNonBlockingEventsMetrics_NonBlockingPost() throws Exception {
+		EventSubject subject = EventSubject.getSubject(this.getClass(), "XXX");
+		OrderListener listener = new OrderListener();
+		eventManager.addNonBlockingListener(listener, "seeEvent", CayenneEvent.class, subject);
+
+		for (int i = 0; i < 100; i++) {
+			eventManager.postNonBlockingEvent(new CayenneEvent(this, Collections.singletonMap("i", i)), subject);
+		}
+
+		DefaultEventManager defaultEventManager = (DefaultEventManager) eventManager;
+		ParallelTestContainer helper = new ParallelTestContainer() {
+
+			@Override
+			protected void assertResult() throws Exception {
+				assertEquals(100, listener.received);
+				assertEquals(0, defaultEventManager.getQueueDepth());
+			}
+		};
+		helper.runTest(5000);
+
+		// each event is forwarded to the listener as a separate dispatch, but must be
+		// counted only once
+		assertEquals(100, defaultEventManager.getDispatchedEventCount());
+	}
+
 	// notification method
 	public void seeNotification(CayenneEvent event) {
 		numberOfReceivedEvents++;
@@ -371,4 +428,16 @@ public class DefaultEventManagerTest implements EventListener {
 		helper.runTest(5000);
 	}
 
+	public static class OrderListener {
+
+		volatile int received;
+		volatile boolean outOfOrder;
+
+		public void seeEvent(CayenneEvent event) {
+			if (!Integer.valueOf(received).equals(event.getInfo().get("i"))) {
+				outOfOrder = true;
+			}
+			received++;
+		}
+	}
 }
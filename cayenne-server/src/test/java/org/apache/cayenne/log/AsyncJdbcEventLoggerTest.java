@@ -0,0 +1,119 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.log;
+
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncJdbcEventLoggerTest {
+
+    private static AsyncJdbcEventLogger createLogger(JdbcEventLogger delegate, Map<String, String> properties) {
+        return new AsyncJdbcEventLogger(new DefaultRuntimeProperties(properties), delegate);
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals("SELECT t0.ID FROM T1 t0 WHERE t0.NAME = ? AND t0.AGE > ?",
+                AsyncJdbcEventLogger.fingerprint("SELECT t0.ID FROM T1 t0 WHERE t0.NAME = 'it''s' AND t0.AGE > 25"));
+
+        assertEquals("SELECT t0.ID FROM T1 t0 WHERE t0.ID IN (?, ...)",
+                AsyncJdbcEventLogger.fingerprint("SELECT t0.ID FROM T1 t0\n  WHERE t0.ID IN (?, ?,?)"));
+    }
+
+    @Test
+    public void testLogQuery() {
+
+        JdbcEventLogger delegate = mock(JdbcEventLogger.class);
+        when(delegate.isLoggable()).thenReturn(true);
+        AsyncJdbcEventLogger logger = createLogger(delegate, Collections.emptyMap());
+
+        ParameterBinding binding = new ParameterBinding();
+        binding.include(1, "a", null);
+
+        logger.logBeginTransaction("tx");
+        logger.logQuery("SELECT * FROM T1 WHERE NAME = ?", new ParameterBinding[]{binding});
+
+        // callers reuse bindings, so changes must not affect the logged values
+        binding.setValue("b");
+
+        logger.logSelectCount(5, 10, "SELECT * FROM T1 WHERE NAME = ?");
+        logger.logCommitTransaction("tx");
+        logger.shutdown();
+
+        ArgumentCaptor<ParameterBinding[]> bindings = ArgumentCaptor.forClass(ParameterBinding[].class);
+
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).logBeginTransaction("tx");
+        inOrder.verify(delegate).logQuery(eq("SELECT * FROM T1 WHERE NAME = ?"), bindings.capture());
+        inOrder.verify(delegate).logSelectCount(5, 10, "SELECT * FROM T1 WHERE NAME = ?");
+        inOrder.verify(delegate).logCommitTransaction("tx");
+
+        assertEquals(1, bindings.getValue().length);
+        assertEquals("a", bindings.getValue()[0].getValue());
+        assertEquals(1, bindings.getValue()[0].getStatementPosition());
+
+        String summary = logger.getStatementSummary();
+        assertTrue(summary, summary.contains("executed: 1, total: 10 ms., max: 10 ms., rows: 5 - SELECT * FROM T1 WHERE NAME = ?"));
+    }
+
+    @Test
+    public void testSampling() {
+
+        JdbcEventLogger delegate = mock(JdbcEventLogger.class);
+        when(delegate.isLoggable()).thenReturn(true);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.JDBC_EVENT_LOGGER_SAMPLING_RATE_PROPERTY, "0");
+        AsyncJdbcEventLogger logger = createLogger(delegate, properties);
+
+        for (int i = 0; i < 3; i++) {
+            logger.logQuery("UPDATE T1 SET NAME = 'x' WHERE ID = " + i, new ParameterBinding[0]);
+            logger.logUpdateCount(1);
+        }
+        logger.shutdown();
+
+        verify(delegate, never()).logQuery(any(), any());
+        verify(delegate, never()).logUpdateCount(anyInt());
+        verify(delegate, never()).logSelectCount(anyInt(), anyLong(), any());
+
+        // statistics are collected for all statements
+        String summary = logger.getStatementSummary();
+        assertTrue(summary, summary.contains("executed: 3, total: 0 ms., max: 0 ms., rows: 3 - UPDATE T1 SET NAME = ? WHERE ID = ?"));
+    }
+}
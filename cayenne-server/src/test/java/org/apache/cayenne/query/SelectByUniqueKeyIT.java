@@ -0,0 +1,135 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.query;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.DataChannelInterceptor;
+import org.apache.cayenne.unit.di.server.CayenneProjects;
+import org.apache.cayenne.unit.di.server.ServerCase;
+import org.apache.cayenne.unit.di.server.UseServerRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@UseServerRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class SelectByUniqueKeyIT extends ServerCase {
+
+	@Inject
+	private ServerRuntime runtime;
+
+	@Inject
+	private ObjectContext context;
+
+	@Inject
+	private DataChannelInterceptor queryInterceptor;
+
+	@Inject
+	private DBHelper dbHelper;
+
+	private DbAttribute artistName;
+
+	@Before
+	public void before() throws Exception {
+		TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+		tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+		tArtist.insert(1, "a1");
+		tArtist.insert(2, "a2");
+
+		artistName = runtime.getDataDomain().getEntityResolver().getDbEntity("ARTIST").getAttribute("ARTIST_NAME");
+		artistName.setUnique(true);
+	}
+
+	@After
+	public void after() {
+		artistName.setUnique(false);
+		runtime.getDataDomain().getSharedSnapshotCache().clear();
+	}
+
+	@Test
+	public void testSelectOne_FromCache() {
+
+		Artist a1 = SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context);
+		assertNotNull(a1);
+		assertEquals("a1", a1.getArtistName());
+
+		queryInterceptor.runWithQueriesBlocked(() -> {
+			Artist cached = SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context);
+			assertSame(a1, cached);
+		});
+	}
+
+	@Test
+	public void testSelectOne_NoMatch() {
+		assertNull(SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a3").selectOne(context));
+	}
+
+	@Test
+	public void testSelectOne_AfterUpdate() {
+
+		Artist a1 = SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context);
+		a1.setArtistName("a3");
+		context.commitChanges();
+
+		queryInterceptor.runWithQueriesBlocked(() -> {
+			Artist cached = SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a3").selectOne(context);
+			assertSame(a1, cached);
+		});
+
+		int queries = queryInterceptor.runWithQueryCounter(() ->
+				assertNull(SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context)));
+		assertEquals(1, queries);
+	}
+
+	@Test
+	public void testSelectOne_AfterDelete() {
+
+		Artist a1 = SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context);
+		context.deleteObject(a1);
+		context.commitChanges();
+
+		int queries = queryInterceptor.runWithQueryCounter(() ->
+				assertNull(SelectByUniqueKey.query(Artist.class, Artist.ARTIST_NAME, "a1").selectOne(context)));
+		assertEquals(1, queries);
+	}
+
+	@Test
+	public void testDataRowQuery() {
+		DataRow row = SelectByUniqueKey.dataRowQuery(Artist.class, Artist.ARTIST_NAME, "a2").selectOne(context);
+		assertNotNull(row);
+		assertEquals(2L, ((Number) row.get("ARTIST_ID")).longValue());
+	}
+
+	@Test(expected = CayenneRuntimeException.class)
+	public void testNotUnique() {
+		SelectByUniqueKey.query(Artist.class, Artist.DATE_OF_BIRTH, null).select(context);
+	}
+}
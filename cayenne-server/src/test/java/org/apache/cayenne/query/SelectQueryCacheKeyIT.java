@@ -28,6 +28,10 @@ import org.apache.cayenne.unit.di.server.ServerCase;
 import org.apache.cayenne.unit.di.server.UseServerRuntime;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -219,4 +223,27 @@ public class SelectQueryCacheKeyIT extends ServerCase {
         assertNotEquals(q1.getMetaData(resolver).getCacheKey(), q3.getMetaData(resolver).getCacheKey());
         assertNotEquals(q1.getMetaData(resolver).getCacheKey(), q4.getMetaData(resolver).getCacheKey());
     }
+
+    @Test
+    public void testDependentEntityNames() {
+
+        ObjectSelect<Artist> q1 = ObjectSelect.query(Artist.class).localCache();
+        assertEquals(Collections.singleton("Artist"), new HashSet<>(q1.getMetaData(resolver).getDependentEntityNames()));
+
+        ObjectSelect<Artist> q2 = ObjectSelect.query(Artist.class)
+                .where(Artist.PAINTING_ARRAY.dot(Painting.PAINTING_TITLE).eq("X"))
+                .localCache();
+        assertEquals(new HashSet<>(Arrays.asList("Artist", "Painting")),
+                new HashSet<>(q2.getMetaData(resolver).getDependentEntityNames()));
+
+        ObjectSelect<Painting> q3 = ObjectSelect.query(Painting.class)
+                .prefetch(Painting.TO_GALLERY.disjoint())
+                .orderBy(Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).asc())
+                .localCache();
+        assertEquals(new HashSet<>(Arrays.asList("Painting", "Gallery", "Artist")),
+                new HashSet<>(q3.getMetaData(resolver).getDependentEntityNames()));
+
+        // not cached, so no need to calculate
+        assertNull(ObjectSelect.query(Artist.class).getMetaData(resolver).getDependentEntityNames());
+    }
 }
@@ -0,0 +1,76 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import org.apache.cayenne.map.EntityResolver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ClassDescriptorMapTest {
+
+    @Test
+    public void testGetDescriptor_Concurrent() throws Exception {
+
+        AtomicInteger created = new AtomicInteger();
+        ClassDescriptorMap map = new ClassDescriptorMap(mock(EntityResolver.class));
+        map.addFactory(entityName -> {
+            created.incrementAndGet();
+            return mock(ClassDescriptor.class);
+        });
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ClassDescriptor>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<ClassDescriptor>) () -> {
+                    start.await();
+                    LazyClassDescriptorDecorator descriptor = (LazyClassDescriptorDecorator) map.getDescriptor("E1");
+                    return descriptor.getDescriptor();
+                }));
+            }
+
+            start.countDown();
+
+            ClassDescriptor first = futures.get(0).get();
+            for (Future<ClassDescriptor> f : futures) {
+                assertSame(first, f.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // racing threads may create extra descriptors, but only one is ever published
+        assertSame(map.getDescriptor("E1"), map.getDescriptor("E1"));
+        assertTrue(created.get() >= 1);
+    }
+}
@@ -89,4 +89,14 @@ public class FieldAccessorTest {
 
         assertEquals(0, object.intField);
     }
+
+    @Test(expected = PropertyException.class)
+    public void testSetValue_WrongType() {
+        new FieldAccessor(TstFields.class, "intField", Integer.TYPE).setValue(new TstFields(), "abc");
+    }
+
+    @Test(expected = PropertyException.class)
+    public void testGetValue_WrongObject() {
+        new FieldAccessor(TstFields.class, "stringField", String.class).getValue(new TstBean());
+    }
 }
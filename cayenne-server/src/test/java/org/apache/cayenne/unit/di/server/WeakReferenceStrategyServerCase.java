@@ -113,6 +113,8 @@ import org.apache.cayenne.di.spi.DefaultScope;
 import org.apache.cayenne.log.JdbcEventLogger;
 import org.apache.cayenne.log.Slf4jJdbcEventLogger;
 import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.metrics.MetricsCollector;
+import org.apache.cayenne.metrics.NoopMetricsCollector;
 import org.apache.cayenne.resource.ClassLoaderResourceLocator;
 import org.apache.cayenne.resource.ResourceLocator;
 import org.apache.cayenne.test.jdbc.DBHelper;
@@ -202,6 +204,7 @@ public class WeakReferenceStrategyServerCase extends ServerCase {
 
 			binder.bind(SchemaBuilder.class).to(SchemaBuilder.class);
 			binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
+			binder.bind(MetricsCollector.class).toInstance(NoopMetricsCollector.getInstance());
 			binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
 			binder.bind(ObjectMapRetainStrategy.class).to(DefaultObjectMapRetainStrategy.class);
 
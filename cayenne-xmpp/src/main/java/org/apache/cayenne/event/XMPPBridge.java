@@ -123,6 +123,8 @@ public class XMPPBridge extends EventBridge {
                 throw new CayenneRuntimeException("Invalid port: %s", portString);
             }
         }
+
+        initEventCodec(properties);
     }
 
     public String getXmppHost() {
@@ -247,7 +249,9 @@ public class XMPPBridge extends EventBridge {
     protected void sendExternalEvent(CayenneEvent localEvent) throws Exception {
 
         Message message = groupChat.createMessage();
-        message.setBody(serializeToString(localEvent));
+        message.setBody(eventCodec != null
+                ? new String(Base64Codec.encodeBase64(eventCodec.encode(localEvent)))
+                : serializeToString(localEvent));
 
         // set thread to our session handle to be able to discard messages from self
         message.setThread(sessionHandle);
@@ -266,7 +270,9 @@ public class XMPPBridge extends EventBridge {
                 if (sessionHandle.equals(message.getThread())) {
                     String payload = message.getBody();
                     try {
-                        Object event = deserializeFromString(payload);
+                        Object event = eventCodec != null
+                                ? decodeFromString(payload)
+                                : deserializeFromString(payload);
                         if (event instanceof CayenneEvent) {
                             onExternalEvent((CayenneEvent) event);
                         }
@@ -278,6 +284,18 @@ public class XMPPBridge extends EventBridge {
         }
     }
 
+    /**
+     * Decodes the String (assuming it is using Base64 encoding), and then decodes an
+     * event from the byte array using the bridge event codec.
+     */
+    CayenneEvent decodeFromString(String string) throws Exception {
+        if (Util.isEmptyString(string)) {
+            return null;
+        }
+
+        return eventCodec.decode(Base64Codec.decodeBase64(string.getBytes()));
+    }
+
     /**
      * Decodes the String (assuming it is using Base64 encoding), and then deserializes
      * object from the byte array.
@@ -0,0 +1,98 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import org.apache.cayenne.configuration.ConfigurationNameMapper;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.DefaultConfigurationNameMapper;
+import org.apache.cayenne.configuration.binary.BinaryDataChannelDescriptorWriter;
+import org.apache.cayenne.dbsync.DbSyncModule;
+import org.apache.cayenne.dbsync.reverse.configuration.ToolsModule;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.resource.URLResource;
+import org.apache.cayenne.util.Util;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.slf4j.Logger;
+
+import java.io.File;
+
+/**
+ * Maven mojo that precompiles Cayenne project XML and its DataMaps into a binary file, that is loaded by
+ * ServerRuntime at startup instead of parsing XML. The runtime ignores the binary file if XML files were
+ * changed after it was created.
+ *
+ * @since 4.1
+ */
+@Mojo(name = "cmodel", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE)
+public class BinaryModelMojo extends AbstractMojo {
+
+    /**
+     * Project XML file to precompile.
+     */
+    @Parameter(required = true)
+    private File cayenneProject;
+
+    /**
+     * Directory to place the binary file into. Must be the directory where the project XML is located on the runtime
+     * classpath. Default is "${project.build.outputDirectory}".
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}")
+    private File destDir;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Logger logger = new MavenLogger(this);
+
+        Injector injector = DIBootstrap.createInjector(new DbSyncModule(), new ToolsModule(logger),
+                binder -> binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class));
+
+        try {
+            DataChannelDescriptor descriptor = injector.getInstance(DataChannelDescriptorLoader.class)
+                    .load(new URLResource(cayenneProject.toURI().toURL()))
+                    .getRootNode();
+
+            if (!destDir.isDirectory() && !destDir.mkdirs()) {
+                throw new MojoExecutionException("Can't create directory " + destDir);
+            }
+
+            File file = new BinaryDataChannelDescriptorWriter().write(descriptor, destDir);
+            logger.info("Precompiled project " + cayenneProject.getName() + " to " + file);
+        } catch (MojoExecutionException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            Throwable th = Util.unwindException(ex);
+            String message = "Error precompiling project";
+            if (th.getLocalizedMessage() != null) {
+                message += ": " + th.getLocalizedMessage();
+            }
+            logger.error(message);
+            throw new MojoExecutionException(message, th);
+        } finally {
+            injector.shutdown();
+        }
+    }
+}
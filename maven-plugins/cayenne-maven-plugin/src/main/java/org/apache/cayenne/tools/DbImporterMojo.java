@@ -92,6 +92,21 @@ public class DbImporterMojo extends AbstractMojo {
     @Parameter(name = "dbimport", property = "dbimport", alias = "dbImport")
     private ReverseEngineering dbImportConfig = new ReverseEngineering();
 
+    /**
+     * A number of threads (and DB connections) used to load table metadata in parallel. Default is 1.
+     * @since 4.1
+     */
+    @Parameter(defaultValue = "1")
+    private int threadCount = 1;
+
+    /**
+     * Whether primary and foreign keys should be loaded with a single metadata call per schema, instead of a call
+     * per table. Not all JDBC drivers support this, in which case the keys are loaded per table.
+     * @since 4.1
+     */
+    @Parameter
+    private boolean bulkMetadataLoading;
+
     @Parameter(defaultValue = "${project}" )
     private MavenProject project;
 
@@ -172,6 +187,8 @@ public class DbImporterMojo extends AbstractMojo {
         config.setSkipPrimaryKeyLoading(dbImportConfig.getSkipPrimaryKeyLoading());
         config.setStripFromTableNames(dbImportConfig.getStripFromTableNames());
         config.setTableTypes(dbImportConfig.getTableTypes());
+        config.setThreadCount(threadCount);
+        config.setBulkMetadataLoading(bulkMetadataLoading);
         config.setTargetDataMap(map);
         config.setCayenneProject(cayenneProject);
         config.setUrl(dataSource.getUrl());
@@ -0,0 +1,39 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+
+import java.io.File;
+
+public class BinaryModelMojoTest extends AbstractMojoTestCase {
+
+    public void testExecute() throws Exception {
+        File pom = getTestFile("src/test/resources/cmodel/pom.xml");
+        assertTrue(pom.exists());
+
+        BinaryModelMojo mojo = (BinaryModelMojo) lookupMojo("cmodel", pom);
+        assertNotNull(mojo);
+        mojo.execute();
+
+        File binary = new File("target/cmodel/cayenne-testDomain.bin");
+        assertTrue(binary.isFile());
+        assertTrue(binary.length() > 0);
+    }
+}